@@ -0,0 +1,90 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package examples.benchmarks;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.TopologySerializer;
+import io.jbotsim.io.format.binary.BinaryTopologySerializer;
+import io.jbotsim.io.format.plain.PlainTopologySerializer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the time needed to import files of increasing sizes with the {@link BinaryTopologySerializer} and with the
+ * {@link PlainTopologySerializer}. The wireless links are disabled, so that only the loading itself is measured.
+ *
+ * <p>Usage: {@code BinaryImportBenchmark [max-nb-nodes]}</p>
+ */
+public class BinaryImportBenchmark {
+    public static void main(String[] args) throws IOException {
+        int maxNbNodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("nodes\tlinks\tbinary size\tbinary import(ms)\tplain size\tplain import(ms)");
+        for (int nbNodes = 1_000; nbNodes <= maxNbNodes; nbNodes *= 10) {
+            Topology tp = createTopology(nbNodes);
+            File binary = File.createTempFile("topology", ".jbin");
+            File plain = File.createTempFile("topology", ".plain");
+            try {
+                long binaryTime = exportThenImport(tp, binary, new BinaryTopologySerializer());
+                long plainTime = exportThenImport(tp, plain, new PlainTopologySerializer());
+                System.out.println(nbNodes + "\t" + tp.getLinks().size() + "\t" + binary.length() + "\t" +
+                        binaryTime / 1_000_000 + "\t" + plain.length() + "\t" + plainTime / 1_000_000);
+            } finally {
+                binary.delete();
+                plain.delete();
+            }
+        }
+    }
+
+    private static long exportThenImport(Topology tp, File file, TopologySerializer serializer) throws IOException {
+        tp.getFileManager().exportTopology(file.getPath(), tp, serializer);
+        Topology imported = new Topology();
+        imported.disableWireless();
+        long start = System.nanoTime();
+        imported.getFileManager().importTopology(file.getPath(), imported, serializer);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Creates a topology of randomly located nodes linked by a wired ring.
+     */
+    private static Topology createTopology(int nbNodes) {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        SplittableRandom random = new SplittableRandom(0);
+        List<Node> nodes = new ArrayList<>(nbNodes);
+        for (int i = 0; i < nbNodes; i++) {
+            Node node = new Node();
+            node.setLocation(1 + random.nextDouble() * 10_000, 1 + random.nextDouble() * 10_000);
+            nodes.add(node);
+        }
+        tp.addNodes(nodes);
+        for (int i = 0; i < nbNodes; i++)
+            tp.addLink(new Link(nodes.get(i), nodes.get((i + 1) % nbNodes), Link.Mode.WIRED));
+        return tp;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package examples.benchmarks;
+
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.format.dot.DotTopologySerializer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the time needed to import DOT files of increasing sizes with the {@link DotTopologySerializer}. Each graph
+ * has ten times fewer nodes than edges, the edges being drawn at random, so that the largest one has 100,000 nodes.
+ *
+ * <p>Usage: {@code DotImportBenchmark [max-nb-edges]}</p>
+ */
+public class DotImportBenchmark {
+    private static final int EDGES_PER_NODE = 10;
+
+    public static void main(String[] args) throws IOException {
+        int maxNbEdges = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("nodes\tedges\tlinks\tsize\timport(ms)");
+        for (int nbEdges = 10_000; nbEdges <= maxNbEdges; nbEdges *= 10) {
+            int nbNodes = nbEdges / EDGES_PER_NODE;
+            File file = File.createTempFile("topology", ".dot");
+            try {
+                writeRandomGraph(file, nbNodes, nbEdges);
+                Topology imported = new Topology();
+                long start = System.nanoTime();
+                imported.getFileManager().importTopology(file.getPath(), imported, new DotTopologySerializer());
+                long importTime = System.nanoTime() - start;
+                System.out.println(nbNodes + "\t" + nbEdges + "\t" + imported.getLinks().size() + "\t" +
+                        file.length() + "\t" + importTime / 1_000_000);
+            } finally {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Writes a graph with located nodes and random edges, two per statement so that they share its attributes.
+     */
+    private static void writeRandomGraph(File file, int nbNodes, int nbEdges) throws IOException {
+        SplittableRandom random = new SplittableRandom(0);
+        double side = Math.sqrt(nbNodes) * 50;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            writer.write("graph G {\n");
+            writer.write("  node [color = \"blue\"];\n");
+            for (int i = 0; i < nbNodes; i++)
+                writer.write("  " + i + " [pos = \"" + random.nextDouble() * side + "," +
+                        random.nextDouble() * side + "!\"];\n");
+            for (int i = 0; i < nbEdges; i += 2) {
+                int a = random.nextInt(nbNodes);
+                // no self-loops
+                int b = (a + 1 + random.nextInt(nbNodes - 1)) % nbNodes;
+                int c = (b + 1 + random.nextInt(nbNodes - 1)) % nbNodes;
+                writer.write("  " + a + " -- " + b + " -- " + c + " [color = \"red\", width = \"2\"];\n");
+            }
+            writer.write("}\n");
+        }
+    }
+}
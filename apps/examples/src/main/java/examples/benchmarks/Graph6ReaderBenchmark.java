@@ -0,0 +1,92 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package examples.benchmarks;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.format.graph6.Graph6Reader;
+import io.jbotsim.io.format.graph6.Graph6TopologySerializer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the number of small graphs per second decoded by a {@link Graph6Reader}, sequentially and with several
+ * workers.
+ *
+ * <p>Usage: {@code Graph6ReaderBenchmark [nb-graphs [nb-nodes [nb-workers]]]}</p>
+ */
+public class Graph6ReaderBenchmark {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int nbGraphs = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int nbNodes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int nbWorkers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String input = createInput(nbGraphs, nbNodes);
+
+        long start = System.nanoTime();
+        long nbLinks = 0;
+        for (Topology tp : new Graph6Reader(new StringReader(input)))
+            nbLinks += tp.getLinks().size();
+        report("sequential", nbGraphs, nbLinks, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        LongAdder nbLinksAdder = new LongAdder();
+        new Graph6Reader(new StringReader(input)).dispatch(nbWorkers,
+                (tp, index) -> nbLinksAdder.add(tp.getLinks().size()));
+        report(nbWorkers + " workers", nbGraphs, nbLinksAdder.sum(), System.nanoTime() - start);
+    }
+
+    private static void report(String mode, int nbGraphs, long nbLinks, long time) {
+        System.out.println(mode + ": " + (long) (nbGraphs * 1e9 / time) + " graphs/s (" + nbLinks + " links)");
+    }
+
+    /**
+     * Encodes {@code nbGraphs} random graphs in which each pair of nodes is linked with probability 1/4.
+     */
+    private static String createInput(int nbGraphs, int nbNodes) {
+        Graph6TopologySerializer serializer = new Graph6TopologySerializer();
+        serializer.setGenerateHeaders(false);
+        SplittableRandom random = new SplittableRandom(0);
+        StringBuilder sb = new StringBuilder();
+        for (int g = 0; g < nbGraphs; g++) {
+            Topology tp = new Topology();
+            tp.disableWireless();
+            List<Node> nodes = new ArrayList<>(nbNodes);
+            for (int i = 0; i < nbNodes; i++) {
+                Node node = new Node();
+                node.setID(i);
+                nodes.add(node);
+            }
+            tp.addNodes(nodes);
+            for (int i = 0; i < nbNodes; i++)
+                for (int j = i + 1; j < nbNodes; j++)
+                    if (random.nextInt(4) == 0)
+                        tp.addLink(new Link(nodes.get(i), nodes.get(j)), true);
+            sb.append(serializer.exportToString(tp)).append('\n');
+        }
+        return sb.toString();
+    }
+}
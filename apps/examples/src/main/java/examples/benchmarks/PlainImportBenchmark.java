@@ -0,0 +1,130 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package examples.benchmarks;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.format.plain.PlainTopologySerializer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the time needed to import {@code .plain} topologies of increasing sizes with the
+ * {@link PlainTopologySerializer} and with its former substring-based parser.
+ *
+ * <p>Usage: {@code PlainImportBenchmark [max-nb-nodes [max-nb-nodes-for-former-parser]]}</p>
+ */
+public class PlainImportBenchmark {
+    private static final double DENSITY = 5; // average number of nodes within communication range
+
+    public static void main(String[] args) throws IOException {
+        int maxNbNodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxNbNodesFormer = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        System.out.println("nodes\tlinks\tchars\texport(ms)\timport(ms)\tformer import(ms)");
+        for (int nbNodes = 1_000; nbNodes <= maxNbNodes; nbNodes *= 10) {
+            Topology tp = createTopology(nbNodes);
+            PlainTopologySerializer serializer = new PlainTopologySerializer();
+
+            long start = System.nanoTime();
+            String data = serializer.exportToString(tp);
+            long exportTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Topology imported = new Topology();
+            serializer.importFrom(imported, new StringReader(data));
+            long importTime = System.nanoTime() - start;
+
+            String formerTime = "-";
+            if (nbNodes <= maxNbNodesFormer) {
+                start = System.nanoTime();
+                formerImportFromString(new Topology(), data);
+                formerTime = Long.toString((System.nanoTime() - start) / 1_000_000);
+            }
+
+            System.out.println(nbNodes + "\t" + imported.getLinks().size() + "\t" + data.length() + "\t" +
+                    exportTime / 1_000_000 + "\t" + importTime / 1_000_000 + "\t" + formerTime);
+        }
+    }
+
+    /**
+     * Creates a topology in which nodes are spread uniformly with a constant density, plus a wired ring.
+     */
+    private static Topology createTopology(int nbNodes) {
+        Topology tp = new Topology();
+        double range = tp.getCommunicationRange();
+        double side = Math.sqrt(nbNodes * Math.PI * range * range / DENSITY);
+        SplittableRandom random = new SplittableRandom(0);
+        List<Node> nodes = new ArrayList<>(nbNodes);
+        for (int i = 0; i < nbNodes; i++) {
+            Node node = new Node();
+            node.setLocation(1 + random.nextDouble() * side, 1 + random.nextDouble() * side);
+            nodes.add(node);
+        }
+        tp.addNodes(nodes);
+        for (int i = 0; i < nbNodes; i += 2)
+            tp.addLink(new Link(nodes.get(i), nodes.get((i + 1) % nbNodes), Link.Mode.WIRED));
+        return tp;
+    }
+
+    /**
+     * The former {@link PlainTopologySerializer#importFromString(Topology, String)}, kept for comparison: each line
+     * copies the rest of the input, and each node triggers a computation of the links with all the other nodes.
+     */
+    private static void formerImportFromString(Topology topology, String data) {
+        topology.setCommunicationRange(Double.parseDouble(data.substring(data.indexOf(" ") + 1, data.indexOf("\n"))));
+        data = data.substring(data.indexOf("\n") + 1);
+        topology.setSensingRange(Double.parseDouble(data.substring(data.indexOf(" ") + 1, data.indexOf("\n"))));
+        data = data.substring(data.indexOf("\n") + 1);
+        HashMap<String, Node> nodeTable = new HashMap<>();
+        while (data.indexOf("[") > 0) {
+            double x = new Double(data.substring(data.indexOf("x") + 3, data.indexOf(", y")));
+            double y = 0;
+            double z = 0;
+            if (data.contains("z")) {
+                y = new Double(data.substring(data.indexOf("y") + 3, data.indexOf(", z")));
+                z = new Double(data.substring(data.indexOf("z") + 3, data.indexOf("]")));
+            }else{
+                y = new Double(data.substring(data.indexOf("y") + 3, data.indexOf("]")));
+            }
+            Node node = topology.newInstanceOfModel("default");
+            node.setLocation(x, y, z);
+            topology.addNode(node);
+            String id = data.substring(0, data.indexOf(" "));
+            node.setProperty("id", id);
+            nodeTable.put(id, node);
+            data = data.substring(data.indexOf("\n") + 1);
+        }
+        while (data.indexOf("--") > 0) {
+            Node n1 = nodeTable.get(data.substring(0, data.indexOf(" ")));
+            Node n2 = nodeTable.get(data.substring(data.indexOf(">") + 2, data.indexOf("\n")));
+            Link.Orientation orientation = (data.indexOf("<") > 0 && data.indexOf("<") < data.indexOf("\n")) ? Link.Orientation.UNDIRECTED : Link.Orientation.DIRECTED;
+            topology.addLink(new Link(n1, n2, orientation, Link.Mode.WIRED));
+            data = data.substring(data.indexOf("\n") + 1);
+        }
+    }
+}
@@ -23,6 +23,9 @@ package examples.tools;
 
 import io.jbotsim.core.Topology;
 import io.jbotsim.io.format.TopologySerializerFilenameMatcher;
+import io.jbotsim.io.format.binary.BinaryTopologySerializer;
+import io.jbotsim.io.format.dataset.EdgeListTopologySerializer;
+import io.jbotsim.io.format.dataset.MetisTopologySerializer;
 import io.jbotsim.io.format.graph6.Graph6TopologySerializer;
 import io.jbotsim.io.format.tikz.TikzTopologySerializer;
 import io.jbotsim.io.TopologySerializer;
@@ -30,6 +33,8 @@ import io.jbotsim.io.format.dot.DotTopologySerializer;
 import io.jbotsim.io.format.plain.PlainTopologySerializer;
 import io.jbotsim.io.format.xml.XMLTopologySerializer;
 
+import java.io.IOException;
+
 public class JBotSimConvert {
     public static void main(String[] args) {
         if (args.length != 2) {
@@ -41,26 +46,26 @@ public class JBotSimConvert {
 
         Topology tp = new Topology();
 
-        importTopology(inputFileName, tp);
+        try {
+            importTopology(inputFileName, tp);
 
-        exportTopology(outputFileName, tp);
+            exportTopology(outputFileName, tp);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
 
         System.exit(0);
     }
 
-    private static void exportTopology(String filename, Topology tp) {
+    private static void exportTopology(String filename, Topology tp) throws IOException {
         TopologySerializer serializer = getProperSerializer(filename);
-        String exportedTopology = serializer.exportToString(tp);
-
-        if(exportedTopology != null)
-            tp.getFileManager().write(filename, exportedTopology);
+        tp.getFileManager().exportTopology(filename, tp, serializer);
     }
 
-    private static void importTopology(String filename, Topology tp) {
-        String fileContent = tp.getFileManager().read(filename);
-
+    private static void importTopology(String filename, Topology tp) throws IOException {
         TopologySerializer serializer = getProperSerializer(filename);
-        serializer.importFromString(tp, fileContent);
+        tp.getFileManager().importTopology(filename, tp, serializer);
     }
 
     private static TopologySerializer getProperSerializer(String filename) {
@@ -78,6 +83,14 @@ public class JBotSimConvert {
         filenameMatcher.addTopologySerializer(".*\\.plain$",new PlainTopologySerializer());
         filenameMatcher.addTopologySerializer(Graph6TopologySerializer.GRAPH6_FILENAME_EXTENSIONS,
                                               new Graph6TopologySerializer());
+        filenameMatcher.addTopologySerializer(Graph6TopologySerializer.SPARSE6_FILENAME_EXTENSIONS,
+                                              new Graph6TopologySerializer(true));
+        filenameMatcher.addTopologySerializer(BinaryTopologySerializer.BINARY_FILENAME_EXTENSIONS,
+                                              new BinaryTopologySerializer());
+        filenameMatcher.addTopologySerializer(EdgeListTopologySerializer.EDGELIST_FILENAME_EXTENSIONS,
+                                              new EdgeListTopologySerializer());
+        filenameMatcher.addTopologySerializer(MetisTopologySerializer.METIS_FILENAME_EXTENSIONS,
+                                              new MetisTopologySerializer());
         return filenameMatcher;
     }
 
@@ -22,11 +22,19 @@
 package examples.tools;
 
 import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.TraceFileReader;
 import io.jbotsim.gen.dynamic.trace.TracePlayer;
+import io.jbotsim.io.GzipFileAsStream;
+import io.jbotsim.io.format.binary.BinaryTraceReader;
+import io.jbotsim.io.format.binary.ColumnarTraceReader;
 import io.jbotsim.io.format.xml.XMLTraceParser;
 import io.jbotsim.ui.JViewer;
 
+import javax.swing.JOptionPane;
+
 public class JBotSimPlayer {
+    private static final String SEEK_COMMAND = "Go to time...";
+
     public static void main(String[] args) {
         if (args.length < 2) {
             System.err.println("usage: " + JBotSimPlayer.class.getName() + " input-file");
@@ -37,8 +45,28 @@ public class JBotSimPlayer {
         try {
             Topology topology = new Topology();
             new JViewer(topology);
-            TracePlayer tracePlayer = new TracePlayer(topology, new XMLTraceParser(topology.getFileManager(), true));
+            TraceFileReader reader;
+            String name = GzipFileAsStream.getUncompressedName(filename);
+            if (name.endsWith(".jbtr"))
+                reader = new BinaryTraceReader(topology.getFileManager());
+            else if (name.endsWith(".jbtc"))
+                reader = new ColumnarTraceReader(topology.getFileManager());
+            else
+                reader = new XMLTraceParser(topology.getFileManager(), true);
+            TracePlayer tracePlayer = new TracePlayer(topology, reader);
             tracePlayer.loadAndStart(filename);
+            topology.addCommand(SEEK_COMMAND);
+            topology.addCommandListener(command -> {
+                if (!SEEK_COMMAND.equals(command))
+                    return;
+                String time = JOptionPane.showInputDialog("Time", topology.getTime());
+                try {
+                    if (time != null)
+                        tracePlayer.seek(Integer.parseInt(time.trim()));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
         } catch (Exception e) {
             e.printStackTrace();
             System.exit(1);
@@ -23,7 +23,10 @@ package examples.tools;
 
 import io.jbotsim.core.Topology;
 import io.jbotsim.gen.dynamic.trace.TraceRecorder;
-import io.jbotsim.io.format.xml.XMLTraceBuilder;
+import io.jbotsim.io.GzipFileAsStream;
+import io.jbotsim.io.format.binary.BinaryTraceWriter;
+import io.jbotsim.io.format.binary.ColumnarTraceWriter;
+import io.jbotsim.io.format.xml.XMLTraceStreamBuilder;
 import io.jbotsim.ui.JViewer;
 
 public class JBotSimRecorder {
@@ -35,7 +38,15 @@ public class JBotSimRecorder {
         String traceFileName = args[0];
         try {
             Topology tp = new Topology();
-            TraceRecorder tr = new TraceRecorder(tp, new XMLTraceBuilder(tp));
+            // binary and columnar traces are written while they are recorded
+            String name = GzipFileAsStream.getUncompressedName(traceFileName);
+            boolean columnar = name.endsWith(".jbtc");
+            boolean binary = columnar || name.endsWith(".jbtr");
+            TraceRecorder tr = new TraceRecorder(tp, columnar ? new ColumnarTraceWriter(tp)
+                    : binary ? new BinaryTraceWriter(tp) : new XMLTraceStreamBuilder(tp));
+            // columnar traces are meant for analysis: they also hold the messages and links
+            tr.setMessagesRecorded(columnar);
+            tr.setLinksRecorded(columnar);
 
             Runtime.getRuntime().addShutdownHook(new Thread() {
                 @Override
@@ -47,7 +58,10 @@ public class JBotSimRecorder {
                     }
                 }
             });
-            tr.start();
+            if (binary)
+                tr.start(traceFileName);
+            else
+                tr.start();
             new JViewer(tp);
         } catch(Exception e) {
             e.printStackTrace();
@@ -23,6 +23,9 @@ package examples.tools;
 
 import io.jbotsim.core.Topology;
 import io.jbotsim.io.format.TopologySerializerFilenameMatcher;
+import io.jbotsim.io.format.binary.BinaryTopologySerializer;
+import io.jbotsim.io.format.dataset.EdgeListTopologySerializer;
+import io.jbotsim.io.format.dataset.MetisTopologySerializer;
 import io.jbotsim.io.format.graph6.Graph6TopologySerializer;
 import io.jbotsim.io.format.tikz.TikzTopologySerializer;
 import io.jbotsim.io.TopologySerializer;
@@ -65,6 +68,14 @@ public class JBotSimViewer {
         filenameMatcher.addTopologySerializer(".*\\.g6$",new Graph6TopologySerializer());
         filenameMatcher.addTopologySerializer(Graph6TopologySerializer.GRAPH6_FILENAME_EXTENSIONS,
                                               new Graph6TopologySerializer());
+        filenameMatcher.addTopologySerializer(Graph6TopologySerializer.SPARSE6_FILENAME_EXTENSIONS,
+                                              new Graph6TopologySerializer(true));
+        filenameMatcher.addTopologySerializer(BinaryTopologySerializer.BINARY_FILENAME_EXTENSIONS,
+                                              new BinaryTopologySerializer());
+        filenameMatcher.addTopologySerializer(EdgeListTopologySerializer.EDGELIST_FILENAME_EXTENSIONS,
+                                              new EdgeListTopologySerializer());
+        filenameMatcher.addTopologySerializer(MetisTopologySerializer.METIS_FILENAME_EXTENSIONS,
+                                              new MetisTopologySerializer());
 
         return filenameMatcher;
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.core;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * <p>The {@link CheckpointCodec} is used by the {@link TopologyCheckpoint} to encode and decode what it cannot handle
+ * by itself: the instantiation of {@link Node} subclasses, their internal state, and the values of the properties and
+ * message contents.</p>
+ *
+ * <p>The {@link DefaultCheckpointCodec} should be extended rather than implementing this interface from scratch.</p>
+ */
+public interface CheckpointCodec {
+    /**
+     * Creates a new {@link Node} of the specified class.
+     *
+     * @param className the fully qualified name of the {@link Node}'s class, as saved in the checkpoint.
+     * @return a new {@link Node} instance.
+     * @throws IOException if the class cannot be instantiated.
+     */
+    Node createNode(String className) throws IOException;
+
+    /**
+     * Writes the internal state of the provided {@link Node} (typically, the fields of its subclass).
+     *
+     * @param out the output.
+     * @param node the {@link Node} to encode.
+     * @throws IOException in case of output error.
+     */
+    void writeNodeState(DataOutput out, Node node) throws IOException;
+
+    /**
+     * Reads the internal state of the provided {@link Node}, as written by {@link #writeNodeState(DataOutput, Node)}.
+     * It is called once all the {@link Node}s have been restored.
+     *
+     * @param in the input.
+     * @param node the {@link Node} to restore.
+     * @param nodesById the restored {@link Node}s, indexed by ID.
+     * @throws IOException in case of input error.
+     */
+    void readNodeState(DataInput in, Node node, Map<Integer, Node> nodesById) throws IOException;
+
+    /**
+     * Writes a value (property value, label, or message content).
+     *
+     * @param out the output.
+     * @param value the value, possibly {@code null}.
+     * @throws IOException in case of output error, or if the value is not supported.
+     */
+    void writeValue(DataOutput out, Object value) throws IOException;
+
+    /**
+     * Reads a value, as written by {@link #writeValue(DataOutput, Object)}.
+     *
+     * @param in the input.
+     * @param nodesById the restored {@link Node}s, indexed by ID.
+     * @return the value, possibly {@code null}.
+     * @throws IOException in case of input error.
+     */
+    Object readValue(DataInput in, Map<Integer, Node> nodesById) throws IOException;
+}
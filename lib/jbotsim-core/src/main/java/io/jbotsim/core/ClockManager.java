@@ -218,6 +218,18 @@ public class ClockManager {
         }
     }
 
+    boolean isFirstRound() {
+        return firstRound;
+    }
+
+    /**
+     * Sets the clock time to a previously saved value (see {@link TopologyCheckpoint}).
+     */
+    void restoreTime(int time, boolean firstRound) {
+        this.time = time;
+        this.firstRound = firstRound;
+    }
+
     /**
      * Sets the clock time back to 0.
      */
@@ -225,4 +237,13 @@ public class ClockManager {
         firstRound = true;
         time = CLOCK_INITIAL_VALUE;
     }
+
+    /**
+     * Sets the clock time to the specified value, as if the corresponding rounds had been performed: the next round
+     * has number {@code time + 1}. This is used to replay a trace from a given time.
+     * @param time the new time.
+     */
+    public void setTime(int time) {
+        restoreTime(time, false);
+    }
 }
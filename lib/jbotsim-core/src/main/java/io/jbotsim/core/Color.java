@@ -394,11 +394,30 @@ public class Color {
         return (int) (random.nextDouble() * 255);
     }
 
+    /**
+     * <p>Returns a {@link Color} object generated using 3 calls to the provided {@link SplittableRandom} object, such
+     * as the stream returned by {@link Node#getRandom()}.</p>
+     * <p>If the provided random is null, the result of {@link #getRandomColor()} is returned.</p>
+     * @param random a {@link SplittableRandom} object to be used. Can be null.
+     * @return the generated {@link Color} object.
+     * @see #getRandomColor()
+     */
+    public static Color getSeededRandomColor(SplittableRandom random) {
+        if(random == null)
+          return getRandomColor();
+
+        return new Color((int) (random.nextDouble() * 255), (int) (random.nextDouble() * 255),
+                (int) (random.nextDouble() * 255));
+    }
+
     /**
      * <p>Returns a randomly generated {@link Color} object.</p>
-     * <p>The {@link Color} is created by using 3 calls to {@link Math#random()}.</p>
+     * <p>The {@link Color} is created by using 3 calls to {@link Math#random()}: it does not depend on the seed of
+     * the {@link Topology}'s {@link RandomService}. Use {@link #getSeededRandomColor(SplittableRandom)} with
+     * {@link Node#getRandom()} to get reproducible colors.</p>
      * @return the generated {@link Color} object.
      * @see #getRandomColor(Random)
+     * @see #getSeededRandomColor(SplittableRandom)
      */
     public static Color getRandomColor() {
         return new Color((int) (Math.random() * 255), (int) (Math.random() * 255), (int) (Math.random() * 255));
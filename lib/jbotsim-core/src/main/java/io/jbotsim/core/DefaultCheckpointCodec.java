@@ -0,0 +1,168 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.core;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * <p>The {@link DefaultCheckpointCodec} is the {@link CheckpointCodec} used by default by the
+ * {@link TopologyCheckpoint}.</p>
+ *
+ * <ul>
+ *     <li>{@link Node}s are instantiated by reflection, using their public no-argument constructor.</li>
+ *     <li>No internal state is saved for the {@link Node}s: override {@link #writeNodeState(DataOutput, Node)} and
+ *     {@link #readNodeState(DataInput, Node, Map)} to save the fields of your own {@link Node} classes.</li>
+ *     <li>{@code null}, {@link String}s, primitive wrappers, {@link Color}s and {@link Node} references are encoded
+ *     compactly; other {@link Serializable} values use Java serialization.</li>
+ * </ul>
+ */
+public class DefaultCheckpointCodec implements CheckpointCodec {
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_STRING = 1;
+    private static final byte TAG_INTEGER = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_DOUBLE = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_BOOLEAN = 6;
+    private static final byte TAG_COLOR = 7;
+    private static final byte TAG_NODE = 8;
+    private static final byte TAG_SERIALIZABLE = 9;
+
+    @Override
+    public Node createNode(String className) throws IOException {
+        try {
+            Class<?> nodeClass = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+            return (Node) nodeClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IOException("Cannot instantiate node class " + className, e);
+        }
+    }
+
+    @Override
+    public void writeNodeState(DataOutput out, Node node) throws IOException {
+    }
+
+    @Override
+    public void readNodeState(DataInput in, Node node, Map<Integer, Node> nodesById) throws IOException {
+    }
+
+    @Override
+    public void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TAG_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TAG_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Color) {
+            out.writeByte(TAG_COLOR);
+            out.writeInt(((Color) value).getRGB());
+        } else if (value instanceof Node) {
+            out.writeByte(TAG_NODE);
+            out.writeInt(((Node) value).getID());
+        } else if (value instanceof Serializable) {
+            out.writeByte(TAG_SERIALIZABLE);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(value);
+            }
+            out.writeInt(bytes.size());
+            out.write(bytes.toByteArray());
+        } else {
+            throw new NotSerializableException(value.getClass().getName());
+        }
+    }
+
+    @Override
+    public Object readValue(DataInput in, Map<Integer, Node> nodesById) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_STRING:
+                return readString(in);
+            case TAG_INTEGER:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_BOOLEAN:
+                return in.readBoolean();
+            case TAG_COLOR:
+                return new Color(in.readInt(), true);
+            case TAG_NODE:
+                return nodesById.get(in.readInt());
+            case TAG_SERIALIZABLE:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            default:
+                throw new StreamCorruptedException("Unknown value tag: " + tag);
+        }
+    }
+
+    /**
+     * Writes a {@link String} of any length, as a length-prefixed UTF-8 sequence.
+     * @param out the output.
+     * @param s the non-null {@link String}.
+     * @throws IOException in case of output error.
+     */
+    protected static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a {@link String} written by {@link #writeString(DataOutput, String)}.
+     * @param in the input.
+     * @return the {@link String}.
+     * @throws IOException in case of input error.
+     */
+    protected static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -32,7 +32,7 @@ import java.util.List;
  * {@link Mode#WIRED} or {@link Mode#WIRELESS}.
  * The by default, a link will be {@link Orientation#UNDIRECTED} and {@link Mode#WIRELESS}.</p>
  */
-public class Link extends Properties implements Comparable<Link> {
+public class Link extends Properties implements Comparable<Link>, Cloneable {
     public static final Color DEFAULT_COLOR = Color.darkGray;
     public static final int DEFAULT_WIDTH = 1;
     public static final Orientation DEFAULT_ORIENTATION = Orientation.UNDIRECTED;
@@ -262,7 +262,7 @@ public class Link extends Properties implements Comparable<Link> {
      * Compares the specified link to this link in terms of length.
      */
     public int compareTo(Link l) {
-        return getLength().compareTo(l.getLength());
+        return Double.compare(source.distance(destination), l.source.distance(l.destination));
     }
 
     /**
@@ -274,4 +274,22 @@ public class Link extends Properties implements Comparable<Link> {
         else
             return (source + " <--> " + destination);
     }
+
+    /**
+     * Returns a copy of this link (of the same class) between the provided nodes, sharing the properties of this link
+     * until one of them modifies them. Used by {@link Topology#fork()}.
+     */
+    Link copyBetween(Node source, Node destination) {
+        Link copy;
+        try {
+            copy = (Link) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.source = source;
+        copy.destination = destination;
+        copy.propertyListeners = new ArrayList<>();
+        copy.shareProperties(this);
+        return copy;
+    }
 }
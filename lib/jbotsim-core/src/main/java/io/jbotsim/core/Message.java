@@ -20,9 +20,6 @@
  */
 package io.jbotsim.core;
 
-
-import java.util.HashMap;
-
 /**
  * <p>The {@link Message} object simply encodes a message exchanged by two {@link Node}s.</p>
  */
@@ -32,6 +29,7 @@ public final class Message extends Properties {
     protected Object content;
     protected boolean retryMode;
     protected String flag;
+    protected int sendTime = -1;
 
     /**
      * Default constructor with empty content
@@ -110,7 +108,8 @@ public final class Message extends Properties {
         this.content = message.content;
         this.retryMode = message.retryMode;
         this.flag = message.flag;
-        this.properties = new HashMap<>(message.properties);
+        this.sendTime = message.sendTime;
+        shareProperties(message);
     }
 
     /**
@@ -155,6 +154,15 @@ public final class Message extends Properties {
         return flag;
     }
 
+    /**
+     * The round during which this message was sent.
+     * @return the time of the topology when {@link Node#send(Node, Message)} was called, or -1 if it is not known
+     * (the message has not been sent, or has been restored by a {@link TopologyCheckpoint}).
+     */
+    public int getSendTime() {
+        return sendTime;
+    }
+
     /**
      * The retry mode status.
      * @return the retry mode status, as a boolean.
@@ -33,7 +33,7 @@ import static io.jbotsim.core.Node.PropString.*;
  *
  * <p>Any behavior modification should be implemented by subclassing this class.</p>
  */
-public class Node extends Properties implements ClockListener, Comparable<Node> {
+public class Node extends Properties implements ClockListener, Comparable<Node>, Cloneable {
     public static final Color DEFAULT_COLOR = null;
     public static final int DEFAULT_ICON_SIZE = 10;
     public static final double DEFAULT_DIRECTION =  -Math.PI / 2;
@@ -52,6 +52,8 @@ public class Node extends Properties implements ClockListener, Comparable<Node>
     Integer ID = -1;
     int iconSize = DEFAULT_ICON_SIZE;
     private boolean die = false;
+    private SplittableRandom random = null;
+    private SplittableRandom detachedRandom = null;
 
     enum PropString {
         COLOR("color"),
@@ -95,6 +97,66 @@ public class Node extends Properties implements ClockListener, Comparable<Node>
         return topo;
     }
 
+    /**
+     * <p>Returns a copy of this node, to be inserted in a {@link Topology#fork() fork} of its {@link Topology}.</p>
+     *
+     * <p>The copy is shallow: its fields refer to the same objects as this node's ones, except for the links,
+     * messages, sensed nodes and listeners, which are managed by the fork. Its properties are shared with this node
+     * until one of them modifies them. Subclasses holding mutable state (collections, arrays, etc.) should override
+     * this method to copy it:</p>
+     * <pre>
+     * {@code
+     *     protected Node fork() {
+     *         MyNode copy = (MyNode) super.fork();
+     *         copy.visited = new HashSet<>(visited);
+     *         return copy;
+     *     }
+     * }
+     * </pre>
+     *
+     * @return a copy of this node, which does not belong to any {@link Topology}.
+     */
+    protected Node fork() {
+        Node copy;
+        try {
+            copy = (Node) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.mailBox = new ArrayList<>();
+        copy.sendQueue = new ArrayList<>();
+        copy.outLinks = new HashMap<>();
+        copy.sensedNodes = new ArrayList<>();
+        copy.topo = null;
+        copy.random = null;
+        copy.detachedRandom = null;
+        copy.propertyListeners = new ArrayList<>();
+        copy.shareProperties(this);
+        // coords is shared: Points are mutable, but a node never modifies its own, it replaces it on each move
+        return copy;
+    }
+
+    /**
+     * Returns the random numbers stream of this node.
+     *
+     * <p>Once the node belongs to a {@link Topology}, the stream is provided by the {@link Topology}'s
+     * {@link RandomService}, and only depends on its seed and on the ID of the node. Before that, the same unseeded
+     * stream is returned by each call.</p>
+     *
+     * @return the {@link SplittableRandom} of this node.
+     */
+    public SplittableRandom getRandom() {
+        if (random == null) {
+            if (topo == null) {
+                if (detachedRandom == null)
+                    detachedRandom = new SplittableRandom();
+                return detachedRandom;
+            }
+            random = topo.getRandomService().forNode(this);
+        }
+        return random;
+    }
+
     /**
      * Called when this node is selected (e.g. middle click in the UI)
      */
@@ -762,6 +824,10 @@ public class Node extends Properties implements ClockListener, Comparable<Node>
     public void send(Node destination, Message message) {
         Message m = new Message(this, destination, message);
         sendQueue.add(m);
+        if (topo != null) {
+            m.sendTime = topo.getTime();
+            topo.notifyMessageSent(m);
+        }
     }
 
     /**
@@ -21,14 +21,26 @@
 package io.jbotsim.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import io.jbotsim.core.event.PropertyListener;
 
 public abstract class Properties {
-    protected HashMap<String, Object> properties = new HashMap<>();
-    List<PropertyListener> propertyListeners = new ArrayList<>();
+    /**
+     * The properties of this object. It is {@code null} until the first property is stored, and may be shared with
+     * forked copies (see {@link Topology#fork()}) until either of them modifies its properties.
+     *
+     * @deprecated Please use {@link #getProperty(String)}, {@link #setProperty(String, Object)} and
+     * {@link #removeProperty(String)} instead, which handle both cases.
+     */
+    @Deprecated
+    protected HashMap<String, Object> properties;
+    List<PropertyListener> propertyListeners = Collections.emptyList();
+    // true while the properties map may be shared with a forked copy (see Topology.fork())
+    private boolean sharedProperties = false;
 
     /**
      * Registers the specified property listener to this node. The listener
@@ -37,6 +49,8 @@ public abstract class Properties {
      * @param listener The movement listener.
      */
     public void addPropertyListener(PropertyListener listener) {
+        if (propertyListeners == Collections.<PropertyListener>emptyList())
+            propertyListeners = new ArrayList<>();
         propertyListeners.add(listener);
     }
 
@@ -56,7 +70,7 @@ public abstract class Properties {
      * @return the {@link Object} corresponding to the provided key
      */
     public Object getProperty(String key) {
-        return properties.get(key);
+        return properties == null ? null : properties.get(key);
     }
 
     /**
@@ -67,7 +81,7 @@ public abstract class Properties {
      * @param value The property value.
      */
     public void setProperty(String key, Object value) {
-        properties.put(key, value);
+        ownProperties().put(key, value);
         for (PropertyListener pl : new ArrayList<>(propertyListeners))
             pl.onPropertyChanged(this, key);
     }
@@ -78,7 +92,8 @@ public abstract class Properties {
      * @param key The property key.
      */
     public void removeProperty(String key) {
-        properties.remove(key);
+        if (properties != null)
+            ownProperties().remove(key);
     }
 
     /**
@@ -88,7 +103,42 @@ public abstract class Properties {
      * @return <code>true</code> is the provided key corresponds to a known propery, <code>false</code> otherwise.
      */
     public boolean hasProperty(String key) {
-        return properties.containsKey(key);
+        return properties != null && properties.containsKey(key);
+    }
+
+    /**
+     * Returns the keys of all the properties stored in this object.
+     *
+     * @return an unmodifiable {@link Set} of property keys.
+     */
+    public Set<String> getPropertyKeys() {
+        if (properties == null)
+            return Collections.emptySet();
+        return Collections.unmodifiableSet(properties.keySet());
     }
 
+    /**
+     * Makes this object share the properties map of the provided one, until either of them modifies it.
+     * @param from the {@link Properties} to share the map with.
+     */
+    void shareProperties(Properties from) {
+        if (from.properties != null)
+            from.sharedProperties = true;
+        this.properties = from.properties;
+        this.sharedProperties = from.sharedProperties;
+    }
+
+    /**
+     * Returns the properties map, after having copied it if it was shared.
+     * @return a properties map owned by this object.
+     */
+    HashMap<String, Object> ownProperties() {
+        if (properties == null) {
+            properties = new HashMap<>();
+        } else if (sharedProperties) {
+            properties = new HashMap<>(properties);
+            sharedProperties = false;
+        }
+        return properties;
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * <p>The {@link RandomService} provides the random numbers used by a {@link Topology} and its components.</p>
+ *
+ * <p>All the streams it provides are derived from a single seed. Each {@link Node} and each component (message
+ * engine, dynamic graph player, generator, etc.) gets its own independent {@link SplittableRandom}. A node's stream
+ * only depends on the seed and on its ID. A component's stream depends on the seed, on the component's name and on
+ * the number of streams previously requested under that name, so that two components of the same class, or two
+ * requests of the same component, get different streams. Runs using the same seed are thus reproducible, as long as
+ * the streams of a given name are requested in the same order, and streams can be used by different threads without
+ * any contention.</p>
+ *
+ * <p>Note that a {@link SplittableRandom} is not thread-safe: a given stream must only be used by one thread at a
+ * time.</p>
+ */
+public class RandomService {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long NODE_DOMAIN = 0x6a09e667f3bcc909L;
+    private static final long COMPONENT_DOMAIN = 0xbb67ae8584caa73bL;
+
+    private long seed;
+    private SplittableRandom random;
+    // the number of streams handed out for each component name
+    private final Map<String, Long> nbComponentStreams = new HashMap<>();
+
+    /**
+     * Creates a {@link RandomService} with an arbitrary seed.
+     */
+    public RandomService() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a {@link RandomService} with the provided seed.
+     * @param seed the seed.
+     */
+    public RandomService(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Returns the seed from which all streams are derived.
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed from which all streams are derived. Streams already handed out are not affected: the seed
+     * should be set before the nodes and components are created. The count of streams requested for each component
+     * name starts over.
+     * @param seed the new seed.
+     */
+    public synchronized void setSeed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        nbComponentStreams.clear();
+    }
+
+    /**
+     * Returns the stream of the {@link Topology} itself.
+     * @return the topology-wide {@link SplittableRandom}.
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Returns a new stream dedicated to the provided {@link Node}, derived from the seed and the node's ID.
+     * @param node the {@link Node}.
+     * @return a new {@link SplittableRandom}.
+     */
+    public SplittableRandom forNode(Node node) {
+        return new SplittableRandom(derive(NODE_DOMAIN, node.getID()));
+    }
+
+    /**
+     * Returns a new stream dedicated to the component identified by the provided name, derived from the seed, the
+     * name and the number of streams previously requested under this name. Each call thus returns a different
+     * stream: a component should request its stream once and keep it. Components of different kinds should use
+     * different names, such as their class name.
+     * @param name the name of the component.
+     * @return a new {@link SplittableRandom}.
+     */
+    public synchronized SplittableRandom forComponent(String name) {
+        long index = nbComponentStreams.merge(name, 1L, Long::sum) - 1;
+        return new SplittableRandom(mix64(derive(COMPONENT_DOMAIN, name.hashCode()) + index * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns a new stream dedicated to the provided component, named after its class. Each instance of a class
+     * gets a different stream, according to the order in which they request it.
+     * @param component the component.
+     * @return a new {@link SplittableRandom}.
+     * @see #forComponent(String)
+     */
+    public SplittableRandom forComponent(Object component) {
+        return forComponent(component.getClass().getName());
+    }
+
+    private long derive(long domain, long key) {
+        return mix64(seed + mix64(domain + key * GOLDEN_GAMMA));
+    }
+
+    // finalizer of the SplitMix64 generator
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
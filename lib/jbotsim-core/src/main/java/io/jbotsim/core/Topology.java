@@ -72,9 +72,10 @@ public class Topology extends Properties implements ClockListener {
     ArrayList<Node> toBeUpdated = new ArrayList<>();
     private boolean step = false;
     private boolean isStarted = false;
-    private int nextID = 0;
+    int nextID = 0;
     private FileManager fileManager = new FileManager();
     private TopologySerializer topologySerializer = new PlainTopologySerializer();
+    private RandomService randomService = new RandomService();
 
     private Link.Orientation orientation = DEFAULT_ORIENTATION;
 
@@ -322,6 +323,31 @@ public class Topology extends Properties implements ClockListener {
         clockManager.setTimeUnit(period);
     }
 
+    /**
+     * Returns the {@link RandomService} of this topology, which provides the random numbers used by the topology, its
+     * nodes and its components.
+     * @return the {@link RandomService} of this topology.
+     */
+    public RandomService getRandomService() {
+        return randomService;
+    }
+
+    /**
+     * Sets the seed of the {@link RandomService} of this topology. It should be called before adding any node.
+     * @param seed the new seed.
+     */
+    public void setRandomSeed(long seed) {
+        randomService.setSeed(seed);
+    }
+
+    /**
+     * Returns the {@link ClockManager} driving the rounds of this topology.
+     * @return the {@link ClockManager} of this topology.
+     */
+    public ClockManager getClockManager() {
+        return clockManager;
+    }
+
     /**
      * Returns the clock model currently in use.
      * @return the current clock model.
@@ -412,6 +438,15 @@ public class Topology extends Properties implements ClockListener {
         restart();
     }
 
+    /**
+     * Initializes the clock, without resetting the time, the messages and the nodes as {@link #start()} does.
+     * This allows to continue a simulation whose state has been restored, e.g. by a {@link TopologyCheckpoint}.
+     */
+    public void startWithoutRestart() {
+        clockManager.start();
+        isStarted = true;
+    }
+
     /**
      * (Re)init the nodes through their onStart() method (and notifies StartListeners as well)
      */
@@ -426,6 +461,91 @@ public class Topology extends Properties implements ClockListener {
         resume();
     }
 
+    /**
+     * <p>Creates an independent copy of this topology, e.g. to explore several what-if branches from a warmed-up
+     * state.</p>
+     *
+     * <p>The fork is cheap: its nodes and links are shallow copies (see {@link Node#fork()}), node locations are
+     * shared, and the properties maps of the topology, nodes and links are only copied by the first one modifying
+     * them. No link is recomputed. Pending and delayed messages are copied, and the fork starts at the current
+     * time.</p>
+     *
+     * <p>The fork has no listener, is not started (see {@link #startWithoutRestart()}), and derives its
+     * {@link RandomService} seed from this topology's one. Its message engine is a new {@link DelayMessageEngine} if
+     * this topology uses one, or a {@link DefaultMessageEngine} otherwise: other engines must be set again with
+     * {@link #setMessageEngine(MessageEngine)}.</p>
+     *
+     * @return the fork of this topology.
+     */
+    public Topology fork() {
+        pause();
+        try {
+            Topology fork = new Topology(width, height);
+            fork.nodeModels.putAll(nodeModels);
+            fork.isWirelessEnabled = isWirelessEnabled;
+            fork.communicationRange = communicationRange;
+            fork.sensingRange = sensingRange;
+            fork.orientation = orientation;
+            fork.refreshMode = refreshMode;
+            fork.linkResolver = linkResolver;
+            fork.nextID = nextID;
+            fork.topologySerializer = topologySerializer;
+            fork.randomService = new RandomService(randomService.getRandom().nextLong());
+            fork.setScheduler(scheduler);
+            fork.clockManager.setClockModel(clockManager.getClockModel());
+            fork.clockManager.setTimeUnit(clockManager.getTimeUnit());
+            fork.clockManager.restoreTime(clockManager.time, clockManager.isFirstRound());
+            fork.shareProperties(this);
+
+            Map<Node, Node> copies = new IdentityHashMap<>(nodes.size());
+            for (Node n : nodes) {
+                Node copy = n.fork();
+                copy.topo = fork;
+                copies.put(n, copy);
+                fork.nodes.add(copy);
+            }
+            for (Node n : nodes) {
+                Node copy = copies.get(n);
+                for (Node sensed : n.sensedNodes)
+                    copy.sensedNodes.add(copies.get(sensed));
+                for (Message m : n.sendQueue)
+                    copy.sendQueue.add(forkMessage(m, copies));
+            }
+            for (Link arc : arcs) {
+                Link copy = arc.copyBetween(copies.get(arc.source), copies.get(arc.destination));
+                fork.arcs.add(copy);
+                copy.source.outLinks.put(copy.destination, copy);
+            }
+            for (Link edge : edges)
+                fork.edges.add(edge.copyBetween(copies.get(edge.source), copies.get(edge.destination)));
+            for (Node n : toBeUpdated)
+                fork.toBeUpdated.add(copies.get(n));
+
+            if (messageEngine instanceof DelayMessageEngine) {
+                DelayMessageEngine engine = (DelayMessageEngine) messageEngine;
+                DelayMessageEngine forkEngine = new DelayMessageEngine(fork, engine.getDelay());
+                if (!engine.shouldCheckLinksContinuity())
+                    forkEngine.disableLinksContinuityChecks();
+                forkEngine.currentTime = engine.currentTime;
+                for (Map.Entry<Integer, List<Message>> entry : engine.delayedMessages.entrySet()) {
+                    List<Message> messages = new ArrayList<>(entry.getValue().size());
+                    for (Message m : entry.getValue())
+                        messages.add(forkMessage(m, copies));
+                    forkEngine.delayedMessages.put(entry.getKey(), messages);
+                }
+                fork.setMessageEngine(forkEngine);
+            }
+            return fork;
+        } finally {
+            resume();
+        }
+    }
+
+    private static Message forkMessage(Message m, Map<Node, Node> copies) {
+        Node destination = m.destination != null ? copies.get(m.destination) : null;
+        return new Message(copies.get(m.sender), destination, m);
+    }
+
     /**
      * Removes all the nodes (and links) of this topology.
      */
@@ -436,11 +556,48 @@ public class Topology extends Properties implements ClockListener {
     }
 
     /**
-     * Removes all the links of this topology.
+     * Removes all the undirected links of this topology, with the same notifications as successive calls to
+     * {@link #removeLink(Link)} from the last one. The directed links which are not part of an undirected one are kept
+     * (see {@link #clearLinks(Link.Orientation)}).
      */
     public void clearLinks() {
-        while (!edges.isEmpty())
-            removeLink(edges.get(edges.size() - 1));
+        clearLinks(Orientation.UNDIRECTED);
+    }
+
+    /**
+     * Removes all the links of this topology with the specified orientation, in a single pass. The undirected links
+     * are removed first, from the last one, with the same notifications as {@link #removeLink(Link)}. With
+     * {@link Link.Orientation#DIRECTED}, the directed links which are not part of an undirected one are removed
+     * afterwards, so that no link is left.
+     *
+     * @param orientation the kind of links to remove.
+     */
+    public void clearLinks(Link.Orientation orientation) {
+        List<Link> removedEdges = new ArrayList<>(edges);
+        edges.clear();
+        for (int i = removedEdges.size() - 1; i >= 0; i--) {
+            Link edge = removedEdges.get(i);
+            // both arcs are the same one for a loop, as with removeLink()
+            Link arc1 = edge.source.outLinks.get(edge.destination);
+            Link arc2 = edge.destination.outLinks.get(edge.source);
+            edge.source.outLinks.remove(edge.destination);
+            edge.destination.outLinks.remove(edge.source);
+            notifyLinkRemoved(arc1);
+            notifyLinkRemoved(arc2);
+            notifyLinkRemoved(edge);
+        }
+        if (orientation == Orientation.UNDIRECTED) {
+            // only the arcs which are not part of a removed edge are still registered by their source
+            arcs.removeIf(arc -> arc.source.outLinks.get(arc.destination) != arc);
+            return;
+        }
+        List<Link> removedArcs = new ArrayList<>(arcs);
+        arcs.clear();
+        for (Link arc : removedArcs)
+            if (arc.source.outLinks.get(arc.destination) == arc) {
+                arc.source.outLinks.remove(arc.destination);
+                notifyLinkRemoved(arc);
+            }
     }
 
     /**
@@ -491,10 +648,37 @@ public class Topology extends Properties implements ClockListener {
      */
     public void addNode(double x, double y, Node n) {
         pause();
+        insertNode(x, y, n);
+        touch(n);
+        resume();
+    }
+
+    /**
+     * <p>Adds the specified nodes to this topology, as would successive calls to {@link #addNode(Node)}.</p>
+     *
+     * <p>The wireless links and sensed nodes are computed once all the nodes have been added rather than after each of
+     * them. With the default {@link LinkResolver}, only the nodes located within communication (or sensing) range of
+     * each other are compared, so that loading large topologies does not take a quadratic time.</p>
+     *
+     * @param newNodes The nodes to be added.
+     */
+    public void addNodes(Collection<? extends Node> newNodes) {
+        pause();
+        for (Node n : newNodes)
+            insertNode(n.getX(), n.getY(), n);
+        if (refreshMode == RefreshMode.EVENTBASED && linkResolver.getClass() == LinkResolver.class)
+            updateNearbyNodes(newNodes);
+        else
+            for (Node n : newNodes)
+                touch(n);
+        resume();
+    }
+
+    private void insertNode(double x, double y, Node n) {
         if (x == -1)
-            x = Math.random() * width;
+            x = randomService.getRandom().nextDouble() * width;
         if (y == -1)
-            y = Math.random() * height;
+            y = randomService.getRandom().nextDouble() * height;
         if (n.getX() == 0 && n.getY() == 0)
             n.setLocation(x, y);
 
@@ -506,13 +690,14 @@ public class Topology extends Properties implements ClockListener {
             n.disableWireless();
         if (n.getID() == -1)
             n.setID(nextID++);
+        else if (n.getID() >= nextID)
+            // the new identifiers must not clash with the ones set explicitly, such as the imported ones
+            nextID = n.getID() + 1;
         nodes.add(n);
         n.topo = this;
         notifyNodeAdded(n);
         if (isStarted)
             n.onStart();
-        touch(n);
-        resume();
     }
 
     /**
@@ -606,6 +791,27 @@ public class Topology extends Properties implements ClockListener {
             notifyLinkAdded(l);
     }
 
+    /**
+     * <p>Adds the specified links to this topology, as would successive calls to {@link #addLink(Link)}, except that
+     * the links which are already in this topology (possibly earlier in the collection) are ignored. Like
+     * {@link #addLink(Link)}, this method only makes sense for wired links.</p>
+     *
+     * <p>The clock is paused once for all the links, which makes it convenient to load large graphs.</p>
+     *
+     * @param newLinks The links to be added.
+     */
+    public void addLinks(Collection<? extends Link> newLinks) {
+        pause();
+        for (Link l : newLinks) {
+            boolean exists = l.source.outLinks.containsKey(l.destination);
+            if (l.orientation == Orientation.UNDIRECTED)
+                exists &= l.destination.outLinks.containsKey(l.source);
+            if (!exists)
+                addLink(l);
+        }
+        resume();
+    }
+
     /**
      * Removes the specified link from this topology. Calling this method makes
      * sense only for wired links, since wireless links are automatically
@@ -682,7 +888,9 @@ public class Topology extends Properties implements ClockListener {
         List<Integer> Ids = new ArrayList<>();
         for (Node node : nodes)
             Ids.add(node.getID());
-        Collections.shuffle(Ids);
+        SplittableRandom random = randomService.getRandom();
+        for (int i = Ids.size() - 1; i > 0; i--)
+            Collections.swap(Ids, i, random.nextInt(i + 1));
         for (int i = 0; i < nodes.size(); i++)
             nodes.get(i).setID(Ids.get(i));
     }
@@ -959,7 +1167,7 @@ public class Topology extends Properties implements ClockListener {
 
     /**
      * Registers the specified message listener to this topology. The listener
-     * will be notified every time a message is received at any node.
+     * will be notified every time a message is sent or received at any node.
      *
      * @param listener The message listener.
      */
@@ -1113,6 +1321,13 @@ public class Topology extends Properties implements ClockListener {
             tl.onSelection(node);
     }
 
+    protected void notifyMessageSent(Message message) {
+        if (messageListeners.isEmpty())
+            return;
+        for (MessageListener listener : new ArrayList<>(messageListeners))
+            listener.onMessageSent(message);
+    }
+
     protected void notifyMessageDelivered(Message message) {
         for (MessageListener listener : new ArrayList<>(messageListeners))
             listener.onMessage(message);
@@ -1165,6 +1380,68 @@ public class Topology extends Properties implements ClockListener {
         }
     }
 
+    /**
+     * Same as calling {@link #update(Node)} on each of the provided nodes, assuming that two nodes that are farther
+     * apart than their communication and sensing ranges can neither hear nor sense each other, which holds for the
+     * default {@link LinkResolver}. The candidate pairs are found using a grid of cells as large as the largest range.
+     * Nothing is computed when no node can hear or sense another, as when importing a graph with wireless disabled.
+     */
+    private void updateNearbyNodes(Collection<? extends Node> newNodes) {
+        double cellSize = 0;
+        boolean hasWirelessNodes = false;
+        for (Node n : nodes) {
+            cellSize = Math.max(cellSize, n.getSensingRange());
+            if (n.isWirelessEnabled()) {
+                hasWirelessNodes = true;
+                cellSize = Math.max(cellSize, n.getCommunicationRange());
+            }
+        }
+        if (cellSize <= 0) {
+            if (!hasWirelessNodes)
+                return;
+            cellSize = 1;
+        }
+
+        Set<Node> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+        pending.addAll(newNodes);
+        Map<Long, List<Node>> grid = new HashMap<>();
+        for (Node n : nodes)
+            if (!pending.contains(n))
+                grid.computeIfAbsent(getCellKey(n.getX(), n.getY(), cellSize), k -> new ArrayList<>()).add(n);
+
+        for (Node n : newNodes) {
+            long cx = (long) Math.floor(n.getX() / cellSize);
+            long cy = (long) Math.floor(n.getY() / cellSize);
+            for (long dx = -1; dx <= 1; dx++) {
+                for (long dy = -1; dy <= 1; dy++) {
+                    List<Node> cell = grid.get(getCellKey(cx + dx, cy + dy));
+                    if (cell == null)
+                        continue;
+                    for (Node n2 : cell) {
+                        // new nodes are not linked yet, so nothing changes for the pairs out of range
+                        if (n2 == n || n.distance(n2) > cellSize)
+                            continue;
+                        updateWirelessLink(n, n2);
+                        updateWirelessLink(n2, n);
+                        updateSensedNodes(n, n2);
+                        updateSensedNodes(n2, n);
+                    }
+                }
+            }
+            // each pair of new nodes is only compared once
+            grid.computeIfAbsent(getCellKey(cx, cy), k -> new ArrayList<>()).add(n);
+        }
+    }
+
+    private static long getCellKey(double x, double y, double cellSize) {
+        return getCellKey((long) Math.floor(x / cellSize), (long) Math.floor(y / cellSize));
+    }
+
+    private static long getCellKey(long cx, long cy) {
+        // colliding cells only add candidates, which is harmless
+        return cx * 0x9E3779B97F4A7C15L + cy;
+    }
+
     void updateWirelessLink(Node n1, Node n2) {
         Link l = n1.getOutLinkTo(n2);
         boolean linkExisted = (l == null) ? false : true;
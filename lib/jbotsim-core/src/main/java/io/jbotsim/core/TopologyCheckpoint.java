@@ -0,0 +1,449 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.core;
+
+import io.jbotsim.core.Link.Mode;
+import io.jbotsim.core.Link.Orientation;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * <p>The {@link TopologyCheckpoint} saves the state of a running {@link Topology} to a compact binary file, and
+ * restores it later, e.g. to resume a long simulation or to share a warm-up phase between several experiments.</p>
+ *
+ * <p>A checkpoint contains:</p>
+ * <ul>
+ *     <li>the parameters of the {@link Topology} (dimensions, ranges, orientation, etc.) and its properties;</li>
+ *     <li>the {@link Node}s (class, ID, location, direction, ranges, color, icon size, label, properties), along with
+ *     their internal state, as encoded by the {@link CheckpointCodec};</li>
+ *     <li>the wired {@link Link}s (wireless ones are recomputed from the ranges);</li>
+ *     <li>the current time;</li>
+ *     <li>the {@link Message}s sent during the last round and, if the {@link MessageEngine} is a
+ *     {@link DelayMessageEngine}, the delayed {@link Message}s.</li>
+ * </ul>
+ *
+ * <p>Data is streamed through NIO channels, so that the size of a checkpoint is not bounded by the memory.</p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ * {@code
+ *     new TopologyCheckpoint().save(tp, Paths.get("warmup.ckpt"));
+ *     ...
+ *     Topology restored = new Topology();
+ *     restored.setMessageEngine(new DelayMessageEngine(restored, 5));
+ *     new TopologyCheckpoint().restore(restored, Paths.get("warmup.ckpt"));
+ *     restored.startWithoutRestart();
+ * }
+ * </pre>
+ */
+public class TopologyCheckpoint {
+    private static final int MAGIC = 0x4A425343; // "JBSC"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int NO_NODE = -1;
+
+    private CheckpointCodec codec;
+
+    /**
+     * Creates a {@link TopologyCheckpoint} using a {@link DefaultCheckpointCodec}.
+     */
+    public TopologyCheckpoint() {
+        this(new DefaultCheckpointCodec());
+    }
+
+    /**
+     * Creates a {@link TopologyCheckpoint} using the provided {@link CheckpointCodec}.
+     * @param codec the {@link CheckpointCodec} to use.
+     */
+    public TopologyCheckpoint(CheckpointCodec codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Returns the {@link CheckpointCodec} in use.
+     * @return the {@link CheckpointCodec} in use.
+     */
+    public CheckpointCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Sets the {@link CheckpointCodec} to use.
+     * @param codec the new {@link CheckpointCodec}.
+     */
+    public void setCodec(CheckpointCodec codec) {
+        this.codec = codec;
+    }
+
+    // region save
+
+    /**
+     * Saves the state of the provided {@link Topology} in the specified file. The clock is paused while saving.
+     *
+     * @param tp the {@link Topology} to save.
+     * @param path the destination file, which is overwritten.
+     * @throws IOException in case of output error.
+     */
+    public void save(Topology tp, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(tp, channel);
+        }
+    }
+
+    /**
+     * Writes the state of the provided {@link Topology} to the provided channel. The clock is paused while writing,
+     * and the channel is not closed.
+     *
+     * @param tp the {@link Topology} to save.
+     * @param channel the destination channel.
+     * @throws IOException in case of output error.
+     */
+    public void write(Topology tp, WritableByteChannel channel) throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(new NonClosingChannel(channel)), BUFFER_SIZE));
+        tp.pause();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeTopology(out, tp);
+            writeNodes(out, tp);
+            writeLinks(out, tp);
+            writeMessages(out, tp);
+        } finally {
+            tp.resume();
+        }
+        out.close();
+    }
+
+    private void writeTopology(DataOutput out, Topology tp) throws IOException {
+        out.writeInt(tp.width);
+        out.writeInt(tp.height);
+        out.writeDouble(tp.communicationRange);
+        out.writeDouble(tp.sensingRange);
+        out.writeBoolean(tp.isWirelessEnabled);
+        out.writeByte(tp.getOrientation().ordinal());
+        out.writeByte(tp.refreshMode.ordinal());
+        out.writeInt(tp.nextID);
+        out.writeInt(tp.clockManager.time);
+        out.writeBoolean(tp.clockManager.isFirstRound());
+        writeProperties(out, tp);
+    }
+
+    private void writeNodes(DataOutput out, Topology tp) throws IOException {
+        List<Node> nodes = tp.nodes;
+        out.writeInt(nodes.size());
+        for (Node n : nodes) {
+            out.writeUTF(n.getClass().getName());
+            out.writeInt(n.getID());
+            out.writeDouble(n.coords.getX());
+            out.writeDouble(n.coords.getY());
+            out.writeDouble(n.coords.getZ());
+            out.writeDouble(n.direction);
+            out.writeDouble(n.communicationRange);
+            out.writeDouble(n.sensingRange);
+            out.writeBoolean(n.isWirelessEnabled);
+            out.writeBoolean(n.color != null);
+            if (n.color != null)
+                out.writeInt(n.color.getRGB());
+            out.writeInt(n.iconSize);
+        }
+        // values may reference any node: they are written once all nodes are known
+        for (Node n : nodes) {
+            codec.writeValue(out, n.label);
+            writeProperties(out, n);
+            codec.writeNodeState(out, n);
+        }
+    }
+
+    private void writeLinks(DataOutput out, Topology tp) throws IOException {
+        List<Link> wiredEdges = new ArrayList<>();
+        for (Link l : tp.edges)
+            if (l.mode == Mode.WIRED)
+                wiredEdges.add(l);
+        List<Link> wiredArcs = new ArrayList<>();
+        for (Link l : tp.arcs)
+            if (l.mode == Mode.WIRED && !isCoveredByWiredEdge(l))
+                wiredArcs.add(l);
+
+        out.writeInt(wiredEdges.size() + wiredArcs.size());
+        for (Link l : wiredEdges)
+            writeLink(out, l);
+        for (Link l : wiredArcs)
+            writeLink(out, l);
+    }
+
+    // the arcs of a wired edge are recreated along with it
+    private static boolean isCoveredByWiredEdge(Link arc) {
+        Link reverse = arc.destination.outLinks.get(arc.source);
+        return reverse != null && reverse.mode == Mode.WIRED;
+    }
+
+    private void writeLink(DataOutput out, Link l) throws IOException {
+        out.writeInt(l.source.getID());
+        out.writeInt(l.destination.getID());
+        out.writeByte(l.orientation.ordinal());
+        writeProperties(out, l);
+    }
+
+    private void writeMessages(DataOutput out, Topology tp) throws IOException {
+        List<Message> pending = new ArrayList<>();
+        for (Node n : tp.nodes)
+            pending.addAll(n.sendQueue);
+        writeMessageList(out, pending);
+
+        MessageEngine engine = tp.getMessageEngine();
+        if (engine instanceof DelayMessageEngine) {
+            Map<Integer, List<Message>> delayed = new TreeMap<>(((DelayMessageEngine) engine).delayedMessages);
+            out.writeInt(delayed.size());
+            for (Map.Entry<Integer, List<Message>> entry : delayed.entrySet()) {
+                out.writeInt(entry.getKey());
+                writeMessageList(out, entry.getValue());
+            }
+        } else {
+            out.writeInt(0);
+        }
+    }
+
+    private void writeMessageList(DataOutput out, List<Message> messages) throws IOException {
+        out.writeInt(messages.size());
+        for (Message m : messages) {
+            out.writeInt(m.sender != null ? m.sender.getID() : NO_NODE);
+            out.writeInt(m.destination != null ? m.destination.getID() : NO_NODE);
+            codec.writeValue(out, m.flag);
+            out.writeBoolean(m.retryMode);
+            codec.writeValue(out, m.content);
+            writeProperties(out, m);
+        }
+    }
+
+    private void writeProperties(DataOutput out, Properties p) throws IOException {
+        Set<String> keys = p.getPropertyKeys();
+        out.writeInt(keys.size());
+        for (String key : keys) {
+            out.writeUTF(key);
+            codec.writeValue(out, p.getProperty(key));
+        }
+    }
+
+    // endregion
+
+    // region restore
+
+    /**
+     * Restores the state saved in the specified file into the provided {@link Topology}.
+     *
+     * @param tp the {@link Topology} to restore into. It must not be started; its nodes are removed first.
+     * @param path the checkpoint file.
+     * @throws IOException in case of input error, or if the file is not a valid checkpoint.
+     * @see #read(Topology, ReadableByteChannel)
+     */
+    public void restore(Topology tp, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            read(tp, channel);
+        }
+    }
+
+    /**
+     * <p>Restores the state read from the provided channel into the provided {@link Topology}. The channel is not
+     * closed.</p>
+     *
+     * <p>The {@link MessageEngine}, {@link Scheduler} and listeners of the {@link Topology} are left untouched, and
+     * should be set beforehand. Delayed messages can only be restored if the {@link MessageEngine} is a
+     * {@link DelayMessageEngine}. The simulation can then be continued with {@link Topology#startWithoutRestart()}.</p>
+     *
+     * @param tp the {@link Topology} to restore into. It must not be started; its nodes are removed first.
+     * @param channel the source channel.
+     * @throws IOException in case of input error, if the data is not a valid checkpoint, or if it holds delayed
+     * messages which the {@link MessageEngine} cannot hold. The {@link Topology} is then partially restored.
+     */
+    public void read(Topology tp, ReadableByteChannel channel) throws IOException {
+        if (tp.isStarted())
+            throw new IllegalStateException("Cannot restore a checkpoint into a started topology.");
+
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(new NonClosingChannel(channel)), BUFFER_SIZE));
+        if (in.readInt() != MAGIC)
+            throw new StreamCorruptedException("Not a JBotSim checkpoint.");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new StreamCorruptedException("Unsupported checkpoint version: " + version);
+
+        tp.clear();
+        int nextID = readTopology(in, tp);
+        Map<Integer, Node> nodesById = readNodes(in, tp);
+        tp.nextID = nextID;
+        readLinks(in, tp, nodesById);
+        readMessages(in, tp, nodesById);
+    }
+
+    private int readTopology(DataInput in, Topology tp) throws IOException {
+        tp.setDimensions(in.readInt(), in.readInt());
+        tp.setCommunicationRange(in.readDouble());
+        tp.setSensingRange(in.readDouble());
+        tp.setWirelessStatus(in.readBoolean());
+        tp.setOrientation(Orientation.values()[in.readByte()]);
+        tp.setRefreshMode(Topology.RefreshMode.values()[in.readByte()]);
+        int nextID = in.readInt();
+        int time = in.readInt();
+        boolean firstRound = in.readBoolean();
+        tp.clockManager.restoreTime(time, firstRound);
+        tp.ownProperties().clear();
+        readProperties(in, tp, Collections.<Integer, Node>emptyMap());
+        return nextID;
+    }
+
+    private Map<Integer, Node> readNodes(DataInput in, Topology tp) throws IOException {
+        int nbNodes = in.readInt();
+        List<Node> nodes = new ArrayList<>(nbNodes);
+        Map<Integer, Node> nodesById = new HashMap<>();
+        for (int i = 0; i < nbNodes; i++) {
+            Node n = codec.createNode(in.readUTF());
+            n.ID = in.readInt();
+            n.coords = new Point(in.readDouble(), in.readDouble(), in.readDouble());
+            n.direction = in.readDouble();
+            n.communicationRange = in.readDouble();
+            n.sensingRange = in.readDouble();
+            n.isWirelessEnabled = in.readBoolean();
+            n.color = in.readBoolean() ? new Color(in.readInt(), true) : null;
+            n.iconSize = in.readInt();
+            nodes.add(n);
+            nodesById.put(n.ID, n);
+        }
+        tp.addNodes(nodes);
+        for (Node n : nodes) {
+            n.label = codec.readValue(in, nodesById);
+            n.ownProperties().clear();
+            readProperties(in, n, nodesById);
+            codec.readNodeState(in, n, nodesById);
+        }
+        return nodesById;
+    }
+
+    private void readLinks(DataInput in, Topology tp, Map<Integer, Node> nodesById) throws IOException {
+        int nbLinks = in.readInt();
+        for (int i = 0; i < nbLinks; i++) {
+            Node source = getNode(nodesById, in.readInt());
+            Node destination = getNode(nodesById, in.readInt());
+            Link l = new Link(source, destination, Orientation.values()[in.readByte()], Mode.WIRED);
+            readProperties(in, l, nodesById);
+            tp.addLink(l, true);
+        }
+    }
+
+    private void readMessages(DataInput in, Topology tp, Map<Integer, Node> nodesById) throws IOException {
+        for (Message m : readMessageList(in, nodesById))
+            m.sender.sendQueue.add(m);
+
+        MessageEngine engine = tp.getMessageEngine();
+        DelayMessageEngine delayEngine = engine instanceof DelayMessageEngine ? (DelayMessageEngine) engine : null;
+        if (delayEngine != null) {
+            delayEngine.delayedMessages.clear();
+            delayEngine.currentTime = tp.getTime();
+        }
+
+        int nbDates = in.readInt();
+        for (int i = 0; i < nbDates; i++) {
+            int date = in.readInt();
+            List<Message> messages = readMessageList(in, nodesById);
+            if (delayEngine != null)
+                delayEngine.delayedMessages.put(date, messages);
+            else if (!messages.isEmpty())
+                throw new IOException("The checkpoint holds delayed messages, but the message engine is not a "
+                        + DelayMessageEngine.class.getSimpleName() + ".");
+        }
+    }
+
+    private List<Message> readMessageList(DataInput in, Map<Integer, Node> nodesById) throws IOException {
+        int nbMessages = in.readInt();
+        List<Message> messages = new ArrayList<>(nbMessages);
+        for (int i = 0; i < nbMessages; i++) {
+            Node sender = getNode(nodesById, in.readInt());
+            int destinationID = in.readInt();
+            Node destination = destinationID == NO_NODE ? null : getNode(nodesById, destinationID);
+            String flag = (String) codec.readValue(in, nodesById);
+            boolean retryMode = in.readBoolean();
+            Object content = codec.readValue(in, nodesById);
+            Message m = new Message(sender, destination, content, flag);
+            m.retryMode = retryMode;
+            readProperties(in, m, nodesById);
+            messages.add(m);
+        }
+        return messages;
+    }
+
+    private void readProperties(DataInput in, Properties p, Map<Integer, Node> nodesById) throws IOException {
+        int nbProperties = in.readInt();
+        for (int i = 0; i < nbProperties; i++) {
+            String key = in.readUTF();
+            p.ownProperties().put(key, codec.readValue(in, nodesById));
+        }
+    }
+
+    private static Node getNode(Map<Integer, Node> nodesById, int id) throws IOException {
+        Node n = nodesById.get(id);
+        if (n == null)
+            throw new StreamCorruptedException("Unknown node ID in checkpoint: " + id);
+        return n;
+    }
+
+    // endregion
+
+    /**
+     * Lets the streams built on top of a channel be closed (and thus flushed) without closing the channel itself,
+     * which belongs to the caller.
+     */
+    private static class NonClosingChannel implements ReadableByteChannel, WritableByteChannel {
+        private final Channel channel;
+
+        NonClosingChannel(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return ((ReadableByteChannel) channel).read(dst);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return ((WritableByteChannel) channel).write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
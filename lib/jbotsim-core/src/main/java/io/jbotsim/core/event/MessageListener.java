@@ -28,4 +28,12 @@ public interface MessageListener {
      * @param msg The incoming message.
      */
     void onMessage(Message msg);
+
+    /**
+     * Notifies the underlying MessageListener that a message has been sent. Its destination is {@code null} if it
+     * is sent to all the neighbors of its sender.
+     * @param msg The outgoing message.
+     */
+    default void onMessageSent(Message msg) {
+    }
 }
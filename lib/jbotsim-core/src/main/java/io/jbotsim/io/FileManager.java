@@ -20,25 +20,47 @@
  */
 package io.jbotsim.io;
 
+import io.jbotsim.core.Topology;
+
 import java.io.*;
+import java.nio.channels.FileChannel;
 
 /**
  * The {@link FileManager} provides the following methods:
  * <ul>
  *     <li>{@link #read(String)}: reads the content of a file</li>
  *     <li>{@link #write(String, String)}: writes some data in a file</li>
+ *     <li>{@link #importTopology(String, Topology, TopologySerializer)}: streams a file into a {@link Topology}</li>
+ *     <li>{@link #exportTopology(String, Topology, TopologySerializer)}: streams a {@link Topology} into a file</li>
  * </ul>
+ *
+ * <p>The files are accessed through a {@link FileAsStream}. By default, the files whose name ends with {@code .gz}
+ * are (de)compressed on the fly (see {@link GzipFileAsStream}), and the other ones are accessed as local files (see
+ * {@link LocalFileAsStream}). Large files can be read through memory mappings instead by using a
+ * {@link MappedFileAsStream}, e.g. {@code new FileManager(new GzipFileAsStream(new MappedFileAsStream()))}.</p>
  */
 public class FileManager implements FileAsStream {
+    private final FileAsStream fileAccessor;
+
+    public FileManager() {
+        this(new GzipFileAsStream(new LocalFileAsStream()));
+    }
+
+    /**
+     * @param fileAccessor the {@link FileAsStream} used to access the files.
+     */
+    public FileManager(FileAsStream fileAccessor) {
+        this.fileAccessor = fileAccessor;
+    }
 
     @Override
     public InputStream getInputStreamForName(String filename) throws IOException {
-        return new FileInputStream(new File(filename));
+        return fileAccessor.getInputStreamForName(filename);
     }
 
     @Override
     public OutputStream getOutputStreamForName(String filename) throws IOException {
-        return new FileOutputStream(new File(filename));
+        return fileAccessor.getOutputStreamForName(filename);
     }
 
 
@@ -50,11 +72,9 @@ public class FileManager implements FileAsStream {
      */
     public void write(String filename, String data) {
 
-        try {
-            OutputStream outputStream = getOutputStreamForName(filename);
+        try (OutputStream outputStream = getOutputStreamForName(filename)) {
             IOUtils.writeStringToStream(outputStream, data);
             outputStream.flush();
-            outputStream.close();
         } catch (IOException e) {
             e.printStackTrace(); // TODO: should be thrown !
         }
@@ -68,8 +88,7 @@ public class FileManager implements FileAsStream {
      */
     public String read(String filename) {
 
-        try {
-            InputStream file = getInputStreamForName(filename);
+        try (InputStream file = getInputStreamForName(filename)) {
             return IOUtils.readInputStreamContentAsString(file);
         } catch (IOException e) {
             e.printStackTrace(); // TODO: should be thrown !
@@ -77,4 +96,56 @@ public class FileManager implements FileAsStream {
         return null;
     }
 
+    /**
+     * Imports the content of the specified file into the provided {@link Topology}, using the
+     * {@link TopologySerializer#importFrom(Topology, InputStream)} streaming method. The content of the file is never
+     * loaded in memory as a whole, unless the {@link TopologySerializer} does not support streaming. Uncompressed
+     * local files are passed as {@link FileChannel}s to {@link TopologySerializer#importFrom(Topology,
+     * java.nio.channels.ReadableByteChannel)}.
+     *
+     * @param filename The path to the file
+     * @param topology The {@link Topology} to be populated
+     * @param serializer The {@link TopologySerializer} used to decode the file
+     * @throws IOException in case of error when reading the file
+     */
+    public void importTopology(String filename, Topology topology, TopologySerializer serializer) throws IOException {
+        try (InputStream inputStream = getInputStreamForName(filename)) {
+            FileChannel channel = getChannel(inputStream);
+            if (channel != null)
+                serializer.importFrom(topology, channel);
+            else
+                serializer.importFrom(topology, new BufferedInputStream(inputStream, IOUtils.BUFFER_SIZE));
+        }
+    }
+
+    private static FileChannel getChannel(InputStream inputStream) {
+        if (inputStream instanceof FileInputStream)
+            return ((FileInputStream) inputStream).getChannel();
+        if (inputStream instanceof MappedFileInputStream)
+            return ((MappedFileInputStream) inputStream).getChannel();
+        return null;
+    }
+
+    /**
+     * Exports the provided {@link Topology} into the specified file, using the
+     * {@link TopologySerializer#exportTo(Topology, OutputStream)} streaming method. Uncompressed local files are passed
+     * as {@link FileChannel}s to {@link TopologySerializer#exportTo(Topology,
+     * java.nio.channels.WritableByteChannel)}.
+     *
+     * @param filename The path to the file
+     * @param topology The {@link Topology} to be exported
+     * @param serializer The {@link TopologySerializer} used to encode the file
+     * @throws IOException in case of error when writing the file
+     */
+    public void exportTopology(String filename, Topology topology, TopologySerializer serializer) throws IOException {
+        try (OutputStream outputStream = getOutputStreamForName(filename)) {
+            if (outputStream instanceof FileOutputStream) {
+                serializer.exportTo(topology, ((FileOutputStream) outputStream).getChannel());
+            } else {
+                OutputStream bufferedStream = new BufferedOutputStream(outputStream, IOUtils.BUFFER_SIZE);
+                serializer.exportTo(topology, bufferedStream);
+                bufferedStream.flush();
+            }
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>The {@link GzipFileAsStream} transparently (de)compresses the files whose name ends with {@code .gz}, the other
+ * files being accessed through another {@link FileAsStream}.</p>
+ *
+ * <p>The compressed streams are buffered, both before the (de)compression and after it, with large buffers. Output
+ * streams must be closed for the compressed file to be complete.</p>
+ */
+public class GzipFileAsStream implements FileAsStream {
+    /**
+     * Extension of compressed files.
+     */
+    public static final String GZIP_EXTENSION = ".gz";
+
+    private final FileAsStream fileAccessor;
+
+    /**
+     * @param fileAccessor the {@link FileAsStream} used to access the files, compressed or not.
+     */
+    public GzipFileAsStream(FileAsStream fileAccessor) {
+        this.fileAccessor = fileAccessor;
+    }
+
+    /**
+     * Indicates whether the file is compressed, according to its name.
+     *
+     * @param filename the name of the file.
+     * @return {@code true} if the name ends with {@link #GZIP_EXTENSION}, ignoring case.
+     */
+    public static boolean isCompressed(String filename) {
+        int start = filename.length() - GZIP_EXTENSION.length();
+        return start >= 0 && filename.regionMatches(true, start, GZIP_EXTENSION, 0, GZIP_EXTENSION.length());
+    }
+
+    /**
+     * Returns the name of the file once decompressed, e.g. {@code trace.xml} for {@code trace.xml.gz}.
+     *
+     * @param filename the name of the file.
+     * @return the name without {@link #GZIP_EXTENSION}, or the name itself if the file is not compressed.
+     */
+    public static String getUncompressedName(String filename) {
+        if (!isCompressed(filename))
+            return filename;
+        return filename.substring(0, filename.length() - GZIP_EXTENSION.length());
+    }
+
+    @Override
+    public InputStream getInputStreamForName(String filename) throws IOException {
+        InputStream inputStream = fileAccessor.getInputStreamForName(filename);
+        if (!isCompressed(filename))
+            return inputStream;
+        try {
+            return new BufferedInputStream(new GZIPInputStream(inputStream, IOUtils.BUFFER_SIZE), IOUtils.BUFFER_SIZE);
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public OutputStream getOutputStreamForName(String filename) throws IOException {
+        OutputStream outputStream = fileAccessor.getOutputStreamForName(filename);
+        if (!isCompressed(filename))
+            return outputStream;
+        try {
+            return new BufferedOutputStream(new GZIPOutputStream(outputStream, IOUtils.BUFFER_SIZE),
+                    IOUtils.BUFFER_SIZE);
+        } catch (IOException e) {
+            outputStream.close();
+            throw e;
+        }
+    }
+}
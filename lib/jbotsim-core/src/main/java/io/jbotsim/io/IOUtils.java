@@ -21,11 +21,36 @@
 package io.jbotsim.io;
 
 import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 
 /**
  * <p>{@link IOUtils} provides static utility functions for IO manipulations.</p>
  */
 public class IOUtils {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    // sun.misc.Unsafe and its invokeCleaner() method, available since Java 9
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
 
     /**
      * <p>Writes the provided data in the {@link OutputStream}.</p>
@@ -53,8 +78,51 @@ public class IOUtils {
         StringBuilder stringBuilder = new StringBuilder();
         String read;
         while ((read = bufferedReader.readLine()) != null)
-            stringBuilder.append(read+'\n');
+            stringBuilder.append(read).append('\n');
 
         return stringBuilder.toString();
     }
+
+    /**
+     * <p>Reads the whole content of the provided {@link Reader} and returns it as a String. Contrary to
+     * {@link #readInputStreamContentAsString(InputStream)}, line terminators are kept as is.</p>
+     * @param reader the {@link Reader} from which data must be read
+     * @return a String representing the content
+     * @throws IOException in case of error when reading the {@link Reader}
+     */
+    public static String readContentAsString(Reader reader) throws IOException {
+        StringBuilder stringBuilder = new StringBuilder();
+        char[] buffer = new char[BUFFER_SIZE];
+        int n;
+        while ((n = reader.read(buffer)) != -1)
+            stringBuilder.append(buffer, 0, n);
+
+        return stringBuilder.toString();
+    }
+
+    /**
+     * <p>Releases the memory mapping of the provided buffer right away, instead of waiting for it to be garbage
+     * collected. Until then, the mapped file can be neither deleted nor truncated on some systems (e.g. Windows).</p>
+     *
+     * <p>The buffer, and any buffer created from it, must not be used anymore afterwards. If the JVM does not permit
+     * it, nothing is done and the mapping is released by the garbage collector.</p>
+     *
+     * @param buffer the {@link MappedByteBuffer} to be released.
+     */
+    public static void unmap(MappedByteBuffer buffer) {
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else {
+                // Java 8: ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null)
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // left to the garbage collector
+        }
+    }
 }
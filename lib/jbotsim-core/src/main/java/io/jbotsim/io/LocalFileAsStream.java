@@ -0,0 +1,40 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io;
+
+import java.io.*;
+
+/**
+ * The {@link LocalFileAsStream} accesses local files through {@link FileInputStream}s and {@link FileOutputStream}s,
+ * whose channel can be used by the callers.
+ */
+public class LocalFileAsStream implements FileAsStream {
+
+    @Override
+    public InputStream getInputStreamForName(String filename) throws IOException {
+        return new FileInputStream(new File(filename));
+    }
+
+    @Override
+    public OutputStream getOutputStreamForName(String filename) throws IOException {
+        return new FileOutputStream(new File(filename));
+    }
+}
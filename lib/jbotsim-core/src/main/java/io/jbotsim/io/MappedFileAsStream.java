@@ -0,0 +1,60 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io;
+
+import java.io.*;
+
+/**
+ * <p>The {@link MappedFileAsStream} reads large local files through memory mappings (see
+ * {@link MappedFileInputStream}), and smaller ones through {@link FileInputStream}s, for which a mapping is not worth
+ * its setup cost.</p>
+ *
+ * <p>Files are written through {@link FileOutputStream}s, whose channel can be used by the callers.</p>
+ *
+ * <p>It is not used by default: see {@link FileManager#FileManager(FileAsStream)}.</p>
+ */
+public class MappedFileAsStream extends LocalFileAsStream {
+    /**
+     * Size from which files are mapped by default, in bytes.
+     */
+    public static final long DEFAULT_MAPPING_THRESHOLD = 1 << 20;
+
+    private final long mappingThreshold;
+
+    public MappedFileAsStream() {
+        this(DEFAULT_MAPPING_THRESHOLD);
+    }
+
+    /**
+     * @param mappingThreshold the size from which files are mapped, in bytes.
+     */
+    public MappedFileAsStream(long mappingThreshold) {
+        this.mappingThreshold = mappingThreshold;
+    }
+
+    @Override
+    public InputStream getInputStreamForName(String filename) throws IOException {
+        File file = new File(filename);
+        if (file.length() >= mappingThreshold)
+            return new MappedFileInputStream(file);
+        return super.getInputStreamForName(filename);
+    }
+}
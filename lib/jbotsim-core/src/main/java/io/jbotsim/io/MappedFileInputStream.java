@@ -0,0 +1,216 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>The {@link MappedFileInputStream} reads a file through a read-only memory mapping, so that its content is copied
+ * directly from the page cache, without system calls.</p>
+ *
+ * <p>Files larger than 1GB are mapped by windows. Besides the {@link InputStream} methods, the stream can be
+ * repositioned anywhere in the file in constant time (see {@link #seek(long)}), and supports {@link #mark(int)} without
+ * any limit.</p>
+ *
+ * <p>Nothing is mapped until the first read, so that callers may use the {@link FileChannel} of the file instead
+ * (see {@link #getChannel()}) at no cost. Each window is released as soon as the stream moves to another one, and
+ * the last one when the stream is closed.</p>
+ *
+ * <p>As a released window must not be accessed anymore, the methods are synchronized: a window is never released
+ * while another thread reads it, e.g. when the stream is closed during a read.</p>
+ */
+public class MappedFileInputStream extends InputStream {
+    private static final long MAX_WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private long markPosition = 0;
+    private boolean closed = false;
+
+    /**
+     * Maps the specified file.
+     *
+     * @param file the file to be read.
+     * @throws IOException in case of error when opening or mapping the file.
+     */
+    public MappedFileInputStream(File file) throws IOException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the file of the provided {@link FileChannel}, from its beginning. The channel is closed along with the
+     * stream.
+     *
+     * @param channel the channel of the file to be read.
+     * @throws IOException in case of error when getting the size of the file.
+     */
+    public MappedFileInputStream(FileChannel channel) throws IOException {
+        this.channel = channel;
+        try {
+            size = channel.size();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void map(long position) throws IOException {
+        unmap();
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_WINDOW_SIZE, size - position));
+    }
+
+    private void unmap() {
+        if (window != null) {
+            windowStart = getPosition();
+            IOUtils.unmap(window);
+            window = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("stream closed");
+    }
+
+    private boolean ensureAvailable() throws IOException {
+        ensureOpen();
+        if (window != null && window.hasRemaining())
+            return true;
+        long position = getPosition();
+        if (position >= size)
+            return false;
+        map(position);
+        return true;
+    }
+
+    /**
+     * Returns the {@link FileChannel} of the mapped file. Its position is not affected by the reads on this stream,
+     * and nothing is mapped if the file is only read through it.
+     *
+     * @return the {@link FileChannel}.
+     */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return the size of the file, in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the offset in the file of the next byte to be read.
+     */
+    public synchronized long getPosition() {
+        return window == null ? windowStart : windowStart + window.position();
+    }
+
+    /**
+     * Moves to the specified offset in the file.
+     *
+     * @param position the offset of the next byte to be read, between 0 and {@link #size()}.
+     * @throws IOException if the stream is closed or the position is invalid.
+     */
+    public synchronized void seek(long position) throws IOException {
+        ensureOpen();
+        if (position < 0 || position > size)
+            throw new IOException("invalid position: " + position);
+        if (window != null && position >= windowStart && position <= windowStart + window.limit()) {
+            window.position((int) (position - windowStart));
+        } else {
+            // the next window is mapped by the next read
+            unmap();
+            windowStart = position;
+        }
+    }
+
+    @Override
+    public synchronized int read() throws IOException {
+        if (!ensureAvailable())
+            return -1;
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off)
+            throw new IndexOutOfBoundsException();
+        ensureOpen();
+        if (len == 0)
+            return 0;
+        if (!ensureAvailable())
+            return -1;
+        int n = Math.min(len, window.remaining());
+        window.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public synchronized long skip(long n) throws IOException {
+        ensureOpen();
+        if (n <= 0)
+            return 0;
+        long position = getPosition();
+        long target = Math.min(size, position + n);
+        seek(target);
+        return target - position;
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        ensureOpen();
+        return (int) Math.min(Integer.MAX_VALUE, size - getPosition());
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        markPosition = getPosition();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        seek(markPosition);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        unmap();
+        channel.close();
+    }
+}
@@ -22,9 +22,23 @@ package io.jbotsim.io;
 
 import io.jbotsim.core.Topology;
 
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
 /**
- * Objects implementing {@link TopologySerializer} are able to (de)serialize a {@link Topology} into a specific
- * {@link String} representation.
+ * <p>Objects implementing {@link TopologySerializer} are able to (de)serialize a {@link Topology} into a specific
+ * {@link String} representation.</p>
+ *
+ * <p>The representation can also be streamed, using {@link #exportTo(Topology, Writer)} and
+ * {@link #importFrom(Topology, Reader)}. Their default implementations are adapters over the {@link String} methods;
+ * serializers should override them so that large topologies are not entirely copied in memory.</p>
+ *
+ * <p>Binary representations should rather override {@link #exportTo(Topology, WritableByteChannel)} and
+ * {@link #importFrom(Topology, ReadableByteChannel)}: the {@link FileManager} gives them the
+ * {@link java.nio.channels.FileChannel} of local files.</p>
  */
 public interface TopologySerializer {
     /**
@@ -46,4 +60,85 @@ public interface TopologySerializer {
      * @param data The {@link String} representation.
      */
     void importFromString(Topology topology, String data);
+
+    /**
+     * Writes the representation of this topology to the provided {@link Writer}, as would
+     * {@link #exportToString(Topology)}. The {@link Writer} is neither flushed nor closed.
+     *
+     * @param topology The {@link Topology} object which must be exported
+     * @param writer the {@link Writer} in which the representation is written
+     * @throws IOException in case of error while writing
+     */
+    default void exportTo(Topology topology, Writer writer) throws IOException {
+        String data = exportToString(topology);
+        if (data == null)
+            throw new IOException("unable to export the topology");
+        writer.write(data);
+    }
+
+    /**
+     * Writes the UTF-8 encoded representation of this topology to the provided {@link OutputStream}. The stream is
+     * flushed but not closed.
+     *
+     * @param topology The {@link Topology} object which must be exported
+     * @param outputStream the {@link OutputStream} in which the representation is written
+     * @throws IOException in case of error while writing
+     */
+    default void exportTo(Topology topology, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        exportTo(topology, writer);
+        writer.flush();
+    }
+
+    /**
+     * Imports nodes and wired links from the representation read from the provided {@link Reader}, as would
+     * {@link #importFromString(Topology, String)}. The {@link Reader} is not closed.
+     *
+     * @param topology The {@link Topology} object which must be populated
+     * @param reader the {@link Reader} from which the representation is read
+     * @throws IOException in case of error while reading
+     */
+    default void importFrom(Topology topology, Reader reader) throws IOException {
+        importFromString(topology, IOUtils.readContentAsString(reader));
+    }
+
+    /**
+     * Imports nodes and wired links from the UTF-8 encoded representation read from the provided
+     * {@link InputStream}. The stream is not closed.
+     *
+     * @param topology The {@link Topology} object which must be populated
+     * @param inputStream the {@link InputStream} from which the representation is read
+     * @throws IOException in case of error while reading
+     */
+    default void importFrom(Topology topology, InputStream inputStream) throws IOException {
+        importFrom(topology, new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Writes the representation of this topology to the provided {@link WritableByteChannel}. The default
+     * implementation writes to the channel through {@link #exportTo(Topology, OutputStream)}. The channel is not
+     * closed.
+     *
+     * @param topology The {@link Topology} object which must be exported
+     * @param channel the {@link WritableByteChannel} in which the representation is written
+     * @throws IOException in case of error while writing
+     */
+    default void exportTo(Topology topology, WritableByteChannel channel) throws IOException {
+        OutputStream outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), IOUtils.BUFFER_SIZE);
+        exportTo(topology, outputStream);
+        outputStream.flush();
+    }
+
+    /**
+     * Imports nodes and wired links from the representation read from the provided {@link ReadableByteChannel}. The
+     * default implementation reads the channel through {@link #importFrom(Topology, InputStream)}; serializers may
+     * override it to map {@link java.nio.channels.FileChannel}s in memory. The channel is not closed.
+     *
+     * @param topology The {@link Topology} object which must be populated
+     * @param channel the {@link ReadableByteChannel} from which the representation is read
+     * @throws IOException in case of error while reading
+     */
+    default void importFrom(Topology topology, ReadableByteChannel channel) throws IOException {
+        importFrom(topology, new BufferedInputStream(Channels.newInputStream(channel), IOUtils.BUFFER_SIZE));
+    }
 }
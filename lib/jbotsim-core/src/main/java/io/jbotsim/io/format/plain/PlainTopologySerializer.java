@@ -22,60 +22,166 @@ package io.jbotsim.io.format.plain;
 
 import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
-import io.jbotsim.core.Point;
 import io.jbotsim.core.Topology;
 import io.jbotsim.io.TopologySerializer;
 
+import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * <p>The {@link PlainTopologySerializer} (de)serializes a {@link Topology} into a simple text format: the
+ * communication and sensing ranges, then a line per {@link Node} with its identifier and location, then a line per
+ * wired {@link Link}.</p>
+ *
+ * <pre>
+ * cR 100.0
+ * sR 0.0
+ * 0  [x = 10.0, y = 20.0]
+ * 1  [x = 60.0, y = 20.0]
+ * 0 &lt;--&gt; 1
+ * </pre>
+ *
+ * <p>Files are read in a single pass, line by line, and the nodes are added to the {@link Topology} all at once
+ * (see {@link Topology#addNodes(java.util.Collection)}).</p>
+ */
 public class PlainTopologySerializer implements TopologySerializer {
-    public void importFromString(Topology topology, String data){
-        topology.setCommunicationRange(Double.parseDouble(data.substring(data.indexOf(" ") + 1, data.indexOf("\n"))));
-        data = data.substring(data.indexOf("\n") + 1);
-        topology.setSensingRange(Double.parseDouble(data.substring(data.indexOf(" ") + 1, data.indexOf("\n"))));
-        data = data.substring(data.indexOf("\n") + 1);
-        HashMap<String, Node> nodeTable = new HashMap<>();
-        while (data.indexOf("[") > 0) {
-            double x = new Double(data.substring(data.indexOf("x") + 3, data.indexOf(", y")));
-            double y = 0;
-            double z = 0;
-            if (data.contains("z")) {
-                y = new Double(data.substring(data.indexOf("y") + 3, data.indexOf(", z")));
-                z = new Double(data.substring(data.indexOf("z") + 3, data.indexOf("]")));
-            }else{
-                y = new Double(data.substring(data.indexOf("y") + 3, data.indexOf("]")));
-            }
+    private static final String COMMUNICATION_RANGE_KEY = "cR ";
+    private static final String SENSING_RANGE_KEY = "sR ";
+    private static final String UNDIRECTED_LINK_OP = " <--> ";
+    private static final String DIRECTED_LINK_OP = " --> ";
+
+    @Override
+    public void importFromString(Topology topology, String data) {
+        try {
+            importFrom(topology, new StringReader(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void importFrom(Topology topology, Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        Map<String, Node> nodeTable = new HashMap<>();
+        List<Node> newNodes = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty())
+                continue;
             try {
-                Node node = topology.newInstanceOfModel("default");
-                node.setLocation(x, y, z);
-                topology.addNode(node);
-                String id = data.substring(0, data.indexOf(" "));
-                node.setProperty("id", id);
-                nodeTable.put(id, node);
-                data = data.substring(data.indexOf("\n") + 1);
-            } catch (Exception e) {}
+                if (line.startsWith(COMMUNICATION_RANGE_KEY)) {
+                    topology.setCommunicationRange(Double.parseDouble(line.substring(COMMUNICATION_RANGE_KEY.length())));
+                } else if (line.startsWith(SENSING_RANGE_KEY)) {
+                    topology.setSensingRange(Double.parseDouble(line.substring(SENSING_RANGE_KEY.length())));
+                } else if (line.indexOf('[') > 0) {
+                    Node node = parseNode(topology, line);
+                    String id = line.substring(0, line.indexOf(' '));
+                    node.setProperty("id", id);
+                    nodeTable.put(id, node);
+                    newNodes.add(node);
+                } else if (line.indexOf("--") > 0) {
+                    // links are only added once their endpoints are in the topology
+                    addNodes(topology, newNodes);
+                    parseLink(topology, line, nodeTable);
+                } else {
+                    throw new IOException("unexpected content");
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("line " + lineNumber + ": malformed input: " + line, e);
+            } catch (IOException e) {
+                throw new IOException("line " + lineNumber + ": " + e.getMessage() + ": " + line, e);
+            }
         }
-        while (data.indexOf("--") > 0) {
-            Node n1 = nodeTable.get(data.substring(0, data.indexOf(" ")));
-            Node n2 = nodeTable.get(data.substring(data.indexOf(">") + 2, data.indexOf("\n")));
-            Link.Orientation orientation = (data.indexOf("<") > 0 && data.indexOf("<") < data.indexOf("\n")) ? Link.Orientation.UNDIRECTED : Link.Orientation.DIRECTED;
-            topology.addLink(new Link(n1, n2, orientation, Link.Mode.WIRED));
-            data = data.substring(data.indexOf("\n") + 1);
+        addNodes(topology, newNodes);
+    }
+
+    private static void addNodes(Topology topology, List<Node> newNodes) {
+        if (newNodes.isEmpty())
+            return;
+        topology.addNodes(newNodes);
+        newNodes.clear();
+    }
+
+    private static Node parseNode(Topology topology, String line) {
+        double x = parseCoordinate(line, "x = ");
+        double y = parseCoordinate(line, "y = ");
+        double z = line.indexOf("z = ") < 0 ? 0 : parseCoordinate(line, "z = ");
+        Node node = topology.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME);
+        node.setLocation(x, y, z);
+        return node;
+    }
+
+    private static double parseCoordinate(String line, String key) {
+        int start = line.indexOf(key) + key.length();
+        int end = start;
+        while (end < line.length() && line.charAt(end) != ',' && line.charAt(end) != ']')
+            end++;
+        return Double.parseDouble(line.substring(start, end));
+    }
+
+    private static void parseLink(Topology topology, String line, Map<String, Node> nodeTable) throws IOException {
+        Link.Orientation orientation;
+        String operator;
+        if (line.contains(UNDIRECTED_LINK_OP)) {
+            orientation = Link.Orientation.UNDIRECTED;
+            operator = UNDIRECTED_LINK_OP;
+        } else {
+            orientation = Link.Orientation.DIRECTED;
+            operator = DIRECTED_LINK_OP;
         }
+        int opIndex = line.indexOf(operator);
+        Node n1 = getNode(nodeTable, line.substring(0, opIndex));
+        Node n2 = getNode(nodeTable, line.substring(opIndex + operator.length()).trim());
+        topology.addLink(new Link(n1, n2, orientation, Link.Mode.WIRED));
     }
+
+    private static Node getNode(Map<String, Node> nodeTable, String id) throws IOException {
+        Node node = nodeTable.get(id);
+        if (node == null)
+            throw new IOException("unknown node " + id);
+        return node;
+    }
+
+    @Override
     public String exportToString(Topology topology){
-        StringBuffer res = new StringBuffer();
-        res.append("cR " + topology.getCommunicationRange() + "\n");
-        res.append("sR " + topology.getSensingRange() + "\n");
-        for (Node n : topology.getNodes()) {
-            Point p2d = new Point();
-            p2d.setLocation(n.getLocation().getX(), n.getLocation().getY());
-            res.append(n.toString() + " " + p2d.toString().substring(p2d.toString().indexOf("[") -1) + "\n");
+        StringWriter res = new StringWriter();
+        try {
+            exportTo(topology, res);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with a StringWriter
         }
-        for (Link l : topology.getLinks())
-            if (!l.isWireless())
-                res.append(l.toString() + "\n");
         return res.toString();
     }
 
+    @Override
+    public void exportTo(Topology topology, Writer writer) throws IOException {
+        writer.write(COMMUNICATION_RANGE_KEY);
+        writer.write(Double.toString(topology.getCommunicationRange()));
+        writer.write('\n');
+        writer.write(SENSING_RANGE_KEY);
+        writer.write(Double.toString(topology.getSensingRange()));
+        writer.write('\n');
+        for (Node n : topology.getNodes()) {
+            writer.write(n.toString());
+            writer.write("  [x = ");
+            writer.write(Double.toString(n.getX()));
+            writer.write(", y = ");
+            writer.write(Double.toString(n.getY()));
+            writer.write("]\n");
+        }
+        for (Link l : topology.getLinks()) {
+            if (!l.isWireless()) {
+                writer.write(l.source.toString());
+                writer.write(l.isDirected() ? DIRECTED_LINK_OP : UNDIRECTED_LINK_OP);
+                writer.write(l.destination.toString());
+                writer.write('\n');
+            }
+        }
+    }
+
 }
@@ -242,6 +242,23 @@ class ColorTest {
     }
     // endregion
 
+    // region getSeededRandomColor(SplittableRandom)
+    @Test
+    void getSeededRandomColor_sameNodeSeeds_sameResult() {
+        Topology tp1 = new Topology();
+        Topology tp2 = new Topology();
+        tp1.setRandomSeed(1);
+        tp2.setRandomSeed(1);
+        tp1.addNode(10, 10);
+        tp2.addNode(10, 10);
+
+        Color color1 = Color.getSeededRandomColor(tp1.getNodes().get(0).getRandom());
+        Color color2 = Color.getSeededRandomColor(tp2.getNodes().get(0).getRandom());
+
+        assertEquals(color1, color2);
+    }
+    // endregion
+
     // region equals
 
     @Test
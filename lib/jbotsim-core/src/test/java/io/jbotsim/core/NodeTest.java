@@ -73,4 +73,32 @@ class NodeTest {
     }
 
     // endregion
+
+
+    // region properties
+
+    @Test
+    void setProperty_newNodes_notShared() {
+        Node node = new Node();
+        Node other = new Node();
+
+        node.setProperty("key", "value");
+
+        assertEquals("value", node.getProperty("key"));
+        assertFalse(other.hasProperty("key"));
+        assertNull(other.getProperty("key"));
+        assertTrue(other.getPropertyKeys().isEmpty());
+        assertFalse(new Node().hasProperty("key"));
+    }
+
+    @Test
+    void removeProperty_noProperty_ok() {
+        Node node = new Node();
+
+        node.removeProperty("key");
+
+        assertTrue(node.getPropertyKeys().isEmpty());
+    }
+
+    // endregion
 }
\ No newline at end of file
@@ -21,11 +21,13 @@
 
 package io.jbotsim.core;
 
+import io.jbotsim.core.event.ConnectivityListener;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -118,6 +120,74 @@ public class OrientationTest {
         return result;
     }
 
+    private static List<String> recordRemovals(Topology tp) {
+        List<String> removals = new ArrayList<>();
+        ConnectivityListener listener = new ConnectivityListener() {
+            @Override
+            public void onLinkAdded(Link link) {
+            }
+
+            @Override
+            public void onLinkRemoved(Link link) {
+                removals.add(link.orientation + " " + link.source.getID() + " " + link.destination.getID());
+            }
+        };
+        tp.addConnectivityListener(listener, UNDIRECTED);
+        tp.addConnectivityListener(listener, DIRECTED);
+        return removals;
+    }
+
+    @ParameterizedTest
+    @MethodSource("ALL_TOPOLOGIES")
+    void clearLinks_sameNotificationsAsRemoveLink(int[][] edges) {
+        Topology expected = buildTopology(edges, UNDIRECTED, UNDIRECTED);
+        List<String> expectedRemovals = recordRemovals(expected);
+        List<Link> links = expected.getLinks();
+        for (int i = links.size() - 1; i >= 0; i--)
+            expected.removeLink(links.get(i));
+
+        Topology actual = buildTopology(edges, UNDIRECTED, UNDIRECTED);
+        List<String> actualRemovals = recordRemovals(actual);
+        actual.clearLinks();
+
+        assertEquals(expectedRemovals, actualRemovals);
+        assertTrue(actual.getLinks(DIRECTED).isEmpty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("ALL_TOPOLOGIES")
+    void clearLinks_directedLinks_removed(int[][] edges) {
+        Topology tp = buildTopology(edges, DIRECTED, DIRECTED);
+        List<String> removals = recordRemovals(tp);
+        List<Link> arcs = tp.getLinks(DIRECTED);
+
+        tp.clearLinks(DIRECTED);
+
+        assertTrue(tp.getLinks(DIRECTED).isEmpty());
+        assertTrue(tp.getLinks(UNDIRECTED).isEmpty());
+        for (Node n : tp.getNodes())
+            assertTrue(n.getOutLinks().isEmpty());
+        for (Link arc : arcs)
+            assertTrue(removals.contains(DIRECTED + " " + arc.source.getID() + " " + arc.destination.getID()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("ALL_TOPOLOGIES")
+    void clearLinks_directedLinksOutsideUndirectedOnes_kept(int[][] edges) {
+        Topology tp = buildTopology(edges, DIRECTED, DIRECTED);
+        List<Link> kept = new ArrayList<>();
+        for (Link arc : tp.getLinks(DIRECTED))
+            if (tp.getLink(arc.source, arc.destination, UNDIRECTED) == null)
+                kept.add(arc);
+
+        tp.clearLinks();
+
+        assertTrue(tp.getLinks(UNDIRECTED).isEmpty());
+        assertEquals(kept, tp.getLinks(DIRECTED));
+        for (Link arc : kept)
+            assertSame(arc, tp.getLink(arc.source, arc.destination, DIRECTED));
+    }
+
     @Test
     void checkDefaultOrientation() {
         assertEquals(Topology.DEFAULT_ORIENTATION, new Topology().getOrientation());
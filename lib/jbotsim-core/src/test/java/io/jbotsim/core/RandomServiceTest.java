@@ -0,0 +1,106 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomServiceTest {
+
+    private static final long SEED = 1234;
+
+    private static Topology createRandomTopology(long seed, int nbNodes) {
+        Topology tp = new Topology();
+        tp.setRandomSeed(seed);
+        for (int i = 0; i < nbNodes; i++)
+            tp.addNode(-1, -1);
+        return tp;
+    }
+
+    @Test
+    void addNode_sameSeed_sameLocations() {
+        Topology tp1 = createRandomTopology(SEED, 10);
+        Topology tp2 = createRandomTopology(SEED, 10);
+
+        for (int i = 0; i < 10; i++)
+            assertEquals(tp1.getNodes().get(i).getLocation(), tp2.getNodes().get(i).getLocation());
+    }
+
+    @Test
+    void forNode_sameSeedAndID_sameStream() {
+        Topology tp1 = createRandomTopology(SEED, 3);
+        Topology tp2 = createRandomTopology(SEED, 3);
+
+        // requesting the streams in a different order does not matter
+        long value2 = tp2.getNodes().get(2).getRandom().nextLong();
+        long value1 = tp1.getNodes().get(2).getRandom().nextLong();
+
+        assertEquals(value1, value2);
+    }
+
+    @Test
+    void forNode_differentIDs_differentStreams() {
+        Topology tp = createRandomTopology(SEED, 2);
+
+        assertNotEquals(tp.getNodes().get(0).getRandom().nextLong(), tp.getNodes().get(1).getRandom().nextLong());
+    }
+
+    @Test
+    void getRandom_detachedNode_sameStream() {
+        Node node = new Node();
+        SplittableRandom random = node.getRandom();
+
+        assertSame(random, node.getRandom());
+
+        Topology tp = createRandomTopology(SEED, 0);
+        tp.addNode(node);
+        assertNotSame(random, node.getRandom());
+        assertEquals(tp.getRandomService().forNode(node).nextLong(), node.getRandom().nextLong());
+    }
+
+    @Test
+    void forComponent_differentSeeds_differentStreams() {
+        RandomService service1 = new RandomService(SEED);
+        RandomService service2 = new RandomService(SEED + 1);
+
+        assertNotEquals(service1.forComponent("engine").nextLong(), service2.forComponent("engine").nextLong());
+        assertEquals(new RandomService(SEED).forComponent("engine").nextLong(),
+                new RandomService(SEED).forComponent("engine").nextLong());
+    }
+
+    @Test
+    void forComponent_sameName_differentStreamsInSameOrder() {
+        RandomService service1 = new RandomService(SEED);
+        RandomService service2 = new RandomService(SEED);
+
+        long first = service1.forComponent("engine").nextLong();
+        long second = service1.forComponent("engine").nextLong();
+
+        assertNotEquals(first, second);
+        assertEquals(first, service2.forComponent("engine").nextLong());
+        assertEquals(second, service2.forComponent("engine").nextLong());
+        service1.setSeed(SEED);
+        assertEquals(first, service1.forComponent("engine").nextLong());
+    }
+}
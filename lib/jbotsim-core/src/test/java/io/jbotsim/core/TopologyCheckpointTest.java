@@ -0,0 +1,166 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyCheckpointTest {
+
+    private static final int DELAY = 5;
+
+    public static class CountingNode extends Node {
+        int counter = 0;
+        Object lastReceived = null;
+
+        @Override
+        public void onClock() {
+            counter++;
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            lastReceived = message.getContent();
+        }
+    }
+
+    private static class CountingNodeCodec extends DefaultCheckpointCodec {
+        @Override
+        public void writeNodeState(DataOutput out, Node node) throws IOException {
+            out.writeInt(((CountingNode) node).counter);
+        }
+
+        @Override
+        public void readNodeState(DataInput in, Node node, Map<Integer, Node> nodesById) throws IOException {
+            ((CountingNode) node).counter = in.readInt();
+        }
+    }
+
+    private static Topology createTopology() {
+        Topology tp = new Topology();
+        tp.setMessageEngine(new DelayMessageEngine(tp, DELAY));
+        tp.setDefaultNodeModel(CountingNode.class);
+        return tp;
+    }
+
+    private static void performRounds(Topology tp, int nbRounds) {
+        for (int i = 0; i < nbRounds; i++)
+            tp.getClockManager().onClock();
+    }
+
+    private static byte[] save(Topology tp) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new TopologyCheckpoint(new CountingNodeCodec()).write(tp, Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static Topology restore(byte[] data) throws IOException {
+        Topology tp = createTopology();
+        new TopologyCheckpoint(new CountingNodeCodec()).read(tp, Channels.newChannel(new ByteArrayInputStream(data)));
+        return tp;
+    }
+
+    @Test
+    void restore_nodesAndLinks_identical() throws IOException {
+        Topology tp = createTopology();
+        tp.setCommunicationRange(50);
+        tp.addNode(10, 10);
+        tp.addNode(40, 10);
+        tp.addNode(300, 300);
+        Node n0 = tp.getNodes().get(0);
+        Node n2 = tp.getNodes().get(2);
+        n0.setColor(Color.red);
+        n2.setLabel("far");
+        n2.setProperty("parent", n0);
+        tp.addLink(new Link(n0, n2, Link.Orientation.DIRECTED, Link.Mode.WIRED));
+        tp.setProperty("name", "test");
+
+        Topology restored = restore(save(tp));
+
+        assertEquals(3, restored.getNodes().size());
+        assertEquals("test", restored.getProperty("name"));
+        for (Node n : tp.getNodes()) {
+            Node r = restored.findNodeById(n.getID());
+            assertEquals(n.getClass(), r.getClass());
+            assertEquals(n.getLocation(), r.getLocation());
+            assertEquals(n.getCommunicationRange(), r.getCommunicationRange(), 0);
+        }
+        Node r0 = restored.findNodeById(n0.getID());
+        Node r2 = restored.findNodeById(n2.getID());
+        assertEquals(Color.red, r0.getColor());
+        assertEquals("far", r2.getLabel());
+        assertSame(r0, r2.getProperty("parent"));
+        assertEquals(tp.getLinks(Link.Orientation.DIRECTED).size(), restored.getLinks(Link.Orientation.DIRECTED).size());
+        assertEquals(tp.getLinks().size(), restored.getLinks().size());
+        assertNotNull(restored.getLink(r0, r2, Link.Orientation.DIRECTED));
+        assertNull(restored.getLink(r2, r0, Link.Orientation.DIRECTED));
+    }
+
+    @Test
+    void restore_delayedMessage_deliveredOnTime() throws IOException {
+        Topology tp = createTopology();
+        tp.addNode(10, 10);
+        tp.addNode(40, 10);
+        CountingNode sender = (CountingNode) tp.getNodes().get(0);
+        CountingNode receiver = (CountingNode) tp.getNodes().get(1);
+        performRounds(tp, 3);
+        sender.send(receiver, new Message("hello"));
+        performRounds(tp, 2);
+        assertNull(receiver.lastReceived);
+
+        Topology restored = restore(save(tp));
+        CountingNode restoredReceiver = (CountingNode) restored.findNodeById(receiver.getID());
+
+        assertEquals(tp.getTime(), restored.getTime());
+        assertEquals(5, restoredReceiver.counter);
+        performRounds(tp, DELAY);
+        performRounds(restored, DELAY);
+        assertEquals("hello", receiver.lastReceived);
+        assertEquals("hello", restoredReceiver.lastReceived);
+    }
+
+    @Test
+    void restore_delayedMessageWithoutDelayEngine_throws() throws IOException {
+        Topology tp = createTopology();
+        tp.addNode(10, 10);
+        tp.addNode(40, 10);
+        tp.getNodes().get(0).send(tp.getNodes().get(1), new Message("hello"));
+        performRounds(tp, 1);
+        byte[] data = save(tp);
+
+        Topology restored = new Topology();
+        restored.setDefaultNodeModel(CountingNode.class);
+        TopologyCheckpoint checkpoint = new TopologyCheckpoint(new CountingNodeCodec());
+
+        assertThrows(IOException.class,
+                () -> checkpoint.read(restored, Channels.newChannel(new ByteArrayInputStream(data))));
+    }
+
+    @Test
+    void read_invalidData_throws() {
+        assertThrows(StreamCorruptedException.class, () -> restore(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopologyForkTest {
+
+    public static class ListNode extends Node {
+        List<Object> received = new ArrayList<>();
+
+        @Override
+        protected Node fork() {
+            ListNode copy = (ListNode) super.fork();
+            copy.received = new ArrayList<>(received);
+            return copy;
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message.getContent());
+        }
+    }
+
+    private Topology parent;
+    private ListNode n0;
+    private ListNode n1;
+
+    @BeforeEach
+    void setUp() {
+        parent = new Topology();
+        parent.setDefaultNodeModel(ListNode.class);
+        parent.addNode(10, 10);
+        parent.addNode(50, 10);
+        parent.addNode(400, 300);
+        n0 = (ListNode) parent.getNodes().get(0);
+        n1 = (ListNode) parent.getNodes().get(1);
+        parent.addLink(new Link(n0, parent.getNodes().get(2), Link.Mode.WIRED));
+        n0.setProperty("key", "parent");
+        parent.setProperty("key", "parent");
+    }
+
+    @Test
+    void fork_structure_identical() {
+        Topology fork = parent.fork();
+
+        assertEquals(parent.getNodes().size(), fork.getNodes().size());
+        assertEquals(parent.getLinks().size(), fork.getLinks().size());
+        assertEquals(parent.getLinks(Link.Orientation.DIRECTED).size(), fork.getLinks(Link.Orientation.DIRECTED).size());
+        for (int i = 0; i < parent.getNodes().size(); i++) {
+            Node n = parent.getNodes().get(i);
+            Node copy = fork.getNodes().get(i);
+            assertNotSame(n, copy);
+            assertSame(fork, copy.getTopology());
+            assertEquals(ListNode.class, copy.getClass());
+            assertEquals(n.getID(), copy.getID());
+            assertEquals(n.getLocation(), copy.getLocation());
+            assertEquals(n.getNeighbors().size(), copy.getNeighbors().size());
+        }
+        assertEquals("parent", fork.getNodes().get(0).getProperty("key"));
+        assertEquals("parent", fork.getProperty("key"));
+    }
+
+    @Test
+    void fork_modifications_notVisibleInParent() {
+        Topology fork = parent.fork();
+        Node copy0 = fork.getNodes().get(0);
+
+        copy0.setProperty("key", "fork");
+        fork.setProperty("key", "fork");
+        copy0.setLocation(500, 300);
+        fork.removeNode(fork.getNodes().get(1));
+
+        assertEquals("parent", n0.getProperty("key"));
+        assertEquals("parent", parent.getProperty("key"));
+        assertEquals(new Point(10, 10), n0.getLocation());
+        assertEquals(3, parent.getNodes().size());
+        assertTrue(n0.getNeighbors().contains(n1));
+    }
+
+    @Test
+    void fork_pendingMessages_deliveredInBothBranches() {
+        n0.send(n1, new Message("hello"));
+
+        Topology fork = parent.fork();
+        parent.getClockManager().onClock();
+        fork.getClockManager().onClock();
+
+        ListNode copy1 = (ListNode) fork.getNodes().get(1);
+        assertEquals(1, n1.received.size());
+        assertEquals(1, copy1.received.size());
+        assertNotSame(n1.received, copy1.received);
+    }
+}
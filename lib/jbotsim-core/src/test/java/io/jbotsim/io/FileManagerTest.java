@@ -0,0 +1,129 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.format.plain.PlainTopologySerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileManagerTest {
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("filemanager").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (File file : directory.listFiles())
+            file.delete();
+        directory.delete();
+    }
+
+    private String path(String name) {
+        return new File(directory, name).getPath();
+    }
+
+    private static String createContent() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++)
+            content.append("line ").append(i).append('\n');
+        return content.toString();
+    }
+
+    @Test
+    void writeThenRead_compressedFile_sameContent() throws IOException {
+        FileManager fileManager = new FileManager();
+        String content = createContent();
+
+        fileManager.write(path("data.txt.gz"), content);
+
+        File file = new File(path("data.txt.gz"));
+        assertTrue(file.length() < content.length() / 4);
+        try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+            assertEquals(content, IOUtils.readInputStreamContentAsString(in));
+        }
+        assertEquals(content, fileManager.read(path("data.txt.gz")));
+    }
+
+    @Test
+    void defaultFileManager_largeFile_notMapped() throws IOException {
+        FileManager fileManager = new FileManager();
+        fileManager.write(path("data.txt"), createContent());
+        Files.write(new File(path("large.bin")).toPath(), new byte[2 * (int) MappedFileAsStream.DEFAULT_MAPPING_THRESHOLD]);
+
+        try (InputStream in = fileManager.getInputStreamForName(path("large.bin"))) {
+            assertTrue(in instanceof FileInputStream);
+        }
+    }
+
+    @Test
+    void read_mappedFile_sameContent() {
+        FileManager fileManager = new FileManager(new GzipFileAsStream(new MappedFileAsStream(0)));
+        String content = createContent();
+
+        fileManager.write(path("data.txt"), content);
+
+        assertEquals(content, fileManager.read(path("data.txt")));
+    }
+
+    @Test
+    void exportThenImport_compressedAndMappedTopologies_identical() throws IOException {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        for (int i = 0; i < 100; i++)
+            tp.addNode(10 + i, 20 + 2 * i);
+        for (int i = 0; i < 99; i++)
+            tp.addLink(new Link(tp.getNodes().get(i), tp.getNodes().get(i + 1), Link.Mode.WIRED));
+        FileManager fileManager = new FileManager(new GzipFileAsStream(new MappedFileAsStream(0)));
+        PlainTopologySerializer serializer = new PlainTopologySerializer();
+
+        for (String name : new String[]{"tp.plain.gz", "tp.plain"}) {
+            fileManager.exportTopology(path(name), tp, serializer);
+            Topology imported = new Topology();
+            imported.disableWireless();
+            fileManager.importTopology(path(name), imported, serializer);
+
+            assertEquals(tp.getNodes().size(), imported.getNodes().size());
+            assertEquals(tp.getLinks().size(), imported.getLinks().size());
+            assertEquals(tp.getNodes().get(42).getLocation(), imported.getNodes().get(42).getLocation());
+        }
+    }
+
+    @Test
+    void uncompressedName() {
+        assertTrue(GzipFileAsStream.isCompressed("trace.xml.GZ"));
+        assertFalse(GzipFileAsStream.isCompressed("gz"));
+        assertEquals("trace.xml", GzipFileAsStream.getUncompressedName("trace.xml.gz"));
+        assertEquals("trace.xml", GzipFileAsStream.getUncompressedName("trace.xml"));
+    }
+}
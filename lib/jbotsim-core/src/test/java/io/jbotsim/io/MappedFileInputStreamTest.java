@@ -0,0 +1,145 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileInputStreamTest {
+
+    private File file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("mapped", ".bin");
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++)
+            content[i] = (byte) (i * 7);
+        Files.write(file.toPath(), content);
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    void read_wholeFile_sameContent() throws IOException {
+        try (MappedFileInputStream in = new MappedFileInputStream(file)) {
+            byte[] read = new byte[content.length];
+            int n = 0;
+            while (n < read.length)
+                n += in.read(read, n, Math.min(64, read.length - n));
+
+            assertArrayEquals(content, read);
+            assertEquals(-1, in.read());
+            assertEquals(-1, in.read(read, 0, 10));
+            assertEquals(0, in.available());
+        }
+    }
+
+    @Test
+    void seekAndSkip_movePosition() throws IOException {
+        try (MappedFileInputStream in = new MappedFileInputStream(file)) {
+            in.seek(500);
+            assertEquals(content[500] & 0xFF, in.read());
+            assertEquals(10, in.skip(10));
+            assertEquals(511, in.getPosition());
+            assertEquals(content[511] & 0xFF, in.read());
+            assertEquals(488, in.skip(10_000));
+            assertEquals(-1, in.read());
+            assertThrows(IOException.class, () -> in.seek(content.length + 1));
+        }
+    }
+
+    @Test
+    void markAndReset_rereadsContent() throws IOException {
+        try (MappedFileInputStream in = new MappedFileInputStream(file)) {
+            in.skip(100);
+            in.mark(0);
+            int first = in.read();
+            in.skip(800);
+            in.reset();
+
+            assertEquals(first, in.read());
+            assertEquals(content[100] & 0xFF, first);
+        }
+    }
+
+    @Test
+    void read_emptyFile_endOfStream() throws IOException {
+        Files.write(file.toPath(), new byte[0]);
+        try (MappedFileInputStream in = new MappedFileInputStream(file)) {
+            assertEquals(0, in.size());
+            assertEquals(-1, in.read());
+        }
+    }
+
+    @Test
+    void read_closedStream_throws() throws IOException {
+        MappedFileInputStream in = new MappedFileInputStream(file);
+        in.read();
+        in.close();
+
+        assertThrows(IOException.class, in::read);
+        assertThrows(IOException.class, () -> in.read(new byte[10], 0, 10));
+        assertThrows(IOException.class, () -> in.skip(10));
+        assertThrows(IOException.class, () -> in.seek(0));
+        in.close();
+    }
+
+    @Test
+    void close_duringReads_readsStopped() throws Exception {
+        MappedFileInputStream in = new MappedFileInputStream(file);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            byte[] buffer = new byte[content.length];
+            try {
+                while (true) {
+                    in.seek(0);
+                    in.read(buffer, 0, buffer.length);
+                    in.read();
+                    started.countDown();
+                }
+            } catch (IOException e) {
+                error.set(e);
+            }
+        });
+        reader.start();
+        started.await();
+
+        in.close();
+        reader.join();
+
+        assertEquals("stream closed", error.get().getMessage());
+    }
+}
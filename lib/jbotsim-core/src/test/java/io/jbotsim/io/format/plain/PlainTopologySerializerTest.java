@@ -0,0 +1,102 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.plain;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlainTopologySerializerTest {
+
+    private static final String PLAIN = "cR 120.0\n" +
+            "sR 10.0\n" +
+            "0  [x = 10.0, y = 20.0]\n" +
+            "1  [x = 50.0, y = 20.0]\n" +
+            "2  [x = 500.0, y = 300.0]\n" +
+            "0 <--> 2\n";
+
+    @Test
+    void exportImport_roundTrip_identical() {
+        PlainTopologySerializer serializer = new PlainTopologySerializer();
+        Topology tp = new Topology();
+        serializer.importFromString(tp, PLAIN);
+
+        assertEquals(PLAIN, serializer.exportToString(tp));
+    }
+
+    @Test
+    void importFrom_nodesAndLinks_loaded() throws IOException {
+        Topology tp = new Topology();
+        new PlainTopologySerializer().importFrom(tp, new StringReader((PLAIN + "2 --> 1\n").replace("\n", "\r\n")));
+
+        assertEquals(120.0, tp.getCommunicationRange(), 0);
+        assertEquals(10.0, tp.getSensingRange(), 0);
+        assertEquals(3, tp.getNodes().size());
+        Node n0 = tp.getNodes().get(0);
+        Node n1 = tp.getNodes().get(1);
+        Node n2 = tp.getNodes().get(2);
+        assertEquals(500.0, n2.getX(), 0);
+        assertEquals("2", n2.getProperty("id"));
+        assertNotNull(tp.getLink(n0, n1));
+        assertTrue(tp.getLink(n0, n1).isWireless());
+        assertFalse(tp.getLink(n0, n2).isWireless());
+        assertNotNull(tp.getLink(n2, n1, Link.Orientation.DIRECTED));
+        assertNull(tp.getLink(n1, n2, Link.Orientation.DIRECTED));
+    }
+
+    @Test
+    void importFrom_unknownNode_throws() {
+        Topology tp = new Topology();
+        IOException e = assertThrows(IOException.class,
+                () -> new PlainTopologySerializer().importFrom(tp, new StringReader("0  [x = 1.0, y = 2.0]\n0 --> 7\n")));
+        assertTrue(e.getMessage().startsWith("line 2"));
+    }
+
+    @Test
+    void addNodes_sameLinksAsAddNode() {
+        Topology expected = new Topology();
+        Topology actual = new Topology();
+        expected.setRandomSeed(42);
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double x = expected.getRandomService().getRandom().nextDouble() * 1000;
+            double y = expected.getRandomService().getRandom().nextDouble() * 1000;
+            expected.addNode(x, y);
+            Node n = new Node();
+            n.setLocation(x, y);
+            nodes.add(n);
+        }
+        actual.addNodes(nodes);
+
+        assertEquals(expected.getLinks(Link.Orientation.DIRECTED).size(),
+                actual.getLinks(Link.Orientation.DIRECTED).size());
+        for (int i = 0; i < nodes.size(); i++)
+            assertEquals(expected.getNodes().get(i).getNeighbors().size(), nodes.get(i).getNeighbors().size());
+    }
+}
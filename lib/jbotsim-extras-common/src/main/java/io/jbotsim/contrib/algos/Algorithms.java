@@ -28,59 +28,73 @@ import io.jbotsim.core.Topology;
 import static java.lang.Math.PI;
 import static java.lang.Math.abs;
 import static java.lang.Math.atan2;
-import static java.lang.Math.max;
-import static java.lang.Math.min;
 import static java.lang.Math.pow;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Enumeration;
-import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Vector;
+import java.util.Map;
+import java.util.Set;
 
 public class Algorithms {
     public static ArrayList<Link> getMST(Topology t){
         return getMST(t.getNodes(), t.getLinks());
     }
     public static ArrayList<Link> getMST(List<Node> Vset){
-        HashSet<Link> Eset=new HashSet<Link>();
-        for (Node ntmp : Vset){
-            for (Link ltmp : ntmp.getLinks()){
-                if (Vset.contains(ltmp.getOtherEndpoint(ntmp)))
+        Set<Node> nodes=Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        nodes.addAll(Vset);
+        // the links are scanned once per topology rather than once per node
+        Set<Topology> topologies=Collections.newSetFromMap(new IdentityHashMap<Topology, Boolean>());
+        for (Node ntmp : Vset)
+            topologies.add(ntmp.getTopology());
+        ArrayList<Link> Eset=new ArrayList<Link>();
+        for (Topology topology : topologies){
+            for (Link ltmp : topology.getLinks()){
+                if (nodes.contains(ltmp.source) && nodes.contains(ltmp.destination))
                     Eset.add(ltmp);
             }
         }
-        return getMST(Vset, new ArrayList<Link>(Eset));
+        return getMST(Vset, Eset);
     }
     private static ArrayList<Link> getMST(List<Node> Vset, List<Link> Eset){
-        if (!Connectivity.isConnected(Vset))
+        ArrayList<Link> Emst=getMinimumSpanningForest(Vset, Eset);
+        if (Vset.isEmpty() || Emst.size()!=Vset.size()-1)
             return null;
-        Collections.sort(Eset);
+        return Emst;
+    }
+    /**
+     * Computes a minimum spanning forest with Kruskal's algorithm: the links are sorted once by length, and the
+     * components are merged with a union-find structure.
+     *
+     * @param nodes the nodes of the forest
+     * @param links the candidate links, whose endpoints are in <code>nodes</code>
+     * @return the links of a minimum spanning forest, by increasing length.
+     */
+    static ArrayList<Link> getMinimumSpanningForest(List<Node> nodes, List<Link> links){
+        Map<Node, Integer> indexes=new IdentityHashMap<Node, Integer>();
+        for (Node n : nodes)
+            indexes.put(n, indexes.size());
+        int nbLinks=links.size();
+        double[] lengths=new double[nbLinks];
+        for (int i=0; i<nbLinks; i++)
+            lengths[i]=links.get(i).source.distance(links.get(i).destination);
+        // sorting the ranks of the lengths along with the indexes of the links avoids boxing
+        double[] sortedLengths=lengths.clone();
+        Arrays.sort(sortedLengths);
+        long[] order=new long[nbLinks];
+        for (int i=0; i<nbLinks; i++)
+            order[i]=((long)Arrays.binarySearch(sortedLengths, lengths[i]) << 32) | i;
+        Arrays.sort(order);
 
-        ArrayList<Node> Vmst=new ArrayList<Node>();
+        UnionFind components=new UnionFind(indexes.size());
         ArrayList<Link> Emst=new ArrayList<Link>();
-        
-        Vmst.add(Vset.get(0));
-
-        while(Vmst.size()!=Vset.size()){
-            boolean added=false;
-            Enumeration<Link> en=new Vector<Link>(Eset).elements();
-            while(!added){
-                if(en.hasMoreElements()){
-                    Link l=en.nextElement();
-                    if (Vmst.contains(l.source) && !Vmst.contains(l.destination)){
-                        Vmst.add(l.destination);
-                        Emst.add(l);
-                        added=true;
-                    }else if (Vmst.contains(l.destination) && !Vmst.contains(l.source)){
-                        Vmst.add(l.source);
-                        Emst.add(l);
-                        added=true;
-                    }
-                }
-            }
+        for (int k=0; k<nbLinks && Emst.size()<indexes.size()-1; k++){
+            Link l=links.get((int)order[k]);
+            if (components.union(indexes.get(l.source), indexes.get(l.destination)))
+                Emst.add(l);
         }
         return Emst;
     }
@@ -120,73 +134,26 @@ public class Algorithms {
             maximum+=PI*pow(n.getSensingRange(), 2);
         return getCoverage(topo)/maximum;
     }
+    /**
+     * Returns the number of points of integer coordinates which are within the sensing range of some node, in the
+     * bounding box of the nodes and of the origin extended by the greatest sensing range.
+     *
+     * @param topo a {@link Topology}
+     * @return the number of covered points.
+     * @see Coverage
+     */
     public static double getCoverage(Topology topo){
-        int left=0, right=0, top=0, bottom=0, maxSR=0;
-        for (Node n : topo.getNodes()){
-            int x=(int)n.getX(); int y=(int)n.getY();
-            left=min(left,x); top=min(top,y);
-            right=max(right,x); bottom=max(bottom,y);
-            maxSR=max(maxSR, (int)n.getSensingRange());
-        }
-        double coverage = 0;
-        for (int i=left-maxSR; i<right+maxSR; i++){
-            for (int j=top-maxSR; j<bottom+maxSR; j++){
-                for (Node n : topo.getNodes()){
-                    if (n.distance(i,j) <= n.getSensingRange()){
-                        coverage++;
-                        break;
-                    }
-                }
-            }
-        }
-        return coverage;
+        return Coverage.getCoverage(topo);
     }
     /**
      * Returns the diameter of the topology (largest shortest path between any two nodes)
      *
      * @param t a {@link Topology}
-     * @return the diameter of the provided {@link Topology}, as an integer.
+     * @return the diameter of the provided {@link Topology}, as an integer, or <code>null</code> if it is not
+     * connected.
+     * @see GraphDistances
      */
     public static Integer getDiameter(Topology t) {
-        if (!Connectivity.isConnected(t))
-            return null;
-        int max = 0;
-        for (Node node : t.getNodes()){
-            int d = maxDistance(t, node);
-            max = d > max ? d : max;
-        }
-        return max;
-    }
-    /**
-     * Returns the length of the shortest path from this node to the farthest node
-     */
-    private static int maxDistance(Topology t, Node node){
-        Hashtable<Node,Integer> distance = new Hashtable<Node,Integer>();
-
-        for (Node n : t.getNodes()){
-            distance.put(n, new Integer(t.getNodes().size()));
-        }
-
-        distance.put(node, new Integer(0));
-        int depth = 1;
-        int cnt = 1;
-        List<Node> distList = new ArrayList<Node>();
-        distList.add(node);
-        while (distList.size() > 0) {
-            List<Node> nextList = new ArrayList<Node>();
-            for (Node n : distList){
-                List<Node> nbrs = n.getNeighbors();
-                for (Node n2 : nbrs){
-                    if (distance.get(n2).equals(new Integer(t.getNodes().size()))){
-                        cnt++;
-                        distance.put(n2, new Integer(depth));
-                        nextList.add(n2);
-                    }
-                }
-            }
-            distList = nextList;
-            depth++;
-        }
-        return cnt == t.getNodes().size() ? depth-2 : t.getNodes().size();
+        return new GraphDistances(t).getDiameter();
     }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The articulation points and the bridges of an {@link IndexedGraph}, found with Tarjan's algorithm by a single
+ * depth-first search, whose stack is an array rather than the call stack.
+ */
+final class Biconnectivity {
+    private final IndexedGraph graph;
+    private final boolean[] articulationPoints;
+    private final boolean[] bridges;
+    // the size of the component of each node
+    private final int[] componentSizes;
+    private int nbComponents;
+
+    Biconnectivity(IndexedGraph graph) {
+        this.graph = graph;
+        int n = graph.size();
+        articulationPoints = new boolean[n];
+        bridges = new boolean[graph.links.size()];
+        componentSizes = new int[n];
+        int[] discovery = new int[n];
+        int[] low = new int[n];
+        int[] parentLinks = new int[n];
+        int[] next = new int[n];
+        int[] stack = new int[n];
+        int[] members = new int[n];
+        Arrays.fill(discovery, -1);
+        int time = 0;
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] >= 0)
+                continue;
+            nbComponents++;
+            int rootChildren = 0;
+            int nbMembers = 0;
+            discovery[root] = low[root] = time++;
+            parentLinks[root] = -1;
+            next[root] = graph.offsets[root];
+            stack[0] = root;
+            members[nbMembers++] = root;
+            for (int top = 1; top > 0; ) {
+                int v = stack[top - 1];
+                if (next[v] < graph.offsets[v + 1]) {
+                    int k = next[v]++;
+                    int w = graph.neighbors[k];
+                    if (discovery[w] < 0) {
+                        discovery[w] = low[w] = time++;
+                        parentLinks[w] = graph.neighborLinks[k];
+                        next[w] = graph.offsets[w];
+                        stack[top++] = w;
+                        members[nbMembers++] = w;
+                        if (v == root)
+                            rootChildren++;
+                    } else if (graph.neighborLinks[k] != parentLinks[v]) {
+                        low[v] = Math.min(low[v], discovery[w]);
+                    }
+                } else {
+                    top--;
+                    if (top > 0) {
+                        int parent = stack[top - 1];
+                        low[parent] = Math.min(low[parent], low[v]);
+                        if (parent != root && low[v] >= discovery[parent])
+                            articulationPoints[parent] = true;
+                        if (low[v] > discovery[parent])
+                            bridges[parentLinks[v]] = true;
+                    }
+                }
+            }
+            if (rootChildren > 1)
+                articulationPoints[root] = true;
+            for (int i = 0; i < nbMembers; i++)
+                componentSizes[members[i]] = nbMembers;
+        }
+    }
+
+    int getNbComponents() {
+        return nbComponents;
+    }
+
+    boolean isArticulationPoint(int v) {
+        return articulationPoints[v];
+    }
+
+    /**
+     * Tells whether the graph without the specified node is empty or disconnected.
+     */
+    boolean isCritical(int v) {
+        if (componentSizes[v] == 1)
+            return nbComponents != 2;
+        return nbComponents > 1 || articulationPoints[v];
+    }
+
+    /**
+     * Tells whether the graph is connected and stays connected when any node is removed. As with
+     * {@link Connectivity#isCritical(Node)}, a single node is not biconnected.
+     */
+    boolean isBiconnected() {
+        if (nbComponents != 1 || graph.size() == 1)
+            return false;
+        for (boolean articulationPoint : articulationPoints)
+            if (articulationPoint)
+                return false;
+        return true;
+    }
+
+    List<Node> getArticulationPoints() {
+        List<Node> result = new ArrayList<>();
+        for (int v = 0; v < graph.size(); v++)
+            if (articulationPoints[v])
+                result.add(graph.nodes.get(v));
+        return result;
+    }
+
+    List<Node> getCriticalNodes() {
+        List<Node> result = new ArrayList<>();
+        for (int v = 0; v < graph.size(); v++)
+            if (isCritical(v))
+                result.add(graph.nodes.get(v));
+        return result;
+    }
+
+    List<Link> getBridges() {
+        List<Link> result = new ArrayList<>();
+        for (int i = 0; i < bridges.length; i++)
+            if (bridges[i])
+                result.add(graph.links.get(i));
+        return result;
+    }
+}
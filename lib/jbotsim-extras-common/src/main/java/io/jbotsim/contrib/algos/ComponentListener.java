@@ -0,0 +1,44 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Node;
+
+import java.util.Set;
+
+/**
+ * The listener of the changes of the connected components followed by a {@link ComponentTracker}.
+ */
+public interface ComponentListener {
+    /**
+     * Notifies the underlying listener that a link has merged two components.
+     * @param component the nodes of the merged component.
+     * @param merged the nodes of the smaller of the two components, which were added to the larger one.
+     */
+    void onComponentsMerged(Set<Node> component, Set<Node> merged);
+
+    /**
+     * Notifies the underlying listener that the removal of a link has split a component in two.
+     * @param component the nodes of the larger part, which keeps the identity of the component.
+     * @param separated the nodes of the smaller part, which form a new component.
+     */
+    void onComponentSplit(Set<Node> component, Set<Node> separated);
+}
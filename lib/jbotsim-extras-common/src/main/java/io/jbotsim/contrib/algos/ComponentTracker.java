@@ -0,0 +1,266 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.core.event.ConnectivityListener;
+import io.jbotsim.core.event.TopologyListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>The {@link ComponentTracker} keeps the connected components of the undirected links of a {@link Topology} up to
+ * date while the nodes and links are added and removed, so that the connectivity queries take constant time.</p>
+ *
+ * <p>Each node refers to its component. When a link joins two components, the nodes of the smaller one move to the
+ * larger one. When a link of a component disappears, its endpoints are explored alternately until they meet again,
+ * or until the part of one of them is fully explored, in which case this part becomes a new component.</p>
+ *
+ * <p>A node which is added forms a new component, and a node which is removed leaves its component (after its links
+ * have been removed). These changes are not notified to the {@link ComponentListener}s.</p>
+ */
+public class ComponentTracker implements ConnectivityListener, TopologyListener {
+    private final Topology tp;
+    private final Map<Node, Set<Node>> components = new IdentityHashMap<>();
+    private final Map<Node, Set<Node>> adjacency = new IdentityHashMap<>();
+    private final List<ComponentListener> listeners = new ArrayList<>();
+    private int nbComponents;
+
+    /**
+     * Computes the connected components of the specified topology, then keeps them up to date.
+     * @param tp the topology
+     */
+    public ComponentTracker(Topology tp) {
+        this.tp = tp;
+        List<Node> nodes = tp.getNodes();
+        Map<Node, Integer> indexes = new IdentityHashMap<>();
+        for (Node n : nodes)
+            indexes.put(n, indexes.size());
+        UnionFind unionFind = new UnionFind(nodes.size());
+        for (Link l : tp.getLinks(Link.Orientation.UNDIRECTED)) {
+            addNeighbor(l.source, l.destination);
+            addNeighbor(l.destination, l.source);
+            unionFind.union(indexes.get(l.source), indexes.get(l.destination));
+        }
+        Map<Integer, Set<Node>> byRoot = new HashMap<>();
+        for (Node n : nodes) {
+            Set<Node> component = byRoot.computeIfAbsent(unionFind.find(indexes.get(n)), root -> newNodeSet());
+            component.add(n);
+            components.put(n, component);
+        }
+        nbComponents = byRoot.size();
+        tp.addTopologyListener(this);
+        tp.addConnectivityListener(this, Link.Orientation.UNDIRECTED);
+    }
+
+    /**
+     * Stops following the changes of the topology.
+     */
+    public void stop() {
+        tp.removeTopologyListener(this);
+        tp.removeConnectivityListener(this, Link.Orientation.UNDIRECTED);
+    }
+
+    public void addComponentListener(ComponentListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeComponentListener(ComponentListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return the number of connected components.
+     */
+    public int getNbComponents() {
+        return nbComponents;
+    }
+
+    /**
+     * @return whether the topology has a single connected component. An empty topology is not connected.
+     */
+    public boolean isConnected() {
+        return nbComponents == 1;
+    }
+
+    /**
+     * @param n1 a node
+     * @param n2 another node
+     * @return whether there is a path between {@code n1} and {@code n2}.
+     */
+    public boolean areConnected(Node n1, Node n2) {
+        Set<Node> component = components.get(n1);
+        return component != null && component == components.get(n2);
+    }
+
+    /**
+     * @param node a node of the topology
+     * @return a read-only view of the nodes of the component of {@code node}, which stays up to date until the
+     * component changes, or an empty set if the node is unknown.
+     */
+    public Set<Node> getComponent(Node node) {
+        Set<Node> component = components.get(node);
+        return component == null ? Collections.<Node>emptySet() : Collections.unmodifiableSet(component);
+    }
+
+    /**
+     * @return the nodes of each component.
+     */
+    public List<Set<Node>> getComponents() {
+        Set<Set<Node>> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Set<Node>> result = new ArrayList<>(nbComponents);
+        for (Set<Node> component : components.values())
+            if (distinct.add(component))
+                result.add(Collections.unmodifiableSet(component));
+        return result;
+    }
+
+    @Override
+    public void onNodeAdded(Node node) {
+        componentOf(node);
+    }
+
+    @Override
+    public void onNodeRemoved(Node node) {
+        for (Node neighbor : new ArrayList<>(adjacency.getOrDefault(node, Collections.<Node>emptySet())))
+            removeLinkBetween(node, neighbor);
+        Set<Node> component = components.remove(node);
+        if (component != null) {
+            component.remove(node);
+            if (component.isEmpty())
+                nbComponents--;
+        }
+    }
+
+    @Override
+    public void onLinkAdded(Link link) {
+        Node a = link.source;
+        Node b = link.destination;
+        if (!addNeighbor(a, b))
+            return;
+        addNeighbor(b, a);
+        Set<Node> ca = componentOf(a);
+        Set<Node> cb = componentOf(b);
+        if (ca == cb)
+            return;
+        Set<Node> large = ca.size() >= cb.size() ? ca : cb;
+        Set<Node> small = large == ca ? cb : ca;
+        for (Node n : small)
+            components.put(n, large);
+        large.addAll(small);
+        nbComponents--;
+        for (ComponentListener listener : new ArrayList<>(listeners))
+            listener.onComponentsMerged(Collections.unmodifiableSet(large), Collections.unmodifiableSet(small));
+    }
+
+    @Override
+    public void onLinkRemoved(Link link) {
+        removeLinkBetween(link.source, link.destination);
+    }
+
+    private void removeLinkBetween(Node a, Node b) {
+        if (!removeNeighbor(a, b))
+            return;
+        removeNeighbor(b, a);
+        Set<Node> separated = separatedPart(a, b);
+        if (separated == null)
+            return;
+        Set<Node> component = components.get(a);
+        component.removeAll(separated);
+        for (Node n : separated)
+            components.put(n, separated);
+        nbComponents++;
+        for (ComponentListener listener : new ArrayList<>(listeners))
+            listener.onComponentSplit(Collections.unmodifiableSet(component), Collections.unmodifiableSet(separated));
+    }
+
+    // explores the parts of a and b alternately: returns null if they meet, or the first part fully explored
+    private Set<Node> separatedPart(Node a, Node b) {
+        Set<Node> partA = newNodeSet();
+        Set<Node> partB = newNodeSet();
+        ArrayDeque<Node> queueA = new ArrayDeque<>();
+        ArrayDeque<Node> queueB = new ArrayDeque<>();
+        partA.add(a);
+        queueA.add(a);
+        partB.add(b);
+        queueB.add(b);
+        while (true) {
+            Node n = queueA.poll();
+            if (n == null)
+                return partA;
+            if (explore(n, queueA, partA, partB))
+                return null;
+            n = queueB.poll();
+            if (n == null)
+                return partB;
+            if (explore(n, queueB, partB, partA))
+                return null;
+        }
+    }
+
+    // returns whether a neighbor of n is in the other part
+    private boolean explore(Node n, ArrayDeque<Node> queue, Set<Node> part, Set<Node> other) {
+        for (Node neighbor : adjacency.getOrDefault(n, Collections.<Node>emptySet())) {
+            if (other.contains(neighbor))
+                return true;
+            if (part.add(neighbor))
+                queue.add(neighbor);
+        }
+        return false;
+    }
+
+    private Set<Node> componentOf(Node node) {
+        Set<Node> component = components.get(node);
+        if (component == null) {
+            component = newNodeSet();
+            component.add(node);
+            components.put(node, component);
+            nbComponents++;
+        }
+        return component;
+    }
+
+    private boolean addNeighbor(Node n, Node neighbor) {
+        return adjacency.computeIfAbsent(n, k -> newNodeSet()).add(neighbor);
+    }
+
+    private boolean removeNeighbor(Node n, Node neighbor) {
+        Set<Node> neighbors = adjacency.get(n);
+        if (neighbors == null || !neighbors.remove(neighbor))
+            return false;
+        if (neighbors.isEmpty())
+            adjacency.remove(n);
+        return true;
+    }
+
+    private static Set<Node> newNodeSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+}
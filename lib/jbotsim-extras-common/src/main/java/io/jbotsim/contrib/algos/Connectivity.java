@@ -41,39 +41,60 @@ public class Connectivity {
         return new ArrayList<Node>(neighbors);
     }
     public static List<ArrayList<Node>> splitIntoConnectedSets(List<Node> Vset){
+        IndexedGraph graph=IndexedGraph.of(Vset);
+        int[] labels=labelComponents(graph);
         List<ArrayList<Node>> connectedSets=new ArrayList<ArrayList<Node>>();
-        List<Node> Vinit=new ArrayList<Node>(Vset);
-        while(!Vinit.isEmpty()){
-            ArrayList<Node> nextConnectedSet=new ArrayList<Node>();
-            nextConnectedSet.addAll(getConnectedSet(Vinit.get(0), Vinit));
-            Vinit.removeAll(nextConnectedSet);
-            connectedSets.add(nextConnectedSet);
+        for (int v=0; v<graph.size(); v++){
+            if (labels[v]==connectedSets.size())
+                connectedSets.add(new ArrayList<Node>());
+            connectedSets.get(labels[v]).add(graph.nodes.get(v));
         }
         return connectedSets;
     }
     public static List<Node> getConnectedSet(Node node, List<Node> among) {
-        ArrayList<Node> amongSet=new ArrayList<Node>(among);
-        HashSet<Node> connectedSet = new HashSet<Node>();
-        amongSet.remove(node);
-        connectedSet.add(node);
-        for (Node neigh : node.getNeighbors()){
-            if (amongSet.contains(neigh)){
-                amongSet.remove(neigh);
-                connectedSet.addAll(getConnectedSet(neigh, amongSet));
-            }
-        }
-        return new ArrayList<Node>(connectedSet);
+        List<Node> nodes=new ArrayList<Node>(among.size()+1);
+        nodes.add(node);
+        nodes.addAll(among);
+        IndexedGraph graph=IndexedGraph.of(nodes);
+        int[] labels=labelComponents(graph);
+        ArrayList<Node> connectedSet=new ArrayList<Node>();
+        for (int v=0; v<graph.size(); v++)
+            if (labels[v]==labels[0])
+                connectedSet.add(graph.nodes.get(v));
+        return connectedSet;
     }
     public static boolean isBiconnected(Topology topo){
-        if (!isConnected(topo))
-            return false;
-        for (Node n : topo.getNodes())
-            if (isCritical(n))
-                return false;
-        return true;
+        return new Biconnectivity(IndexedGraph.withOrientation(topo)).isBiconnected();
     }
     public static boolean isCritical(Node n){
-        return !isConnectedWithout(n.getTopology().getNodes(), n);
+        IndexedGraph graph=IndexedGraph.withOrientation(n.getTopology());
+        return new Biconnectivity(graph).isCritical(graph.indexes.get(n));
+    }
+    /**
+     * Returns the nodes whose removal leaves the rest of the topology empty or disconnected, i.e. the nodes for which
+     * {@link #isCritical(Node)} holds, all found by a single depth-first search.
+     */
+    public static List<Node> getCriticalNodes(Topology t){
+        return new Biconnectivity(IndexedGraph.withOrientation(t)).getCriticalNodes();
+    }
+    /**
+     * Returns the nodes whose removal disconnects their own connected component. As with {@link #isConnected(Topology)},
+     * the links of the orientation of the topology are followed in both directions.
+     */
+    public static List<Node> getArticulationPoints(Topology t){
+        return getArticulationPoints(t.getNodes());
+    }
+    public static List<Node> getArticulationPoints(List<Node> Vset){
+        return new Biconnectivity(IndexedGraph.withOrientation(Vset)).getArticulationPoints();
+    }
+    /**
+     * Returns the undirected links whose removal disconnects their own connected component.
+     */
+    public static List<Link> getBridges(Topology t){
+        return getBridges(t.getNodes());
+    }
+    public static List<Link> getBridges(List<Node> Vset){
+        return new Biconnectivity(IndexedGraph.of(Vset)).getBridges();
     }
     public static boolean isKHopCritical(Node n, int nbhops){
         ArrayList<Node> kneighbors=getKHopNeighbors(n, nbhops);
@@ -93,28 +114,46 @@ public class Connectivity {
     public static boolean isConnected(List<Node> Vset){
         if (Vset.size()==0)
             return false;
-        if (Vset.size()==1)
-            return true;
-        ArrayList<Node> vertices=new ArrayList<Node>(Vset);
-        removeConnectedNodes(vertices,vertices.get(0));
-        return vertices.isEmpty();
+        IndexedGraph graph=IndexedGraph.withOrientation(Vset);
+        return countComponents(labelComponents(graph))==1;
     }
     public static int getNbConnectedComponents(Topology t){
-        ArrayList<Node> vertices=new ArrayList<Node>(t.getNodes());
-        int nbComp=0;
-        while (vertices.size()>0){
-            removeConnectedNodes(vertices,vertices.get(0));
-            nbComp++;
-        }
-        return nbComp;
-    }
-    private static void removeConnectedNodes(ArrayList<Node> Vtmp, Node v){
-        Vtmp.remove(v);
-        for(Link l : v.getLinks()){
-            Node neighbor=l.getOtherEndpoint(v);
-            if(Vtmp.contains(neighbor))
-                removeConnectedNodes(Vtmp, neighbor);
+        return countComponents(labelComponents(IndexedGraph.withOrientation(t)));
+    }
+    /**
+     * Numbers the connected components with an iterative breadth-first search: the components are numbered from 0
+     * in the order of their first node.
+     */
+    static int[] labelComponents(IndexedGraph graph){
+        int n=graph.size();
+        int[] labels=new int[n];
+        Arrays.fill(labels, -1);
+        int[] queue=new int[n];
+        int nbComponents=0;
+        for (int source=0; source<n; source++){
+            if (labels[source]>=0)
+                continue;
+            labels[source]=nbComponents;
+            queue[0]=source;
+            for (int head=0, tail=1; head<tail; head++){
+                int u=queue[head];
+                for (int k=graph.offsets[u]; k<graph.offsets[u+1]; k++){
+                    int w=graph.neighbors[k];
+                    if (labels[w]<0){
+                        labels[w]=nbComponents;
+                        queue[tail++]=w;
+                    }
+                }
+            }
+            nbComponents++;
         }
+        return labels;
+    }
+    private static int countComponents(int[] labels){
+        int nbComponents=0;
+        for (int label : labels)
+            nbComponents=Math.max(nbComponents, label+1);
+        return nbComponents;
     }
     public static int getOptimalTopologySize(int nbNodes, double cRange, double ratio){
     double d = 0, pCo, pBico;
@@ -133,14 +172,14 @@ public class Connectivity {
         double Sr=tp.getSensingRange();
         int size = getOptimalTopologySize(nbNodes, Cr, 100);
         int bordure = new Double(4*Sr).intValue();
-        Random rand = new Random();
+        SplittableRandom rand = tp.getRandomService().forComponent(Connectivity.class.getName());
         Topology tmp=new Topology();
         tp.pause();
         do{
             tmp.clear();
             for (int i=0; i<nbNodes; i++)
                 tmp.addNode(rand.nextInt(size)+2*bordure, rand.nextInt(size)+1.5*bordure, tp.newInstanceOfModel("default"));
-        } while (!Connectivity.isConnected(tmp) || Connectivity.isBiconnected(tmp));
+        } while (!isConnectedButNotBiconnected(tmp));
         for (Node n:tmp.getNodes())
             tp.addNode(n.getX(), n.getY(), tp.newInstanceOfModel("default"));
         tp.resume();
@@ -149,16 +188,20 @@ public class Connectivity {
     int size = getOptimalTopologySize(nbNodes, cRange, ratio);
     int bordure = new Double(4*sRange).intValue();
     int attempts = 0;
-    Random rand = new Random();
     Topology topo = new Topology();
+    SplittableRandom rand = topo.getRandomService().getRandom();
     topo.setSensingRange(sRange);
     topo.setCommunicationRange(cRange);
     do{ attempts++;
         topo.clear();
         for (int i=0; i<nbNodes; i++)
         topo.addNode(rand.nextInt(size)+2*bordure, rand.nextInt(size)+1.5*bordure, topo.newInstanceOfModel("default"));
-    } while (!Connectivity.isConnected(topo) || Connectivity.isBiconnected(topo));
+    } while (!isConnectedButNotBiconnected(topo));
     topo.setProperty("attempts", attempts);
     return topo;
     }
+    private static boolean isConnectedButNotBiconnected(Topology t){
+        Biconnectivity biconnectivity=new Biconnectivity(IndexedGraph.withOrientation(t));
+        return biconnectivity.getNbComponents()==1 && !biconnectivity.isBiconnected();
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.contrib.internal.Workers;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>The {@link Coverage} counts the points of integer coordinates which are within the sensing range of some node,
+ * as {@link Algorithms#getCoverage(Topology)} does.</p>
+ *
+ * <p>The exact count registers the sensing disks in a grid, then merges, row by row, the intervals covered by the
+ * disks of the row, so that it does not depend on the area of the disks. The rows can be shared among worker
+ * threads. For very large fields, the coverage can also be estimated by sampling random points.</p>
+ *
+ * @see CoverageTracker
+ */
+public class Coverage {
+    private static final int ROWS_PER_TASK = 64;
+
+    /**
+     * An estimation of the number of covered points, with its standard error.
+     */
+    public static class Estimate {
+        private final double value;
+        private final double standardError;
+        private final int nbSamples;
+
+        Estimate(double value, double standardError, int nbSamples) {
+            this.value = value;
+            this.standardError = standardError;
+            this.nbSamples = nbSamples;
+        }
+
+        /**
+         * @return the estimated number of covered points.
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * @return the standard error of the estimation.
+         */
+        public double getStandardError() {
+            return standardError;
+        }
+
+        /**
+         * @return the number of sampled points.
+         */
+        public int getNbSamples() {
+            return nbSamples;
+        }
+
+        /**
+         * @param z the number of standard errors, for instance 1.96 for a 95% confidence interval
+         * @return the lower bound of the confidence interval.
+         */
+        public double getLowerBound(double z) {
+            return value - z * standardError;
+        }
+
+        /**
+         * @param z the number of standard errors, for instance 1.96 for a 95% confidence interval
+         * @return the upper bound of the confidence interval.
+         */
+        public double getUpperBound(double z) {
+            return value + z * standardError;
+        }
+
+        @Override
+        public String toString() {
+            return value + " +/- " + 1.96 * standardError + " (95%)";
+        }
+    }
+
+    /**
+     * Counts the covered points of the field of {@link Algorithms#getCoverage(Topology)}: the bounding box of the
+     * nodes and of the origin, extended by the greatest sensing range.
+     * @param topo the topology
+     * @return the number of covered points.
+     */
+    public static long getCoverage(Topology topo) {
+        CoverageGrid grid = createGrid(topo.getNodes());
+        long coverage = 0;
+        CoverageGrid.RowBuffer buffer = new CoverageGrid.RowBuffer();
+        for (int j = grid.top; j < grid.bottom; j++)
+            coverage += grid.countRow(j, buffer);
+        return coverage;
+    }
+
+    /**
+     * Same as {@link #getCoverage(Topology)}, with the rows shared among the specified number of worker threads.
+     * @param topo the topology
+     * @param nbWorkers the number of worker threads
+     * @return the number of covered points.
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public static long getCoverage(Topology topo, int nbWorkers) throws InterruptedException {
+        if (nbWorkers < 1)
+            throw new IllegalArgumentException("nbWorkers must be >= 1: " + nbWorkers);
+        CoverageGrid grid = createGrid(topo.getNodes());
+        int nbTasks = (int) ((grid.bottom - (long) grid.top + ROWS_PER_TASK - 1) / ROWS_PER_TASK);
+        AtomicLong coverage = new AtomicLong();
+        Workers.run(nbTasks, nbWorkers, () -> {
+            CoverageGrid.RowBuffer buffer = new CoverageGrid.RowBuffer();
+            return task -> {
+                int first = grid.top + task * ROWS_PER_TASK;
+                int last = (int) Math.min(grid.bottom, (long) first + ROWS_PER_TASK);
+                long count = 0;
+                for (int j = first; j < last; j++)
+                    count += grid.countRow(j, buffer);
+                coverage.addAndGet(count);
+            };
+        });
+        return coverage.get();
+    }
+
+    /**
+     * Estimates the number of covered points of the field of {@link #getCoverage(Topology)}, from the proportion of
+     * covered points among uniformly sampled points.
+     * @param topo the topology
+     * @param nbSamples the number of sampled points
+     * @param random the source of randomness
+     * @return the estimation.
+     */
+    public static Estimate estimateCoverage(Topology topo, int nbSamples, SplittableRandom random) {
+        if (nbSamples < 1)
+            throw new IllegalArgumentException("nbSamples must be >= 1: " + nbSamples);
+        CoverageGrid grid = createGrid(topo.getNodes());
+        long nbPoints = grid.getNbPoints();
+        if (nbPoints == 0)
+            return new Estimate(0, 0, nbSamples);
+        int hits = 0;
+        for (int k = 0; k < nbSamples; k++)
+            if (grid.covers(random.nextInt(grid.left, grid.right), random.nextInt(grid.top, grid.bottom)))
+                hits++;
+        double p = (double) hits / nbSamples;
+        return new Estimate(p * nbPoints, Math.sqrt(p * (1 - p) / nbSamples) * nbPoints, nbSamples);
+    }
+
+    // the field of Algorithms.getCoverage()
+    private static CoverageGrid createGrid(List<Node> nodes) {
+        int left = 0, right = 0, top = 0, bottom = 0, maxSR = 0;
+        double maxRange = 0;
+        for (Node n : nodes) {
+            int x = (int) n.getX();
+            int y = (int) n.getY();
+            left = Math.min(left, x);
+            top = Math.min(top, y);
+            right = Math.max(right, x);
+            bottom = Math.max(bottom, y);
+            maxSR = Math.max(maxSR, (int) n.getSensingRange());
+            maxRange = Math.max(maxRange, n.getSensingRange());
+        }
+        left -= maxSR;
+        top -= maxSR;
+        right += maxSR;
+        bottom += maxSR;
+        int cellSize = CoverageGrid.chooseCellSize(right - (long) left, bottom - (long) top, nodes.size(), maxRange);
+        CoverageGrid grid = new CoverageGrid(left, top, right, bottom, cellSize);
+        for (Node n : nodes)
+            grid.add(n);
+        return grid;
+    }
+}
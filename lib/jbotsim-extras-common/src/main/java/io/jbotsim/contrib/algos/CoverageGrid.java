@@ -0,0 +1,255 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The sensing disks of some nodes, registered in the square cells of a field that they overlap, so that the covered
+ * points of a row of the field can be counted from the disks of a single row of cells.
+ *
+ * <p>The field is made of the points of integer coordinates {@code (i, j)} with {@code left <= i < right} and
+ * {@code top <= j < bottom}, and a point is covered by a node if {@code node.distance(i, j)} is lower than or equal
+ * to its sensing range.</p>
+ */
+final class CoverageGrid {
+    /**
+     * The position and the sensing range of a node, as they were when the disk was added to the grid.
+     */
+    static final class Disk {
+        final Node node;
+        double x;
+        double y;
+        double z;
+        double range;
+        // the cells overlapped by the bounding box of the disk, or firstCol > lastCol if it is outside the field
+        int firstCol = 1;
+        int lastCol = 0;
+        int firstRow;
+        int lastRow;
+
+        Disk(Node node) {
+            this.node = node;
+        }
+
+        boolean covers(int i, int j) {
+            double dx = x - i;
+            double dy = y - j;
+            return Math.sqrt(dx * dx + dy * dy + z * z) <= range;
+        }
+
+        /**
+         * @return the first row of the field which may be covered by the disk.
+         */
+        int getFirstRow(CoverageGrid grid) {
+            return Math.max(grid.top, (int) Math.floor(y - range) - 1);
+        }
+
+        /**
+         * @return the last row of the field which may be covered by the disk.
+         */
+        int getLastRow(CoverageGrid grid) {
+            return Math.min(grid.bottom - 1, (int) Math.ceil(y + range) + 1);
+        }
+    }
+
+    /**
+     * The buffers of a thread which counts rows.
+     */
+    static final class RowBuffer {
+        long[] intervals = new long[16];
+    }
+
+    final int left;
+    final int top;
+    final int right;
+    final int bottom;
+    private final int cellSize;
+    private final int nbCols;
+    private final int nbRows;
+    private final List<Disk>[] cells;
+
+    /**
+     * @param cellSize the side of the cells, which should be about the diameter of the disks.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    CoverageGrid(int left, int top, int right, int bottom, int cellSize) {
+        this.left = left;
+        this.top = top;
+        this.right = Math.max(left, right);
+        this.bottom = Math.max(top, bottom);
+        this.cellSize = Math.max(1, cellSize);
+        nbCols = Math.max(1, (int) ((this.right - (long) left + this.cellSize - 1) / this.cellSize));
+        nbRows = Math.max(1, (int) ((this.bottom - (long) top + this.cellSize - 1) / this.cellSize));
+        cells = new List[nbCols * nbRows];
+    }
+
+    /**
+     * Chooses a cell size for the specified disks: about their diameter, but with about as many cells as disks.
+     */
+    static int chooseCellSize(long width, long height, int nbDisks, double maxRange) {
+        double area = (double) width * height;
+        double size = Math.max(2 * maxRange, Math.sqrt(area / Math.max(1, nbDisks)));
+        return (int) Math.max(8, Math.min(size, Integer.MAX_VALUE / 2));
+    }
+
+    long getNbPoints() {
+        return (long) (right - left) * (bottom - top);
+    }
+
+    /**
+     * Creates the disk of the specified node at its current location and adds it to the grid.
+     */
+    Disk add(Node node) {
+        Disk disk = new Disk(node);
+        update(disk);
+        return disk;
+    }
+
+    /**
+     * Moves the specified disk to the current location and sensing range of its node.
+     */
+    void update(Disk disk) {
+        remove(disk);
+        disk.x = disk.node.getX();
+        disk.y = disk.node.getY();
+        disk.z = disk.node.getZ();
+        disk.range = disk.node.getSensingRange();
+        if (!(disk.range >= 0) || disk.x + disk.range + 1 < left || disk.x - disk.range - 1 >= right ||
+                disk.y + disk.range + 1 < top || disk.y - disk.range - 1 >= bottom)
+            return;
+        disk.firstCol = cellCol(Math.floor(disk.x - disk.range) - 1);
+        disk.lastCol = cellCol(Math.ceil(disk.x + disk.range) + 1);
+        disk.firstRow = cellRow(Math.floor(disk.y - disk.range) - 1);
+        disk.lastRow = cellRow(Math.ceil(disk.y + disk.range) + 1);
+        for (int row = disk.firstRow; row <= disk.lastRow; row++)
+            for (int col = disk.firstCol; col <= disk.lastCol; col++) {
+                int cell = row * nbCols + col;
+                if (cells[cell] == null)
+                    cells[cell] = new ArrayList<>(4);
+                cells[cell].add(disk);
+            }
+    }
+
+    /**
+     * Removes the specified disk from the grid.
+     */
+    void remove(Disk disk) {
+        for (int row = disk.firstRow; row <= disk.lastRow && disk.firstCol <= disk.lastCol; row++)
+            for (int col = disk.firstCol; col <= disk.lastCol; col++) {
+                List<Disk> cell = cells[row * nbCols + col];
+                for (int k = 0; k < cell.size(); k++)
+                    if (cell.get(k) == disk) {
+                        cell.set(k, cell.get(cell.size() - 1));
+                        cell.remove(cell.size() - 1);
+                        break;
+                    }
+            }
+        disk.firstCol = 1;
+        disk.lastCol = 0;
+    }
+
+    private int cellCol(double x) {
+        return (int) Math.max(0, Math.min(nbCols - 1, Math.floor((x - left) / cellSize)));
+    }
+
+    private int cellRow(double y) {
+        return (int) Math.max(0, Math.min(nbRows - 1, Math.floor((y - top) / cellSize)));
+    }
+
+    /**
+     * Tells whether the specified point of the field is covered.
+     */
+    boolean covers(int i, int j) {
+        List<Disk> cell = cells[cellRow(j) * nbCols + cellCol(i)];
+        if (cell != null)
+            for (Disk disk : cell)
+                if (disk.covers(i, j))
+                    return true;
+        return false;
+    }
+
+    /**
+     * Counts the covered points of the specified row, by merging the intervals covered by the disks of its row of
+     * cells.
+     */
+    long countRow(int j, RowBuffer buffer) {
+        int row = cellRow(j);
+        int nbIntervals = 0;
+        for (int col = 0; col < nbCols; col++) {
+            List<Disk> cell = cells[row * nbCols + col];
+            if (cell == null)
+                continue;
+            for (Disk disk : cell) {
+                // a disk is registered in several cells of the row, but only counted from the first one
+                if (disk.firstCol != col)
+                    continue;
+                long interval = coveredInterval(disk, j);
+                if (interval < 0)
+                    continue;
+                if (nbIntervals == buffer.intervals.length)
+                    buffer.intervals = Arrays.copyOf(buffer.intervals, 2 * nbIntervals);
+                buffer.intervals[nbIntervals++] = interval;
+            }
+        }
+        Arrays.sort(buffer.intervals, 0, nbIntervals);
+        long count = 0;
+        long end = -1; // last counted column, relative to left
+        for (int k = 0; k < nbIntervals; k++) {
+            long lo = Math.max(buffer.intervals[k] >>> 32, end + 1);
+            long hi = buffer.intervals[k] & 0xFFFFFFFFL;
+            if (hi >= lo) {
+                count += hi - lo + 1;
+                end = hi;
+            }
+        }
+        return count;
+    }
+
+    // returns the columns covered by the disk in row j, relative to left, packed in a long, or -1
+    private long coveredInterval(Disk disk, int j) {
+        double dy = disk.y - j;
+        if (Math.abs(dy) > disk.range + 1)
+            return -1;
+        double remainder = disk.range * disk.range - dy * dy - disk.z * disk.z;
+        double halfWidth = remainder > 0 ? Math.sqrt(remainder) : 0;
+        long lo = (long) Math.ceil(disk.x - halfWidth);
+        long hi = (long) Math.floor(disk.x + halfWidth);
+        // the bounds are adjusted so that the points match the test of Node.distance() exactly
+        while (disk.covers((int) (lo - 1), j) && lo - 1 >= left)
+            lo--;
+        while (lo <= hi && !disk.covers((int) lo, j))
+            lo++;
+        while (disk.covers((int) (hi + 1), j) && hi + 1 < right)
+            hi++;
+        while (hi >= lo && !disk.covers((int) hi, j))
+            hi--;
+        lo = Math.max(lo, left);
+        hi = Math.min(hi, right - 1);
+        if (hi < lo)
+            return -1;
+        return ((lo - left) << 32) | (hi - left);
+    }
+}
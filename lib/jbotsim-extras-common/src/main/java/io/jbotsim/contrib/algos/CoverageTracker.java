@@ -0,0 +1,155 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.core.event.MovementListener;
+import io.jbotsim.core.event.TopologyListener;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>The {@link CoverageTracker} keeps the number of covered points of a fixed field up to date while the nodes of a
+ * {@link Topology} are added, removed or moved, or change their sensing range.</p>
+ *
+ * <p>The number of covered points of each row is stored, and only the rows crossed by the old or the new sensing
+ * disk of a node are counted again when it changes.</p>
+ *
+ * @see Coverage
+ */
+public class CoverageTracker implements MovementListener, TopologyListener {
+    private final Topology tp;
+    private final CoverageGrid grid;
+    private final Map<Node, CoverageGrid.Disk> disks = new IdentityHashMap<>();
+    private final long[] rowCoverages;
+    private final CoverageGrid.RowBuffer buffer = new CoverageGrid.RowBuffer();
+    private long coverage;
+
+    /**
+     * Tracks the coverage of the area of the topology, that is the points {@code (i, j)} with
+     * {@code 0 <= i < width} and {@code 0 <= j < height}.
+     * @param tp the topology
+     */
+    public CoverageTracker(Topology tp) {
+        this(tp, 0, 0, tp.getWidth(), tp.getHeight());
+    }
+
+    /**
+     * Tracks the coverage of the points {@code (i, j)} with {@code left <= i < left + width} and
+     * {@code top <= j < top + height}.
+     * @param tp the topology
+     * @param left the abscissa of the first column of the field
+     * @param top the ordinate of the first row of the field
+     * @param width the number of columns of the field
+     * @param height the number of rows of the field
+     */
+    public CoverageTracker(Topology tp, int left, int top, int width, int height) {
+        if (width < 0 || height < 0)
+            throw new IllegalArgumentException("negative field size: " + width + "x" + height);
+        this.tp = tp;
+        double maxRange = 0;
+        for (Node n : tp.getNodes())
+            maxRange = Math.max(maxRange, n.getSensingRange());
+        grid = new CoverageGrid(left, top, left + width, top + height,
+                CoverageGrid.chooseCellSize(width, height, tp.getNodes().size(), maxRange));
+        rowCoverages = new long[height];
+        for (Node n : tp.getNodes())
+            disks.put(n, grid.add(n));
+        for (int j = grid.top; j < grid.bottom; j++)
+            recount(j);
+        tp.addTopologyListener(this);
+        tp.addMovementListener(this);
+    }
+
+    /**
+     * Stops following the changes of the topology.
+     */
+    public void stop() {
+        tp.removeTopologyListener(this);
+        tp.removeMovementListener(this);
+    }
+
+    /**
+     * @return the number of covered points of the field.
+     */
+    public long getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * @return the proportion of covered points of the field.
+     */
+    public double getRelativeCoverage() {
+        long nbPoints = grid.getNbPoints();
+        return nbPoints == 0 ? 0 : (double) coverage / nbPoints;
+    }
+
+    @Override
+    public void onNodeAdded(Node node) {
+        if (disks.containsKey(node))
+            return;
+        CoverageGrid.Disk disk = grid.add(node);
+        disks.put(node, disk);
+        recount(disk.getFirstRow(grid), disk.getLastRow(grid));
+    }
+
+    @Override
+    public void onNodeRemoved(Node node) {
+        CoverageGrid.Disk disk = disks.remove(node);
+        if (disk == null)
+            return;
+        int first = disk.getFirstRow(grid);
+        int last = disk.getLastRow(grid);
+        grid.remove(disk);
+        recount(first, last);
+    }
+
+    @Override
+    public void onMovement(Node node) {
+        CoverageGrid.Disk disk = disks.get(node);
+        if (disk == null)
+            return;
+        int oldFirst = disk.getFirstRow(grid);
+        int oldLast = disk.getLastRow(grid);
+        grid.update(disk);
+        int newFirst = disk.getFirstRow(grid);
+        int newLast = disk.getLastRow(grid);
+        if (oldLast < newFirst || newLast < oldFirst) {
+            recount(oldFirst, oldLast);
+            recount(newFirst, newLast);
+        } else {
+            recount(Math.min(oldFirst, newFirst), Math.max(oldLast, newLast));
+        }
+    }
+
+    private void recount(int first, int last) {
+        for (int j = first; j <= last; j++)
+            recount(j);
+    }
+
+    private void recount(int j) {
+        long count = grid.countRow(j, buffer);
+        coverage += count - rowCoverages[j - grid.top];
+        rowCoverages[j - grid.top] = count;
+    }
+}
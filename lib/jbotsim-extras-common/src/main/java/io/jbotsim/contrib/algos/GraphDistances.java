@@ -0,0 +1,299 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.contrib.internal.Workers;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The {@link GraphDistances} computes the eccentricities, the diameter and the radius of the undirected graph
+ * formed by some nodes, in number of hops.</p>
+ *
+ * <p>The links are copied into an indexed adjacency structure when it is created, so that the later changes of the
+ * topology are ignored. The eccentricities of all the nodes are computed by breadth-first searches from 64 sources at
+ * a time, whose frontiers are bitsets. The diameter is computed with the iFUB algorithm and the radius by pruning the
+ * nodes whose eccentricity is bounded by the searches already done, which both need only a few searches on most
+ * graphs.</p>
+ */
+public class GraphDistances {
+    /**
+     * The eccentricity of the nodes of a disconnected graph.
+     */
+    public static final int INFINITE = Integer.MAX_VALUE;
+
+    private final IndexedGraph graph;
+    // the buffers of the single-source searches
+    private final int[] distances;
+    private final int[] queue;
+
+    /**
+     * Takes a snapshot of the nodes and links of the specified topology.
+     * @param tp the topology
+     */
+    public GraphDistances(Topology tp) {
+        this(IndexedGraph.of(tp));
+    }
+
+    /**
+     * Takes a snapshot of the specified nodes and of the links between them.
+     * @param nodes the nodes
+     */
+    public GraphDistances(List<Node> nodes) {
+        this(IndexedGraph.of(nodes));
+    }
+
+    private GraphDistances(IndexedGraph graph) {
+        this.graph = graph;
+        distances = new int[graph.size()];
+        queue = new int[graph.size()];
+    }
+
+    /**
+     * @return the nodes, in the order of {@link #getEccentricities()}.
+     */
+    public List<Node> getNodes() {
+        return new ArrayList<>(graph.nodes);
+    }
+
+    /**
+     * @param node a node of the graph
+     * @return the greatest distance from {@code node} to another node, or {@link #INFINITE} if some node cannot
+     * be reached.
+     */
+    public int getEccentricity(Node node) {
+        Integer index = graph.indexes.get(node);
+        if (index == null)
+            throw new IllegalArgumentException("The node " + node + " is not in the graph.");
+        return eccentricity(bfs(index));
+    }
+
+    /**
+     * Computes the eccentricities of all the nodes, on the calling thread.
+     * @return the eccentricity of each node, in the order of {@link #getNodes()}.
+     */
+    public int[] getEccentricities() {
+        int[] eccentricities = new int[graph.size()];
+        for (int block = 0; block * 64 < graph.size(); block++)
+            multiSourceBfs(block * 64, eccentricities);
+        return eccentricities;
+    }
+
+    /**
+     * Same as {@link #getEccentricities()}, with the sources split by blocks of 64 among the specified number of
+     * worker threads.
+     * @param nbWorkers the number of worker threads
+     * @return the eccentricity of each node, in the order of {@link #getNodes()}.
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public int[] getEccentricities(int nbWorkers) throws InterruptedException {
+        int[] eccentricities = new int[graph.size()];
+        int nbBlocks = (graph.size() + 63) / 64;
+        Workers.run(nbBlocks, nbWorkers, () -> block -> multiSourceBfs(block * 64, eccentricities));
+        return eccentricities;
+    }
+
+    /**
+     * Computes the diameter, that is the greatest eccentricity, with the iFUB algorithm: the nodes are visited by
+     * decreasing distance from a central node, until the greatest eccentricity found cannot be exceeded by the
+     * remaining nodes.
+     * @return the diameter, or {@code null} if the graph is empty or disconnected.
+     */
+    public Integer getDiameter() {
+        int n = graph.size();
+        if (n == 0)
+            return null;
+        // double sweep from a node of maximum degree, to find a long path and its middle node
+        int start = 0;
+        for (int v = 1; v < n; v++)
+            if (graph.degree(v) > graph.degree(start))
+                start = v;
+        int x = farthest(bfs(start));
+        if (x < 0)
+            return null;
+        int[] parents = new int[n];
+        int y = farthest(bfs(x, parents));
+        int lowerBound = distances[y];
+        int center = y;
+        for (int hops = 0; hops < lowerBound / 2; hops++)
+            center = parents[center];
+
+        int nbReached = bfs(center);
+        int eccentricity = eccentricity(nbReached);
+        // the nodes by decreasing distance from the center
+        int[] byDistance = Arrays.copyOf(queue, nbReached);
+        int[] levelStarts = new int[eccentricity + 2];
+        for (int v : byDistance)
+            levelStarts[distances[v] + 1]++;
+        for (int i = 0; i <= eccentricity; i++)
+            levelStarts[i + 1] += levelStarts[i];
+
+        lowerBound = Math.max(lowerBound, eccentricity);
+        int upperBound = 2 * eccentricity;
+        for (int i = eccentricity; upperBound > lowerBound && i > 0; i--) {
+            int levelMax = 0;
+            for (int k = levelStarts[i]; k < levelStarts[i + 1]; k++)
+                levelMax = Math.max(levelMax, eccentricity(bfs(byDistance[k])));
+            lowerBound = Math.max(lowerBound, levelMax);
+            upperBound = 2 * (i - 1);
+        }
+        return lowerBound;
+    }
+
+    /**
+     * Computes the radius, that is the smallest eccentricity. The nodes are visited by increasing lower bound of
+     * their eccentricity, which is raised by each search, until this bound reaches the smallest eccentricity found.
+     * @return the radius, or {@code null} if the graph is empty or disconnected.
+     */
+    public Integer getRadius() {
+        int n = graph.size();
+        if (n == 0)
+            return null;
+        int[] lowerBounds = new int[n];
+        boolean[] done = new boolean[n];
+        int radius = INFINITE;
+        int v = 0;
+        for (int u = 1; u < n; u++)
+            if (graph.degree(u) > graph.degree(v))
+                v = u;
+        while (v >= 0) {
+            int nbReached = bfs(v);
+            if (nbReached < n)
+                return null;
+            int eccentricity = eccentricity(nbReached);
+            done[v] = true;
+            radius = Math.min(radius, eccentricity);
+            // ecc(w) >= d(v, w) and ecc(w) >= ecc(v) - d(v, w)
+            int next = -1;
+            for (int w = 0; w < n; w++) {
+                if (done[w])
+                    continue;
+                int d = distances[w];
+                lowerBounds[w] = Math.max(lowerBounds[w], Math.max(d, eccentricity - d));
+                if (lowerBounds[w] < radius && (next < 0 || lowerBounds[w] < lowerBounds[next]))
+                    next = w;
+            }
+            v = next;
+        }
+        return radius;
+    }
+
+    // returns the number of reached nodes, which are in queue in the order of their distance
+    private int bfs(int source) {
+        return bfs(source, null);
+    }
+
+    private int bfs(int source, int[] parents) {
+        Arrays.fill(distances, -1);
+        distances[source] = 0;
+        queue[0] = source;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int u = queue[head++];
+            for (int k = graph.offsets[u]; k < graph.offsets[u + 1]; k++) {
+                int w = graph.neighbors[k];
+                if (distances[w] < 0) {
+                    distances[w] = distances[u] + 1;
+                    if (parents != null)
+                        parents[w] = u;
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return tail;
+    }
+
+    // the eccentricity of the source of the last search
+    private int eccentricity(int nbReached) {
+        return nbReached < graph.size() ? INFINITE : distances[queue[nbReached - 1]];
+    }
+
+    // the farthest node from the source of the last search, or -1 if some nodes were not reached
+    private int farthest(int nbReached) {
+        return nbReached < graph.size() ? -1 : queue[nbReached - 1];
+    }
+
+    // computes the eccentricities of the nodes first..first+63 with a single search
+    private void multiSourceBfs(int first, int[] eccentricities) {
+        int n = graph.size();
+        int nbSources = Math.min(64, n - first);
+        long all = nbSources == 64 ? -1L : (1L << nbSources) - 1;
+        long[] visited = new long[n];
+        long[] frontier = new long[n];
+        long[] next = new long[n];
+        // the nodes reached at the current level, and the ones reached at the next level
+        int[] frontierNodes = new int[n];
+        int[] nextNodes = new int[n];
+        int frontierSize = nbSources;
+        for (int k = 0; k < nbSources; k++) {
+            visited[first + k] = 1L << k;
+            frontier[first + k] = 1L << k;
+            frontierNodes[k] = first + k;
+        }
+        // the sources whose search is not over, and the number of nodes reached by each one
+        long active = all;
+        int[] nbReached = new int[nbSources];
+        Arrays.fill(nbReached, 1);
+        for (int level = 1; active != 0; level++) {
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                int u = frontierNodes[i];
+                long bits = frontier[u];
+                frontier[u] = 0;
+                for (int k = graph.offsets[u]; k < graph.offsets[u + 1]; k++) {
+                    int v = graph.neighbors[k];
+                    long newBits = bits & ~visited[v];
+                    if (newBits == 0)
+                        continue;
+                    if (next[v] == 0)
+                        nextNodes[nextSize++] = v;
+                    next[v] |= newBits;
+                }
+            }
+            long reachedAtLevel = 0;
+            for (int i = 0; i < nextSize; i++) {
+                int v = nextNodes[i];
+                long bits = next[v];
+                visited[v] |= bits;
+                reachedAtLevel |= bits;
+                for (long b = bits; b != 0; b &= b - 1)
+                    nbReached[Long.numberOfTrailingZeros(b)]++;
+            }
+            // a search which reaches no new node is over: its eccentricity is the previous level
+            for (long b = active & ~reachedAtLevel; b != 0; b &= b - 1) {
+                int k = Long.numberOfTrailingZeros(b);
+                eccentricities[first + k] = nbReached[k] < n ? INFINITE : level - 1;
+            }
+            active &= reachedAtLevel;
+            long[] tmp = frontier;
+            frontier = next;
+            next = tmp;
+            int[] tmpNodes = frontierNodes;
+            frontierNodes = nextNodes;
+            nextNodes = tmpNodes;
+            frontierSize = nextSize;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.core.event.ConnectivityListener;
+import io.jbotsim.core.event.MovementListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>The {@link IncrementalMST} maintains a minimum spanning forest of the undirected links of a {@link Topology},
+ * weighted by their lengths, while the links appear and disappear and the nodes move.</p>
+ *
+ * <p>The forest is computed once with Kruskal's algorithm, then repaired locally: a new or shortened link replaces
+ * the longest link of the path of the forest between its endpoints if it is shorter, and a removed or lengthened link
+ * of the forest is replaced by the shortest link between the two parts of its tree, which are found from the
+ * smaller part.</p>
+ */
+public class IncrementalMST implements ConnectivityListener, MovementListener {
+    // a link, shared by the adjacency maps of its endpoints, with its length when it was last updated
+    private static final class Edge {
+        final Node a;
+        final Node b;
+        final Link link;
+        double length;
+
+        Edge(Link link) {
+            this.a = link.source;
+            this.b = link.destination;
+            this.link = link;
+            this.length = a.distance(b);
+        }
+
+        Node other(Node n) {
+            return n == a ? b : a;
+        }
+    }
+
+    private final Topology tp;
+    private final Map<Node, Map<Node, Edge>> adjacency = new IdentityHashMap<>();
+    private final Set<Edge> forest = new LinkedHashSet<>();
+    private double weight;
+
+    /**
+     * Computes a minimum spanning forest of the specified topology, then keeps it up to date.
+     * @param tp the topology
+     */
+    public IncrementalMST(Topology tp) {
+        this.tp = tp;
+        List<Link> links = tp.getLinks(Link.Orientation.UNDIRECTED);
+        for (Link l : links)
+            addEdge(l);
+        for (Link l : Algorithms.getMinimumSpanningForest(tp.getNodes(), links))
+            setInForest(getEdge(l.source, l.destination), true);
+        tp.addConnectivityListener(this, Link.Orientation.UNDIRECTED);
+        tp.addMovementListener(this);
+    }
+
+    /**
+     * Stops following the changes of the topology.
+     */
+    public void stop() {
+        tp.removeConnectivityListener(this, Link.Orientation.UNDIRECTED);
+        tp.removeMovementListener(this);
+    }
+
+    /**
+     * @return the links of the forest.
+     */
+    public List<Link> getLinks() {
+        List<Link> links = new ArrayList<>(forest.size());
+        for (Edge e : forest)
+            links.add(e.link);
+        return links;
+    }
+
+    /**
+     * @param l a link of the topology
+     * @return whether {@code l} is in the forest.
+     */
+    public boolean contains(Link l) {
+        Edge e = getEdge(l.source, l.destination);
+        return e != null && forest.contains(e);
+    }
+
+    /**
+     * @return the total length of the links of the forest.
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return whether the forest is a tree which spans all the nodes, that is whether the topology is connected.
+     */
+    public boolean isSpanningTree() {
+        return forest.size() == tp.getNodes().size() - 1;
+    }
+
+    @Override
+    public void onLinkAdded(Link link) {
+        if (getEdge(link.source, link.destination) == null)
+            insert(addEdge(link));
+    }
+
+    @Override
+    public void onLinkRemoved(Link link) {
+        Edge e = removeEdge(link.source, link.destination);
+        if (e != null && forest.contains(e)) {
+            setInForest(e, false);
+            reconnect(e.a, e.b);
+        }
+    }
+
+    @Override
+    public void onMovement(Node node) {
+        Map<Node, Edge> edges = adjacency.get(node);
+        if (edges == null)
+            return;
+        for (Edge e : new ArrayList<>(edges.values())) {
+            double length = e.a.distance(e.b);
+            double previous = e.length;
+            if (length == previous)
+                continue;
+            boolean inForest = forest.contains(e);
+            if (inForest)
+                setInForest(e, false);
+            e.length = length;
+            if (inForest && length < previous)
+                setInForest(e, true);
+            else if (inForest)
+                reconnect(e.a, e.b);
+            else if (length < previous)
+                insert(e);
+        }
+    }
+
+    private Edge addEdge(Link link) {
+        Edge e = new Edge(link);
+        adjacency.computeIfAbsent(e.a, n -> new HashMap<>()).put(e.b, e);
+        adjacency.computeIfAbsent(e.b, n -> new HashMap<>()).put(e.a, e);
+        return e;
+    }
+
+    private Edge getEdge(Node a, Node b) {
+        Map<Node, Edge> edges = adjacency.get(a);
+        return edges == null ? null : edges.get(b);
+    }
+
+    private Edge removeEdge(Node a, Node b) {
+        Edge e = getEdge(a, b);
+        if (e != null) {
+            removeFromAdjacency(a, b);
+            removeFromAdjacency(b, a);
+        }
+        return e;
+    }
+
+    private void removeFromAdjacency(Node n, Node other) {
+        Map<Node, Edge> edges = adjacency.get(n);
+        edges.remove(other);
+        if (edges.isEmpty())
+            adjacency.remove(n);
+    }
+
+    private void setInForest(Edge e, boolean inForest) {
+        if (inForest ? forest.add(e) : forest.remove(e))
+            weight += inForest ? e.length : -e.length;
+    }
+
+    // adds e to the forest, in place of the longest link of the cycle that it closes if it is shorter
+    private void insert(Edge e) {
+        Edge longest = longestOnPath(e.a, e.b);
+        if (longest == null) {
+            setInForest(e, true);
+        } else if (longest.length > e.length) {
+            setInForest(longest, false);
+            setInForest(e, true);
+        }
+    }
+
+    // returns the longest link of the path of the forest between u and v, or null if there is no such path
+    private Edge longestOnPath(Node u, Node v) {
+        Map<Node, Edge> parents = new IdentityHashMap<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        parents.put(u, null);
+        queue.add(u);
+        while (!queue.isEmpty() && !parents.containsKey(v)) {
+            Node n = queue.poll();
+            for (Edge e : forestEdges(n)) {
+                Node next = e.other(n);
+                if (!parents.containsKey(next)) {
+                    parents.put(next, e);
+                    queue.add(next);
+                }
+            }
+        }
+        if (!parents.containsKey(v))
+            return null;
+        Edge longest = null;
+        for (Node n = v; n != u; ) {
+            Edge e = parents.get(n);
+            if (longest == null || e.length > longest.length)
+                longest = e;
+            n = e.other(n);
+        }
+        return longest;
+    }
+
+    // links the trees of u and v with the shortest link between them, if any
+    private void reconnect(Node u, Node v) {
+        Set<Node> side = smallerSide(u, v);
+        Edge shortest = null;
+        for (Node n : side) {
+            Map<Node, Edge> edges = adjacency.get(n);
+            if (edges == null)
+                continue;
+            for (Edge e : edges.values())
+                if (!side.contains(e.other(n)) && (shortest == null || e.length < shortest.length))
+                    shortest = e;
+        }
+        if (shortest != null)
+            setInForest(shortest, true);
+    }
+
+    // explores the trees of u and v alternately, and returns the first one which is fully explored
+    private Set<Node> smallerSide(Node u, Node v) {
+        Set<Node> sideU = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Node> sideV = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Node> queueU = new ArrayDeque<>();
+        ArrayDeque<Node> queueV = new ArrayDeque<>();
+        sideU.add(u);
+        queueU.add(u);
+        sideV.add(v);
+        queueV.add(v);
+        while (true) {
+            if (!explore(queueU, sideU))
+                return sideU;
+            if (!explore(queueV, sideV))
+                return sideV;
+        }
+    }
+
+    private boolean explore(ArrayDeque<Node> queue, Set<Node> side) {
+        Node n = queue.poll();
+        if (n == null)
+            return false;
+        for (Edge e : forestEdges(n))
+            if (side.add(e.other(n)))
+                queue.add(e.other(n));
+        return true;
+    }
+
+    private List<Edge> forestEdges(Node n) {
+        Map<Node, Edge> edges = adjacency.get(n);
+        if (edges == null)
+            return Collections.emptyList();
+        List<Edge> result = new ArrayList<>();
+        for (Edge e : edges.values())
+            if (forest.contains(e))
+                result.add(e);
+        return result;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A snapshot of the links between some nodes, with the nodes numbered from 0 and the neighbors of node {@code v}
+ * stored in {@code neighbors[offsets[v]..offsets[v+1]-1]}, along with the index of the corresponding link in
+ * {@code neighborLinks}. The links are taken as undirected: a directed link makes each endpoint a neighbor of the
+ * other.
+ */
+final class IndexedGraph {
+    final List<Node> nodes;
+    final Map<Node, Integer> indexes;
+    final List<Link> links;
+    final int[] offsets;
+    final int[] neighbors;
+    // the index in links of the link to each neighbor
+    final int[] neighborLinks;
+
+    private IndexedGraph(List<Node> nodes, List<Link> links) {
+        this.nodes = nodes;
+        this.links = links;
+        indexes = new IdentityHashMap<>();
+        for (Node n : nodes)
+            indexes.put(n, indexes.size());
+        int[] sources = new int[links.size()];
+        int[] destinations = new int[links.size()];
+        offsets = new int[nodes.size() + 1];
+        for (int i = 0; i < links.size(); i++) {
+            sources[i] = indexes.get(links.get(i).source);
+            destinations[i] = indexes.get(links.get(i).destination);
+            offsets[sources[i] + 1]++;
+            offsets[destinations[i] + 1]++;
+        }
+        for (int v = 0; v < nodes.size(); v++)
+            offsets[v + 1] += offsets[v];
+        neighbors = new int[2 * links.size()];
+        neighborLinks = new int[2 * links.size()];
+        int[] next = new int[nodes.size()];
+        System.arraycopy(offsets, 0, next, 0, nodes.size());
+        for (int i = 0; i < links.size(); i++) {
+            neighborLinks[next[sources[i]]] = i;
+            neighbors[next[sources[i]]++] = destinations[i];
+            neighborLinks[next[destinations[i]]] = i;
+            neighbors[next[destinations[i]]++] = sources[i];
+        }
+    }
+
+    /**
+     * @return the snapshot of the nodes and undirected links of the specified topology.
+     */
+    static IndexedGraph of(Topology tp) {
+        return new IndexedGraph(tp.getNodes(), tp.getLinks(Link.Orientation.UNDIRECTED));
+    }
+
+    /**
+     * @return the snapshot of the nodes and links of the specified topology, with respect to its orientation (see
+     * {@link Topology#getLinks()}).
+     */
+    static IndexedGraph withOrientation(Topology tp) {
+        return new IndexedGraph(tp.getNodes(), tp.getLinks());
+    }
+
+    /**
+     * @return the snapshot of the specified nodes and of the undirected links between them.
+     */
+    static IndexedGraph of(List<Node> nodes) {
+        return of(nodes, false);
+    }
+
+    /**
+     * @return the snapshot of the specified nodes and of the links between them, with respect to the orientation of
+     * their topology (see {@link Topology#getLinks()}).
+     */
+    static IndexedGraph withOrientation(List<Node> nodes) {
+        return of(nodes, true);
+    }
+
+    private static IndexedGraph of(List<Node> nodes, boolean withOrientation) {
+        Set<Node> set = Collections.newSetFromMap(new IdentityHashMap<>());
+        set.addAll(nodes);
+        List<Node> distinct = new ArrayList<>(set.size());
+        // the links are scanned once per topology rather than once per node
+        Set<Topology> topologies = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Node> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Node n : nodes) {
+            if (added.add(n))
+                distinct.add(n);
+            if (n.getTopology() != null)
+                topologies.add(n.getTopology());
+        }
+        List<Link> links = new ArrayList<>();
+        for (Topology tp : topologies)
+            for (Link l : withOrientation ? tp.getLinks() : tp.getLinks(Link.Orientation.UNDIRECTED))
+                if (set.contains(l.source) && set.contains(l.destination))
+                    links.add(l);
+        return new IndexedGraph(distinct, links);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+}
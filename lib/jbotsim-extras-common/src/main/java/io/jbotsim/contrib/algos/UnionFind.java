@@ -0,0 +1,76 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+/**
+ * Disjoint sets of the integers {@code 0..size-1}, merged by size with path halving.
+ */
+final class UnionFind {
+    private final int[] parents;
+    private final int[] sizes;
+    private int nbSets;
+
+    UnionFind(int size) {
+        parents = new int[size];
+        sizes = new int[size];
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+            sizes[i] = 1;
+        }
+        nbSets = size;
+    }
+
+    int find(int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    /**
+     * Merges the sets of {@code i} and {@code j}.
+     * @return {@code false} if they were already in the same set.
+     */
+    boolean union(int i, int j) {
+        int ri = find(i);
+        int rj = find(j);
+        if (ri == rj)
+            return false;
+        if (sizes[ri] < sizes[rj]) {
+            int tmp = ri;
+            ri = rj;
+            rj = tmp;
+        }
+        parents[rj] = ri;
+        sizes[ri] += sizes[rj];
+        nbSets--;
+        return true;
+    }
+
+    int size(int i) {
+        return sizes[find(i)];
+    }
+
+    int getNbSets() {
+        return nbSets;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>The {@link CSVResultWriter} writes one line per replication in the CSV format.</p>
+ *
+ * <p>The columns are: {@code replication}, {@code seed}, {@code rounds}, the metrics, and {@code error}. Each line
+ * is flushed as soon as it is written.</p>
+ */
+public class CSVResultWriter implements ResultWriter {
+    private static final char SEPARATOR = ',';
+
+    private final Writer writer;
+    private List<String> metricNames = new ArrayList<>();
+
+    /**
+     * Creates a {@link CSVResultWriter}.
+     * @param writer the {@link Writer} to output to. It is closed along with this object.
+     */
+    public CSVResultWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void writeHeader(List<String> metricNames) throws IOException {
+        this.metricNames = new ArrayList<>(metricNames);
+        StringBuilder sb = new StringBuilder();
+        sb.append("replication").append(SEPARATOR).append("seed").append(SEPARATOR).append("rounds");
+        for (String name : metricNames)
+            sb.append(SEPARATOR).append(escape(name));
+        sb.append(SEPARATOR).append("error").append('\n');
+        writer.write(sb.toString());
+        writer.flush();
+    }
+
+    @Override
+    public void writeResult(ExperimentResult result) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(result.getReplication()).append(SEPARATOR);
+        sb.append(result.getSeed()).append(SEPARATOR);
+        sb.append(result.getNbRounds());
+        for (String name : metricNames) {
+            sb.append(SEPARATOR);
+            Object value = result.getMetric(name);
+            if (value != null)
+                sb.append(escape(value.toString()));
+        }
+        sb.append(SEPARATOR);
+        if (!result.isSuccessful())
+            sb.append(escape(result.getError().toString()));
+        sb.append('\n');
+        writer.write(sb.toString());
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    static String escape(String value) {
+        if (value.indexOf(SEPARATOR) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>The {@link ExperimentResult} holds the outcome of a single replication run by the {@link ExperimentRunner}.</p>
+ */
+public class ExperimentResult {
+    private final int replication;
+    private final long seed;
+    int nbRounds = 0;
+    Map<String, Object> metrics = new LinkedHashMap<>();
+    Throwable error = null;
+
+    ExperimentResult(int replication, long seed) {
+        this.replication = replication;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the index of the replication.
+     * @return the index of the replication.
+     */
+    public int getReplication() {
+        return replication;
+    }
+
+    /**
+     * Returns the seed which has been given to the {@link TopologyFactory} for this replication.
+     * @return the seed of the replication.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of rounds actually performed.
+     * @return the number of rounds.
+     */
+    public int getNbRounds() {
+        return nbRounds;
+    }
+
+    /**
+     * Returns the measured metrics, by name, in the order they were registered in the {@link ExperimentRunner}.
+     * @return a {@link Map} associating metric names to their values.
+     */
+    public Map<String, Object> getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the value of the specified metric.
+     * @param name the name of the metric.
+     * @return the measured value, or {@code null} if it has not been measured.
+     */
+    public Object getMetric(String name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * Returns the error which interrupted the replication, if any.
+     * @return the {@link Throwable} raised by the replication, or {@code null} if it succeeded.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Indicates whether the replication completed without error.
+     * @return {@code true} if the replication succeeded, {@code false} otherwise.
+     */
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
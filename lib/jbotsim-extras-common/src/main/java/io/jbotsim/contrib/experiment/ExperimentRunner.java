@@ -0,0 +1,261 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import io.jbotsim.core.Topology;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>The {@link ExperimentRunner} runs many independent replications of a simulation, in parallel and without any
+ * user interface.</p>
+ *
+ * <p>For each replication, a new {@link Topology} is obtained from the {@link TopologyFactory}. It is run with a
+ * {@link HeadlessClock} for at most {@link #getNbRounds()} rounds, or until its {@link StopCondition} is reached or
+ * its clock is paused.
+ * The registered {@link Metric}s are then measured, and the resulting {@link ExperimentResult} is handed to the
+ * {@link ResultWriter}s as soon as it is available.</p>
+ *
+ * <p>Replications are run by a fixed pool of {@link #getNbWorkers()} threads. Each replication only uses its own
+ * {@link Topology}; the factory, stop condition and metrics must therefore not rely on shared mutable state (such as
+ * static fields of the node classes).</p>
+ *
+ * <p>Usage example:</p>
+ * <pre>
+ *     new ExperimentRunner((replication, seed) -&gt; {
+ *                 Topology tp = new Topology();
+ *                 tp.setRandomSeed(seed);
+ *                 populate(tp);
+ *                 return tp;
+ *             })
+ *             .setNbReplications(1000)
+ *             .setNbRounds(500)
+ *             .addMetric("nbLinks", tp -&gt; tp.getLinks().size())
+ *             .addResultWriter(new CSVResultWriter(new FileWriter("results.csv")))
+ *             .run();
+ * </pre>
+ */
+public class ExperimentRunner {
+    public static final int DEFAULT_NB_REPLICATIONS = 1;
+    public static final int DEFAULT_NB_ROUNDS = 1000;
+
+    private TopologyFactory topologyFactory;
+    private int nbReplications = DEFAULT_NB_REPLICATIONS;
+    private int nbRounds = DEFAULT_NB_ROUNDS;
+    private int nbWorkers = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+    private StopCondition stopCondition = null;
+    private Map<String, Metric> metrics = new LinkedHashMap<>();
+    private List<ResultWriter> resultWriters = new ArrayList<>();
+
+    /**
+     * Creates an {@link ExperimentRunner}.
+     * @param topologyFactory the {@link TopologyFactory} used to create the {@link Topology} of each replication.
+     */
+    public ExperimentRunner(TopologyFactory topologyFactory) {
+        this.topologyFactory = topologyFactory;
+    }
+
+    /**
+     * Returns the number of replications.
+     * @return the number of replications.
+     */
+    public int getNbReplications() {
+        return nbReplications;
+    }
+
+    /**
+     * Sets the number of replications.
+     * @param nbReplications the number of replications.
+     * @return a reference to this {@link ExperimentRunner}.
+     */
+    public ExperimentRunner setNbReplications(int nbReplications) {
+        this.nbReplications = nbReplications;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of rounds of each replication.
+     * @return the maximum number of rounds.
+     */
+    public int getNbRounds() {
+        return nbRounds;
+    }
+
+    /**
+     * Sets the maximum number of rounds of each replication.
+     * @param nbRounds the maximum number of rounds.
+     * @return a reference to this {@link ExperimentRunner}.
+     */
+    public ExperimentRunner setNbRounds(int nbRounds) {
+        this.nbRounds = nbRounds;
+        return this;
+    }
+
+    /**
+     * Returns the number of worker threads. Defaults to the number of available processors.
+     * @return the number of worker threads.
+     */
+    public int getNbWorkers() {
+        return nbWorkers;
+    }
+
+    /**
+     * Sets the number of worker threads.
+     * @param nbWorkers the number of worker threads, at least 1.
+     * @return a reference to this {@link ExperimentRunner}.
+     */
+    public ExperimentRunner setNbWorkers(int nbWorkers) {
+        this.nbWorkers = Math.max(1, nbWorkers);
+        return this;
+    }
+
+    /**
+     * Returns the seed from which the seeds of the replications are derived.
+     * @return the base seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed from which the seeds of the replications are derived. Two runs with the same seed provide the
+     * same seed to each replication, whatever the number of workers.
+     * @param seed the base seed.
+     * @return a reference to this {@link ExperimentRunner}.
+     */
+    public ExperimentRunner setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the {@link StopCondition} used to stop replications before their maximum number of rounds.
+     * @param stopCondition the {@link StopCondition}, or {@code null} to always run {@link #getNbRounds()} rounds.
+     * @return a reference to this {@link ExperimentRunner}.
+     */
+    public ExperimentRunner setStopCondition(StopCondition stopCondition) {
+        this.stopCondition = stopCondition;
+        return this;
+    }
+
+    /**
+     * Registers a {@link Metric}, measured at the end of each replication.
+     * @param name the name of the metric, as written by the {@link ResultWriter}s.
+     * @param metric the {@link Metric}.
+     * @return a reference to this {@link ExperimentRunner}.
+     */
+    public ExperimentRunner addMetric(String name, Metric metric) {
+        metrics.put(name, metric);
+        return this;
+    }
+
+    /**
+     * Registers a {@link ResultWriter}. It is closed at the end of {@link #run()}.
+     * @param resultWriter the {@link ResultWriter}.
+     * @return a reference to this {@link ExperimentRunner}.
+     */
+    public ExperimentRunner addResultWriter(ResultWriter resultWriter) {
+        resultWriters.add(resultWriter);
+        return this;
+    }
+
+    /**
+     * Runs all the replications and waits for their completion.
+     *
+     * @return the number of replications which failed.
+     * @throws IOException if a {@link ResultWriter} fails.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the replications.
+     */
+    public int run() throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(nbWorkers);
+        CompletionService<ExperimentResult> completionService = new ExecutorCompletionService<>(executor);
+        int nbFailures = 0;
+        try {
+            List<String> metricNames = new ArrayList<>(metrics.keySet());
+            for (ResultWriter resultWriter : resultWriters)
+                resultWriter.writeHeader(metricNames);
+
+            SplittableRandom seeds = new SplittableRandom(seed);
+            for (int i = 0; i < nbReplications; i++) {
+                final int replication = i;
+                final long replicationSeed = seeds.nextLong();
+                completionService.submit(() -> runReplication(replication, replicationSeed));
+            }
+
+            for (int i = 0; i < nbReplications; i++) {
+                ExperimentResult result = completionService.take().get();
+                if (!result.isSuccessful())
+                    nbFailures++;
+                for (ResultWriter resultWriter : resultWriters)
+                    resultWriter.writeResult(result);
+            }
+        } catch (ExecutionException e) {
+            // only Errors can escape from runReplication()
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            for (ResultWriter resultWriter : resultWriters)
+                resultWriter.close();
+        }
+        return nbFailures;
+    }
+
+    /**
+     * Runs a single replication on the calling thread.
+     *
+     * @param replication the index of the replication.
+     * @param replicationSeed the seed of the replication.
+     * @return the {@link ExperimentResult} of the replication.
+     */
+    public ExperimentResult runReplication(int replication, long replicationSeed) {
+        ExperimentResult result = new ExperimentResult(replication, replicationSeed);
+        try {
+            Topology tp = topologyFactory.createTopology(replication, replicationSeed);
+            tp.setClockModel(HeadlessClock.class);
+            tp.start();
+            HeadlessClock clock = (HeadlessClock) tp.getClockManager().getClock();
+
+            while (result.nbRounds < nbRounds && (stopCondition == null || !stopCondition.isReached(tp))) {
+                // nothing resumes a headless clock once a node or listener has paused it
+                if (!clock.tick())
+                    break;
+                result.nbRounds++;
+            }
+
+            for (Map.Entry<String, Metric> entry : metrics.entrySet())
+                result.metrics.put(entry.getKey(), entry.getValue().measure(tp));
+        } catch (Exception e) {
+            result.error = e;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import io.jbotsim.core.Clock;
+import io.jbotsim.core.ClockManager;
+
+/**
+ * <p>The {@link HeadlessClock} is a {@link Clock} which never ticks on its own.</p>
+ *
+ * <p>Rounds are only performed when {@link #tick()} is called, on the caller's thread. No thread is created and no
+ * delay is applied between rounds, which makes it suitable for batch simulations without any user interface.</p>
+ */
+public class HeadlessClock extends Clock {
+    private int timeUnit = 0;
+    private boolean running = false;
+
+    public HeadlessClock(ClockManager manager) {
+        super(manager);
+    }
+
+    @Override
+    public int getTimeUnit() {
+        return timeUnit;
+    }
+
+    @Override
+    public void setTimeUnit(int timeUnit) {
+        this.timeUnit = timeUnit;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void pause() {
+        running = false;
+    }
+
+    @Override
+    public void resume() {
+        running = true;
+    }
+
+    /**
+     * Performs a single round, unless the clock is paused.
+     *
+     * @return {@code true} if a round has been performed, {@code false} if the clock is paused.
+     */
+    public boolean tick() {
+        if (!running)
+            return false;
+        manager.onClock();
+        return true;
+    }
+}
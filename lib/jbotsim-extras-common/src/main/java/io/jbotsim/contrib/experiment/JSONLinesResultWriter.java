@@ -0,0 +1,128 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The {@link JSONLinesResultWriter} writes one JSON object per line and per replication.</p>
+ *
+ * <p>Example of output line:</p>
+ * <pre>{"replication":3,"seed":-4962768465676381896,"rounds":100,"metrics":{"nbLinks":112}}</pre>
+ *
+ * <p>An {@code "error"} member is added for failed replications. Each line is flushed as soon as it is written.</p>
+ */
+public class JSONLinesResultWriter implements ResultWriter {
+    private final Writer writer;
+
+    /**
+     * Creates a {@link JSONLinesResultWriter}.
+     * @param writer the {@link Writer} to output to. It is closed along with this object.
+     */
+    public JSONLinesResultWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void writeHeader(List<String> metricNames) {
+        // JSON lines are self-describing
+    }
+
+    @Override
+    public void writeResult(ExperimentResult result) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"replication\":").append(result.getReplication());
+        sb.append(",\"seed\":").append(result.getSeed());
+        sb.append(",\"rounds\":").append(result.getNbRounds());
+        sb.append(",\"metrics\":{");
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : result.getMetrics().entrySet()) {
+            if (!first)
+                sb.append(',');
+            first = false;
+            appendString(sb, entry.getKey());
+            sb.append(':');
+            appendValue(sb, entry.getValue());
+        }
+        sb.append('}');
+        if (!result.isSuccessful()) {
+            sb.append(",\"error\":");
+            appendString(sb, result.getError().toString());
+        }
+        sb.append("}\n");
+        writer.write(sb.toString());
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value == null)
+            sb.append("null");
+        else if (value instanceof Boolean)
+            sb.append(value);
+        else if (value instanceof Number && isFinite((Number) value))
+            sb.append(value);
+        else
+            appendString(sb, value.toString());
+    }
+
+    private static boolean isFinite(Number number) {
+        double d = number.doubleValue();
+        return !Double.isNaN(d) && !Double.isInfinite(d);
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
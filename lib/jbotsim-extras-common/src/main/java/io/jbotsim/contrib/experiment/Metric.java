@@ -0,0 +1,37 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import io.jbotsim.core.Topology;
+
+/**
+ * <p>A {@link Metric} extracts a value from a {@link Topology} at the end of a replication.</p>
+ */
+public interface Metric {
+    /**
+     * Measures the {@link Topology}.
+     *
+     * @param tp the {@link Topology} of the replication, once it has been stopped.
+     * @return the measured value; {@link Number}, {@link Boolean} and {@link String} values are handled best by the
+     * {@link ResultWriter}s.
+     */
+    Object measure(Topology tp);
+}
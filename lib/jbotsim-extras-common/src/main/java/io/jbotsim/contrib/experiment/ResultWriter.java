@@ -0,0 +1,51 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <p>A {@link ResultWriter} receives the {@link ExperimentResult}s of an {@link ExperimentRunner} as soon as the
+ * replications complete.</p>
+ *
+ * <p>All calls are performed from the thread which called {@link ExperimentRunner#run()}, so that implementations do
+ * not need to be thread-safe.</p>
+ */
+public interface ResultWriter extends Closeable {
+    /**
+     * Called once, before any result.
+     *
+     * @param metricNames the names of the metrics, in the order they have been registered.
+     * @throws IOException in case of output error.
+     */
+    void writeHeader(List<String> metricNames) throws IOException;
+
+    /**
+     * Called each time a replication completes. Results are provided in completion order, which may differ from
+     * the replications order.
+     *
+     * @param result the {@link ExperimentResult} of the replication.
+     * @throws IOException in case of output error.
+     */
+    void writeResult(ExperimentResult result) throws IOException;
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import io.jbotsim.core.Topology;
+
+/**
+ * <p>The {@link StopCondition} tells the {@link ExperimentRunner} when a replication can be stopped before its
+ * maximum number of rounds.</p>
+ */
+public interface StopCondition {
+    /**
+     * Tests the condition. This method is called before each round.
+     *
+     * @param tp the {@link Topology} of the replication.
+     * @return {@code true} if the replication must be stopped, {@code false} otherwise.
+     */
+    boolean isReached(Topology tp);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import io.jbotsim.core.Topology;
+
+/**
+ * <p>The {@link TopologyFactory} builds the {@link Topology} used by a single replication of an experiment.</p>
+ *
+ * <p>Each call must return a new {@link Topology}, which must not share any mutable state with the other ones: calls
+ * are performed concurrently by the {@link ExperimentRunner}'s workers.</p>
+ */
+public interface TopologyFactory {
+    /**
+     * Creates the {@link Topology} for the specified replication.
+     *
+     * @param replication the index of the replication, in [0:nbReplications[.
+     * @param seed the seed attributed to this replication, typically handed to {@link Topology#setRandomSeed(long)}
+     *             before adding any node.
+     * @return a new {@link Topology}.
+     */
+    Topology createTopology(int replication, long seed);
+}
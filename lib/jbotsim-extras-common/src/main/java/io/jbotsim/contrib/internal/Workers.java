@@ -0,0 +1,92 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>The {@link Workers} class provides the thread pool helpers shared by the multi-threaded algorithms of
+ * {@code jbotsim-extras-common}.</p>
+ *
+ * <p>It is an implementation detail of this module rather than part of its API, and may change without notice.</p>
+ */
+public final class Workers {
+    private Workers() {
+    }
+
+    /**
+     * Runs the tasks numbered from 0 to {@code nbTasks - 1} on the specified number of worker threads, and waits for
+     * their completion. Each worker takes the next task as soon as it is done with the previous one. The first
+     * exception thrown by a task is rethrown as described in {@link #rethrow(ExecutionException)}.
+     *
+     * @param nbTasks the number of tasks.
+     * @param nbWorkers the number of worker threads, at least 1.
+     * @param workerFactory called once by each worker thread to create the function running its tasks, so that each
+     *                      worker can have its own state.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public static void run(int nbTasks, int nbWorkers, Supplier<? extends IntConsumer> workerFactory)
+            throws InterruptedException {
+        if (nbWorkers < 1)
+            throw new IllegalArgumentException("nbWorkers must be >= 1: " + nbWorkers);
+        AtomicInteger nextTask = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(nbWorkers);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(nbWorkers, nbTasks); i++)
+                workers.add(executor.submit(() -> {
+                    IntConsumer worker = workerFactory.get();
+                    for (int task = nextTask.getAndIncrement(); task < nbTasks; task = nextTask.getAndIncrement())
+                        worker.accept(task);
+                }));
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Rethrows the exception thrown by the task of a {@link Future}: {@link RuntimeException}s and {@link Error}s are
+     * rethrown as is, and checked exceptions are wrapped in an {@link IllegalStateException}.
+     *
+     * @param e the {@link ExecutionException} thrown by {@link Future#get()}.
+     * @return never returns normally; the return type lets callers write {@code throw rethrow(e);}.
+     */
+    public static RuntimeException rethrow(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+        if (cause instanceof Error)
+            throw (Error) cause;
+        throw new IllegalStateException(cause);
+    }
+}
@@ -25,7 +25,7 @@ import io.jbotsim.core.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * <p>The {@link AsyncMessageEngine} is an asynchronous alternative to JBotSim's default {@link MessageEngine}.</p>
@@ -39,7 +39,7 @@ import java.util.Random;
  * <p>In both cases, the <code>f</code> function used to draw the random delay, which follows an exponential
  * distribution law of rate <code>1./{@link #getAverageDuration()}</code>, is computed as such:<br>
  * <code>f(r) = -log(1-r) * {@link AsyncMessageEngine#getAverageDuration()}</code>, where <code>r</code> is a value
- * returned by {@link Math#random()}.</p>
+ * drawn from the stream provided by the {@link Topology}'s {@link RandomService}.</p>
  */
 public class AsyncMessageEngine extends DelayMessageEngine {
 
@@ -53,7 +53,7 @@ public class AsyncMessageEngine extends DelayMessageEngine {
      */
     public static final Type DEFAULT_TYPE = Type.FIFO;
 
-    private Random random = new Random();
+    private SplittableRandom random = null;
 
     private MaximumDeliveryDatesTracker maximumDeliveryDates = new MaximumDeliveryDatesTracker();
 
@@ -208,7 +208,30 @@ public class AsyncMessageEngine extends DelayMessageEngine {
      * @return the next value for the delay function, as an integer.
      */
     protected int computeDelayFunction(int lambda) {
-        return (int) Math.round(Math.log(1 - random.nextDouble()) / (-1.0 / lambda));
+        return (int) Math.round(Math.log(1 - getRandom().nextDouble()) / (-1.0 / lambda));
+    }
+
+    /**
+     * <p>Returns the random numbers stream of this engine, as provided by the {@link Topology}'s
+     * {@link RandomService}.</p>
+     * @return the {@link SplittableRandom} used to draw delays.
+     */
+    protected SplittableRandom getRandom() {
+        if (random == null)
+            random = topology.getRandomService().forComponent(this);
+        return random;
+    }
+
+    @Override
+    public void setTopology(Topology topology) {
+        super.setTopology(topology);
+        random = null;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        random = null;
     }
 
     /**
@@ -30,6 +30,8 @@ import java.util.*;
  */
 public class RandomDelayMessageEngine extends DelayMessageEngine {
     protected Random r = new Random();
+    // tells whether r has been seeded from the topology's RandomService
+    private boolean seeded;
 
     /**
      * <p>Creates a {@link RandomDelayMessageEngine} object.</p>
@@ -68,6 +70,32 @@ public class RandomDelayMessageEngine extends DelayMessageEngine {
 
     @Override
     protected int getDelayForMessage(Message message) {
-        return r.nextInt(getDelay());
+        return getRandom().nextInt(getDelay());
+    }
+
+    /**
+     * <p>Returns the random numbers generator of this engine, {@link #r}, after seeding it from the
+     * {@link Topology}'s {@link RandomService} if needed. Subclasses should use it rather than {@link #r} to draw
+     * reproducible numbers.</p>
+     * @return the {@link Random} used to draw delays.
+     */
+    protected Random getRandom() {
+        if (!seeded) {
+            r.setSeed(topology.getRandomService().forComponent(this).nextLong());
+            seeded = true;
+        }
+        return r;
+    }
+
+    @Override
+    public void setTopology(Topology topology) {
+        super.setTopology(topology);
+        seeded = false;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        seeded = false;
     }
 }
@@ -24,14 +24,16 @@ import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * The {@link RandomLocationsGenerator} is a {@link TopologyGenerator} used to create randomly-positioned {@link Node}s.
+ * The random numbers are drawn from a stream of the {@link Topology}'s {@link io.jbotsim.core.RandomService}, which
+ * is kept from one call of {@link #generate(Topology)} to the next.
  */
 public class RandomLocationsGenerator extends AbstractGenerator {
-    private Random rnd = new Random();
-
+    private SplittableRandom random;
+    private Topology randomTopology;
 
     /**
      * Creates a {@link RandomLocationsGenerator} creating nbNodes randomly-positioned {@link Node}s.
@@ -46,8 +48,9 @@ public class RandomLocationsGenerator extends AbstractGenerator {
     @Override
     public void generate(Topology topology) {
         try {
+            SplittableRandom rnd = getRandom(topology);
             int nbNodes = getNbNodes();
-            Node[] nodes = generateNodes(topology, nbNodes);
+            Node[] nodes = generateNodes(topology, nbNodes, rnd);
 
             if (wired) {
                 Link.Orientation orientation = directed ? Link.Orientation.DIRECTED : Link.Orientation.UNDIRECTED;
@@ -63,7 +66,15 @@ public class RandomLocationsGenerator extends AbstractGenerator {
         }
     }
 
-    private Node[] generateNodes (Topology tp, int nbNodes) throws ReflectiveOperationException {
+    private SplittableRandom getRandom(Topology topology) {
+        if (random == null || randomTopology != topology) {
+            random = topology.getRandomService().forComponent(this);
+            randomTopology = topology;
+        }
+        return random;
+    }
+
+    private Node[] generateNodes (Topology tp, int nbNodes, SplittableRandom rnd) throws ReflectiveOperationException {
         Node[] result = new Node[nbNodes];
         double w = getAbsoluteWidth(tp);
         double h = getAbsoluteHeight(tp);
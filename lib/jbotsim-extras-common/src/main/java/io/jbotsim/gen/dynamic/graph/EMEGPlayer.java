@@ -20,16 +20,20 @@
  */
 package io.jbotsim.gen.dynamic.graph;
 
+import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
 import io.jbotsim.core.event.ClockListener;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class EMEGPlayer implements ClockListener{
     protected TVG tvg;
     protected Topology tp;
     protected double birthRate, deathRate, steadyProb;
+    protected SplittableRandom random;
+    private EdgeMarkovianProcess process;
+    private TVLink[] links;
     /**
      * Plays the specified _demo.J_tvg as an EMEG on the specified topology.
      * @param tvg the time-varying graph
@@ -43,27 +47,36 @@ public class EMEGPlayer implements ClockListener{
         this.birthRate=birthRate;
         this.deathRate=deathRate;
         this.steadyProb = birthRate/(birthRate+deathRate);
+        this.random = tp.getRandomService().forComponent(this);
         for (Node n : tvg.nodes)
             tp.addNode(n);
     }
+    /**
+     * Starts playing the EMEG on the links of the time-varying graph. Each link is initially present with probability
+     * birthRate/(birthRate+deathRate); the links added to the graph afterwards are not played.
+     */
     public void start(){
+        links = tvg.tvlinks.toArray(new TVLink[0]);
+        process = new EdgeMarkovianProcess(links.length, birthRate, deathRate, random);
         tp.resetTime();
         tp.addClockListener(this);
-        Random r = new Random();
-        for (TVLink l : tvg.tvlinks)
-            if (r.nextDouble() < steadyProb)
-                tp.addLink(l);
+        process.initialize(i -> tp.addLink(links[(int) i]));
     }
     public void onClock(){
         updateLinks();
     }
     protected void updateLinks(){
-        Random r = new Random();
-        for (TVLink l : tvg.tvlinks){
-            if (tp.getLinks().contains(l) && r.nextDouble() < deathRate)
+        process.step(i -> {
+            TVLink l = links[(int) i];
+            if (isPresent(l))
                 tp.removeLink(l);
-            else if (!tp.getLinks().contains(l) && r.nextDouble() < birthRate)
+        }, i -> {
+            TVLink l = links[(int) i];
+            if (!isPresent(l))
                 tp.addLink(l);
-        }        
+        });
+    }
+    private static boolean isPresent(Link l){
+        return l.source.getOutLinkTo(l.destination) != null && l.destination.getOutLinkTo(l.source) != null;
     }
 }
@@ -20,8 +20,9 @@
  */
 package io.jbotsim.gen.dynamic.graph;
 
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 
 import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
@@ -38,30 +39,65 @@ public class EMEGTopology extends Topology{
     public void initializeEdges() {
         for (Link l : super.getLinks())
             super.removeLink(l);
-        Random random=new Random();
         List<Node> nodes = super.getNodes();
-        for (int i=0; i<nodes.size(); i++){
-            for (int j=i+1; j<nodes.size(); j++){
-                Link l=new Link(nodes.get(i), nodes.get(j));
-                if (random.nextDouble() < birthRate/(birthRate+deathRate))
-                    super.addLink(l);
-            }
-        }
+        EdgeMarkovianProcess process = newProcess(nodes.size());
+        PairDecoder decoder = new PairDecoder(nodes.size());
+        process.initialize(pair -> super.addLink(decoder.toLink(pair, nodes)));
     }
+    /**
+     * Performs a round of the edge-Markovian dynamics on the current nodes: each link disappears with probability
+     * deathRate, and each missing link appears with probability birthRate. A round costs
+     * O(number of nodes + number of links + number of births).
+     */
     public void updateLinks() {
-        Random random=new Random();
         List<Node> nodes = super.getNodes();
-        for (int i=0; i<nodes.size(); i++){
-            for (int j=i+1; j<nodes.size(); j++){
-                Link l=new Link(nodes.get(i), nodes.get(j));
-                if (super.getLinks().contains(l)){
-                    if (random.nextDouble() < deathRate)
-                        super.removeLink(l);
-                }else{
-                    if (random.nextDouble() < birthRate)
-                        super.addLink(l);
-                }
+        int n = nodes.size();
+        EdgeMarkovianProcess process = newProcess(n);
+        // the links are read from the topology, so that the nodes and links may change between two rounds
+        Map<Node, Integer> indexes = new IdentityHashMap<>();
+        for (int i=0; i<n; i++)
+            indexes.put(nodes.get(i), i);
+        List<Link> links = super.getLinks();
+        for (Link l : links){
+            Integer i = indexes.get(l.source);
+            Integer j = indexes.get(l.destination);
+            if (i != null && j != null && !i.equals(j))
+                process.add(pairOf(Math.min(i, j), Math.max(i, j), n));
+        }
+        PairDecoder decoder = new PairDecoder(n);
+        process.step(pair -> super.removeLink(decoder.toLink(pair, nodes)),
+                pair -> super.addLink(decoder.toLink(pair, nodes)));
+    }
+    private EdgeMarkovianProcess newProcess(int nbNodes) {
+        return new EdgeMarkovianProcess((long) nbNodes * (nbNodes - 1) / 2, birthRate, deathRate,
+                getRandomService().getRandom());
+    }
+    // index of the pair (i, j), i < j, when the pairs are numbered row by row
+    private static long pairOf(int i, int j, int n) {
+        return (long) i * n - (long) i * (i + 1) / 2 + (j - i - 1);
+    }
+    /**
+     * Converts pair indexes back to node indexes. The rows are scanned forward, and restart from the first one when
+     * a smaller pair is requested.
+     */
+    private static class PairDecoder {
+        private final int n;
+        private int row;
+        private long rowStart;
+        PairDecoder(int n) {
+            this.n = n;
+        }
+        Link toLink(long pair, List<Node> nodes) {
+            if (pair < rowStart) {
+                row = 0;
+                rowStart = 0;
+            }
+            while (pair >= rowStart + (n - 1 - row)) {
+                rowStart += n - 1 - row;
+                row++;
             }
+            int column = row + 1 + (int) (pair - rowStart);
+            return new Link(nodes.get(row), nodes.get(column));
         }
     }
 }
@@ -22,7 +22,8 @@ package io.jbotsim.gen.dynamic.graph;
 
 import io.jbotsim.core.Node;
 
-import java.util.Random;
+import java.util.List;
+import java.util.SplittableRandom;
 import java.util.Vector;
 
 /*
@@ -30,43 +31,51 @@ import java.util.Vector;
  */
 public class EMTVGBuilder {
     public static TVG createGraph(Vector<Node> nodes, double birthRate, double deathRate, int lifetime){
+        return createGraph(nodes, birthRate, deathRate, lifetime, new SplittableRandom());
+    }
+    /**
+     * Same as {@link #createGraph(Vector, double, double, int)}, with the specified source of randomness, so that the
+     * graph can be reproduced.
+     * @param nodes the nodes of the graph
+     * @param birthRate the probability that a missing link appears at each date
+     * @param deathRate the probability that a link disappears at each date
+     * @param lifetime the number of dates
+     * @param random the source of randomness
+     * @return the time-varying graph
+     */
+    public static TVG createGraph(Vector<Node> nodes, double birthRate, double deathRate, int lifetime,
+                                  SplittableRandom random){
         TVG tvg=new TVG();
-        double steadyProb = birthRate/(birthRate+deathRate);
         for (Node n : nodes)
             tvg.nodes.add(n);
-        createInitialEdges(tvg, steadyProb);
+        EdgeMarkovianProcess process = createInitialEdges(tvg, birthRate, deathRate, random);
         for (int date=1; date<lifetime-1; date++)
-            createNextEdges(tvg, date, birthRate, deathRate);
+            createNextEdges(tvg, date, process);
         createLastEdges(tvg, lifetime-1);
+        for (TVLink l : tvg.tvlinks)
+            l.trimDates();
         return tvg;
     }
-    private static void createInitialEdges(TVG tvg, double steadyProb){
-        Random r=new Random();
-        Vector<Node> nodes=tvg.nodes;
+    private static EdgeMarkovianProcess createInitialEdges(TVG tvg, double birthRate, double deathRate,
+                                                           SplittableRandom random){
+        List<Node> nodes=tvg.nodes;
         for (int i=0; i<nodes.size(); i++){
             for (int j=i+1; j<nodes.size(); j++){
-                TVLink l=new TVLink(nodes.elementAt(i), nodes.elementAt(j));
+                TVLink l=new TVLink(nodes.get(i), nodes.get(j));
                 tvg.tvlinks.add(l);
-                if (r.nextDouble()<steadyProb)
-                    l.appearanceDates.add(0);
-            }
-        }        
-    }
-    private static void createNextEdges(TVG tvg, int date, double birthRate, double deathRate){
-        Random r=new Random();
-        for (TVLink l : tvg.tvlinks){
-            if (l.isPresentAtTime(date-1)){
-                if (r.nextDouble()<deathRate)
-                    l.disappearanceDates.add(date);
-            }else{
-                if (r.nextDouble()<birthRate)
-                    l.appearanceDates.add(date);
             }
         }
+        EdgeMarkovianProcess process = new EdgeMarkovianProcess(tvg.tvlinks.size(), birthRate, deathRate, random);
+        process.initialize(i -> tvg.tvlinks.get((int) i).addAppearanceDate(0));
+        return process;
+    }
+    private static void createNextEdges(TVG tvg, int date, EdgeMarkovianProcess process){
+        process.step(i -> tvg.tvlinks.get((int) i).addDisappearanceDate(date),
+                i -> tvg.tvlinks.get((int) i).addAppearanceDate(date));
     }
     private static void createLastEdges(TVG tvg, int date){
         for (TVLink l : tvg.tvlinks)
             if (l.isPresentAtTime(date) && !l.isPresentAtTime(0))
-                l.disappearanceDates.add(date);
+                l.addDisappearanceDate(date);
     }
 }
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>The edge-Markovian dynamics of a set of candidate pairs of nodes, numbered from 0 to {@code nbPairs - 1}: at each
+ * step, every present pair disappears with probability {@code deathRate}, and every absent pair appears with
+ * probability {@code birthRate}, independently.</p>
+ *
+ * <p>The present pairs are kept in a dense array, indexed by a hash table. The deaths are drawn by skipping over the
+ * present pairs, and the births by skipping over all the pairs, with geometrically distributed gaps, so that a step
+ * costs O(number of drawn pairs) instead of O(number of pairs).</p>
+ */
+class EdgeMarkovianProcess {
+    private static final long EMPTY = -1;
+
+    private final long nbPairs;
+    private final double birthRate;
+    private final double deathRate;
+    private final SplittableRandom random;
+
+    // hash table of the present pairs, with the index of each one in 'pairs'
+    private long[] slots = newSlots(64);
+    private int[] indexes = new int[64];
+    // present pairs, in no particular order
+    private long[] pairs = new long[16];
+    private int size;
+    private long[] births = new long[16];
+    private long[] deaths = new long[16];
+
+    /**
+     * @param nbPairs the number of candidate pairs.
+     * @param birthRate the probability that an absent pair appears at each step.
+     * @param deathRate the probability that a present pair disappears at each step.
+     * @param random the source of randomness.
+     */
+    EdgeMarkovianProcess(long nbPairs, double birthRate, double deathRate, SplittableRandom random) {
+        this.nbPairs = nbPairs;
+        this.birthRate = birthRate;
+        this.deathRate = deathRate;
+        this.random = random;
+    }
+
+    /**
+     * Draws the initial present pairs, each one with the stationary probability {@code birthRate / (birthRate +
+     * deathRate)}. If both rates are 0, every state is stationary and no pair is present.
+     *
+     * @param born called with each present pair, in increasing order.
+     */
+    void initialize(LongConsumer born) {
+        clear();
+        double steadyProb = birthRate + deathRate > 0 ? birthRate / (birthRate + deathRate) : 0;
+        for (long pair = skip(-1, steadyProb, nbPairs); pair < nbPairs; pair = skip(pair, steadyProb, nbPairs)) {
+            add(pair);
+            born.accept(pair);
+        }
+    }
+
+    /**
+     * Performs a step of the dynamics. The births are drawn among the pairs which are absent before the step, so that
+     * a pair cannot both disappear and appear during the same step.
+     *
+     * @param died called with each pair which disappears, in increasing order.
+     * @param born called with each pair which appears, in increasing order, after all the deaths.
+     */
+    void step(LongConsumer died, LongConsumer born) {
+        int nbBirths = 0;
+        for (long pair = skip(-1, birthRate, nbPairs); pair < nbPairs; pair = skip(pair, birthRate, nbPairs)) {
+            if (!contains(pair)) {
+                if (nbBirths == births.length)
+                    births = Arrays.copyOf(births, nbBirths * 2);
+                births[nbBirths++] = pair;
+            }
+        }
+        int nbDeaths = 0;
+        for (long i = skip(-1, deathRate, size); i < size; i = skip(i, deathRate, size)) {
+            if (nbDeaths == deaths.length)
+                deaths = Arrays.copyOf(deaths, nbDeaths * 2);
+            deaths[nbDeaths++] = pairs[(int) i];
+        }
+        Arrays.sort(deaths, 0, nbDeaths);
+        for (int i = 0; i < nbDeaths; i++) {
+            remove(deaths[i]);
+            died.accept(deaths[i]);
+        }
+        for (int i = 0; i < nbBirths; i++) {
+            add(births[i]);
+            born.accept(births[i]);
+        }
+    }
+
+    // returns the next index after 'index' selected with probability p, or limit
+    private long skip(long index, double p, long limit) {
+        if (p <= 0)
+            return limit;
+        if (p >= 1)
+            return index + 1;
+        // number of failures before the first success of a Bernoulli(p) process
+        double gap = Math.floor(Math.log(1 - random.nextDouble()) / Math.log1p(-p));
+        return gap >= limit - index ? limit : index + 1 + (long) gap;
+    }
+
+    /**
+     * @return the number of present pairs.
+     */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(slots, EMPTY);
+        size = 0;
+    }
+
+    boolean contains(long pair) {
+        return slots[slotOf(slots, pair)] == pair;
+    }
+
+    /**
+     * Marks the given pair as present.
+     */
+    void add(long pair) {
+        if (2 * (size + 1) > slots.length)
+            grow();
+        int i = slotOf(slots, pair);
+        if (slots[i] == EMPTY) {
+            if (size == pairs.length)
+                pairs = Arrays.copyOf(pairs, size * 2);
+            slots[i] = pair;
+            indexes[i] = size;
+            pairs[size++] = pair;
+        }
+    }
+
+    /**
+     * Marks the given pair as absent.
+     */
+    void remove(long pair) {
+        int mask = slots.length - 1;
+        int i = slotOf(slots, pair);
+        if (slots[i] == EMPTY)
+            return;
+        // moves the last present pair to the index of the removed one
+        int index = indexes[i];
+        long last = pairs[--size];
+        if (index != size) {
+            pairs[index] = last;
+            indexes[slotOf(slots, last)] = index;
+        }
+        slots[i] = EMPTY;
+        // moves back the following entries which can no longer be reached from their home slot
+        for (int j = (i + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+            int home = hash(slots[j]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                slots[i] = slots[j];
+                indexes[i] = indexes[j];
+                slots[j] = EMPTY;
+                i = j;
+            }
+        }
+    }
+
+    private static long[] newSlots(int capacity) {
+        long[] slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int hash(long pair) {
+        long h = pair * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int slotOf(long[] slots, long pair) {
+        int mask = slots.length - 1;
+        int i = hash(pair) & mask;
+        while (slots[i] != EMPTY && slots[i] != pair)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    private void grow() {
+        long[] old = slots;
+        int[] oldIndexes = indexes;
+        slots = newSlots(old.length * 2);
+        indexes = new int[slots.length];
+        for (int j = 0; j < old.length; j++) {
+            if (old[j] != EMPTY) {
+                int i = slotOf(slots, old[j]);
+                slots[i] = old[j];
+                indexes[i] = oldIndexes[j];
+            }
+        }
+    }
+}
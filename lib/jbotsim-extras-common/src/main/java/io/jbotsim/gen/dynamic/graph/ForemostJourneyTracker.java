@@ -0,0 +1,88 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.core.event.ClockListener;
+
+/**
+ * <p>The {@link ForemostJourneyTracker} computes the foremost journeys from a source while a {@link TVGPlayer}
+ * replays the {@link TVG}: at each round, it crosses the links of the graph which are present at the current date of
+ * the topology, so that the arrival dates of the nodes are known as soon as they are reached.</p>
+ *
+ * <p>It gives the same journeys as {@link TemporalReachability#foremostJourneys(Node, int)}, which should be
+ * preferred when the whole graph can be analysed offline. It does not support periodic players.</p>
+ */
+public class ForemostJourneyTracker implements ClockListener {
+    private final Topology tp;
+    private final ForemostSweep sweep;
+    private final ForemostJourneys journeys;
+
+    /**
+     * Tracks the foremost journeys from the specified source, starting at the specified date.
+     * @param reachability the indexed graph, which is the one replayed by the player
+     * @param tp the topology of the player
+     * @param source the source node
+     * @param departure the date at which the source starts
+     */
+    public ForemostJourneyTracker(TemporalReachability reachability, Topology tp, Node source, int departure) {
+        this.tp = tp;
+        Integer index = reachability.indexes.get(source);
+        if (index == null)
+            throw new IllegalArgumentException("The source " + source + " is not a node of the graph.");
+        sweep = new ForemostSweep(reachability, new int[]{index}, departure, true);
+        journeys = new ForemostJourneys(reachability, source, departure, sweep.getArrivals()[0], sweep.getParents());
+    }
+
+    /**
+     * Starts tracking the journeys at each round of the topology.
+     */
+    public void start() {
+        tp.addClockListener(this);
+    }
+
+    /**
+     * Stops tracking the journeys.
+     */
+    public void stop() {
+        tp.removeClockListener(this);
+    }
+
+    @Override
+    public void onClock() {
+        sweep.runUntil(tp.getTime());
+    }
+
+    /**
+     * @return the journeys found so far: a node which has not been reached yet is reported as unreachable.
+     */
+    public ForemostJourneys getJourneys() {
+        return journeys;
+    }
+
+    /**
+     * @return the next date whose links have not been crossed yet.
+     */
+    public int getDate() {
+        return sweep.getDate();
+    }
+}
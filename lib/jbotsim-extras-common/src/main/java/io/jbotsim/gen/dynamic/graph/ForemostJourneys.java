@@ -0,0 +1,107 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import io.jbotsim.core.Node;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The foremost journeys from a source of a {@link TVG}, as computed by
+ * {@link TemporalReachability#foremostJourneys(Node, int)}.
+ */
+public class ForemostJourneys {
+    private final TemporalReachability graph;
+    private final Node source;
+    private final int departure;
+    private final int[] arrivals;
+    private final int[] parents;
+
+    ForemostJourneys(TemporalReachability graph, Node source, int departure, int[] arrivals, int[] parents) {
+        this.graph = graph;
+        this.source = source;
+        this.departure = departure;
+        this.arrivals = arrivals;
+        this.parents = parents;
+    }
+
+    /**
+     * @return the source of the journeys.
+     */
+    public Node getSource() {
+        return source;
+    }
+
+    /**
+     * @return the date at which the source starts.
+     */
+    public int getDepartureDate() {
+        return departure;
+    }
+
+    /**
+     * @param node a node of the graph
+     * @return the earliest date at which {@code node} is reached, or {@link TemporalReachability#UNREACHABLE}.
+     */
+    public int getArrivalDate(Node node) {
+        Integer index = graph.indexes.get(node);
+        return index == null ? TemporalReachability.UNREACHABLE : arrivals[index];
+    }
+
+    /**
+     * @param node a node of the graph
+     * @return whether {@code node} can be reached from the source.
+     */
+    public boolean isReachable(Node node) {
+        return getArrivalDate(node) != TemporalReachability.UNREACHABLE;
+    }
+
+    /**
+     * @return the nodes which can be reached from the source, including the source.
+     */
+    public List<Node> getReachableNodes() {
+        List<Node> reachable = new ArrayList<>();
+        for (int i = 0; i < arrivals.length; i++)
+            if (arrivals[i] != TemporalReachability.UNREACHABLE)
+                reachable.add(graph.nodes.get(i));
+        return reachable;
+    }
+
+    /**
+     * Returns a foremost journey to the specified node. The {@code i}-th link of the journey, between its
+     * {@code i}-th and {@code i+1}-th nodes, is crossed at the date {@code getArrivalDate(journey.get(i + 1)) - 1}.
+     * @param node a node of the graph
+     * @return the nodes of the journey, from the source to {@code node}, or an empty list if {@code node} cannot
+     * be reached.
+     */
+    public List<Node> getJourney(Node node) {
+        Integer index = graph.indexes.get(node);
+        if (index == null || arrivals[index] == TemporalReachability.UNREACHABLE)
+            return new ArrayList<>();
+        List<Node> journey = new ArrayList<>();
+        for (int i = index; i >= 0; i = parents[i])
+            journey.add(graph.nodes.get(i));
+        Collections.reverse(journey);
+        return journey;
+    }
+}
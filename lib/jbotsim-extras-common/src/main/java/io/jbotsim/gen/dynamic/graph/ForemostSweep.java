@@ -0,0 +1,215 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import java.util.Arrays;
+
+/**
+ * The sweep of the dates of a {@link TemporalReachability} for up to 64 sources: bit {@code k} of
+ * {@code reached[v]} tells whether the {@code k}-th source has reached node {@code v}.
+ */
+final class ForemostSweep {
+    private final TemporalReachability graph;
+    private final int[][] arrivals;
+    private final int[] parents;
+    private final int[] pendingParents;
+    private final long[] reached;
+    private final long[] pending;
+    private final int[] touched;
+    private final long complete;
+    private int nbComplete;
+
+    // present links, with the position of each link in the array, or -1
+    private final int[] present;
+    private final int[] positions;
+    private int nbPresent;
+
+    private int date;
+    private int nextChange;
+
+    /**
+     * @param graph the indexed graph
+     * @param sources the indexes of the sources, at most 64
+     * @param departure the date at which the sources start
+     * @param withParents whether the foremost journeys are recorded, for a single source
+     */
+    ForemostSweep(TemporalReachability graph, int[] sources, int departure, boolean withParents) {
+        this.graph = graph;
+        int nbNodes = graph.nodes.size();
+        reached = new long[nbNodes];
+        pending = new long[nbNodes];
+        touched = new int[nbNodes];
+        arrivals = new int[sources.length][nbNodes];
+        complete = sources.length == 64 ? -1L : (1L << sources.length) - 1;
+        for (int k = 0; k < sources.length; k++) {
+            Arrays.fill(arrivals[k], TemporalReachability.UNREACHABLE);
+            arrivals[k][sources[k]] = departure;
+            reached[sources[k]] |= 1L << k;
+        }
+        for (long r : reached)
+            if (r == complete)
+                nbComplete++;
+        if (withParents) {
+            parents = new int[nbNodes];
+            pendingParents = new int[nbNodes];
+            Arrays.fill(parents, -1);
+        } else {
+            parents = null;
+            pendingParents = null;
+        }
+
+        present = new int[graph.links.length];
+        positions = new int[graph.links.length];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < graph.links.length; i++)
+            if (graph.links[i].isPresentAtTime(departure))
+                add(i);
+        date = departure;
+        nextChange = Arrays.binarySearch(graph.changeDates, departure);
+        nextChange = nextChange < 0 ? -nextChange - 1 : nextChange + 1;
+    }
+
+    int[][] getArrivals() {
+        return arrivals;
+    }
+
+    int[] getParents() {
+        return parents;
+    }
+
+    /**
+     * @return the next date whose links have not been crossed yet.
+     */
+    int getDate() {
+        return date;
+    }
+
+    /**
+     * Sweeps the dates until the nodes are all reached, or until nothing can change anymore.
+     */
+    void run() {
+        while (nbComplete < reached.length) {
+            boolean changed = crossLinks();
+            boolean linksChanged = nextDate();
+            if (!changed && !linksChanged) {
+                if (nextChange == graph.changeDates.length)
+                    return;
+                // the present links stay the same until the next change, so that nothing can be reached before
+                date = graph.changeDates[nextChange];
+                applyChanges();
+            }
+        }
+    }
+
+    /**
+     * Crosses the links of the dates up to the specified date.
+     * @param lastDate the last date to sweep
+     */
+    void runUntil(int lastDate) {
+        while (date <= lastDate && nbComplete < reached.length) {
+            crossLinks();
+            nextDate();
+        }
+    }
+
+    /**
+     * Crosses the links present at the current date: the nodes reached from the other endpoints are reached at the
+     * next date.
+     * @return whether some nodes were reached.
+     */
+    private boolean crossLinks() {
+        int nbTouched = 0;
+        for (int i = 0; i < nbPresent; i++) {
+            int link = present[i];
+            int u = graph.sources[link];
+            int v = graph.destinations[link];
+            long ru = reached[u];
+            long rv = reached[v];
+            if ((ru & ~rv) != 0)
+                nbTouched = reach(v, ru & ~rv, u, nbTouched);
+            if ((rv & ~ru) != 0)
+                nbTouched = reach(u, rv & ~ru, v, nbTouched);
+        }
+        int arrival = date + 1;
+        for (int i = 0; i < nbTouched; i++) {
+            int v = touched[i];
+            long gained = pending[v];
+            pending[v] = 0;
+            reached[v] |= gained;
+            if (reached[v] == complete)
+                nbComplete++;
+            if (parents != null)
+                parents[v] = pendingParents[v];
+            for (; gained != 0; gained &= gained - 1)
+                arrivals[Long.numberOfTrailingZeros(gained)][v] = arrival;
+        }
+        return nbTouched > 0;
+    }
+
+    private int reach(int v, long sources, int from, int nbTouched) {
+        if (pending[v] == 0) {
+            touched[nbTouched++] = v;
+            if (pendingParents != null)
+                pendingParents[v] = from;
+        }
+        pending[v] |= sources;
+        return nbTouched;
+    }
+
+    /**
+     * Moves to the next date and updates the present links.
+     * @return whether some links changed.
+     */
+    private boolean nextDate() {
+        date++;
+        if (nextChange < graph.changeDates.length && graph.changeDates[nextChange] == date) {
+            applyChanges();
+            return true;
+        }
+        return false;
+    }
+
+    // same order as TVGPlayer: removals, then additions
+    private void applyChanges() {
+        for (int link : graph.removals[nextChange])
+            remove(link);
+        for (int link : graph.additions[nextChange])
+            add(link);
+        nextChange++;
+    }
+
+    private void add(int link) {
+        if (positions[link] >= 0)
+            return;
+        positions[link] = nbPresent;
+        present[nbPresent++] = link;
+    }
+
+    private void remove(int link) {
+        int position = positions[link];
+        if (position < 0)
+            return;
+        int last = present[--nbPresent];
+        present[position] = last;
+        positions[last] = position;
+        positions[link] = -1;
+    }
+}
@@ -20,17 +20,36 @@
  */
 package io.jbotsim.gen.dynamic.graph;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.StringTokenizer;
-import java.util.TreeSet;
 import java.util.Vector;
 
 import io.jbotsim.core.Node;
 
 public class TVG{
-    Vector<Node> nodes=new Vector<Node>();
-    Vector<TVLink> tvlinks=new Vector<TVLink>();
+    private static final int BINARY_MAGIC = 0x4A545647; // "JTVG"
+    private static final int BINARY_VERSION = 1;
+
+    List<Node> nodes=new ArrayList<Node>();
+    List<TVLink> tvlinks=new ArrayList<TVLink>();
+    private final Map<String, Node> nodesById=new HashMap<String, Node>();
     Class cNode;
     public TVG(){
         this(Node.class);
@@ -39,13 +58,11 @@ public class TVG{
         this.cNode = cNode;
     }
     public void buildFromFile(String filename){
-        try{
-            BufferedReader in=new BufferedReader(new FileReader(filename));
+        try (BufferedReader in=new BufferedReader(new FileReader(filename))){
             StringTokenizer st;
-            String sin="";
-            do sin=in.readLine(); while (sin.compareTo("vertices")!=0);
-            st = new StringTokenizer(sin," ");
-            while ((sin=in.readLine()).compareTo("")!=0){
+            String sin;
+            while ((sin=in.readLine())!=null && !sin.equals("vertices"));
+            while ((sin=in.readLine())!=null && !sin.equals("")){
                 st = new StringTokenizer(sin," ");
                 String id=st.nextToken();
                 Node n=(Node)cNode.newInstance();
@@ -58,26 +75,163 @@ public class TVG{
                 addNode(n);
             }
 
-            do sin=in.readLine(); while (sin.compareTo("edges")!=0);
+            while ((sin=in.readLine())!=null && !sin.equals("edges"));
             while ((sin=in.readLine())!=null && !sin.equals("")){
-                sin=sin.replaceAll("-", " ");
-                st = new StringTokenizer(sin," ");
+                st = new StringTokenizer(sin," -");
                 Node n1=getNodeById(st.nextToken());
                 Node n2=getNodeById(st.nextToken());
                 
                 TVLink tvl = new TVLink(n1, n2);
                 
                 while (st.hasMoreTokens()){
-                    tvl.addAppearanceDate(new Integer(st.nextToken()));
-                    tvl.addDisappearanceDate(new Integer(st.nextToken()));
+                    tvl.addAppearanceDate(Integer.parseInt(st.nextToken()));
+                    tvl.addDisappearanceDate(Integer.parseInt(st.nextToken()));
                 }
                 tvlinks.add(tvl);
             }
         }catch(Exception e){e.printStackTrace();}        
     }
+    /**
+     * Loads a time-varying graph written by {@link #saveToBinaryFile(String)}.
+     * @param filename the name of the file
+     */
+    public void buildFromBinaryFile(String filename){
+        try (InputStream in=new FileInputStream(filename)){
+            readBinary(in);
+        }catch(Exception e){e.printStackTrace();}
+    }
+    /**
+     * Saves this time-varying graph in a compact binary format, which can be loaded with
+     * {@link #buildFromBinaryFile(String)}.
+     * @param filename the name of the file
+     */
+    public void saveToBinaryFile(String filename){
+        try (OutputStream out=new FileOutputStream(filename)){
+            writeBinary(out);
+        }catch(Exception e){e.printStackTrace();}
+    }
+    /**
+     * Writes this time-varying graph in binary format: the nodes with their id and location, then the links with the
+     * indexes of their endpoints and their dates. The dates are delta-encoded as variable-length integers.
+     * @param out the stream to write to. It is flushed, but not closed.
+     * @throws IOException if an I/O error occurs, or if a link does not join two nodes of this graph.
+     */
+    public void writeBinary(OutputStream out) throws IOException{
+        DataOutputStream data=new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(BINARY_MAGIC);
+        data.writeInt(BINARY_VERSION);
+        Map<Node, Integer> indexes=new IdentityHashMap<Node, Integer>();
+        writeVarInt(data, nodes.size());
+        for (Node n : nodes){
+            indexes.put(n, indexes.size());
+            Object id=n.getProperty("id");
+            data.writeBoolean(id!=null);
+            if (id!=null)
+                data.writeUTF(id.toString());
+            data.writeDouble(n.getX());
+            data.writeDouble(n.getY());
+        }
+        writeVarInt(data, tvlinks.size());
+        for (TVLink l : tvlinks){
+            writeVarInt(data, indexOf(indexes, l.endpoint(0)));
+            writeVarInt(data, indexOf(indexes, l.endpoint(1)));
+            writeDates(data, l.appearanceDates);
+            writeDates(data, l.disappearanceDates);
+        }
+        data.flush();
+    }
+    /**
+     * Adds the nodes and links read from a stream written by {@link #writeBinary(OutputStream)}. The nodes are
+     * instances of the node class of this graph.
+     * @param in the stream to read from. It is not closed.
+     * @throws IOException if an I/O error occurs or if the stream is not a binary time-varying graph.
+     */
+    public void readBinary(InputStream in) throws IOException{
+        DataInputStream data=new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt()!=BINARY_MAGIC)
+            throw new StreamCorruptedException("not a binary time-varying graph");
+        int version=data.readInt();
+        if (version!=BINARY_VERSION)
+            throw new StreamCorruptedException("unsupported binary time-varying graph version: "+version);
+        Node[] read=new Node[readVarInt(data)];
+        for (int i=0; i<read.length; i++){
+            Node n;
+            try{
+                n=(Node)cNode.newInstance();
+            }catch(ReflectiveOperationException e){
+                throw new IOException("cannot instantiate "+cNode, e);
+            }
+            if (data.readBoolean())
+                n.setProperty("id", data.readUTF());
+            double x=data.readDouble();
+            double y=data.readDouble();
+            n.setLocation(x, y);
+            addNode(n);
+            read[i]=n;
+        }
+        int nbLinks=readVarInt(data);
+        for (int i=0; i<nbLinks; i++){
+            int i1=readVarInt(data);
+            int i2=readVarInt(data);
+            if (i1>=read.length || i2>=read.length)
+                throw new StreamCorruptedException("invalid node index");
+            TVLink l=new TVLink(read[i1], read[i2]);
+            l.appearanceDates.set(readDates(data));
+            l.disappearanceDates.set(readDates(data));
+            tvlinks.add(l);
+        }
+    }
+    private static int indexOf(Map<Node, Integer> indexes, Node n) throws IOException{
+        Integer index=indexes.get(n);
+        if (index==null)
+            throw new IOException("link endpoint "+n+" is not a node of the graph");
+        return index;
+    }
+    private static void writeDates(DataOutputStream data, TVLink.Dates dates) throws IOException{
+        writeVarInt(data, dates.size());
+        int previous=0;
+        for (int i=0; i<dates.size(); i++){
+            int date=dates.get(i);
+            int delta=date-previous;
+            writeVarInt(data, (delta << 1) ^ (delta >> 31));
+            previous=date;
+        }
+    }
+    private static int[] readDates(DataInputStream data) throws IOException{
+        int[] dates=new int[readVarInt(data)];
+        int previous=0;
+        for (int i=0; i<dates.length; i++){
+            int zigzag=readVarInt(data);
+            previous+=(zigzag >>> 1) ^ -(zigzag & 1);
+            if (i>0 && previous<=dates[i-1])
+                throw new StreamCorruptedException("dates are not increasing");
+            dates[i]=previous;
+        }
+        return dates;
+    }
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException{
+        while ((value & ~0x7F)!=0){
+            data.writeByte((value & 0x7F) | 0x80);
+            value>>>=7;
+        }
+        data.writeByte(value);
+    }
+    private static int readVarInt(DataInputStream data) throws IOException{
+        int value=0;
+        for (int shift=0; shift<35; shift+=7){
+            int b=data.readUnsignedByte();
+            value|=(b & 0x7F) << shift;
+            if ((b & 0x80)==0)
+                return value;
+        }
+        throw new StreamCorruptedException("malformed variable-length integer");
+    }
     public Node getNodeById(String id){
+        Node node=nodesById.get(id);
+        if (node!=null)
+            return node;
         for (Node n : nodes)
-            if (n.getProperty("id").equals(id))
+            if (id.equals(n.getProperty("id")))
                 return n;
         return null;
     }
@@ -85,7 +239,7 @@ public class TVG{
         try{
             for (int i=0; i<N; i++){
                 Node node = (Node)cNode.newInstance();
-                node.setProperty("id", "v"+(new Integer(i)).toString());
+                node.setProperty("id", "v"+i);
                 double angle=(2.0*Math.PI/N)*i;
                 node.setLocation(200+Math.cos(angle)*150, 200+Math.sin(angle)*150);
                 addNode(node);
@@ -93,7 +247,7 @@ public class TVG{
         }catch (Exception e) {e.printStackTrace();}
         for (int i=0; i<nodes.size(); i++){
             for (int j=i+1; j<nodes.size(); j++){
-                TVLink l=new TVLink(nodes.elementAt(i), nodes.elementAt(j));
+                TVLink l=new TVLink(nodes.get(i), nodes.get(j));
                 addTVLink(l);
             }
         }        
@@ -101,6 +255,9 @@ public class TVG{
     public void addNode(Node n){
         n.disableWireless();
         nodes.add(n);
+        Object id=n.getProperty("id");
+        if (id!=null)
+            nodesById.putIfAbsent(id.toString(), n);
     }
     public void addTVLink(TVLink l){
         tvlinks.add(l);
@@ -112,17 +269,28 @@ public class TVG{
         return new Vector<TVLink>(tvlinks);
     }
     public int nbDates(){
-        TreeSet<Integer> allDates=new TreeSet<Integer>();
+        int size=0;
+        for (TVLink l : tvlinks)
+            size+=l.appearanceDates.size()+l.disappearanceDates.size();
+        int[] allDates=new int[size];
+        int i=0;
         for (TVLink l : tvlinks){
-            allDates.addAll(l.appearanceDates);
-            allDates.addAll(l.disappearanceDates);
+            for (int j=0; j<l.appearanceDates.size(); j++)
+                allDates[i++]=l.appearanceDates.get(j);
+            for (int j=0; j<l.disappearanceDates.size(); j++)
+                allDates[i++]=l.disappearanceDates.get(j);
         }
-        return allDates.size();
+        Arrays.sort(allDates);
+        int nbDates=0;
+        for (i=0; i<allDates.length; i++)
+            if (i==0 || allDates[i]!=allDates[i-1])
+                nbDates++;
+        return nbDates;
     }
     public String toString(){
-        String s="";
+        StringBuilder s=new StringBuilder();
         for (TVLink l : tvlinks)
-            s += l.toString()+"\n";
-        return s;
+            s.append(l).append("\n");
+        return s.toString();
     }
 }
@@ -20,6 +20,7 @@
  */
 package io.jbotsim.gen.dynamic.graph;
 
+import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
 import io.jbotsim.core.event.ClockListener;
@@ -28,6 +29,7 @@ public class TVGPlayer implements ClockListener{
     protected TVG tvg;
     protected Topology tp;
     protected Integer period=null;
+    private TVGSchedule schedule;
     /**
      * Plays the specified time-varying graph on the specified topology.
      * @param tvg the time-varying graph
@@ -51,24 +53,32 @@ public class TVGPlayer implements ClockListener{
         for (Node n : tvg.nodes)
             tp.addNode(n);
     }
+    /**
+     * Starts playing the time-varying graph. The dates of its links are indexed at this point, so that each round
+     * only costs the number of links which change: the links added to the graph afterwards are not played.
+     */
     public void start(){
+        schedule = new TVGSchedule(tvg.tvlinks, period);
         tp.resetTime();
         tp.addClockListener(this);
-        for (TVLink l : tvg.tvlinks)
-            if (l.appearanceDates.contains(0))
-                //tp.addLink(l, true); // add silently.. (nodes not notified)
-                tp.addLink(l);
+        for (TVLink l : schedule.getAdditions(0))
+            //tp.addLink(l, true); // add silently.. (nodes not notified)
+            tp.addLink(l);
     }
     public void onClock(){
         updateLinks();
     }
     protected void updateLinks(){
-        Integer time = (period==null) ? tp.getTime() : tp.getTime() % period;
-        for (TVLink l : tvg.tvlinks){
-            if (l.disappearanceDates.contains(time) && tp.getLinks().contains(l))
+        int time = (period==null) ? tp.getTime() : tp.getTime() % period;
+        for (TVLink l : schedule.getRemovals(time))
+            if (isPresent(l))
                 tp.removeLink(l);
-            if (l.appearanceDates.contains(time) && !tp.getLinks().contains(l))
+        for (TVLink l : schedule.getAdditions(time))
+            if (!isPresent(l))
                 tp.addLink(l);
-        }        
+    }
+    // same as tp.getLinks().contains(l) for an undirected link, without scanning the links
+    private static boolean isPresent(Link l){
+        return l.source.getOutLinkTo(l.destination) != null && l.destination.getOutLinkTo(l.source) != null;
     }
 }
@@ -22,12 +22,12 @@ package io.jbotsim.gen.dynamic.graph;
 
 import io.jbotsim.core.Topology;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class TVGRandomPlayer extends TVGPlayer{
     int timeBound;
     int presenceBound;
-    Random rand=new Random();
+    SplittableRandom rand;
     
     public TVGRandomPlayer(TVG tvg, Topology tp) {
         this(tvg, tp, 50);
@@ -37,6 +37,7 @@ public class TVGRandomPlayer extends TVGPlayer{
     }
     public TVGRandomPlayer(TVG tvg, Topology tp, int timeBound, int presenceBound) {
         super(tvg, tp);
+        this.rand=tp.getRandomService().forComponent(this);
         this.timeBound=timeBound;
         this.presenceBound=presenceBound;
         for (TVLink l : super.tvg.tvlinks){
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The changes of the links of a {@link TVG}, indexed by date: for each date at which some link appears or
+ * disappears, the links to remove and the links to add, so that a {@link TVGPlayer} only visits the links which change.
+ */
+class TVGSchedule {
+    private static final TVLink[] NO_LINKS = new TVLink[0];
+
+    private final int[] dates;
+    private final TVLink[][] removals;
+    private final TVLink[][] additions;
+
+    /**
+     * @param links the time-varying links.
+     * @param period the period of the player, or {@code null}. The dates which are not in {@code [0, period)} are
+     *               never reached by a periodic player and are left out.
+     */
+    TVGSchedule(Collection<TVLink> links, Integer period) {
+        TreeMap<Integer, List<TVLink>[]> changes = new TreeMap<>();
+        for (TVLink l : links) {
+            for (int i = 0; i < l.disappearanceDates.size(); i++)
+                add(changes, l.disappearanceDates.get(i), period, 0, l);
+            for (int i = 0; i < l.appearanceDates.size(); i++)
+                add(changes, l.appearanceDates.get(i), period, 1, l);
+        }
+        int size = changes.size();
+        dates = new int[size];
+        removals = new TVLink[size][];
+        additions = new TVLink[size][];
+        int i = 0;
+        for (Map.Entry<Integer, List<TVLink>[]> entry : changes.entrySet()) {
+            dates[i] = entry.getKey();
+            removals[i] = toArray(entry.getValue()[0]);
+            additions[i] = toArray(entry.getValue()[1]);
+            i++;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void add(TreeMap<Integer, List<TVLink>[]> changes, int date, Integer period, int kind, TVLink l) {
+        if (period != null && (date < 0 || date >= period))
+            return;
+        List<TVLink>[] lists = changes.get(date);
+        if (lists == null) {
+            lists = new List[2];
+            changes.put(date, lists);
+        }
+        if (lists[kind] == null)
+            lists[kind] = new ArrayList<>();
+        lists[kind].add(l);
+    }
+
+    private static TVLink[] toArray(List<TVLink> links) {
+        return links == null ? NO_LINKS : links.toArray(new TVLink[0]);
+    }
+
+    /**
+     * @return the dates at which some link changes, in increasing order. The array must not be modified.
+     */
+    int[] getDates() {
+        return dates;
+    }
+
+    /**
+     * @param date a date.
+     * @return the links which disappear at {@code date}.
+     */
+    TVLink[] getRemovals(int date) {
+        int i = Arrays.binarySearch(dates, date);
+        return i < 0 ? NO_LINKS : removals[i];
+    }
+
+    /**
+     * @param date a date.
+     * @return the links which appear at {@code date}.
+     */
+    TVLink[] getAdditions(int date) {
+        int i = Arrays.binarySearch(dates, date);
+        return i < 0 ? NO_LINKS : additions[i];
+    }
+}
@@ -20,15 +20,14 @@
  */
 package io.jbotsim.gen.dynamic.graph;
 
-import java.util.Iterator;
-import java.util.TreeSet;
+import java.util.Arrays;
 
 import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
 
 public class TVLink extends Link{
-    TreeSet<Integer> appearanceDates=new TreeSet<Integer>();
-    TreeSet<Integer> disappearanceDates=new TreeSet<Integer>();
+    final Dates appearanceDates=new Dates();
+    final Dates disappearanceDates=new Dates();
     /*
      * Creates an undirected wired edge between n1 and n2.
      */
@@ -41,28 +40,124 @@ public class TVLink extends Link{
     public void addDisappearanceDate(int date){
         disappearanceDates.add(date);
     }
+    /**
+     * @return the appearance dates of this link, in increasing order.
+     */
+    public int[] getAppearanceDates(){
+        return appearanceDates.toArray();
+    }
+    /**
+     * @return the disappearance dates of this link, in increasing order.
+     */
+    public int[] getDisappearanceDates(){
+        return disappearanceDates.toArray();
+    }
+    /*
+     * Releases the memory reserved for dates which were not added.
+     */
+    void trimDates(){
+        appearanceDates.trim();
+        disappearanceDates.trim();
+    }
+    /**
+     * Tells whether this link is present at the specified date, that is whether its last appearance at or before
+     * this date is not followed by a disappearance at or before this date. The dates are found by binary search.
+     * @param time the date
+     * @return <code>true</code> if the link is present at <code>time</code>.
+     */
     public boolean isPresentAtTime(int time){
-        Integer previousApp = appearanceDates.floor(time);
-        if (previousApp==null)
+        int previousApp = appearanceDates.indexOfFloor(time);
+        if (previousApp < 0)
             return false;
-        Integer nextDis = disappearanceDates.ceiling(previousApp+1);
-        if (nextDis==null)
+        int nextDis = disappearanceDates.indexOfCeiling(appearanceDates.get(previousApp)+1);
+        if (nextDis < 0)
             return true;
         else
-            return (time < nextDis);
+            return (time < disappearanceDates.get(nextDis));
     }
     public String toString(){
-        String s="";
-        Iterator<Integer> appIt=appearanceDates.iterator();
-        Iterator<Integer> disIt=disappearanceDates.iterator();
-        while (appIt.hasNext() && disIt.hasNext())
-            s+="("+appIt.next()+","+disIt.next()+"],";
-        if (appIt.hasNext())
-            s+="("+appIt.next()+",-)";
-        else{
-            if (s.length()>0)
-                s=s.substring(0, s.length()-1);
-        }
+        StringBuilder s=new StringBuilder();
+        int i=0;
+        for (; i<appearanceDates.size() && i<disappearanceDates.size(); i++)
+            s.append("(").append(appearanceDates.get(i)).append(",").append(disappearanceDates.get(i)).append("],");
+        if (i<appearanceDates.size())
+            s.append("(").append(appearanceDates.get(i)).append(",-)");
+        else if (s.length()>0)
+            s.setLength(s.length()-1);
         return super.toString()+" : "+s;
     }
+
+    /**
+     * A sorted set of dates, stored in an array of ints.
+     */
+    static final class Dates {
+        private static final int[] EMPTY = new int[0];
+
+        private int[] dates = EMPTY;
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int get(int i) {
+            return dates[i];
+        }
+
+        /**
+         * Adds a date, in constant amortized time when the dates are added in increasing order.
+         */
+        void add(int date) {
+            int i = size;
+            if (size > 0 && dates[size - 1] >= date) {
+                i = Arrays.binarySearch(dates, 0, size, date);
+                if (i >= 0)
+                    return;
+                i = -i - 1;
+            }
+            if (size == dates.length)
+                dates = Arrays.copyOf(dates, Math.max(4, size + (size >> 1)));
+            System.arraycopy(dates, i, dates, i + 1, size - i);
+            dates[i] = date;
+            size++;
+        }
+
+        /**
+         * Replaces the dates by the specified ones, which must be sorted and distinct.
+         */
+        void set(int[] sortedDates) {
+            dates = sortedDates;
+            size = sortedDates.length;
+        }
+
+        /**
+         * @return the index of the greatest date lower than or equal to <code>date</code>, or -1.
+         */
+        int indexOfFloor(int date) {
+            int i = Arrays.binarySearch(dates, 0, size, date);
+            return i >= 0 ? i : -i - 2;
+        }
+
+        /**
+         * @return the index of the smallest date greater than or equal to <code>date</code>, or -1.
+         */
+        int indexOfCeiling(int date) {
+            int i = Arrays.binarySearch(dates, 0, size, date);
+            if (i < 0)
+                i = -i - 1;
+            return i < size ? i : -1;
+        }
+
+        /**
+         * Releases the unused capacity.
+         */
+        void trim() {
+            if (dates.length > size)
+                dates = size == 0 ? EMPTY : Arrays.copyOf(dates, size);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(dates, size);
+        }
+    }
 }
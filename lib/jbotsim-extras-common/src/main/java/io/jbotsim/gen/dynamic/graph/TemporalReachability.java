@@ -0,0 +1,185 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import io.jbotsim.contrib.internal.Workers;
+import io.jbotsim.core.Node;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The {@link TemporalReachability} computes the foremost journeys of a {@link TVG}, that is for each node the
+ * earliest date at which it can be reached from a source which starts at a given departure date.</p>
+ *
+ * <p>A journey crosses a link at a date when the link is present at this date (see
+ * {@link TVLink#isPresentAtTime(int)}), and each crossing takes one time unit, like a message sent over the link.</p>
+ *
+ * <p>The dates are swept in increasing order, once for up to 64 sources at a time: at each date, the sets of
+ * sources which reached the endpoints of the present links are merged, and the dates at which nothing can change
+ * are skipped. The graph is indexed when the {@link TemporalReachability} is created: the links added to the
+ * {@link TVG} afterwards are ignored.</p>
+ */
+public class TemporalReachability {
+    /**
+     * The arrival date of the nodes which cannot be reached.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    final List<Node> nodes;
+    final Map<Node, Integer> indexes = new IdentityHashMap<>();
+    final TVLink[] links;
+    final int[] sources;
+    final int[] destinations;
+    final int[] changeDates;
+    final int[][] removals;
+    final int[][] additions;
+
+    /**
+     * Indexes the specified time-varying graph.
+     * @param tvg the time-varying graph
+     * @throws IllegalArgumentException if a link does not join two nodes of the graph
+     */
+    public TemporalReachability(TVG tvg) {
+        nodes = new ArrayList<>(tvg.nodes);
+        for (Node n : nodes)
+            indexes.put(n, indexes.size());
+        links = tvg.tvlinks.toArray(new TVLink[0]);
+        sources = new int[links.length];
+        destinations = new int[links.length];
+        Map<TVLink, Integer> linkIndexes = new IdentityHashMap<>();
+        for (int i = 0; i < links.length; i++) {
+            sources[i] = indexOf(links[i].endpoint(0));
+            destinations[i] = indexOf(links[i].endpoint(1));
+            linkIndexes.put(links[i], i);
+        }
+        TVGSchedule schedule = new TVGSchedule(tvg.tvlinks, null);
+        changeDates = schedule.getDates();
+        removals = new int[changeDates.length][];
+        additions = new int[changeDates.length][];
+        for (int i = 0; i < changeDates.length; i++) {
+            removals[i] = indexesOf(schedule.getRemovals(changeDates[i]), linkIndexes);
+            additions[i] = indexesOf(schedule.getAdditions(changeDates[i]), linkIndexes);
+        }
+    }
+
+    private int indexOf(Node node) {
+        Integer index = indexes.get(node);
+        if (index == null)
+            throw new IllegalArgumentException("The link endpoint " + node + " is not a node of the graph.");
+        return index;
+    }
+
+    private static int[] indexesOf(TVLink[] links, Map<TVLink, Integer> linkIndexes) {
+        int[] result = new int[links.length];
+        for (int i = 0; i < links.length; i++)
+            result[i] = linkIndexes.get(links[i]);
+        return result;
+    }
+
+    /**
+     * @return the nodes of the graph, in the order of the rows and columns of
+     * {@link #foremostArrivalDates(int)}.
+     */
+    public List<Node> getNodes() {
+        return new ArrayList<>(nodes);
+    }
+
+    /**
+     * Computes the foremost journeys from the specified source.
+     * @param source the source node
+     * @param departure the date at which the source starts
+     * @return the foremost journeys.
+     * @throws IllegalArgumentException if the source is not a node of the graph
+     */
+    public ForemostJourneys foremostJourneys(Node source, int departure) {
+        ForemostSweep sweep = new ForemostSweep(this, new int[]{indexOf(source)}, departure, true);
+        sweep.run();
+        return new ForemostJourneys(this, source, departure, sweep.getArrivals()[0], sweep.getParents());
+    }
+
+    /**
+     * Computes the foremost arrival dates between all the nodes, on the calling thread.
+     * @param departure the date at which the sources start
+     * @return a matrix whose entry {@code [i][j]} is the date at which the {@code j}-th node is reached from the
+     * {@code i}-th node, or {@link #UNREACHABLE}.
+     * @see #getNodes()
+     */
+    public int[][] foremostArrivalDates(int departure) {
+        int[][] arrivals = new int[nodes.size()][];
+        for (int block = 0; block * 64 < nodes.size(); block++)
+            sweepBlock(block, departure, arrivals);
+        return arrivals;
+    }
+
+    /**
+     * Same as {@link #foremostArrivalDates(int)}, with the sources split by blocks of 64 among the specified number
+     * of worker threads.
+     * @param departure the date at which the sources start
+     * @param nbWorkers the number of worker threads
+     * @return the matrix of the foremost arrival dates.
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public int[][] foremostArrivalDates(int departure, int nbWorkers) throws InterruptedException {
+        int[][] arrivals = new int[nodes.size()][];
+        int nbBlocks = (nodes.size() + 63) / 64;
+        Workers.run(nbBlocks, nbWorkers, () -> block -> sweepBlock(block, departure, arrivals));
+        return arrivals;
+    }
+
+    private void sweepBlock(int block, int departure, int[][] arrivals) {
+        int first = block * 64;
+        int[] blockSources = new int[Math.min(64, nodes.size() - first)];
+        for (int k = 0; k < blockSources.length; k++)
+            blockSources[k] = first + k;
+        ForemostSweep sweep = new ForemostSweep(this, blockSources, departure, false);
+        sweep.run();
+        System.arraycopy(sweep.getArrivals(), 0, arrivals, first, blockSources.length);
+    }
+
+    /**
+     * Tells whether every node can reach every other node by a journey which starts at the specified date.
+     * @param departure the date at which the sources start
+     * @return {@code true} if the graph is temporally connected from {@code departure}.
+     */
+    public boolean isTemporallyConnected(int departure) {
+        return getTemporalDiameter(departure) != UNREACHABLE;
+    }
+
+    /**
+     * Computes the temporal diameter, that is the greatest duration of a foremost journey between two nodes.
+     * @param departure the date at which the sources start
+     * @return the temporal diameter, or {@link #UNREACHABLE} if the graph is not temporally connected from
+     * {@code departure}.
+     */
+    public int getTemporalDiameter(int departure) {
+        int diameter = 0;
+        for (int[] row : foremostArrivalDates(departure))
+            for (int arrival : row) {
+                if (arrival == UNREACHABLE)
+                    return UNREACHABLE;
+                diameter = Math.max(diameter, arrival - departure);
+            }
+        return diameter;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <p>A trace which is read lazily, one {@link TraceEvent} at a time, and which can be positioned on its keyframes.</p>
+ *
+ * <p>A keyframe describes the state of the topology at a given time, as the {@link TraceEvent.EventKind#ADD_NODE}
+ * events which would create its nodes (preceded by a {@link TraceEvent.EventKind#START_TOPOLOGY} event if the topology
+ * was started). The {@link TracePlayer} uses them to {@link TracePlayer#seek(int) seek} without replaying the trace
+ * from its beginning.</p>
+ */
+public interface SeekableTrace extends Closeable {
+
+    /**
+     * Positions the trace on its last keyframe at or before {@code time}, or on its beginning if there is none. The
+     * following calls to {@link #next()} return the events which follow the keyframe.
+     *
+     * @param time the time to reach.
+     * @return the events describing the keyframe, empty if the trace is positioned on its beginning.
+     * @throws IOException if an error occurs while the trace is read.
+     */
+    List<TraceEvent> seek(int time) throws IOException;
+
+    /**
+     * @return the next event of the trace, or {@code null} at the end of the trace.
+     * @throws IOException if an error occurs while the trace is read.
+     */
+    TraceEvent next() throws IOException;
+}
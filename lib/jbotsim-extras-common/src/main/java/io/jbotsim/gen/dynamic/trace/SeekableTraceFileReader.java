@@ -0,0 +1,41 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.trace;
+
+import io.jbotsim.core.Topology;
+
+import java.io.IOException;
+
+/**
+ * A {@link TraceFileReader} which can also read its files lazily, as {@link SeekableTrace}s. The {@link TracePlayer}
+ * uses this mode when it is available.
+ */
+public interface SeekableTraceFileReader extends TraceFileReader {
+
+    /**
+     * Opens the trace file named filename.
+     * @param filename the filename of the source file
+     * @param topology the {@link Topology} on which the trace is played, whose settings may be set from the file
+     * @return the {@link SeekableTrace}, positioned on its beginning
+     * @throws IOException in case of error
+     */
+    SeekableTrace open(String filename, Topology topology) throws IOException;
+}
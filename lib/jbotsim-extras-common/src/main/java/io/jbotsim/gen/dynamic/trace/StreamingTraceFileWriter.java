@@ -0,0 +1,83 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * <p>A {@link TraceFileWriter} that writes the events to its file while they are recorded, instead of keeping them
+ * until {@link #write(String)} is called.</p>
+ *
+ * <p>The file is chosen with {@link #open(String)}; the events recorded afterwards are written to it, and
+ * {@link #close()} completes it. The {@link TraceRecorder} uses this mode when it is started with
+ * {@link TraceRecorder#start(String)}.</p>
+ */
+public interface StreamingTraceFileWriter extends TraceFileWriter, Closeable {
+
+    /**
+     * Opens the file in which the following events are written.
+     * @param filename the name of the destination file
+     * @throws IOException if the file cannot be created
+     */
+    void open(String filename) throws IOException;
+
+    /**
+     * Records an event without creating a {@link TraceEvent}. The arguments which are irrelevant for the kind of
+     * event are ignored.
+     * @param kind the kind of the event
+     * @param time the time of the event
+     * @param id the identifier of the node, or -1
+     * @param x the abscissa of the node, for {@link TraceEvent.EventKind#ADD_NODE} and
+     *          {@link TraceEvent.EventKind#MOVE_NODE}
+     * @param y the ordinate of the node, for {@link TraceEvent.EventKind#ADD_NODE} and
+     *          {@link TraceEvent.EventKind#MOVE_NODE}
+     * @param nodeClass the class name of the node, for {@link TraceEvent.EventKind#ADD_NODE}
+     */
+    void record(TraceEvent.EventKind kind, int time, int id, double x, double y, String nodeClass);
+
+    /**
+     * Records a message or link event without creating a {@link TraceEvent}.
+     * @param kind the kind of the event: {@link TraceEvent.EventKind#MESSAGE_SENT},
+     *             {@link TraceEvent.EventKind#MESSAGE_DELIVERED}, {@link TraceEvent.EventKind#LINK_ADDED} or
+     *             {@link TraceEvent.EventKind#LINK_REMOVED}
+     * @param time the time of the event
+     * @param source the identifier of the sender of the message, or of the source of the link
+     * @param destination the identifier of the destination of the message or link, or -1 for a message sent to all
+     *                    the neighbors
+     * @param value the send time of a delivered message, 1 for a directed link and 0 for an undirected one; ignored
+     *              for the messages sent
+     */
+    void record(TraceEvent.EventKind kind, int time, int source, int destination, int value);
+
+    /**
+     * Waits until the events recorded so far are written to the file.
+     * @throws IOException if an error occurred while writing the file
+     */
+    void flush() throws IOException;
+
+    /**
+     * Writes the remaining events and closes the file.
+     * @throws IOException if an error occurred while writing the file
+     */
+    @Override
+    void close() throws IOException;
+}
@@ -22,7 +22,8 @@ package io.jbotsim.gen.dynamic.trace;
 
 public class TraceEvent {
     public enum EventKind {
-        ADD_NODE, DEL_NODE, SELECT_NODE, MOVE_NODE, START_TOPOLOGY
+        ADD_NODE, DEL_NODE, SELECT_NODE, MOVE_NODE, START_TOPOLOGY,
+        MESSAGE_SENT, MESSAGE_DELIVERED, LINK_ADDED, LINK_REMOVED
     }
 
     private EventKind kind;
@@ -31,6 +32,9 @@ public class TraceEvent {
     private double x;
     private double y;
     private String nodeClass;
+    private int destinationID = -1;
+    private int sendTime = -1;
+    private boolean directed;
 
     protected TraceEvent(int time, EventKind kind) {
         this(time, -1, kind);
@@ -71,6 +75,50 @@ public class TraceEvent {
         return result;
     }
 
+    /**
+     * @param time the time at which the message is sent
+     * @param senderID the identifier of the sender
+     * @param destinationID the identifier of the destination, or -1 if the message is sent to all the neighbors
+     * @return the event
+     */
+    public static TraceEvent newMessageSent(int time, int senderID, int destinationID) {
+        TraceEvent result = new TraceEvent(time, senderID, EventKind.MESSAGE_SENT);
+        result.destinationID = destinationID;
+
+        return result;
+    }
+
+    /**
+     * @param time the time at which the message is delivered
+     * @param senderID the identifier of the sender
+     * @param destinationID the identifier of the destination
+     * @param sendTime the time at which the message was sent, or -1 if it is unknown
+     * @return the event
+     */
+    public static TraceEvent newMessageDelivered(int time, int senderID, int destinationID, int sendTime) {
+        TraceEvent result = new TraceEvent(time, senderID, EventKind.MESSAGE_DELIVERED);
+        result.destinationID = destinationID;
+        result.sendTime = sendTime;
+
+        return result;
+    }
+
+    public static TraceEvent newLinkAdded(int time, int sourceID, int destinationID, boolean directed) {
+        TraceEvent result = new TraceEvent(time, sourceID, EventKind.LINK_ADDED);
+        result.destinationID = destinationID;
+        result.directed = directed;
+
+        return result;
+    }
+
+    public static TraceEvent newLinkRemoved(int time, int sourceID, int destinationID, boolean directed) {
+        TraceEvent result = new TraceEvent(time, sourceID, EventKind.LINK_REMOVED);
+        result.destinationID = destinationID;
+        result.directed = directed;
+
+        return result;
+    }
+
     public EventKind getKind() {
         return kind;
     }
@@ -95,4 +143,26 @@ public class TraceEvent {
     public int getNodeID() {
         return id;
     }
+
+    /**
+     * @return the identifier of the destination of a message or of a link, -1 for the other events and for the
+     * messages sent to all the neighbors. The sender or source is given by {@link #getNodeID()}.
+     */
+    public int getDestinationID() {
+        return destinationID;
+    }
+
+    /**
+     * @return the time at which a delivered message was sent, or -1.
+     */
+    public int getSendTime() {
+        return sendTime;
+    }
+
+    /**
+     * @return {@code true} if the event concerns a directed link.
+     */
+    public boolean isDirected() {
+        return directed;
+    }
 }
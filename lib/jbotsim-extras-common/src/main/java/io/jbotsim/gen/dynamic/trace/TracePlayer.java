@@ -24,16 +24,24 @@ import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
 import io.jbotsim.core.event.ClockListener;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
+import java.io.IOException;
+import java.util.*;
 
+/**
+ * <p>The {@link TracePlayer} replays a trace recorded by a {@link TraceRecorder} on a {@link Topology}: at each round,
+ * the events whose time has been reached are applied.</p>
+ *
+ * <p>If its {@link TraceFileReader} is a {@link SeekableTraceFileReader}, the events are read lazily from the file
+ * while they are played, and {@link #seek(int)} restores the nearest keyframe and only reads the events which follow
+ * it. Otherwise, the events are loaded in memory first.</p>
+ */
 public class TracePlayer implements ClockListener {
     private Topology topology;
     private TraceFileReader traceFileReader;
-    private LinkedList<TraceEvent> events;
-    private PriorityQueue<TraceEvent> story;
+    private List<TraceEvent> events;
+    private SeekableTrace trace;
+    private TraceEvent nextEvent;
+    private boolean playing;
     private HashMap<Integer, Node> recordedNodes;
     private ArrayList<ReplayTerminatedListener> listeners;
 
@@ -44,8 +52,7 @@ public class TracePlayer implements ClockListener {
     public TracePlayer(Topology topology, TraceFileReader traceFileReader) {
         this.topology = topology;
         this.traceFileReader = traceFileReader;
-        events = new LinkedList<>();
-        story = null;
+        events = new ArrayList<>();
         recordedNodes = new HashMap<>();
         topology.addClockListener(this);
         listeners = new ArrayList<>();
@@ -60,42 +67,177 @@ public class TracePlayer implements ClockListener {
     }
 
     public void loadAndStart(String filename) throws Exception {
-        traceFileReader.parse(filename, this);
+        close();
+        if (traceFileReader instanceof SeekableTraceFileReader)
+            trace = ((SeekableTraceFileReader) traceFileReader).open(filename, topology);
+        else
+            traceFileReader.parse(filename, this);
         start();
     }
 
     public void start() {
         topology.resetTime();
-        if(! events.isEmpty()) {
-            story = new PriorityQueue<>(events.size(), (e1, e2) -> {
-                return e1.getTime() - e2.getTime();
-            });
-            story.addAll(events);
+        playing = false;
+        try {
+            getTrace().seek(Integer.MIN_VALUE);
+            nextEvent = trace.next();
+            playing = nextEvent != null;
+        } catch (IOException ex) {
+            ex.printStackTrace(System.err);
         }
     }
 
+    /**
+     * Moves the replay to the given time: the nodes are created, removed and moved so as to match their state after
+     * the events at or before {@code time}, and the time of the {@link Topology} is set to {@code time}. The replay
+     * then continues from there.
+     *
+     * The recorded times are expected not to decrease, which is the case unless the topology was restarted while it
+     * was recorded.
+     *
+     * @param time the time to reach.
+     * @throws IOException if an error occurs while the trace is read.
+     */
+    public void seek(int time) throws IOException {
+        SeekableTrace trace = getTrace();
+        LinkedHashMap<Integer, NodeState> nodes = new LinkedHashMap<>();
+        boolean started = false;
+        for (TraceEvent e : trace.seek(time))
+            started |= fold(e, nodes);
+        TraceEvent e;
+        while ((e = trace.next()) != null && e.getTime() <= time)
+            started |= fold(e, nodes);
+
+        topology.pause();
+        try {
+            applyState(nodes, started);
+            topology.getClockManager().setTime(time);
+        } finally {
+            topology.resume();
+        }
+        nextEvent = e;
+        playing = true;
+    }
+
+    /**
+     * Releases the file from which the trace is read, if any.
+     * @throws IOException in case of error
+     */
+    public void close() throws IOException {
+        SeekableTrace trace = this.trace;
+        this.trace = null;
+        nextEvent = null;
+        playing = false;
+        if (trace != null)
+            trace.close();
+    }
+
     public Topology getTopology() {
         return topology;
     }
 
     public void addTraceEvent(TraceEvent e) {
         events.add(e);
+        if (trace instanceof EventListTrace)
+            trace = null;
+    }
+
+    private SeekableTrace getTrace() {
+        if (trace == null)
+            trace = new EventListTrace(events);
+        return trace;
     }
 
     @Override
     public void onClock() {
-        if (story == null)
+        if (!playing)
             return;
-        while (!story.isEmpty() && story.peek().getTime() <= topology.getTime()) {
-            TraceEvent e = story.remove();
-            runEvent(e);
+        try {
+            while (nextEvent != null && nextEvent.getTime() <= topology.getTime()) {
+                runEvent(nextEvent);
+                nextEvent = trace.next();
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace(System.err);
+            nextEvent = null;
         }
 
-        if (story.isEmpty()) {
+        if (nextEvent == null) {
+            playing = false;
             for (ReplayTerminatedListener l : listeners) {
                 l.onReplayTerminated(this);
             }
-            story = null;
+        }
+    }
+
+    // applies the event to the state of the nodes, returns true if it starts the topology
+    private static boolean fold(TraceEvent e, Map<Integer, NodeState> nodes) {
+        switch (e.getKind()) {
+            case START_TOPOLOGY:
+                return true;
+            case ADD_NODE:
+                nodes.put(e.getNodeID(), new NodeState(e.getX(), e.getY(), e.getNodeClass()));
+                break;
+            case MOVE_NODE:
+                NodeState state = nodes.get(e.getNodeID());
+                if (state != null) {
+                    state.x = e.getX();
+                    state.y = e.getY();
+                }
+                break;
+            case DEL_NODE:
+                nodes.remove(e.getNodeID());
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+
+    private void applyState(Map<Integer, NodeState> nodes, boolean started) {
+        Iterator<Map.Entry<Integer, Node>> it = recordedNodes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Node> entry = it.next();
+            if (!nodes.containsKey(entry.getKey())) {
+                topology.removeNode(entry.getValue());
+                it.remove();
+            }
+        }
+        List<Node> created = new ArrayList<>();
+        for (Map.Entry<Integer, NodeState> entry : nodes.entrySet()) {
+            NodeState state = entry.getValue();
+            Node n = recordedNodes.get(entry.getKey());
+            if (n == null) {
+                n = createNode(state.nodeClass);
+                if (n == null)
+                    continue;
+                recordedNodes.put(entry.getKey(), n);
+                created.add(n);
+                n.setLocation(state.x, state.y);
+            } else if (n.getX() != state.x || n.getY() != state.y) {
+                n.setLocation(state.x, state.y);
+            }
+        }
+        topology.addNodes(created);
+        if (started && !topology.isStarted())
+            topology.start();
+    }
+
+    private Node createNode(String className) {
+        Class<? extends Node> classNode = topology.getNodeModel(className);
+        if (classNode == null) {
+            try {
+                classNode = Class.forName(className).asSubclass(Node.class);
+            } catch (ClassNotFoundException ex) {
+                System.err.println(ex.getMessage());
+                classNode = Node.class;
+            }
+        }
+        try {
+            return classNode.newInstance();
+        } catch (ReflectiveOperationException ex) {
+            ex.printStackTrace(System.err);
+            return null;
         }
     }
 
@@ -115,23 +257,11 @@ public class TracePlayer implements ClockListener {
                     System.err.println("node ID already created '" + id + "'");
                     return;
                 }
-                String className = e.getNodeClass();
-                Class<? extends Node> classNode = topology.getNodeModel(className);
-                if (classNode == null) {
-                    try {
-                        classNode = Class.forName(className).asSubclass(Node.class);
-                    } catch (ClassNotFoundException ex) {
-                        System.err.println(ex.getMessage());
-                        classNode = Node.class;
-                    }
-                }
-                try {
-                    n = classNode.newInstance();
+                n = createNode(e.getNodeClass());
+                if (n != null) {
                     n.setLocation(e.getX(), e.getY());
                     topology.addNode(n);
                     recordedNodes.put(id, n);
-                } catch (ReflectiveOperationException ex) {
-                    ex.printStackTrace(System.err);
                 }
                 break;
             case SELECT_NODE:
@@ -158,4 +288,44 @@ public class TracePlayer implements ClockListener {
                 break;
         }
     }
+
+    private static class NodeState {
+        double x;
+        double y;
+        final String nodeClass;
+
+        NodeState(double x, double y, String nodeClass) {
+            this.x = x;
+            this.y = y;
+            this.nodeClass = nodeClass;
+        }
+    }
+
+    /**
+     * The events added with {@link #addTraceEvent(TraceEvent)}, played in the order of their times.
+     */
+    private static class EventListTrace implements SeekableTrace {
+        private final List<TraceEvent> events;
+        private int index;
+
+        EventListTrace(List<TraceEvent> events) {
+            events.sort(Comparator.comparingInt(TraceEvent::getTime));
+            this.events = events;
+        }
+
+        @Override
+        public List<TraceEvent> seek(int time) {
+            index = 0;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public TraceEvent next() {
+            return index < events.size() ? events.get(index++) : null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
@@ -20,25 +20,46 @@
  */
 package io.jbotsim.gen.dynamic.trace;
 
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Message;
 import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
+import io.jbotsim.core.event.ConnectivityListener;
+import io.jbotsim.core.event.MessageListener;
 import io.jbotsim.core.event.MovementListener;
 import io.jbotsim.core.event.SelectionListener;
 import io.jbotsim.core.event.StartListener;
 import io.jbotsim.core.event.TopologyListener;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
-public class TraceRecorder implements MovementListener, SelectionListener, TopologyListener, StartListener {
+import static io.jbotsim.gen.dynamic.trace.TraceEvent.EventKind.*;
+
+/**
+ * <p>The {@link TraceRecorder} records the evolution of a {@link Topology} (nodes added, removed, moved or selected)
+ * and stores it with a {@link TraceFileWriter}. The messages sent and delivered, and the links added and removed, can
+ * also be recorded with {@link #setMessagesRecorded(boolean)} and {@link #setLinksRecorded(boolean)}.</p>
+ *
+ * <p>When started with {@link #start()}, the events are kept in memory and written by
+ * {@link #stopAndWrite(String)}. When started with {@link #start(String)}, which requires a
+ * {@link StreamingTraceFileWriter}, they are handed to the writer as they occur and the memory used does not depend on
+ * the length of the run.</p>
+ */
+public class TraceRecorder implements MovementListener, SelectionListener, TopologyListener, StartListener,
+        MessageListener, ConnectivityListener {
     private TraceFileWriter traceFileWriter;
     private Topology tp;
     private List<TraceEvent> story;
+    private StreamingTraceFileWriter stream;
+    private boolean messagesRecorded;
+    private boolean linksRecorded;
 
     public TraceRecorder(Topology tp, TraceFileWriter traceFileWriter) {
         this.traceFileWriter = traceFileWriter;
         this.tp = tp;
-        story = new LinkedList<>();
+        story = new ArrayList<>();
         tp.addMovementListener(this);
         tp.addSelectionListener(this);
         tp.addTopologyListener(this);
@@ -47,28 +68,126 @@ public class TraceRecorder implements MovementListener, SelectionListener, Topol
 
     @Override
     public void onStart() {
-        story.add(TraceEvent.newStartTopology(tp.getTime()));
+        if (stream != null)
+            stream.record(START_TOPOLOGY, tp.getTime(), -1, 0, 0, null);
+        else
+            story.add(TraceEvent.newStartTopology(tp.getTime()));
     }
 
     @Override
     public void onMovement(Node node) {
-        story.add(TraceEvent.newMoveNode(tp.getTime(), node.getID(), node.getX(), node.getY()));
+        if (stream != null)
+            stream.record(MOVE_NODE, tp.getTime(), node.getID(), node.getX(), node.getY(), null);
+        else
+            story.add(TraceEvent.newMoveNode(tp.getTime(), node.getID(), node.getX(), node.getY()));
     }
 
     @Override
     public void onSelection(Node node) {
-        story.add(TraceEvent.newSelectNode(tp.getTime(), node.getID()));
+        if (stream != null)
+            stream.record(SELECT_NODE, tp.getTime(), node.getID(), 0, 0, null);
+        else
+            story.add(TraceEvent.newSelectNode(tp.getTime(), node.getID()));
     }
 
     @Override
     public void onNodeAdded(Node node) {
-        story.add(TraceEvent.newAddNode(tp.getTime(), node.getID(), node.getX(), node.getY(),
-                node.getClass().getName()));
+        if (stream != null)
+            stream.record(ADD_NODE, tp.getTime(), node.getID(), node.getX(), node.getY(), node.getClass().getName());
+        else
+            story.add(TraceEvent.newAddNode(tp.getTime(), node.getID(), node.getX(), node.getY(),
+                    node.getClass().getName()));
     }
 
     @Override
     public void onNodeRemoved(Node node) {
-        story.add(TraceEvent.newDeleteNode(tp.getTime(), node.getID()));
+        if (stream != null)
+            stream.record(DEL_NODE, tp.getTime(), node.getID(), 0, 0, null);
+        else
+            story.add(TraceEvent.newDeleteNode(tp.getTime(), node.getID()));
+    }
+
+    @Override
+    public void onMessageSent(Message message) {
+        int destination = message.getDestination() == null ? -1 : message.getDestination().getID();
+        if (stream != null)
+            stream.record(MESSAGE_SENT, tp.getTime(), message.getSender().getID(), destination, 0);
+        else
+            story.add(TraceEvent.newMessageSent(tp.getTime(), message.getSender().getID(), destination));
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        int sender = message.getSender().getID();
+        int destination = message.getDestination().getID();
+        if (stream != null)
+            stream.record(MESSAGE_DELIVERED, tp.getTime(), sender, destination, message.getSendTime());
+        else
+            story.add(TraceEvent.newMessageDelivered(tp.getTime(), sender, destination, message.getSendTime()));
+    }
+
+    @Override
+    public void onLinkAdded(Link link) {
+        if (stream != null)
+            stream.record(LINK_ADDED, tp.getTime(), link.source.getID(), link.destination.getID(),
+                    link.isDirected() ? 1 : 0);
+        else
+            story.add(TraceEvent.newLinkAdded(tp.getTime(), link.source.getID(), link.destination.getID(),
+                    link.isDirected()));
+    }
+
+    @Override
+    public void onLinkRemoved(Link link) {
+        if (stream != null)
+            stream.record(LINK_REMOVED, tp.getTime(), link.source.getID(), link.destination.getID(),
+                    link.isDirected() ? 1 : 0);
+        else
+            story.add(TraceEvent.newLinkRemoved(tp.getTime(), link.source.getID(), link.destination.getID(),
+                    link.isDirected()));
+    }
+
+    /**
+     * Sets whether the messages sent and delivered are recorded, as {@link TraceEvent.EventKind#MESSAGE_SENT} and
+     * {@link TraceEvent.EventKind#MESSAGE_DELIVERED} events. They are not recorded by default.
+     *
+     * @param messagesRecorded {@code true} to record the messages.
+     */
+    public void setMessagesRecorded(boolean messagesRecorded) {
+        if (messagesRecorded == this.messagesRecorded)
+            return;
+        this.messagesRecorded = messagesRecorded;
+        if (messagesRecorded)
+            tp.addMessageListener(this);
+        else
+            tp.removeMessageListener(this);
+    }
+
+    public boolean isMessagesRecorded() {
+        return messagesRecorded;
+    }
+
+    /**
+     * Sets whether the links added and removed are recorded, as {@link TraceEvent.EventKind#LINK_ADDED} and
+     * {@link TraceEvent.EventKind#LINK_REMOVED} events. The links of the orientation of the topology are listened to.
+     * They are not recorded by default.
+     *
+     * @param linksRecorded {@code true} to record the links.
+     */
+    public void setLinksRecorded(boolean linksRecorded) {
+        if (linksRecorded == this.linksRecorded)
+            return;
+        this.linksRecorded = linksRecorded;
+        if (linksRecorded) {
+            tp.addConnectivityListener(this);
+        } else {
+            // the orientation of the topology may have changed since the listener was added
+            tp.removeConnectivityListener(this, Link.Orientation.DIRECTED);
+            tp.removeConnectivityListener(this, Link.Orientation.UNDIRECTED);
+        }
+    }
+
+    public boolean isLinksRecorded() {
+        return linksRecorded;
     }
 
     public void start(){
@@ -76,7 +195,59 @@ public class TraceRecorder implements MovementListener, SelectionListener, Topol
         story.clear();
     }
 
+    /**
+     * Starts recording directly into the file {@code filename}. The nodes already present in the topology are recorded
+     * as added at time 0, so that the trace can be replayed on an empty topology, as well as their links if they are
+     * {@link #setLinksRecorded(boolean) recorded}.
+     *
+     * @param filename the name of the destination file
+     * @throws IOException if the file cannot be created
+     * @throws IllegalStateException if the {@link TraceFileWriter} of this recorder is not a
+     *         {@link StreamingTraceFileWriter}, or if the recorder is already streaming.
+     */
+    public void start(String filename) throws IOException {
+        if (!(traceFileWriter instanceof StreamingTraceFileWriter))
+            throw new IllegalStateException("the trace writer does not support streaming");
+        if (stream != null)
+            throw new IllegalStateException("the recorder is already started");
+        start();
+        StreamingTraceFileWriter writer = (StreamingTraceFileWriter) traceFileWriter;
+        writer.open(filename);
+        stream = writer;
+        for (Node node : tp.getNodes())
+            onNodeAdded(node);
+        if (linksRecorded) {
+            for (Link link : tp.getLinks(tp.getOrientation()))
+                onLinkAdded(link);
+        }
+    }
+
+    /**
+     * Stops recording. If the recorder was started with {@link #start(String)}, the trace file is completed and
+     * closed; otherwise the recorded events are discarded.
+     *
+     * @throws IOException if an error occurred while the trace was written
+     */
+    public void stop() throws IOException {
+        StreamingTraceFileWriter writer = stream;
+        stream = null;
+        story.clear();
+        if (writer != null)
+            writer.close();
+    }
+
+    /**
+     * Stops recording and writes the trace. If the recorder was started with {@link #start(String)}, the events are
+     * already in the file given then, and {@code filename} is ignored.
+     *
+     * @param filename the name of the destination file
+     * @throws Exception in case of error
+     */
     public void stopAndWrite(String filename) throws Exception {
+        if (stream != null) {
+            stop();
+            return;
+        }
         for(TraceEvent e : story) {
             traceFileWriter.addTraceEvent(e);
         }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.gen.dynamic.trace.SeekableTrace;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static io.jbotsim.io.format.binary.BinaryTraceFormat.*;
+
+/**
+ * A {@link SeekableTrace} reading a binary trace frame by frame. Its keyframe index is read from the end of the file
+ * the first time {@link #seek(int)} is called, or rebuilt by scanning the headers of the frames if the trace has not
+ * been closed properly.
+ */
+final class BinaryTrace implements SeekableTrace {
+    private final FrameInput input;
+    private final FrameDecoder decoder = new FrameDecoder();
+    private KeyframeIndex index;
+    private boolean ended;
+
+    BinaryTrace(FrameInput input) {
+        this.input = input;
+    }
+
+    @Override
+    public List<TraceEvent> seek(int time) throws IOException {
+        decoder.reset(input.getPayload(), 0);
+        ended = false;
+        if (time != Integer.MIN_VALUE) {
+            KeyframeIndex index = getIndex();
+            for (int i = index.find(time); i >= 0; i--) {
+                // falls back on the previous keyframe if this one is corrupted
+                input.positionAt(index.getOffset(i));
+                if (input.readFrameHeader() && input.getType() == KEYFRAME && input.readPayload()) {
+                    decoder.reset(input.getPayload(), input.getLength());
+                    List<TraceEvent> keyframe = decoder.readKeyframe(input.getTime());
+                    decoder.reset(input.getPayload(), 0);
+                    return keyframe;
+                }
+            }
+        }
+        input.positionAt(HEADER_SIZE);
+        return Collections.emptyList();
+    }
+
+    @Override
+    public TraceEvent next() throws IOException {
+        while (!decoder.hasNext()) {
+            if (ended || !input.readFrameHeader() || input.getType() == INDEX_FRAME || !input.readPayload()) {
+                ended = true;
+                return null;
+            }
+            if (input.getType() == EVENTS_FRAME)
+                decoder.reset(input.getPayload(), input.getLength());
+        }
+        return decoder.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private KeyframeIndex getIndex() throws IOException {
+        if (index == null) {
+            long offset = input.readIndexOffset();
+            if (offset >= 0) {
+                input.positionAt(offset);
+                if (input.readFrameHeader() && input.getType() == INDEX_FRAME && input.readPayload()) {
+                    decoder.reset(input.getPayload(), input.getLength());
+                    index = decoder.readIndex();
+                }
+            }
+            if (index == null)
+                index = scan();
+        }
+        return index;
+    }
+
+    private KeyframeIndex scan() throws IOException {
+        KeyframeIndex index = new KeyframeIndex();
+        input.positionAt(HEADER_SIZE);
+        while (true) {
+            long offset = input.getPosition();
+            if (!input.readFrameHeader() || input.getType() == INDEX_FRAME)
+                break;
+            if (input.getType() == KEYFRAME)
+                index.add(input.getTime(), offset);
+            if (!input.skipPayload())
+                break;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,530 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * <p>Constants and codecs shared by {@link BinaryTraceWriter} and {@link BinaryTraceReader}.</p>
+ *
+ * <pre>
+ * header   magic "JBTR", version, width, height (int), communication range, sensing range (double)
+ * frames   payload size, CRC32 of the rest of the frame (int), frame type (byte), time (int), payload
+ * trailer  offset of the index frame (long), magic "JBTX"
+ * </pre>
+ *
+ * <p>The payload of an {@link #EVENTS_FRAME events frame} is a sequence of events: the ordinal of the
+ * {@link TraceEvent.EventKind kind} (byte), the time and the node identifier as zigzag varints of their difference
+ * with the previous event, then, for {@link TraceEvent.EventKind#ADD_NODE} and {@link TraceEvent.EventKind#MOVE_NODE},
+ * the coordinates XORed with the previous coordinates of the same node (a byte giving the number of trailing zeros
+ * plus one, or 0 when they are equal, followed by the varint of the remaining bits), and for
+ * {@link TraceEvent.EventKind#ADD_NODE} the class of the node (varint index in the classes of the frame, followed by
+ * its UTF-8 name the first time). The message and link events are followed by the identifier of the destination
+ * (zigzag varint of its difference with the node identifier) and by a zigzag varint value: the send time for
+ * {@link TraceEvent.EventKind#MESSAGE_DELIVERED}, 1 for directed links, 0 otherwise. The time of the frame is the time
+ * of its first event.</p>
+ *
+ * <p>A {@link #KEYFRAME keyframe} holds the state of the nodes after the events at or before its time: a byte of
+ * flags ({@link #STARTED}), the number of nodes, then the identifier, coordinates and class of each node, encoded as
+ * in an {@link TraceEvent.EventKind#ADD_NODE} event. The {@link #INDEX_FRAME index frame}, written when the trace is
+ * closed, lists the times and offsets of the keyframes.</p>
+ *
+ * <p>The deltas start over at each frame, so that frames can be decoded independently.</p>
+ */
+final class BinaryTraceFormat {
+    static final int MAGIC = 0x4A425452; // "JBTR"
+    static final int VERSION = 1;
+    static final int END_MAGIC = 0x4A425458; // "JBTX"
+    static final int HEADER_SIZE = 32;
+    static final int FRAME_HEADER_SIZE = 13;
+    static final int TRAILER_SIZE = 12;
+    // a frame is written when its payload exceeds this size
+    static final int FRAME_SIZE = 64 * 1024;
+    static final int MAX_FRAME_SIZE = 1 << 27;
+
+    static final byte EVENTS_FRAME = 0;
+    static final byte KEYFRAME = 1;
+    static final byte INDEX_FRAME = 2;
+
+    // keyframe flags
+    static final int STARTED = 1;
+
+    static final TraceEvent.EventKind[] KINDS = TraceEvent.EventKind.values();
+
+    private BinaryTraceFormat() {
+    }
+
+    /**
+     * Encodes events into the payload of a frame.
+     */
+    static final class FrameEncoder {
+        private byte[] buffer = new byte[FRAME_SIZE + 1024];
+        private int length;
+        private int previousTime;
+        private int previousId;
+        private final LastLocations locations = new LastLocations();
+        private final HashMap<String, Integer> classes = new HashMap<>();
+
+        void reset() {
+            length = 0;
+            previousTime = 0;
+            previousId = 0;
+            locations.clear();
+            classes.clear();
+        }
+
+        boolean isEmpty() {
+            return length == 0;
+        }
+
+        boolean isFull() {
+            return length >= FRAME_SIZE;
+        }
+
+        byte[] getBuffer() {
+            return buffer;
+        }
+
+        int getLength() {
+            return length;
+        }
+
+        void writeEvent(int kind, int time, int id, double x, double y, String nodeClass, int destination,
+                        int value) {
+            ensureCapacity(48);
+            buffer[length++] = (byte) kind;
+            writeVarLong(zigzag(time - previousTime));
+            writeVarLong(zigzag(id - previousId));
+            previousTime = time;
+            previousId = id;
+            if (kind == TraceEvent.EventKind.ADD_NODE.ordinal() || kind == TraceEvent.EventKind.MOVE_NODE.ordinal()) {
+                int slot = locations.slotOf(id);
+                long xBits = Double.doubleToLongBits(x);
+                long yBits = Double.doubleToLongBits(y);
+                writeXor(xBits ^ locations.xBits[slot]);
+                writeXor(yBits ^ locations.yBits[slot]);
+                locations.xBits[slot] = xBits;
+                locations.yBits[slot] = yBits;
+            }
+            if (kind == TraceEvent.EventKind.ADD_NODE.ordinal())
+                writeClass(nodeClass == null ? "default" : nodeClass);
+            if (hasDestination(kind)) {
+                writeVarLong(zigzag(destination - id));
+                writeVarLong(zigzag(value));
+            }
+        }
+
+        // primitives used by the columnar format
+
+        void writeColumnValue(long value) {
+            ensureCapacity(10);
+            writeVarLong(value);
+        }
+
+        void writeColumnBits(long xor) {
+            ensureCapacity(11);
+            writeXor(xor);
+        }
+
+        void writeColumnClass(String nodeClass) {
+            ensureCapacity(5);
+            writeClass(nodeClass == null ? "default" : nodeClass);
+        }
+
+        void writeColumnBytes(byte[] bytes, int count) {
+            ensureCapacity(count);
+            System.arraycopy(bytes, 0, buffer, length, count);
+            length += count;
+        }
+
+        void writeKeyframe(boolean started, int nbNodes) {
+            ensureCapacity(6);
+            buffer[length++] = (byte) (started ? STARTED : 0);
+            writeVarLong(nbNodes);
+        }
+
+        void writeNode(int id, double x, double y, String nodeClass) {
+            ensureCapacity(32);
+            writeVarLong(zigzag(id - previousId));
+            previousId = id;
+            writeXor(Double.doubleToLongBits(x));
+            writeXor(Double.doubleToLongBits(y));
+            writeClass(nodeClass == null ? "default" : nodeClass);
+        }
+
+        void writeIndex(KeyframeIndex index) {
+            ensureCapacity(5 + 15 * index.size);
+            writeVarLong(index.size);
+            long previousOffset = 0;
+            for (int i = 0; i < index.size; i++) {
+                writeVarLong(zigzag(index.times[i] - previousTime));
+                writeVarLong(index.offsets[i] - previousOffset);
+                previousTime = index.times[i];
+                previousOffset = index.offsets[i];
+            }
+        }
+
+        private void writeClass(String nodeClass) {
+            Integer index = classes.get(nodeClass);
+            if (index != null) {
+                writeVarLong(index);
+                return;
+            }
+            writeVarLong(classes.size());
+            classes.put(nodeClass, classes.size());
+            byte[] name = nodeClass.getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(name.length + 5);
+            writeVarLong(name.length);
+            System.arraycopy(name, 0, buffer, length, name.length);
+            length += name.length;
+        }
+
+        private void writeXor(long xor) {
+            if (xor == 0) {
+                buffer[length++] = 0;
+                return;
+            }
+            int trailingZeros = Long.numberOfTrailingZeros(xor);
+            buffer[length++] = (byte) (trailingZeros + 1);
+            writeVarLong(xor >>> trailingZeros);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    /**
+     * Decodes the events of the payload of a frame.
+     */
+    static final class FrameDecoder {
+        private byte[] buffer;
+        private int position;
+        private int limit;
+        private int previousTime;
+        private int previousId;
+        private final LastLocations locations = new LastLocations();
+        private final List<String> classes = new ArrayList<>();
+
+        void reset(byte[] buffer, int limit) {
+            this.buffer = buffer;
+            this.limit = limit;
+            position = 0;
+            previousTime = 0;
+            previousId = 0;
+            locations.clear();
+            classes.clear();
+        }
+
+        boolean hasNext() {
+            return position < limit;
+        }
+
+        TraceEvent next() throws StreamCorruptedException {
+            int kindIndex = readByte();
+            if (kindIndex < 0 || kindIndex >= KINDS.length)
+                throw new StreamCorruptedException("invalid event kind " + kindIndex);
+            TraceEvent.EventKind kind = KINDS[kindIndex];
+            int time = previousTime + unzigzag(readVarLong());
+            int id = previousId + unzigzag(readVarLong());
+            previousTime = time;
+            previousId = id;
+            switch (kind) {
+                case ADD_NODE:
+                case MOVE_NODE:
+                    int slot = locations.slotOf(id);
+                    long xBits = locations.xBits[slot] ^ readXor();
+                    long yBits = locations.yBits[slot] ^ readXor();
+                    locations.xBits[slot] = xBits;
+                    locations.yBits[slot] = yBits;
+                    double x = Double.longBitsToDouble(xBits);
+                    double y = Double.longBitsToDouble(yBits);
+                    if (kind == TraceEvent.EventKind.MOVE_NODE)
+                        return TraceEvent.newMoveNode(time, id, x, y);
+                    return TraceEvent.newAddNode(time, id, x, y, readClass());
+                case DEL_NODE:
+                    return TraceEvent.newDeleteNode(time, id);
+                case SELECT_NODE:
+                    return TraceEvent.newSelectNode(time, id);
+                case MESSAGE_SENT:
+                case MESSAGE_DELIVERED:
+                case LINK_ADDED:
+                case LINK_REMOVED:
+                    int destination = id + unzigzag(readVarLong());
+                    int value = unzigzag(readVarLong());
+                    return newEvent(kind, time, id, destination, value);
+                default:
+                    return TraceEvent.newStartTopology(time);
+            }
+        }
+
+        /**
+         * Decodes a keyframe into the events that rebuild it.
+         */
+        List<TraceEvent> readKeyframe(int time) throws StreamCorruptedException {
+            List<TraceEvent> events = new ArrayList<>();
+            if ((readByte() & STARTED) != 0)
+                events.add(TraceEvent.newStartTopology(time));
+            long nbNodes = readVarLong();
+            for (long i = 0; i < nbNodes; i++) {
+                int id = previousId + unzigzag(readVarLong());
+                previousId = id;
+                double x = Double.longBitsToDouble(readXor());
+                double y = Double.longBitsToDouble(readXor());
+                events.add(TraceEvent.newAddNode(time, id, x, y, readClass()));
+            }
+            if (hasNext())
+                throw new StreamCorruptedException("invalid keyframe");
+            return events;
+        }
+
+        KeyframeIndex readIndex() throws StreamCorruptedException {
+            long size = readVarLong();
+            if (size > limit - position)
+                throw new StreamCorruptedException("invalid index");
+            KeyframeIndex index = new KeyframeIndex();
+            long previousOffset = 0;
+            for (long i = 0; i < size; i++) {
+                int time = previousTime + unzigzag(readVarLong());
+                long offset = previousOffset + readVarLong();
+                index.add(time, offset);
+                previousTime = time;
+                previousOffset = offset;
+            }
+            return index;
+        }
+
+        String readClass() throws StreamCorruptedException {
+            long index = readVarLong();
+            if (index < classes.size())
+                return classes.get((int) index);
+            if (index != classes.size())
+                throw new StreamCorruptedException("invalid node class index " + index);
+            long size = readVarLong();
+            if (size > limit - position)
+                throw new StreamCorruptedException("truncated frame");
+            String name = new String(buffer, position, (int) size, StandardCharsets.UTF_8);
+            position += (int) size;
+            classes.add(name);
+            return name;
+        }
+
+        long readXor() throws StreamCorruptedException {
+            int shift = readByte();
+            if (shift == 0)
+                return 0;
+            if (shift > 64)
+                throw new StreamCorruptedException("invalid coordinate");
+            return readVarLong() << (shift - 1);
+        }
+
+        long readVarLong() throws StreamCorruptedException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new StreamCorruptedException("invalid varint");
+        }
+
+        int readByte() throws StreamCorruptedException {
+            if (position >= limit)
+                throw new StreamCorruptedException("truncated frame");
+            return buffer[position++] & 0xFF;
+        }
+    }
+
+    /**
+     * The times and offsets of the keyframes of a trace, in the order of the file.
+     */
+    static final class KeyframeIndex {
+        private int[] times = new int[16];
+        private long[] offsets = new long[16];
+        private int size;
+
+        void add(int time, long offset) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            times[size] = time;
+            offsets[size] = offset;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long getOffset(int i) {
+            return offsets[i];
+        }
+
+        /**
+         * Returns the last keyframe whose time is at most {@code time}, or -1. If the recorded times decrease
+         * somewhere (the topology has been restarted), the keyframes after that point take precedence.
+         */
+        int find(int time) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (times[i] <= time)
+                    return i;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The last coordinates of each node in the current frame, in an open-addressing table. Entries are invalidated
+     * in constant time by changing the generation of the table.
+     */
+    static final class LastLocations {
+        private int[] keys = new int[64];
+        private int[] generations = new int[64];
+        long[] xBits = new long[64];
+        long[] yBits = new long[64];
+        private int generation = 1;
+        private int size;
+
+        void clear() {
+            size = 0;
+            if (++generation == 0) {
+                Arrays.fill(generations, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Returns the slot of {@code id}, creating it with null coordinates if needed.
+         */
+        int slotOf(int id) {
+            if (2 * (size + 1) > keys.length)
+                grow();
+            int mask = keys.length - 1;
+            int i = hash(id) & mask;
+            while (generations[i] == generation) {
+                if (keys[i] == id)
+                    return i;
+                i = (i + 1) & mask;
+            }
+            keys[i] = id;
+            generations[i] = generation;
+            xBits[i] = 0;
+            yBits[i] = 0;
+            size++;
+            return i;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldGenerations = generations;
+            long[] oldX = xBits;
+            long[] oldY = yBits;
+            int capacity = oldKeys.length * 2;
+            keys = new int[capacity];
+            generations = new int[capacity];
+            xBits = new long[capacity];
+            yBits = new long[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldGenerations[j] != generation)
+                    continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (generations[i] == generation)
+                    i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                generations[i] = generation;
+                xBits[i] = oldX[j];
+                yBits[i] = oldY[j];
+            }
+        }
+
+        private static int hash(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Returns whether events of the given kind have a destination and a value.
+     */
+    static boolean hasDestination(int kind) {
+        return kind >= TraceEvent.EventKind.MESSAGE_SENT.ordinal();
+    }
+
+    /**
+     * Creates a message or link event from its destination and value, encoded as described in
+     * {@link BinaryTraceFormat}.
+     */
+    static TraceEvent newEvent(TraceEvent.EventKind kind, int time, int id, int destination, int value) {
+        switch (kind) {
+            case MESSAGE_SENT:
+                return TraceEvent.newMessageSent(time, id, destination);
+            case MESSAGE_DELIVERED:
+                return TraceEvent.newMessageDelivered(time, id, destination, value);
+            case LINK_ADDED:
+                return TraceEvent.newLinkAdded(time, id, destination, value != 0);
+            default:
+                return TraceEvent.newLinkRemoved(time, id, destination, value != 0);
+        }
+    }
+
+    /**
+     * Returns the value stored with a message or link event.
+     */
+    static int eventValue(TraceEvent e) {
+        switch (e.getKind()) {
+            case MESSAGE_DELIVERED:
+                return e.getSendTime();
+            case LINK_ADDED:
+            case LINK_REMOVED:
+                return e.isDirected() ? 1 : 0;
+            default:
+                return 0;
+        }
+    }
+
+    static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    static int unzigzag(long value) {
+        int v = (int) value;
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
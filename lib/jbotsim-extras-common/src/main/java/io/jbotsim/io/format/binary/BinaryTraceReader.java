@@ -0,0 +1,118 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.SeekableTrace;
+import io.jbotsim.gen.dynamic.trace.SeekableTraceFileReader;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+import io.jbotsim.gen.dynamic.trace.TracePlayer;
+import io.jbotsim.io.FileAsStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import static io.jbotsim.io.format.binary.BinaryTraceFormat.*;
+
+/**
+ * <p>{@link SeekableTraceFileReader} for the binary traces written by {@link BinaryTraceWriter}.</p>
+ *
+ * <p>The settings of the {@link Topology} (dimensions and ranges) are restored, then the events are read frame by
+ * frame. Reading stops at the first incomplete or corrupted frame: the trace of a program that stopped while it was
+ * recording is read up to its last complete frame.</p>
+ *
+ * <p>With {@link #open(String, Topology)}, the events are read while they are played, and seeking reads the nearest
+ * keyframe with the help of the index written at the end of the file. Files which are not compressed are accessed
+ * directly at the position of the keyframe; compressed files have to be read from their beginning.</p>
+ */
+public class BinaryTraceReader implements SeekableTraceFileReader {
+    private final FileAsStream fileAsStream;
+
+    /**
+     * @param fileAsStream the {@link FileAsStream} used to open the files.
+     */
+    public BinaryTraceReader(FileAsStream fileAsStream) {
+        this.fileAsStream = fileAsStream;
+    }
+
+    protected FileAsStream getFileAccessor() {
+        return fileAsStream;
+    }
+
+    @Override
+    public void parse(String filename, TracePlayer tracePlayer) throws IOException {
+        try (InputStream input = getFileAccessor().getInputStreamForName(filename)) {
+            parse(input, tracePlayer);
+        }
+    }
+
+    @Override
+    public SeekableTrace open(String filename, Topology topology) throws IOException {
+        FrameInput input = new FrameInput(getFileAccessor(), filename);
+        try {
+            input.readTraceHeader(topology);
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+        return new BinaryTrace(input);
+    }
+
+    /**
+     * Populates the given {@link TracePlayer} with the topology settings and events read from a stream.
+     *
+     * @param inputStream the stream containing the trace.
+     * @param tracePlayer the {@link TracePlayer} which is populated.
+     * @throws IOException if the stream cannot be read or does not contain a binary trace.
+     */
+    public void parse(InputStream inputStream, TracePlayer tracePlayer) throws IOException {
+        readEvents(inputStream, tracePlayer.getTopology(), tracePlayer::addTraceEvent);
+    }
+
+    /**
+     * Reads a binary trace from a stream. The keyframes are skipped.
+     *
+     * @param inputStream the stream containing the trace.
+     * @param tp the {@link Topology} whose dimensions and ranges are set from the trace, or {@code null}.
+     * @param consumer the {@link Consumer} called with each event, in the order of the trace.
+     * @return {@code true} if the whole trace was read, {@code false} if it ends with an incomplete or corrupted frame.
+     * @throws IOException if the stream cannot be read or does not contain a binary trace.
+     */
+    public static boolean readEvents(InputStream inputStream, Topology tp, Consumer<TraceEvent> consumer)
+            throws IOException {
+        FrameInput input = new FrameInput(inputStream);
+        input.readTraceHeader(tp);
+        FrameDecoder decoder = new FrameDecoder();
+        while (input.readFrameHeader()) {
+            if (input.getType() == INDEX_FRAME)
+                return true;
+            if (!input.readPayload())
+                return false;
+            if (input.getType() != EVENTS_FRAME)
+                continue;
+            decoder.reset(input.getPayload(), input.getLength());
+            while (decoder.hasNext())
+                consumer.accept(decoder.next());
+        }
+        return false;
+    }
+}
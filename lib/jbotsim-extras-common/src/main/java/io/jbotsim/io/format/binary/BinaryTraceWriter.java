@@ -0,0 +1,494 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.StreamingTraceFileWriter;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+import io.jbotsim.io.FileAsStream;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import static io.jbotsim.io.format.binary.BinaryTraceFormat.*;
+
+/**
+ * <p>Streaming {@link StreamingTraceFileWriter} for the binary trace format (see {@link BinaryTraceReader}).</p>
+ *
+ * <p>Once {@link #open(String) opened}, the recorded events are stored in a ring buffer of fixed capacity and encoded
+ * by a background thread, so that recording an event only costs a few stores and the memory used is constant. When
+ * the buffer is full, recording waits for the background thread.</p>
+ *
+ * <p>The events are written in frames of about 64 KB, each with its size and checksum, and the file is flushed after
+ * each frame, at least every {@link #DEFAULT_FLUSH_INTERVAL flush interval}, and on {@link #flush()}. If the program
+ * stops without {@link #close() closing} the writer, the frames already written can still be read.</p>
+ *
+ * <p>Every {@link #setKeyframeInterval(int) keyframe interval}, a keyframe holding the location and class of all the
+ * nodes is written between two rounds, and {@link #close()} ends the file with the index of the keyframes, so that
+ * the {@link io.jbotsim.gen.dynamic.trace.TracePlayer} can seek quickly in long traces.</p>
+ *
+ * <p>The events added with {@link #addTraceEvent(TraceEvent)} before the writer is opened are kept in memory until
+ * {@link #write(String)} is called, as with the other {@link io.jbotsim.gen.dynamic.trace.TraceFileWriter}s.</p>
+ */
+public class BinaryTraceWriter implements StreamingTraceFileWriter {
+    /**
+     * Supported filename extensions.
+     */
+    public static final String[] BINARY_TRACE_FILENAME_EXTENSIONS = new String[] {
+        "jbtr"
+    };
+
+    /**
+     * The default number of events of the ring buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * The default maximum delay, in milliseconds, between the recording of an event and the flush of the file.
+     */
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+    /**
+     * The default number of rounds between two keyframes.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 1000;
+
+    // a keyframe is also written when the events since the previous one exceed this size
+    private static final long KEYFRAME_BYTES = 1 << 20;
+    // how long the background thread sleeps when it has nothing to write
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Topology tp;
+    private final int mask;
+    private final long flushIntervalNanos;
+
+    private final byte[] kinds;
+    private final int[] times;
+    private final int[] ids;
+    private final double[] xs;
+    private final double[] ys;
+    private final String[] nodeClasses;
+    private final int[] destinations;
+    private final int[] values;
+    // next slot read by the background thread
+    private final AtomicLong head = new AtomicLong();
+    // next slot written by the recording thread
+    private final AtomicLong tail = new AtomicLong();
+    private long cachedHead;
+
+    private int keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+
+    private final List<TraceEvent> pending = new ArrayList<>();
+    private DataOutputStream out;
+    private Thread thread;
+    private volatile boolean closing;
+    private volatile long flushRequest;
+    private volatile long flushed;
+    private volatile IOException failure;
+
+    /**
+     * @param tp the {@link Topology topology} that is traced.
+     */
+    public BinaryTraceWriter(Topology tp) {
+        this(tp, DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param tp the {@link Topology topology} that is traced.
+     * @param capacity the number of events of the ring buffer, rounded up to a power of two.
+     * @param flushInterval the maximum delay, in milliseconds, between the recording of an event and the flush of the
+     *                      file.
+     */
+    public BinaryTraceWriter(Topology tp, int capacity, long flushInterval) {
+        if (capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("invalid capacity " + capacity);
+        this.tp = tp;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        mask = size - 1;
+        flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+        kinds = new byte[size];
+        times = new int[size];
+        ids = new int[size];
+        xs = new double[size];
+        ys = new double[size];
+        nodeClasses = new String[size];
+        destinations = new int[size];
+        values = new int[size];
+    }
+
+    protected FileAsStream getFileAccessor() {
+        return tp.getFileManager();
+    }
+
+    /**
+     * Sets the number of rounds between two keyframes. It applies to the files opened afterwards.
+     *
+     * @param keyframeInterval the number of rounds between two keyframes.
+     */
+    public void setKeyframeInterval(int keyframeInterval) {
+        if (keyframeInterval <= 0)
+            throw new IllegalArgumentException("invalid keyframe interval " + keyframeInterval);
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    /**
+     * @return the number of rounds between two keyframes.
+     */
+    public int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * @return {@code true} if the writer has been opened and not closed yet.
+     */
+    public boolean isOpen() {
+        return out != null;
+    }
+
+    @Override
+    public void open(String filename) throws IOException {
+        open(getFileAccessor().getOutputStreamForName(filename));
+    }
+
+    /**
+     * Starts writing the trace to the given stream, which is closed by {@link #close()}.
+     *
+     * @param outputStream the destination of the trace.
+     * @throws IOException if the header of the trace cannot be written.
+     */
+    public synchronized void open(OutputStream outputStream) throws IOException {
+        if (out != null)
+            throw new IllegalStateException("the writer is already open");
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(outputStream));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(tp.getWidth());
+        data.writeInt(tp.getHeight());
+        data.writeDouble(tp.getCommunicationRange());
+        data.writeDouble(tp.getSensingRange());
+        data.flush();
+
+        out = data;
+        head.set(0);
+        tail.set(0);
+        cachedHead = 0;
+        flushRequest = 0;
+        flushed = 0;
+        failure = null;
+        closing = false;
+        thread = new Thread(this::run, "jbotsim-trace-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void addTraceEvent(TraceEvent e) {
+        if (out == null)
+            pending.add(e);
+        else if (hasDestination(e.getKind().ordinal()))
+            record(e.getKind(), e.getTime(), e.getNodeID(), e.getDestinationID(), eventValue(e));
+        else
+            record(e.getKind(), e.getTime(), e.getNodeID(), e.getX(), e.getY(), e.getNodeClass());
+    }
+
+    @Override
+    public synchronized void record(TraceEvent.EventKind kind, int time, int id, double x, double y,
+                                    String nodeClass) {
+        append(kind, time, id, x, y, nodeClass, -1, 0);
+    }
+
+    @Override
+    public synchronized void record(TraceEvent.EventKind kind, int time, int source, int destination, int value) {
+        append(kind, time, source, 0, 0, null, destination, value);
+    }
+
+    private void append(TraceEvent.EventKind kind, int time, int id, double x, double y, String nodeClass,
+                        int destination, int value) {
+        if (out == null)
+            throw new IllegalStateException("the writer is not open");
+        long t = tail.get();
+        if (t - cachedHead > mask && !waitForRoom(t))
+            return;
+        int i = (int) t & mask;
+        kinds[i] = (byte) kind.ordinal();
+        times[i] = time;
+        ids[i] = id;
+        xs[i] = x;
+        ys[i] = y;
+        nodeClasses[i] = nodeClass;
+        destinations[i] = destination;
+        values[i] = value;
+        tail.lazySet(t + 1);
+        if ((t & (mask >>> 1)) == 0)
+            LockSupport.unpark(thread);
+    }
+
+    // returns false if the event must be dropped because the background thread failed
+    private boolean waitForRoom(long t) {
+        while (t - (cachedHead = head.get()) > mask) {
+            if (failure != null || !thread.isAlive())
+                return false;
+            LockSupport.unpark(thread);
+            Thread.yield();
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (out == null)
+            return;
+        long target = tail.get();
+        flushRequest = target;
+        LockSupport.unpark(thread);
+        while (flushed < target && failure == null && thread.isAlive())
+            LockSupport.parkNanos(IDLE_NANOS / 10);
+        checkFailure();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out == null)
+            return;
+        closing = true;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (failure == null)
+                failure = e;
+        }
+        out = null;
+        thread = null;
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        checkFailure();
+    }
+
+    /**
+     * Writes the trace into the specified file. If the writer is open, the events have already been written to the
+     * file given to {@link #open(String)}, {@code filename} is ignored, and the writer is closed.
+     *
+     * @param filename the targeted output file
+     * @throws IOException if an error occurs while the trace is written.
+     */
+    @Override
+    public synchronized void write(String filename) throws IOException {
+        if (out == null) {
+            open(filename);
+            for (TraceEvent e : pending)
+                addTraceEvent(e);
+            pending.clear();
+        }
+        close();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            failure = null;
+            if (e instanceof InterruptedIOException)
+                Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    private void run() {
+        FrameWriter writer = new FrameWriter();
+        try {
+            while (true) {
+                boolean stopping = closing;
+                long request = flushRequest;
+                long h = head.get();
+                long t = tail.get();
+                boolean idle = h == t;
+                for (; h < t; h++) {
+                    int i = (int) h & mask;
+                    writer.append(kinds[i], times[i], ids[i], xs[i], ys[i], nodeClasses[i], destinations[i], values[i]);
+                    nodeClasses[i] = null;
+                    if ((h & 1023) == 1023)
+                        head.lazySet(h + 1);
+                }
+                head.lazySet(t);
+                if (stopping || request > flushed || writer.isFlushDue()) {
+                    writer.writeEvents();
+                    flushed = t;
+                }
+                if (stopping) {
+                    writer.finish();
+                    return;
+                }
+                if (idle)
+                    LockSupport.parkNanos(IDLE_NANOS);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * The state of the background thread: the frame being filled, the state of the nodes from which the keyframes
+     * are written, and the keyframe index.
+     */
+    private final class FrameWriter {
+        private final FrameEncoder frame = new FrameEncoder();
+        private final FrameEncoder keyframe = new FrameEncoder();
+        private final CRC32 crc = new CRC32();
+        private final KeyframeIndex index = new KeyframeIndex();
+        private final LinkedHashMap<Integer, NodeState> nodes = new LinkedHashMap<>();
+        private boolean started;
+        private long offset = HEADER_SIZE;
+        private boolean hasEvents;
+        private int previousTime;
+        private int frameTime;
+        private long frameStart;
+        private int keyframeTime;
+        private long bytesSinceKeyframe;
+        private long keyframeThreshold = KEYFRAME_BYTES;
+
+        void append(int kind, int time, int id, double x, double y, String nodeClass, int destination, int value)
+                throws IOException {
+            if (!hasEvents) {
+                hasEvents = true;
+                keyframeTime = time;
+            } else if (time > previousTime) {
+                // all the events at previousTime have been seen
+                if ((long) previousTime - keyframeTime >= keyframeInterval
+                        || bytesSinceKeyframe + frame.getLength() >= keyframeThreshold)
+                    writeKeyframe(previousTime);
+            } else if (time < previousTime) {
+                // the topology has been restarted
+                keyframeTime = time;
+            }
+            previousTime = time;
+            update(kind, id, x, y, nodeClass);
+            if (frame.isEmpty()) {
+                frameTime = time;
+                frameStart = System.nanoTime();
+            }
+            frame.writeEvent(kind, time, id, x, y, nodeClass, destination, value);
+            if (frame.isFull())
+                writeEvents();
+        }
+
+        boolean isFlushDue() {
+            return !frame.isEmpty() && System.nanoTime() - frameStart >= flushIntervalNanos;
+        }
+
+        void writeEvents() throws IOException {
+            if (frame.isEmpty())
+                return;
+            bytesSinceKeyframe += frame.getLength();
+            write(EVENTS_FRAME, frameTime, frame);
+        }
+
+        void finish() throws IOException {
+            writeEvents();
+            long indexOffset = offset;
+            keyframe.writeIndex(index);
+            write(INDEX_FRAME, 0, keyframe);
+            out.writeLong(indexOffset);
+            out.writeInt(END_MAGIC);
+            out.flush();
+        }
+
+        private void writeKeyframe(int time) throws IOException {
+            writeEvents();
+            keyframe.writeKeyframe(started, nodes.size());
+            for (Map.Entry<Integer, NodeState> entry : nodes.entrySet()) {
+                NodeState state = entry.getValue();
+                keyframe.writeNode(entry.getKey(), state.x, state.y, state.nodeClass);
+            }
+            keyframeThreshold = Math.max(KEYFRAME_BYTES, 8L * keyframe.getLength());
+            index.add(time, offset);
+            write(KEYFRAME, time, keyframe);
+            keyframeTime = time;
+            bytesSinceKeyframe = 0;
+        }
+
+        private void update(int kind, int id, double x, double y, String nodeClass) {
+            if (kind == TraceEvent.EventKind.START_TOPOLOGY.ordinal()) {
+                started = true;
+            } else if (kind == TraceEvent.EventKind.ADD_NODE.ordinal()) {
+                nodes.put(id, new NodeState(x, y, nodeClass));
+            } else if (kind == TraceEvent.EventKind.MOVE_NODE.ordinal()) {
+                NodeState state = nodes.get(id);
+                if (state != null) {
+                    state.x = x;
+                    state.y = y;
+                }
+            } else if (kind == TraceEvent.EventKind.DEL_NODE.ordinal()) {
+                nodes.remove(id);
+            }
+        }
+
+        private void write(byte type, int time, FrameEncoder encoder) throws IOException {
+            crc.reset();
+            crc.update(type);
+            crc.update(time >>> 24);
+            crc.update(time >>> 16);
+            crc.update(time >>> 8);
+            crc.update(time);
+            crc.update(encoder.getBuffer(), 0, encoder.getLength());
+            out.writeInt(encoder.getLength());
+            out.writeInt((int) crc.getValue());
+            out.writeByte(type);
+            out.writeInt(time);
+            out.write(encoder.getBuffer(), 0, encoder.getLength());
+            out.flush();
+            offset += FRAME_HEADER_SIZE + encoder.getLength();
+            encoder.reset();
+        }
+    }
+
+    private static class NodeState {
+        double x;
+        double y;
+        final String nodeClass;
+
+        NodeState(double x, double y, String nodeClass) {
+            this.x = x;
+            this.y = y;
+            this.nodeClass = nodeClass;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+
+/**
+ * <p>Constants shared by {@link ColumnarTraceWriter} and {@link ColumnarTraceReader}.</p>
+ *
+ * <pre>
+ * header   magic "JBTC", version, width, height (int), communication range, sensing range (double)
+ * blocks   number of events, payload size, CRC32 of the payload (int), payload
+ * end      an empty block
+ * </pre>
+ *
+ * <p>The payload of a block stores each field of its events in a separate column, in this order:</p>
+ * <ul>
+ *     <li>the ordinals of the {@link TraceEvent.EventKind kinds} (one byte per event);</li>
+ *     <li>the times, as zigzag varints of their difference with the previous event;</li>
+ *     <li>the node identifiers (the sender of a message, the source of a link), as zigzag varints of their difference
+ *     with the previous event;</li>
+ *     <li>for the message and link events only, the identifiers of the destinations, as zigzag varints of their
+ *     difference with the node identifier, then the values: the latency of the
+ *     {@link TraceEvent.EventKind#MESSAGE_DELIVERED delivered messages} (time minus send time), 1 for directed links,
+ *     0 otherwise;</li>
+ *     <li>for {@link TraceEvent.EventKind#ADD_NODE} and {@link TraceEvent.EventKind#MOVE_NODE} only, the abscissas
+ *     then the ordinates, XORed with the previous value of the column as in the {@link BinaryTraceFormat};</li>
+ *     <li>for {@link TraceEvent.EventKind#ADD_NODE} only, the classes of the nodes, as in the
+ *     {@link BinaryTraceFormat}.</li>
+ * </ul>
+ *
+ * <p>The deltas start over at each block.</p>
+ */
+final class ColumnarTraceFormat {
+    static final int MAGIC = 0x4A425443; // "JBTC"
+    static final int VERSION = 1;
+    static final int BLOCK_HEADER_SIZE = 12;
+    static final int MAX_BLOCK_SIZE = 1 << 27;
+
+    private ColumnarTraceFormat() {
+    }
+
+    static boolean hasLocation(int kind) {
+        return kind == TraceEvent.EventKind.ADD_NODE.ordinal() || kind == TraceEvent.EventKind.MOVE_NODE.ordinal();
+    }
+
+    static boolean hasClass(int kind) {
+        return kind == TraceEvent.EventKind.ADD_NODE.ordinal();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+import io.jbotsim.gen.dynamic.trace.TraceFileReader;
+import io.jbotsim.gen.dynamic.trace.TracePlayer;
+import io.jbotsim.io.FileAsStream;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static io.jbotsim.io.format.binary.BinaryTraceFormat.*;
+import static io.jbotsim.io.format.binary.ColumnarTraceFormat.*;
+
+/**
+ * <p>{@link TraceFileReader} for the columnar traces written by {@link ColumnarTraceWriter}.</p>
+ *
+ * <p>The traces are read block by block with {@link #readBlocks(InputStream, Topology, Consumer)}, which gives access
+ * to the fields of the events without creating a {@link TraceEvent} for each of them, and
+ * {@link #readStatistics(String)} computes the {@link TraceStatistics} of a trace in this way. They can also be
+ * replayed by a {@link TracePlayer}, in which case the events are created.</p>
+ *
+ * <p>Reading stops at the first incomplete or corrupted block: the trace of a program that stopped while it was
+ * recording is read up to its last complete block.</p>
+ */
+public class ColumnarTraceReader implements TraceFileReader {
+    private final FileAsStream fileAsStream;
+
+    /**
+     * @param fileAsStream the {@link FileAsStream} used to open the files.
+     */
+    public ColumnarTraceReader(FileAsStream fileAsStream) {
+        this.fileAsStream = fileAsStream;
+    }
+
+    protected FileAsStream getFileAccessor() {
+        return fileAsStream;
+    }
+
+    @Override
+    public void parse(String filename, TracePlayer tracePlayer) throws IOException {
+        try (InputStream input = getFileAccessor().getInputStreamForName(filename)) {
+            readBlocks(input, tracePlayer.getTopology(), block -> {
+                for (int i = 0; i < block.size(); i++)
+                    tracePlayer.addTraceEvent(block.toTraceEvent(i));
+            });
+        }
+    }
+
+    /**
+     * Computes the statistics of the messages and links recorded in a trace.
+     *
+     * @param filename the name of the trace file.
+     * @return the statistics of the trace.
+     * @throws IOException if the file cannot be read or does not contain a columnar trace.
+     */
+    public TraceStatistics readStatistics(String filename) throws IOException {
+        TraceStatistics statistics = new TraceStatistics();
+        try (InputStream input = getFileAccessor().getInputStreamForName(filename)) {
+            readBlocks(input, null, statistics::add);
+        }
+        return statistics;
+    }
+
+    /**
+     * Reads a columnar trace from a stream.
+     *
+     * @param inputStream the stream containing the trace.
+     * @param tp the {@link Topology} whose dimensions and ranges are set from the trace, or {@code null}.
+     * @param consumer the {@link Consumer} called with each block, in the order of the trace. The same
+     *                 {@link TraceBlock} is used for all the blocks.
+     * @return {@code true} if the whole trace was read, {@code false} if it ends with an incomplete or corrupted block.
+     * @throws IOException if the stream cannot be read or does not contain a columnar trace.
+     */
+    public static boolean readBlocks(InputStream inputStream, Topology tp, Consumer<TraceBlock> consumer)
+            throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(inputStream));
+        if (data.readInt() != ColumnarTraceFormat.MAGIC)
+            throw new StreamCorruptedException("not a columnar trace");
+        int version = data.readInt();
+        if (version > ColumnarTraceFormat.VERSION)
+            throw new IOException("unsupported columnar trace version " + version);
+        int width = data.readInt();
+        int height = data.readInt();
+        double communicationRange = data.readDouble();
+        double sensingRange = data.readDouble();
+        if (tp != null) {
+            tp.setDimensions(width, height);
+            tp.setCommunicationRange(communicationRange);
+            tp.setSensingRange(sensingRange);
+        }
+
+        TraceBlock block = new TraceBlock();
+        FrameDecoder decoder = new FrameDecoder();
+        CRC32 crc = new CRC32();
+        byte[] payload = new byte[0];
+        try {
+            while (true) {
+                int size = data.readInt();
+                int length = data.readInt();
+                int checksum = data.readInt();
+                if (size == 0 && length == 0)
+                    return true;
+                if (size < 0 || length < size || length > MAX_BLOCK_SIZE)
+                    return false;
+                if (length > payload.length)
+                    payload = new byte[length];
+                data.readFully(payload, 0, length);
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum)
+                    return false;
+                decoder.reset(payload, length);
+                decode(decoder, size, block);
+                consumer.accept(block);
+            }
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static void decode(FrameDecoder decoder, int size, TraceBlock block) throws StreamCorruptedException {
+        block.clearClasses();
+        block.resize(size);
+        byte[] kinds = block.kinds;
+        for (int i = 0; i < size; i++) {
+            int kind = decoder.readByte();
+            if (kind >= KINDS.length)
+                throw new StreamCorruptedException("invalid event kind " + kind);
+            kinds[i] = (byte) kind;
+        }
+        int[] times = block.times;
+        int previous = 0;
+        for (int i = 0; i < size; i++)
+            previous = times[i] = previous + unzigzag(decoder.readVarLong());
+        int[] ids = block.ids;
+        previous = 0;
+        for (int i = 0; i < size; i++)
+            previous = ids[i] = previous + unzigzag(decoder.readVarLong());
+        for (int i = 0; i < size; i++) {
+            if (hasDestination(kinds[i]))
+                block.destinations[i] = ids[i] + unzigzag(decoder.readVarLong());
+        }
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == TraceEvent.EventKind.MESSAGE_DELIVERED.ordinal())
+                block.values[i] = times[i] - unzigzag(decoder.readVarLong());
+            else if (hasDestination(kinds[i]))
+                block.values[i] = unzigzag(decoder.readVarLong());
+        }
+        readCoordinates(decoder, kinds, size, block.xs);
+        readCoordinates(decoder, kinds, size, block.ys);
+        for (int i = 0; i < size; i++) {
+            if (hasClass(kinds[i]))
+                block.nodeClasses[i] = decoder.readClass();
+        }
+        if (decoder.hasNext())
+            throw new StreamCorruptedException("invalid block");
+    }
+
+    private static void readCoordinates(FrameDecoder decoder, byte[] kinds, int size, double[] column)
+            throws StreamCorruptedException {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            if (hasLocation(kinds[i])) {
+                previous ^= decoder.readXor();
+                column[i] = Double.longBitsToDouble(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.StreamingTraceFileWriter;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+import io.jbotsim.io.FileAsStream;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static io.jbotsim.io.format.binary.BinaryTraceFormat.*;
+import static io.jbotsim.io.format.binary.ColumnarTraceFormat.*;
+
+/**
+ * <p>{@link StreamingTraceFileWriter} for the columnar trace format, meant for the offline analysis of long runs with
+ * the {@link ColumnarTraceReader} and the {@link TraceStatistics}.</p>
+ *
+ * <p>Once {@link #open(String) opened}, the recorded events are stored field by field in primitive arrays, and each
+ * {@link #getBlockSize() block} of events is encoded column by column and written to the file when it is full, on
+ * {@link #flush()} and on {@link #close()}. The memory used does not depend on the length of the run. If a block
+ * cannot be written, the following events are dropped and the error is thrown by the next call to {@link #flush()} or
+ * {@link #close()}.</p>
+ *
+ * <p>The events added with {@link #addTraceEvent(TraceEvent)} before the writer is opened are kept in memory until
+ * {@link #write(String)} is called, as with the other {@link io.jbotsim.gen.dynamic.trace.TraceFileWriter}s.</p>
+ */
+public class ColumnarTraceWriter implements StreamingTraceFileWriter {
+    /**
+     * Supported filename extensions.
+     */
+    public static final String[] COLUMNAR_TRACE_FILENAME_EXTENSIONS = new String[] {
+        "jbtc"
+    };
+
+    /**
+     * The default number of events of a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    private final Topology tp;
+    private final int blockSize;
+
+    private final byte[] kinds;
+    private final int[] times;
+    private final int[] ids;
+    private final int[] destinations;
+    private final int[] values;
+    private final double[] xs;
+    private final double[] ys;
+    private final String[] nodeClasses;
+    private int size;
+
+    private final FrameEncoder encoder = new FrameEncoder();
+    private final CRC32 crc = new CRC32();
+    private final List<TraceEvent> pending = new ArrayList<>();
+    private DataOutputStream out;
+    private IOException failure;
+
+    /**
+     * @param tp the {@link Topology topology} that is traced.
+     */
+    public ColumnarTraceWriter(Topology tp) {
+        this(tp, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * @param tp the {@link Topology topology} that is traced.
+     * @param blockSize the number of events of a block.
+     */
+    public ColumnarTraceWriter(Topology tp, int blockSize) {
+        if (blockSize <= 0 || blockSize > 1 << 24)
+            throw new IllegalArgumentException("invalid block size " + blockSize);
+        this.tp = tp;
+        this.blockSize = blockSize;
+        kinds = new byte[blockSize];
+        times = new int[blockSize];
+        ids = new int[blockSize];
+        destinations = new int[blockSize];
+        values = new int[blockSize];
+        xs = new double[blockSize];
+        ys = new double[blockSize];
+        nodeClasses = new String[blockSize];
+    }
+
+    protected FileAsStream getFileAccessor() {
+        return tp.getFileManager();
+    }
+
+    /**
+     * @return the number of events of a block.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return {@code true} if the writer has been opened and not closed yet.
+     */
+    public boolean isOpen() {
+        return out != null;
+    }
+
+    @Override
+    public void open(String filename) throws IOException {
+        open(getFileAccessor().getOutputStreamForName(filename));
+    }
+
+    /**
+     * Starts writing the trace to the given stream, which is closed by {@link #close()}.
+     *
+     * @param outputStream the destination of the trace.
+     * @throws IOException if the header of the trace cannot be written.
+     */
+    public synchronized void open(OutputStream outputStream) throws IOException {
+        if (out != null)
+            throw new IllegalStateException("the writer is already open");
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(outputStream));
+        data.writeInt(ColumnarTraceFormat.MAGIC);
+        data.writeInt(ColumnarTraceFormat.VERSION);
+        data.writeInt(tp.getWidth());
+        data.writeInt(tp.getHeight());
+        data.writeDouble(tp.getCommunicationRange());
+        data.writeDouble(tp.getSensingRange());
+        data.flush();
+        out = data;
+        size = 0;
+        failure = null;
+    }
+
+    @Override
+    public synchronized void addTraceEvent(TraceEvent e) {
+        if (out == null)
+            pending.add(e);
+        else if (hasDestination(e.getKind().ordinal()))
+            record(e.getKind(), e.getTime(), e.getNodeID(), e.getDestinationID(), eventValue(e));
+        else
+            record(e.getKind(), e.getTime(), e.getNodeID(), e.getX(), e.getY(), e.getNodeClass());
+    }
+
+    @Override
+    public synchronized void record(TraceEvent.EventKind kind, int time, int id, double x, double y,
+                                    String nodeClass) {
+        int i = next(kind, time, id);
+        xs[i] = x;
+        ys[i] = y;
+        nodeClasses[i] = nodeClass;
+        if (size == blockSize)
+            writeBlock();
+    }
+
+    @Override
+    public synchronized void record(TraceEvent.EventKind kind, int time, int source, int destination, int value) {
+        int i = next(kind, time, source);
+        destinations[i] = destination;
+        values[i] = value;
+        if (size == blockSize)
+            writeBlock();
+    }
+
+    private int next(TraceEvent.EventKind kind, int time, int id) {
+        if (out == null)
+            throw new IllegalStateException("the writer is not open");
+        int i = size++;
+        kinds[i] = (byte) kind.ordinal();
+        times[i] = time;
+        ids[i] = id;
+        return i;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (out == null)
+            return;
+        writeBlock();
+        checkFailure();
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out == null)
+            return;
+        try {
+            writeBlock();
+            checkFailure();
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(0);
+        } finally {
+            out.close();
+            out = null;
+            size = 0;
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Writes the trace into the specified file. If the writer is open, the events have already been written to the
+     * file given to {@link #open(String)}, {@code filename} is ignored, and the writer is closed.
+     *
+     * @param filename the targeted output file
+     * @throws IOException if an error occurs while the trace is written.
+     */
+    @Override
+    public synchronized void write(String filename) throws IOException {
+        if (out == null) {
+            open(filename);
+            for (TraceEvent e : pending)
+                addTraceEvent(e);
+            pending.clear();
+        }
+        close();
+    }
+
+    private void writeBlock() {
+        if (size == 0)
+            return;
+        if (failure != null) {
+            size = 0;
+            return;
+        }
+        encoder.reset();
+        encoder.writeColumnBytes(kinds, size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            encoder.writeColumnValue(zigzag(times[i] - previous));
+            previous = times[i];
+        }
+        previous = 0;
+        for (int i = 0; i < size; i++) {
+            encoder.writeColumnValue(zigzag(ids[i] - previous));
+            previous = ids[i];
+        }
+        for (int i = 0; i < size; i++) {
+            if (hasDestination(kinds[i]))
+                encoder.writeColumnValue(zigzag(destinations[i] - ids[i]));
+        }
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == TraceEvent.EventKind.MESSAGE_DELIVERED.ordinal())
+                encoder.writeColumnValue(zigzag(times[i] - values[i]));
+            else if (hasDestination(kinds[i]))
+                encoder.writeColumnValue(zigzag(values[i]));
+        }
+        writeCoordinates(xs);
+        writeCoordinates(ys);
+        for (int i = 0; i < size; i++) {
+            if (hasClass(kinds[i])) {
+                encoder.writeColumnClass(nodeClasses[i]);
+                nodeClasses[i] = null;
+            }
+        }
+
+        crc.reset();
+        crc.update(encoder.getBuffer(), 0, encoder.getLength());
+        try {
+            out.writeInt(size);
+            out.writeInt(encoder.getLength());
+            out.writeInt((int) crc.getValue());
+            out.write(encoder.getBuffer(), 0, encoder.getLength());
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            size = 0;
+        }
+    }
+
+    private void writeCoordinates(double[] column) {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            if (hasLocation(kinds[i])) {
+                long bits = Double.doubleToLongBits(column[i]);
+                encoder.writeColumnBits(bits ^ previous);
+                previous = bits;
+            }
+        }
+    }
+}
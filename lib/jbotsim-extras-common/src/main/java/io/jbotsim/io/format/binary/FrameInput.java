@@ -0,0 +1,251 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.FileAsStream;
+import io.jbotsim.io.MappedFileInputStream;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+import static io.jbotsim.io.format.binary.BinaryTraceFormat.*;
+
+/**
+ * Reads the frames of a binary trace. When the trace comes from a file, the input can be positioned anywhere: directly
+ * through the {@link FileChannel} of the file if it has one, otherwise by reopening the file and skipping its
+ * beginning.
+ */
+final class FrameInput implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileAsStream fileAccessor;
+    private final String filename;
+    private InputStream source;
+    private FileChannel channel;
+    private InputStream in;
+    private long position;
+
+    private final byte[] header = new byte[FRAME_HEADER_SIZE];
+    private final CRC32 crc = new CRC32();
+    private byte[] payload = new byte[FRAME_SIZE + 1024];
+    private byte type;
+    private int time;
+    private int length;
+    private int checksum;
+
+    FrameInput(InputStream inputStream) {
+        this(null, null, inputStream);
+    }
+
+    FrameInput(FileAsStream fileAccessor, String filename) throws IOException {
+        this(fileAccessor, filename, fileAccessor.getInputStreamForName(filename));
+    }
+
+    private FrameInput(FileAsStream fileAccessor, String filename, InputStream inputStream) {
+        this.fileAccessor = fileAccessor;
+        this.filename = filename;
+        setSource(inputStream);
+    }
+
+    private void setSource(InputStream inputStream) {
+        source = inputStream;
+        if (inputStream instanceof FileInputStream)
+            channel = ((FileInputStream) inputStream).getChannel();
+        else if (inputStream instanceof MappedFileInputStream)
+            channel = ((MappedFileInputStream) inputStream).getChannel();
+        else
+            channel = null;
+        in = new BufferedInputStream(channel != null ? Channels.newInputStream(channel) : inputStream, BUFFER_SIZE);
+        position = 0;
+    }
+
+    /**
+     * Reads the header of the trace and sets the dimensions and ranges of {@code tp} if it is not {@code null}.
+     */
+    void readTraceHeader(Topology tp) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC)
+            throw new StreamCorruptedException("not a binary trace");
+        int version = data.readInt();
+        if (version > VERSION)
+            throw new IOException("unsupported binary trace version " + version);
+        int width = data.readInt();
+        int height = data.readInt();
+        double communicationRange = data.readDouble();
+        double sensingRange = data.readDouble();
+        position = HEADER_SIZE;
+        if (tp != null) {
+            tp.setDimensions(width, height);
+            tp.setCommunicationRange(communicationRange);
+            tp.setSensingRange(sensingRange);
+        }
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * Moves the input to the given offset of the trace.
+     */
+    void positionAt(long offset) throws IOException {
+        if (channel != null) {
+            channel.position(offset);
+            in = new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            position = offset;
+            return;
+        }
+        if (offset < position) {
+            if (filename == null)
+                throw new IOException("the trace cannot be read backwards");
+            source.close();
+            setSource(fileAccessor.getInputStreamForName(filename));
+        }
+        if (skip(offset - position) < offset - position)
+            throw new EOFException();
+    }
+
+    /**
+     * Returns the offset of the index frame given by the trailer of the trace, or -1 if the trailer cannot be read
+     * without reading the whole trace, or is invalid.
+     */
+    long readIndexOffset() throws IOException {
+        if (channel == null)
+            return -1;
+        long size = channel.size();
+        if (size < HEADER_SIZE + TRAILER_SIZE)
+            return -1;
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+        while (trailer.hasRemaining()) {
+            if (channel.read(trailer, size - TRAILER_SIZE + trailer.position()) < 0)
+                return -1;
+        }
+        trailer.flip();
+        long offset = trailer.getLong();
+        if (trailer.getInt() != END_MAGIC || offset < HEADER_SIZE || offset > size - TRAILER_SIZE)
+            return -1;
+        return offset;
+    }
+
+    /**
+     * Reads the header of the next frame.
+     *
+     * @return {@code false} at the end of the trace, or if the header is incomplete or invalid.
+     */
+    boolean readFrameHeader() throws IOException {
+        if (readFully(header, FRAME_HEADER_SIZE) < FRAME_HEADER_SIZE)
+            return false;
+        length = getInt(header, 0);
+        checksum = getInt(header, 4);
+        type = header[8];
+        time = getInt(header, 9);
+        return length >= 0 && length <= MAX_FRAME_SIZE;
+    }
+
+    /**
+     * Reads the payload of the frame whose header has just been read.
+     *
+     * @return {@code false} if the payload is incomplete or corrupted.
+     */
+    boolean readPayload() throws IOException {
+        if (length > payload.length)
+            payload = new byte[length];
+        if (readFully(payload, length) < length)
+            return false;
+        crc.reset();
+        crc.update(header, 8, FRAME_HEADER_SIZE - 8);
+        crc.update(payload, 0, length);
+        return (int) crc.getValue() == checksum;
+    }
+
+    /**
+     * Skips the payload of the frame whose header has just been read.
+     *
+     * @return {@code false} if the payload is incomplete.
+     */
+    boolean skipPayload() throws IOException {
+        if (channel != null) {
+            long next = position + length;
+            if (next > channel.size())
+                return false;
+            positionAt(next);
+            return true;
+        }
+        return skip(length) == length;
+    }
+
+    byte getType() {
+        return type;
+    }
+
+    int getTime() {
+        return time;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private int readFully(byte[] buffer, int count) throws IOException {
+        int n = 0;
+        while (n < count) {
+            int read = in.read(buffer, n, count - n);
+            if (read < 0)
+                break;
+            n += read;
+        }
+        position += n;
+        return n;
+    }
+
+    private long skip(long count) throws IOException {
+        long n = 0;
+        while (n < count) {
+            long skipped = in.skip(count - n);
+            if (skipped <= 0) {
+                if (in.read() < 0)
+                    break;
+                skipped = 1;
+            }
+            n += skipped;
+        }
+        position += n;
+        return n;
+    }
+
+    private static int getInt(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) << 24 | (buffer[offset + 1] & 0xFF) << 16
+                | (buffer[offset + 2] & 0xFF) << 8 | (buffer[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+
+import java.util.Arrays;
+
+/**
+ * <p>A block of events read by the {@link ColumnarTraceReader}, stored field by field in primitive arrays, so that
+ * the events can be analyzed without creating a {@link TraceEvent} for each of them.</p>
+ *
+ * <p>The events are accessed by their index in the block, between 0 and {@link #size()} excluded. The fields which
+ * are irrelevant for the kind of an event are undefined. The block is reused by the reader: its content is only valid
+ * until the next block is read.</p>
+ */
+public class TraceBlock {
+    private static final TraceEvent.EventKind[] KINDS = TraceEvent.EventKind.values();
+
+    int size;
+    byte[] kinds = new byte[0];
+    int[] times = new int[0];
+    int[] ids = new int[0];
+    int[] destinations = new int[0];
+    int[] values = new int[0];
+    double[] xs = new double[0];
+    double[] ys = new double[0];
+    String[] nodeClasses = new String[0];
+
+    void resize(int size) {
+        this.size = size;
+        if (size <= kinds.length)
+            return;
+        kinds = new byte[size];
+        times = new int[size];
+        ids = new int[size];
+        destinations = new int[size];
+        values = new int[size];
+        xs = new double[size];
+        ys = new double[size];
+        nodeClasses = new String[size];
+    }
+
+    void clearClasses() {
+        Arrays.fill(nodeClasses, 0, size, null);
+    }
+
+    /**
+     * @return the number of events of the block.
+     */
+    public int size() {
+        return size;
+    }
+
+    public TraceEvent.EventKind getKind(int i) {
+        return KINDS[kinds[i]];
+    }
+
+    public int getTime(int i) {
+        return times[i];
+    }
+
+    /**
+     * @param i the index of the event.
+     * @return the identifier of the node, of the sender of a message or of the source of a link.
+     */
+    public int getNodeID(int i) {
+        return ids[i];
+    }
+
+    /**
+     * @param i the index of the event.
+     * @return the identifier of the destination of a message or of a link, or -1 for a message sent to all the
+     * neighbors.
+     */
+    public int getDestinationID(int i) {
+        return destinations[i];
+    }
+
+    /**
+     * @param i the index of a {@link TraceEvent.EventKind#MESSAGE_DELIVERED} event.
+     * @return the time at which the message was sent, or -1 if it is unknown.
+     */
+    public int getSendTime(int i) {
+        return values[i];
+    }
+
+    /**
+     * @param i the index of a {@link TraceEvent.EventKind#LINK_ADDED} or {@link TraceEvent.EventKind#LINK_REMOVED}
+     *          event.
+     * @return {@code true} if the link is directed.
+     */
+    public boolean isDirected(int i) {
+        return values[i] != 0;
+    }
+
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    /**
+     * @param i the index of a {@link TraceEvent.EventKind#ADD_NODE} event.
+     * @return the class name of the node.
+     */
+    public String getNodeClass(int i) {
+        return nodeClasses[i];
+    }
+
+    /**
+     * Creates the {@link TraceEvent} at the given index.
+     *
+     * @param i the index of the event.
+     * @return a new {@link TraceEvent}.
+     */
+    public TraceEvent toTraceEvent(int i) {
+        TraceEvent.EventKind kind = getKind(i);
+        switch (kind) {
+            case START_TOPOLOGY:
+                return TraceEvent.newStartTopology(times[i]);
+            case ADD_NODE:
+                return TraceEvent.newAddNode(times[i], ids[i], xs[i], ys[i], nodeClasses[i]);
+            case DEL_NODE:
+                return TraceEvent.newDeleteNode(times[i], ids[i]);
+            case SELECT_NODE:
+                return TraceEvent.newSelectNode(times[i], ids[i]);
+            case MOVE_NODE:
+                return TraceEvent.newMoveNode(times[i], ids[i], xs[i], ys[i]);
+            default:
+                return BinaryTraceFormat.newEvent(kind, times[i], ids[i], destinations[i], values[i]);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+
+import java.util.Arrays;
+
+/**
+ * <p>Aggregates of the messages and links of a trace: messages sent and delivered and links added and removed per
+ * round, number of messages delivered through each link, and distribution of the latencies of the messages.</p>
+ *
+ * <p>The statistics are computed from {@link TraceBlock}s with {@link #add(TraceBlock)}, usually by
+ * {@link ColumnarTraceReader#readStatistics(String)}, without creating a {@link TraceEvent} for each event. The
+ * messages and links are counted at the time of their event, the rounds being the times of the topology since the
+ * recording started.</p>
+ */
+public class TraceStatistics {
+    private static final int SENT = 0;
+    private static final int DELIVERED = 1;
+    private static final int ADDED = 2;
+    private static final int REMOVED = 3;
+
+    // counts per round, indexed by [SENT...REMOVED][time]
+    private final int[][] perRound = new int[4][64];
+    private final long[] totals = new long[4];
+    private int nbRounds;
+
+    // latencies[l] is the number of messages delivered after l rounds
+    private long[] latencies = new long[16];
+    private long nbLatencies;
+    private long latencySum;
+    private int maxLatency = -1;
+
+    private final LinkLoads loads = new LinkLoads();
+
+    /**
+     * Receives the load of a link.
+     */
+    @FunctionalInterface
+    public interface LinkLoadVisitor {
+        /**
+         * @param sender the identifier of the sender of the messages.
+         * @param destination the identifier of their destination.
+         * @param load the number of messages delivered from {@code sender} to {@code destination}.
+         */
+        void visit(int sender, int destination, long load);
+    }
+
+    /**
+     * Adds the message and link events of a block to the statistics. The other events are ignored.
+     *
+     * @param block the events.
+     */
+    public void add(TraceBlock block) {
+        for (int i = 0; i < block.size; i++) {
+            int kind = block.kinds[i];
+            int time = block.times[i];
+            if (kind == TraceEvent.EventKind.MESSAGE_SENT.ordinal()) {
+                count(SENT, time);
+            } else if (kind == TraceEvent.EventKind.MESSAGE_DELIVERED.ordinal()) {
+                count(DELIVERED, time);
+                loads.increment(block.ids[i], block.destinations[i]);
+                if (block.values[i] >= 0)
+                    addLatency(time - block.values[i]);
+            } else if (kind == TraceEvent.EventKind.LINK_ADDED.ordinal()) {
+                count(ADDED, time);
+            } else if (kind == TraceEvent.EventKind.LINK_REMOVED.ordinal()) {
+                count(REMOVED, time);
+            }
+        }
+    }
+
+    private void count(int counter, int time) {
+        totals[counter]++;
+        if (time < 0)
+            return;
+        if (time >= perRound[counter].length) {
+            int length = Math.max(perRound[counter].length * 2, time + 1);
+            for (int c = 0; c < perRound.length; c++)
+                perRound[c] = Arrays.copyOf(perRound[c], length);
+        }
+        perRound[counter][time]++;
+        nbRounds = Math.max(nbRounds, time + 1);
+    }
+
+    private void addLatency(int latency) {
+        if (latency < 0)
+            return;
+        if (latency >= latencies.length)
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, latency + 1));
+        latencies[latency]++;
+        nbLatencies++;
+        latencySum += latency;
+        maxLatency = Math.max(maxLatency, latency);
+    }
+
+    /**
+     * @return the number of rounds covered by the statistics, that is the last time at which a message or link event
+     * occurred, plus one.
+     */
+    public int getNbRounds() {
+        return nbRounds;
+    }
+
+    public long getNbMessagesSent() {
+        return totals[SENT];
+    }
+
+    public long getNbMessagesDelivered() {
+        return totals[DELIVERED];
+    }
+
+    public long getNbLinksAdded() {
+        return totals[ADDED];
+    }
+
+    public long getNbLinksRemoved() {
+        return totals[REMOVED];
+    }
+
+    /**
+     * @param round the round.
+     * @return the number of messages sent during the round. A message sent to all the neighbors counts once.
+     */
+    public int getNbMessagesSent(int round) {
+        return get(SENT, round);
+    }
+
+    /**
+     * @param round the round.
+     * @return the number of messages delivered during the round.
+     */
+    public int getNbMessagesDelivered(int round) {
+        return get(DELIVERED, round);
+    }
+
+    public int getNbLinksAdded(int round) {
+        return get(ADDED, round);
+    }
+
+    public int getNbLinksRemoved(int round) {
+        return get(REMOVED, round);
+    }
+
+    private int get(int counter, int round) {
+        return round >= 0 && round < nbRounds ? perRound[counter][round] : 0;
+    }
+
+    /**
+     * @param sender the identifier of the sender.
+     * @param destination the identifier of the destination.
+     * @return the number of messages delivered from {@code sender} to {@code destination}.
+     */
+    public long getLinkLoad(int sender, int destination) {
+        return loads.get(sender, destination);
+    }
+
+    /**
+     * @return the number of ordered pairs of nodes between which at least one message has been delivered.
+     */
+    public int getNbLoadedLinks() {
+        return loads.size;
+    }
+
+    /**
+     * Calls {@code visitor} with the load of each ordered pair of nodes between which at least one message has been
+     * delivered, in no particular order.
+     *
+     * @param visitor the {@link LinkLoadVisitor}.
+     */
+    public void forEachLinkLoad(LinkLoadVisitor visitor) {
+        loads.forEach(visitor);
+    }
+
+    /**
+     * @return the number of delivered messages whose latency is known.
+     */
+    public long getNbLatencies() {
+        return nbLatencies;
+    }
+
+    /**
+     * @param latency the number of rounds between the sending and the delivery of a message.
+     * @return the number of messages delivered with that latency.
+     */
+    public long getNbMessagesWithLatency(int latency) {
+        return latency >= 0 && latency < latencies.length ? latencies[latency] : 0;
+    }
+
+    /**
+     * @return the mean latency of the delivered messages, or {@code NaN} if there is none.
+     */
+    public double getMeanLatency() {
+        return nbLatencies == 0 ? Double.NaN : (double) latencySum / nbLatencies;
+    }
+
+    /**
+     * @return the maximum latency of the delivered messages, or -1 if there is none.
+     */
+    public int getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * Returns the smallest latency such that at least the given fraction of the delivered messages have a lower or
+     * equal latency.
+     *
+     * @param fraction the fraction, between 0 and 1 (0.5 for the median, 0.99 for the 99th percentile).
+     * @return the latency, or -1 if no message has been delivered.
+     */
+    public int getLatencyPercentile(double fraction) {
+        if (fraction < 0 || fraction > 1)
+            throw new IllegalArgumentException("invalid fraction " + fraction);
+        if (nbLatencies == 0)
+            return -1;
+        long rank = Math.max(1, (long) Math.ceil(fraction * nbLatencies));
+        long seen = 0;
+        for (int latency = 0; latency <= maxLatency; latency++) {
+            seen += latencies[latency];
+            if (seen >= rank)
+                return latency;
+        }
+        return maxLatency;
+    }
+
+    /**
+     * Counters indexed by ordered pairs of node identifiers, in an open-addressing table.
+     */
+    private static final class LinkLoads {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys = newKeys(64);
+        private long[] counts = new long[64];
+        private int size;
+
+        private static long[] newKeys(int capacity) {
+            long[] keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static long keyOf(int sender, int destination) {
+            return ((long) sender << 32) | (destination & 0xFFFFFFFFL);
+        }
+
+        private static int slotOf(long[] keys, long key) {
+            int mask = keys.length - 1;
+            int i = (int) (key ^ (key >>> 32)) * 0x9E3779B9 & mask;
+            while (keys[i] != EMPTY && keys[i] != key)
+                i = (i + 1) & mask;
+            return i;
+        }
+
+        void increment(int sender, int destination) {
+            if (2 * (size + 1) > keys.length)
+                grow();
+            long key = keyOf(sender, destination);
+            int i = slotOf(keys, key);
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                size++;
+            }
+            counts[i]++;
+        }
+
+        long get(int sender, int destination) {
+            long key = keyOf(sender, destination);
+            int i = slotOf(keys, key);
+            return keys[i] == EMPTY ? 0 : counts[i];
+        }
+
+        void forEach(LinkLoadVisitor visitor) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY)
+                    visitor.visit((int) (keys[i] >> 32), (int) keys[i], counts[i]);
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            keys = newKeys(oldKeys.length * 2);
+            counts = new long[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int j = slotOf(keys, oldKeys[i]);
+                    keys[j] = oldKeys[i];
+                    counts[j] = oldCounts[i];
+                }
+            }
+        }
+    }
+}
@@ -119,8 +119,10 @@ public class XMLTraceBuilder extends XMLBuilder implements TraceFileWriter {
                 XMLKeys.TIME_ATTR.setAttribute(event, e.getTime());
                 XMLKeys.IDENTIFIER_ATTR.setAttribute(event, e.getNodeID());
                 break;
+            default:
+                // the messages and links are not stored in XML traces
+                return;
         }
-        assert(event != null);
         traceElement.appendChild(event);
     }
 }
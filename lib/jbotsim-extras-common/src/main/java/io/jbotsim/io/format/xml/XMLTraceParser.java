@@ -27,6 +27,11 @@ import io.jbotsim.gen.dynamic.trace.TraceFileReader;
 import io.jbotsim.gen.dynamic.trace.TracePlayer;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Interpreter for an {@link org.w3c.dom.Document XML document} that represents a trace of execution of a
  * {@link Topology}.
@@ -36,6 +41,9 @@ import org.w3c.dom.Element;
  * topology.
  *
  * The class does not create an new topology. It populates a {@link TracePlayer} passed to the constructor.
+ *
+ * Files are streamed (see {@link #parseTraceElement(XMLStreamReader, TracePlayer)}): only the {@link TraceEvent}s are
+ * kept in memory, not the XML elements that describe them.
  */
 public class XMLTraceParser extends XMLParser implements TraceFileReader {
     private TracePlayer tracePlayer;
@@ -62,10 +70,10 @@ public class XMLTraceParser extends XMLParser implements TraceFileReader {
     @Override
     public void parse(String filename, TracePlayer tracePlayer) throws ParserException {
         this.tracePlayer = tracePlayer;
-        try {
-            parse(new XMLIO(getFileAccessor()).read(filename));
-        } catch (XMLIO.XMLIOException e) {
-            throw new ParserException(e);
+        try (InputStream input = getFileAccessor().getInputStreamForName(filename)) {
+            parse(input);
+        } catch (IOException e) {
+            throw new ParserException(new XMLIO.XMLIOException(e));
         }
     }
 
@@ -78,6 +86,11 @@ public class XMLTraceParser extends XMLParser implements TraceFileReader {
         parseTraceElement(element, tracePlayer);
     }
 
+    @Override
+    protected void parseRootElement(XMLStreamReader reader) throws ParserException, XMLStreamException {
+        parseTraceElement(reader, tracePlayer);
+    }
+
     /**
      * Populates the given {@link TracePlayer} {@code tracePlayer} with the topology and events describes by
      * {@link Element element}.
@@ -90,7 +103,30 @@ public class XMLTraceParser extends XMLParser implements TraceFileReader {
         if (!XMLKeys.TRACE.equals(element.getNodeName()))
             throw new ParserException("invalid node '" + element.getNodeName() + "' where '" +
                     XMLKeys.TRACE + "' was expected");
-        mapElementChildrenOf(element, e -> {
+        try {
+            XMLStreamReader reader = XMLIO.streamElement(element);
+            parseTraceElement(reader, tp);
+            reader.close();
+        } catch (XMLIO.XMLIOException | XMLStreamException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    /**
+     * Populates the given {@link TracePlayer} {@code tracePlayer} with the topology and events read from a stream.
+     *
+     * @param reader the {@link XMLStreamReader reader} positioned on the start tag of the root element of the trace.
+     *               On return, it is positioned on the matching end tag.
+     * @param tp the {@link TracePlayer} populated by the parser
+     * @throws ParserException is raised if the given document is malformed.
+     * @throws XMLStreamException is raised if an error occurs while the document is read.
+     */
+    public static void parseTraceElement(XMLStreamReader reader, TracePlayer tp)
+            throws ParserException, XMLStreamException {
+        if (!XMLKeys.TRACE.labelsElement(reader))
+            throw new ParserException("invalid node '" + reader.getLocalName() + "' where '" +
+                    XMLKeys.TRACE + "' was expected");
+        mapElementChildrenOf(reader, e -> {
             if (XMLKeys.TOPOLOGY.labelsElement(e))
                 XMLTopologyParser.parseTopologyElement(e, tp.getTopology());
             else {
@@ -111,12 +147,12 @@ public class XMLTraceParser extends XMLParser implements TraceFileReader {
         });
     }
 
-    private static TraceEvent parseStartTopologyEvent (Element e) {
+    private static TraceEvent parseStartTopologyEvent (XMLStreamReader e) {
         int time = XMLKeys.TIME_ATTR.getIntegerValueFor(e);
         return TraceEvent.newStartTopology(time);
     }
 
-    private static TraceEvent parseAddNodeEvent (Element e) {
+    private static TraceEvent parseAddNodeEvent (XMLStreamReader e) {
         int time = XMLKeys.TIME_ATTR.getIntegerValueFor(e);
         int id = XMLKeys.IDENTIFIER_ATTR.getIntegerValueFor(e);
         double x = XMLKeys.LOCATION_X_ATTR.getDoubleValueFor(e);
@@ -125,13 +161,13 @@ public class XMLTraceParser extends XMLParser implements TraceFileReader {
         return TraceEvent.newAddNode(time, id, x, y, className);
     }
 
-    private static TraceEvent parseDeleteNodeEvent (Element e) {
+    private static TraceEvent parseDeleteNodeEvent (XMLStreamReader e) {
         int time = XMLKeys.TIME_ATTR.getIntegerValueFor(e);
         int id = XMLKeys.IDENTIFIER_ATTR.getIntegerValueFor(e);
         return TraceEvent.newDeleteNode(time, id);
     }
 
-    private static TraceEvent parseMoveNodeEvent (Element e) {
+    private static TraceEvent parseMoveNodeEvent (XMLStreamReader e) {
         int time = XMLKeys.TIME_ATTR.getIntegerValueFor(e);
         int id = XMLKeys.IDENTIFIER_ATTR.getIntegerValueFor(e);
         double x = XMLKeys.LOCATION_X_ATTR.getDoubleValueFor(e);
@@ -139,7 +175,7 @@ public class XMLTraceParser extends XMLParser implements TraceFileReader {
         return TraceEvent.newMoveNode(time, id, x, y);
     }
 
-    private static TraceEvent parseSelectNodeEvent (Element e) {
+    private static TraceEvent parseSelectNodeEvent (XMLStreamReader e) {
         int time = XMLKeys.TIME_ATTR.getIntegerValueFor(e);
         int id = XMLKeys.IDENTIFIER_ATTR.getIntegerValueFor(e);
         return TraceEvent.newSelectNode(time, id);
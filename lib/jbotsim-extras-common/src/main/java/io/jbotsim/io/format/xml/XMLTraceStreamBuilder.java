@@ -0,0 +1,125 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.xml;
+
+import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+import io.jbotsim.gen.dynamic.trace.TraceFileWriter;
+import io.jbotsim.io.FileAsStream;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Streaming counterpart of the {@link XMLTraceBuilder}: the recorded execution of a {@link Topology} is written
+ * element by element, without building a {@link org.w3c.dom.Document document} first.</p>
+ *
+ * <p>The {@link TraceEvent}s added with {@link #addTraceEvent(TraceEvent)} are kept until the trace is written; they
+ * take a small fraction of the memory used by the equivalent XML elements. The documents written by both builders are
+ * equivalent.</p>
+ */
+public class XMLTraceStreamBuilder extends XMLStreamBuilder implements TraceFileWriter {
+    private final Topology tp;
+    private final List<TraceEvent> events = new ArrayList<>();
+
+    /**
+     * @param tp the {@link Topology topology} that is traced.
+     */
+    public XMLTraceStreamBuilder(Topology tp) {
+        this.tp = tp;
+    }
+
+    protected FileAsStream getFileAccessor() {
+        return tp.getFileManager();
+    }
+
+    /**
+     * Outputs the trace into the specified file.
+     *
+     * @param filename the targeted output file
+     * @throws XMLBuilder.BuilderException raised either when an XML error occurs while the document is written or if
+     *         an IO error occurs.
+     */
+    @Override
+    public void write(String filename) throws XMLBuilder.BuilderException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                getFileAccessor().getOutputStreamForName(filename), StandardCharsets.UTF_8))) {
+            write(out);
+        } catch (IOException e) {
+            throw new XMLBuilder.BuilderException(e);
+        }
+    }
+
+    @Override
+    public void addTraceEvent(TraceEvent e) {
+        events.add(e);
+    }
+
+    @Override
+    protected void writeRootElement(XMLStreamWriter out) throws XMLStreamException {
+        XMLKeys.TRACE.writeStartElement(out);
+        XMLTopologyStreamBuilder.writeTopologyElement(out, tp);
+        for (TraceEvent e : events)
+            writeTraceEvent(out, e);
+        out.writeEndElement();
+    }
+
+    private static void writeTraceEvent(XMLStreamWriter out, TraceEvent e) throws XMLStreamException {
+        switch(e.getKind()) {
+            case START_TOPOLOGY:
+                XMLKeys.START_TOPOLOGY.writeEmptyElement(out);
+                XMLKeys.TIME_ATTR.writeAttribute(out, e.getTime());
+                break;
+            case ADD_NODE:
+                XMLKeys.ADD_NODE.writeEmptyElement(out);
+                XMLKeys.TIME_ATTR.writeAttribute(out, e.getTime());
+                XMLKeys.IDENTIFIER_ATTR.writeAttribute(out, e.getNodeID());
+                XMLKeys.LOCATION_X_ATTR.writeAttribute(out, e.getX());
+                XMLKeys.LOCATION_Y_ATTR.writeAttribute(out, e.getY());
+                XMLKeys.NODECLASS_ATTR.writeAttribute(out, e.getNodeClass());
+                break;
+            case DEL_NODE:
+                XMLKeys.DELETE_NODE.writeEmptyElement(out);
+                XMLKeys.TIME_ATTR.writeAttribute(out, e.getTime());
+                XMLKeys.IDENTIFIER_ATTR.writeAttribute(out, e.getNodeID());
+                break;
+            case MOVE_NODE:
+                XMLKeys.MOVE_NODE.writeEmptyElement(out);
+                XMLKeys.TIME_ATTR.writeAttribute(out, e.getTime());
+                XMLKeys.IDENTIFIER_ATTR.writeAttribute(out, e.getNodeID());
+                XMLKeys.LOCATION_X_ATTR.writeAttribute(out, e.getX());
+                XMLKeys.LOCATION_Y_ATTR.writeAttribute(out, e.getY());
+                break;
+            case SELECT_NODE:
+                XMLKeys.SELECT_NODE.writeEmptyElement(out);
+                XMLKeys.TIME_ATTR.writeAttribute(out, e.getTime());
+                XMLKeys.IDENTIFIER_ATTR.writeAttribute(out, e.getNodeID());
+                break;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+
+import java.util.*;
+
+/**
+ * The topologies and reference algorithms shared by the tests of the algorithms.
+ */
+public final class TopologyFixtures {
+    private TopologyFixtures() {
+    }
+
+    /**
+     * Creates a topology of nodes placed uniformly at random, at integer coordinates.
+     */
+    public static Topology createRandomTopology(int nbNodes, int width, int height, double range, long seed) {
+        Random random = new Random(seed);
+        Topology tp = new Topology();
+        tp.setCommunicationRange(range);
+        for (int i = 0; i < nbNodes; i++)
+            tp.addNode(random.nextInt(width), random.nextInt(height));
+        return tp;
+    }
+
+    /**
+     * Adds the specified number of nodes on a row, 10 apart, and sets the communication range so that they form a
+     * path.
+     */
+    public static Topology addPath(Topology tp, int nbNodes) {
+        tp.setCommunicationRange(15);
+        for (int i = 0; i < nbNodes; i++)
+            tp.addNode(10 * i, 10);
+        return tp;
+    }
+
+    /**
+     * Breadth-first search from the source over the links of the nodes.
+     *
+     * @param excludedNodes the nodes which must not be visited.
+     * @param excludedLink a link which must not be followed, or {@code null}.
+     * @return the distances from the source of the nodes it reaches.
+     */
+    public static Map<Node, Integer> naiveDistances(Node source, Set<Node> excludedNodes, Link excludedLink) {
+        Map<Node, Integer> distances = new HashMap<>();
+        distances.put(source, 0);
+        Deque<Node> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            Node u = queue.poll();
+            for (Link l : u.getLinks()) {
+                if (excludedLink != null && l.endpoints().containsAll(excludedLink.endpoints()))
+                    continue;
+                Node w = l.getOtherEndpoint(u);
+                if (!excludedNodes.contains(w) && !distances.containsKey(w)) {
+                    distances.put(w, distances.get(u) + 1);
+                    queue.add(w);
+                }
+            }
+        }
+        return distances;
+    }
+}
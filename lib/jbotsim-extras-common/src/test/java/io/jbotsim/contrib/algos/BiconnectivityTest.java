@@ -0,0 +1,135 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.contrib.TopologyFixtures;
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BiconnectivityTest {
+
+    // counts the components of the topology without the specified node and link, either of which may be null
+    private static int countComponentsWithout(Topology tp, Node removedNode, Link removedLink) {
+        Set<Node> visited = new HashSet<>();
+        if (removedNode != null)
+            visited.add(removedNode);
+        int nbComponents = 0;
+        for (Node source : tp.getNodes()) {
+            if (visited.contains(source))
+                continue;
+            nbComponents++;
+            visited.addAll(TopologyFixtures.naiveDistances(source, visited, removedLink).keySet());
+        }
+        return nbComponents;
+    }
+
+    @Test
+    void randomTopologies_sameAsNaive() {
+        for (long seed = 0; seed < 20; seed++) {
+            Topology tp = TopologyFixtures.createRandomTopology(40, 400, 300, 80, seed);
+            int nbComponents = countComponentsWithout(tp, null, null);
+
+            List<Node> articulationPoints = Connectivity.getArticulationPoints(tp);
+            List<Node> criticalNodes = Connectivity.getCriticalNodes(tp);
+            boolean biconnected = nbComponents == 1;
+            for (Node n : tp.getNodes()) {
+                int without = countComponentsWithout(tp, n, null);
+                boolean isolated = n.getLinks().isEmpty();
+                assertEquals(without > nbComponents - (isolated ? 1 : 0), articulationPoints.contains(n));
+                boolean critical = !Connectivity.isConnectedWithout(tp.getNodes(), n);
+                assertEquals(critical, criticalNodes.contains(n));
+                assertEquals(critical, Connectivity.isCritical(n));
+                biconnected &= !critical;
+            }
+            assertEquals(biconnected, Connectivity.isBiconnected(tp));
+
+            List<Link> bridges = Connectivity.getBridges(tp);
+            for (Link l : tp.getLinks())
+                assertEquals(countComponentsWithout(tp, null, l) > nbComponents, bridges.contains(l));
+        }
+    }
+
+    @Test
+    void cycle_biconnectedWithoutBridges() {
+        Topology tp = new Topology();
+        tp.setCommunicationRange(60);
+        for (int i = 0; i < 12; i++)
+            tp.addNode(200 + 100 * Math.cos(i * Math.PI / 6), 200 + 100 * Math.sin(i * Math.PI / 6));
+
+        assertTrue(Connectivity.isBiconnected(tp));
+        assertTrue(Connectivity.getArticulationPoints(tp).isEmpty());
+        assertTrue(Connectivity.getBridges(tp).isEmpty());
+        assertTrue(Connectivity.getCriticalNodes(tp).isEmpty());
+    }
+
+    @Test
+    void smallTopologies_sameAsBefore() {
+        Topology tp = new Topology();
+        assertFalse(Connectivity.isBiconnected(tp));
+        tp.addNode(10, 10);
+        assertFalse(Connectivity.isBiconnected(tp));
+        assertTrue(Connectivity.isCritical(tp.getNodes().get(0)));
+        tp.addNode(30, 10);
+        assertTrue(Connectivity.isBiconnected(tp));
+        assertEquals(1, Connectivity.getBridges(tp).size());
+        tp.addNode(300, 10);
+        assertFalse(Connectivity.isBiconnected(tp));
+        assertEquals(tp.getNodes().subList(0, 2), Connectivity.getCriticalNodes(tp));
+    }
+
+    @Test
+    void directedTopology_followsArcsBothWays() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        tp.setOrientation(Link.Orientation.DIRECTED);
+        Node a = new Node(), b = new Node(), c = new Node();
+        tp.addNode(a);
+        tp.addNode(b);
+        tp.addNode(c);
+        tp.addLink(new Link(a, b, Link.Orientation.DIRECTED));
+        tp.addLink(new Link(b, c, Link.Orientation.DIRECTED));
+
+        assertFalse(Connectivity.isBiconnected(tp));
+        assertTrue(Connectivity.isCritical(b));
+        assertFalse(Connectivity.isCritical(a));
+        assertEquals(Collections.singletonList(b), Connectivity.getArticulationPoints(tp));
+
+        tp.addLink(new Link(c, a, Link.Orientation.DIRECTED));
+        assertTrue(Connectivity.isBiconnected(tp));
+        assertTrue(Connectivity.getCriticalNodes(tp).isEmpty());
+    }
+
+    @Test
+    void longPath_noStackOverflow() {
+        int nbNodes = 20000;
+        Topology tp = TopologyFixtures.addPath(new Topology(), nbNodes);
+
+        assertEquals(nbNodes - 2, Connectivity.getArticulationPoints(tp).size());
+        assertEquals(nbNodes - 1, Connectivity.getBridges(tp).size());
+        assertFalse(Connectivity.isBiconnected(tp));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.contrib.TopologyFixtures;
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentTrackerTest {
+
+    private static Topology createTopology(int nbNodes, long seed) {
+        return TopologyFixtures.createRandomTopology(nbNodes, 600, 400, 80, seed);
+    }
+
+    private static void assertSameComponents(Topology tp, ComponentTracker tracker) {
+        List<ArrayList<Node>> expected = Connectivity.splitIntoConnectedSets(tp.getNodes());
+        assertEquals(expected.size(), tracker.getNbComponents());
+        assertEquals(expected.size(), Connectivity.getNbConnectedComponents(tp));
+        assertEquals(expected.size() == 1, tracker.isConnected());
+        assertEquals(expected.size() == 1, Connectivity.isConnected(tp));
+        for (List<Node> set : expected) {
+            assertEquals(new HashSet<>(set), new HashSet<>(tracker.getComponent(set.get(0))));
+            for (Node n : set)
+                assertTrue(tracker.areConnected(set.get(0), n));
+        }
+    }
+
+    @Test
+    void splitIntoConnectedSets_sameAsGetConnectedSet() {
+        Topology tp = createTopology(100, 1);
+        List<ArrayList<Node>> sets = Connectivity.splitIntoConnectedSets(tp.getNodes());
+
+        int nbNodes = 0;
+        for (List<Node> set : sets) {
+            nbNodes += set.size();
+            assertEquals(new HashSet<>(set), new HashSet<>(Connectivity.getConnectedSet(set.get(0), tp.getNodes())));
+        }
+        assertEquals(tp.getNodes().size(), nbNodes);
+    }
+
+    @Test
+    void isConnected_longPath_noStackOverflow() {
+        Topology tp = TopologyFixtures.addPath(new Topology(), 20000);
+
+        assertTrue(Connectivity.isConnected(tp));
+        assertEquals(1, Connectivity.getNbConnectedComponents(tp));
+    }
+
+    @Test
+    void isConnected_directedTopology_followsArcsBothWays() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        tp.setOrientation(Link.Orientation.DIRECTED);
+        Node a = new Node(), b = new Node(), c = new Node();
+        tp.addNode(a);
+        tp.addNode(b);
+        tp.addNode(c);
+        tp.addLink(new Link(a, b, Link.Orientation.DIRECTED));
+        tp.addLink(new Link(c, b, Link.Orientation.DIRECTED));
+
+        assertTrue(Connectivity.isConnected(tp));
+        assertEquals(1, Connectivity.getNbConnectedComponents(tp));
+        // the connected sets only follow the undirected links, as Node.getNeighbors() does
+        assertEquals(3, Connectivity.splitIntoConnectedSets(tp.getNodes()).size());
+    }
+
+    @Test
+    void tracker_changes_sameAsConnectivity() {
+        Topology tp = createTopology(80, 2);
+        ComponentTracker tracker = new ComponentTracker(tp);
+        assertSameComponents(tp, tracker);
+
+        Random random = new Random(3);
+        for (int step = 0; step < 200; step++) {
+            List<Node> nodes = tp.getNodes();
+            Node node = nodes.get(random.nextInt(nodes.size()));
+            switch (step % 5) {
+                case 0:
+                    tp.removeNode(node);
+                    break;
+                case 1:
+                    tp.addNode(random.nextInt(600), random.nextInt(400));
+                    break;
+                default:
+                    node.setLocation(random.nextInt(600), random.nextInt(400));
+            }
+            assertSameComponents(tp, tracker);
+        }
+    }
+
+    @Test
+    void tracker_notifiesMergesAndSplits() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        for (int i = 0; i < 4; i++)
+            tp.addNode(100 * i, 100);
+        List<Node> nodes = tp.getNodes();
+        ComponentTracker tracker = new ComponentTracker(tp);
+        List<String> events = new ArrayList<>();
+        tracker.addComponentListener(new ComponentListener() {
+            @Override
+            public void onComponentsMerged(Set<Node> component, Set<Node> merged) {
+                events.add("merged " + component.size() + " " + merged.size());
+            }
+
+            @Override
+            public void onComponentSplit(Set<Node> component, Set<Node> separated) {
+                events.add("split " + component.size() + " " + separated.size());
+            }
+        });
+        assertEquals(4, tracker.getNbComponents());
+
+        Link l01 = new Link(nodes.get(0), nodes.get(1));
+        tp.addLink(l01);
+        tp.addLink(new Link(nodes.get(1), nodes.get(2)));
+        tp.addLink(new Link(nodes.get(2), nodes.get(0)));
+        tp.addLink(new Link(nodes.get(2), nodes.get(3)));
+        assertTrue(tracker.isConnected());
+        tp.removeLink(l01);
+        assertTrue(tracker.isConnected());
+        tp.removeLink(new Link(nodes.get(3), nodes.get(2)));
+
+        assertEquals(2, tracker.getNbComponents());
+        assertFalse(tracker.areConnected(nodes.get(0), nodes.get(3)));
+        assertEquals(Arrays.asList("merged 2 1", "merged 3 1", "merged 4 1", "split 3 1"), events);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoverageTest {
+
+    // nodes with random sensing ranges, a quarter of them without any, some of them left of the origin
+    private static Topology createTopology(int nbNodes, long seed) {
+        Random random = new Random(seed);
+        Topology tp = new Topology();
+        for (int i = 0; i < nbNodes; i++) {
+            Node node = new Node();
+            node.setSensingRange(random.nextInt(4) == 0 ? 0 : 5 + random.nextDouble() * 40);
+            tp.addNode(random.nextDouble() * 300 - 50, random.nextDouble() * 200, node);
+        }
+        return tp;
+    }
+
+    // tests every point of the field against every node
+    private static long naiveCoverage(List<Node> nodes, int left, int top, int right, int bottom) {
+        long coverage = 0;
+        for (int i = left; i < right; i++)
+            for (int j = top; j < bottom; j++)
+                for (Node n : nodes)
+                    if (n.distance(i, j) <= n.getSensingRange()) {
+                        coverage++;
+                        break;
+                    }
+        return coverage;
+    }
+
+    // the field of Algorithms.getCoverage()
+    private static long naiveCoverage(Topology tp) {
+        int left = 0, right = 0, top = 0, bottom = 0, maxSR = 0;
+        for (Node n : tp.getNodes()) {
+            left = Math.min(left, (int) n.getX());
+            top = Math.min(top, (int) n.getY());
+            right = Math.max(right, (int) n.getX());
+            bottom = Math.max(bottom, (int) n.getY());
+            maxSR = Math.max(maxSR, (int) n.getSensingRange());
+        }
+        return naiveCoverage(tp.getNodes(), left - maxSR, top - maxSR, right + maxSR, bottom + maxSR);
+    }
+
+    @Test
+    void getCoverage_sameAsNaive() {
+        for (long seed = 1; seed <= 3; seed++) {
+            Topology tp = createTopology(60, seed);
+            assertEquals(naiveCoverage(tp), Coverage.getCoverage(tp), "seed " + seed);
+        }
+        Topology tp = createTopology(20, 4);
+        tp.getNodes().get(0).setLocation(10, 20, 15);
+        tp.getNodes().get(1).setLocation(30, 30);
+        tp.getNodes().get(1).setSensingRange(10);
+        assertEquals(naiveCoverage(tp), (long) Algorithms.getCoverage(tp));
+    }
+
+    @Test
+    void getCoverage_emptyTopology_zero() {
+        assertEquals(0, Coverage.getCoverage(new Topology()));
+    }
+
+    @Test
+    void getCoverage_workers_sameAsSequential() throws InterruptedException {
+        Topology tp = createTopology(400, 5);
+
+        assertEquals(Coverage.getCoverage(tp), Coverage.getCoverage(tp, 3));
+    }
+
+    @Test
+    void estimateCoverage_withinConfidenceInterval() {
+        Topology tp = createTopology(100, 6);
+        long exact = Coverage.getCoverage(tp);
+
+        Coverage.Estimate estimate = Coverage.estimateCoverage(tp, 200000, new SplittableRandom(7));
+
+        assertTrue(estimate.getStandardError() > 0);
+        assertTrue(estimate.getLowerBound(4) <= exact && exact <= estimate.getUpperBound(4), estimate + " vs " + exact);
+    }
+
+    @Test
+    void tracker_changes_sameAsNaive() {
+        Topology tp = createTopology(40, 8);
+        CoverageTracker tracker = new CoverageTracker(tp, -20, 10, 250, 150);
+        assertEquals(naiveCoverage(tp.getNodes(), -20, 10, 230, 160), tracker.getCoverage());
+
+        Random random = new Random(9);
+        for (int step = 0; step < 60; step++) {
+            List<Node> nodes = tp.getNodes();
+            Node node = nodes.get(random.nextInt(nodes.size()));
+            switch (step % 4) {
+                case 0:
+                    tp.removeNode(node);
+                    break;
+                case 1:
+                    tp.addNode(random.nextDouble() * 300 - 50, random.nextDouble() * 200);
+                    tp.getNodes().get(tp.getNodes().size() - 1).setSensingRange(25);
+                    break;
+                case 2:
+                    node.setSensingRange(random.nextDouble() * 50);
+                    break;
+                default:
+                    node.setLocation(random.nextDouble() * 300 - 50, random.nextDouble() * 200);
+            }
+            assertEquals(naiveCoverage(tp.getNodes(), -20, 10, 230, 160), tracker.getCoverage(), "step " + step);
+        }
+        assertEquals((double) tracker.getCoverage() / (250 * 150), tracker.getRelativeCoverage(), 1e-12);
+    }
+}
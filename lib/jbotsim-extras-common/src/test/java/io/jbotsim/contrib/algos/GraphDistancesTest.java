@@ -0,0 +1,107 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.contrib.TopologyFixtures;
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphDistancesTest {
+
+    private static Topology createTopology(int nbNodes, double range, long seed) {
+        return TopologyFixtures.createRandomTopology(nbNodes, 800, 600, range, seed);
+    }
+
+    private static int naiveEccentricity(Topology tp, Node source) {
+        Map<Node, Integer> distances = TopologyFixtures.naiveDistances(source, Collections.<Node>emptySet(), null);
+        return distances.size() < tp.getNodes().size() ? GraphDistances.INFINITE : Collections.max(distances.values());
+    }
+
+    @Test
+    void eccentricities_sameAsNaive() throws InterruptedException {
+        Topology tp = createTopology(150, 120, 1);
+        GraphDistances distances = new GraphDistances(tp);
+        List<Node> nodes = distances.getNodes();
+
+        int[] eccentricities = distances.getEccentricities();
+        int[] parallel = distances.getEccentricities(3);
+
+        assertArrayEquals(eccentricities, parallel);
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(naiveEccentricity(tp, nodes.get(i)), eccentricities[i]);
+            assertEquals(eccentricities[i], distances.getEccentricity(nodes.get(i)));
+        }
+    }
+
+    @Test
+    void diameterAndRadius_sameAsEccentricities() {
+        for (long seed = 2; seed < 12; seed++) {
+            Topology tp = createTopology(100, 200, seed);
+            GraphDistances distances = new GraphDistances(tp);
+            int[] eccentricities = distances.getEccentricities();
+            int max = 0, min = Integer.MAX_VALUE;
+            for (int e : eccentricities) {
+                max = Math.max(max, e);
+                min = Math.min(min, e);
+            }
+            if (max == GraphDistances.INFINITE) {
+                assertNull(distances.getDiameter());
+                assertNull(distances.getRadius());
+            } else {
+                assertEquals(max, (int) distances.getDiameter(), "seed " + seed);
+                assertEquals(min, (int) distances.getRadius(), "seed " + seed);
+                assertEquals(max, (int) Algorithms.getDiameter(tp));
+            }
+        }
+    }
+
+    @Test
+    void diameter_path() {
+        Topology tp = TopologyFixtures.addPath(new Topology(), 7);
+        GraphDistances distances = new GraphDistances(tp);
+
+        assertEquals(6, (int) distances.getDiameter());
+        assertEquals(3, (int) distances.getRadius());
+        assertEquals(3, distances.getEccentricity(tp.getNodes().get(3)));
+    }
+
+    @Test
+    void subset_usesLinksBetweenNodes() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        for (int i = 0; i < 4; i++)
+            tp.addNode(100 * i, 100);
+        List<Node> nodes = tp.getNodes();
+        for (int i = 0; i < 4; i++)
+            tp.addLink(new Link(nodes.get(i), nodes.get((i + 1) % 4)));
+
+        assertEquals(2, (int) new GraphDistances(tp).getDiameter());
+        assertEquals(2, (int) new GraphDistances(nodes.subList(0, 3)).getDiameter());
+        assertNull(new GraphDistances(Arrays.asList(nodes.get(0), nodes.get(2))).getDiameter());
+        assertNull(new GraphDistances(new Topology()).getDiameter());
+    }
+}
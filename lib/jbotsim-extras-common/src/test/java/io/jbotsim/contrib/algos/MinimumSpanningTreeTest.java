@@ -0,0 +1,159 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.algos;
+
+import io.jbotsim.contrib.TopologyFixtures;
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinimumSpanningTreeTest {
+
+    private static Topology createTopology(int nbNodes, long seed) {
+        return TopologyFixtures.createRandomTopology(nbNodes, 600, 500, 150, seed);
+    }
+
+    // Prim's algorithm, from the first node, over the links of the topology
+    private static double primWeight(Topology tp) {
+        List<Node> nodes = tp.getNodes();
+        Set<Node> inTree = new HashSet<>();
+        inTree.add(nodes.get(0));
+        double weight = 0;
+        while (inTree.size() < nodes.size()) {
+            Link best = null;
+            for (Link l : tp.getLinks())
+                if (inTree.contains(l.source) != inTree.contains(l.destination) &&
+                        (best == null || l.getLength() < best.getLength()))
+                    best = l;
+            if (best == null)
+                return -1;
+            inTree.add(best.source);
+            inTree.add(best.destination);
+            weight += best.getLength();
+        }
+        return weight;
+    }
+
+    private static double weightOf(List<Link> links) {
+        double weight = 0;
+        for (Link l : links)
+            weight += l.getLength();
+        return weight;
+    }
+
+    // the weight of a minimum spanning forest, tree by tree
+    private static double forestWeight(Topology tp) {
+        return weightOf(Algorithms.getMinimumSpanningForest(tp.getNodes(), tp.getLinks()));
+    }
+
+    private static void assertSpanningForest(Topology tp, List<Link> forest) {
+        UnionFind components = new UnionFind(tp.getNodes().size());
+        List<Node> nodes = tp.getNodes();
+        for (Link l : forest) {
+            assertTrue(tp.getLinks().contains(l), "link " + l + " is not in the topology");
+            assertTrue(components.union(nodes.indexOf(l.source), nodes.indexOf(l.destination)), "cycle on " + l);
+        }
+        UnionFind graphComponents = new UnionFind(nodes.size());
+        for (Link l : tp.getLinks())
+            graphComponents.union(nodes.indexOf(l.source), nodes.indexOf(l.destination));
+        assertEquals(graphComponents.getNbSets(), components.getNbSets());
+    }
+
+    @Test
+    void getMST_sameWeightAsPrim() {
+        Topology tp = createTopology(80, 1);
+        tp.setCommunicationRange(250);
+
+        ArrayList<Link> mst = Algorithms.getMST(tp);
+
+        assertEquals(tp.getNodes().size() - 1, mst.size());
+        assertSpanningForest(tp, mst);
+        assertEquals(primWeight(tp), weightOf(mst), 1e-6);
+    }
+
+    @Test
+    void getMST_disconnected_null() {
+        Topology tp = new Topology();
+        tp.addNode(10, 10);
+        tp.addNode(500, 500);
+
+        assertNull(Algorithms.getMST(tp));
+    }
+
+    @Test
+    void getMST_subset_usesLinksBetweenNodes() {
+        Topology tp = createTopology(60, 2);
+        tp.setCommunicationRange(300);
+        Node node = tp.getNodes().get(0);
+        List<Node> neighborhood = node.getNeighbors();
+        neighborhood.add(node);
+
+        ArrayList<Link> mst = Algorithms.getMST(neighborhood);
+
+        assertEquals(neighborhood.size() - 1, mst.size());
+        for (Link l : mst)
+            assertTrue(neighborhood.contains(l.source) && neighborhood.contains(l.destination));
+    }
+
+    @Test
+    void incremental_linksAndMovements_staysMinimum() {
+        Topology tp = createTopology(60, 3);
+        IncrementalMST mst = new IncrementalMST(tp);
+        assertEquals(forestWeight(tp), mst.getWeight(), 1e-6);
+
+        Random random = new Random(4);
+        for (int step = 0; step < 300; step++) {
+            Node node = tp.getNodes().get(random.nextInt(tp.getNodes().size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    tp.removeNode(node);
+                    tp.addNode(random.nextInt(600), random.nextInt(500));
+                    break;
+                default:
+                    node.setLocation(random.nextInt(600), random.nextInt(500));
+            }
+            assertSpanningForest(tp, mst.getLinks());
+            assertEquals(forestWeight(tp), mst.getWeight(), 1e-6, "step " + step);
+            assertEquals(forestWeight(tp), weightOf(mst.getLinks()), 1e-6, "step " + step);
+        }
+    }
+
+    @Test
+    void incremental_connectedTopology_spanningTree() {
+        Topology tp = createTopology(40, 5);
+        tp.setCommunicationRange(1000);
+        IncrementalMST mst = new IncrementalMST(tp);
+
+        assertTrue(mst.isSpanningTree());
+        assertEquals(weightOf(Algorithms.getMST(tp)), mst.getWeight(), 1e-6);
+        for (Link l : mst.getLinks())
+            assertTrue(mst.contains(l));
+
+        mst.stop();
+        tp.removeNode(tp.getNodes().get(0));
+        assertEquals(tp.getNodes().size(), mst.getLinks().size());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.experiment;
+
+import io.jbotsim.contrib.TopologyFixtures;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExperimentRunnerTest {
+
+    private static final int NB_REPLICATIONS = 20;
+    private static final int NB_ROUNDS = 50;
+
+    public static class CountingNode extends Node {
+        int nbClocks = 0;
+
+        @Override
+        public void onClock() {
+            nbClocks++;
+        }
+    }
+
+    private static Topology createTopology(int nbNodes) {
+        Topology tp = new Topology();
+        tp.setDefaultNodeModel(CountingNode.class);
+        return TopologyFixtures.addPath(tp, nbNodes);
+    }
+
+    @Test
+    void run_maxRounds_allRoundsPerformed() throws Exception {
+        StringWriter out = new StringWriter();
+        int nbFailures = new ExperimentRunner((replication, seed) -> createTopology(replication + 1))
+                .setNbReplications(NB_REPLICATIONS)
+                .setNbRounds(NB_ROUNDS)
+                .setNbWorkers(4)
+                .addMetric("nbNodes", tp -> tp.getNodes().size())
+                .addMetric("nbClocks", tp -> ((CountingNode) tp.getNodes().get(0)).nbClocks)
+                .addResultWriter(new CSVResultWriter(out))
+                .run();
+
+        assertEquals(0, nbFailures);
+        String[] lines = out.toString().split("\n");
+        assertEquals(NB_REPLICATIONS + 1, lines.length);
+        assertEquals("replication,seed,rounds,nbNodes,nbClocks,error", lines[0]);
+        for (int i = 1; i < lines.length; i++) {
+            String[] cells = lines[i].split(",", -1);
+            int replication = Integer.parseInt(cells[0]);
+            assertEquals(NB_ROUNDS, Integer.parseInt(cells[2]));
+            assertEquals(replication + 1, Integer.parseInt(cells[3]));
+            assertEquals(NB_ROUNDS, Integer.parseInt(cells[4]));
+            assertEquals("", cells[5]);
+        }
+    }
+
+    @Test
+    void run_stopCondition_stopsEarly() throws Exception {
+        ExperimentRunner runner = new ExperimentRunner((replication, seed) -> createTopology(3))
+                .setNbRounds(NB_ROUNDS)
+                .setStopCondition(tp -> tp.getTime() >= 10);
+
+        ExperimentResult result = runner.runReplication(0, 0);
+
+        assertTrue(result.isSuccessful());
+        assertTrue(result.getNbRounds() < NB_ROUNDS);
+    }
+
+    public static class PausingNode extends Node {
+        @Override
+        public void onClock() {
+            if (getTime() == 4)
+                getTopology().pause();
+        }
+    }
+
+    @Test
+    void run_pausedTopology_onlyPerformedRoundsCounted() {
+        ExperimentRunner runner = new ExperimentRunner((replication, seed) -> {
+            Topology tp = new Topology();
+            tp.addNode(10, 10, new PausingNode());
+            tp.addNode(20, 10, new CountingNode());
+            return tp;
+        }).setNbRounds(NB_ROUNDS).addMetric("nbClocks", tp -> ((CountingNode) tp.getNodes().get(1)).nbClocks);
+
+        ExperimentResult result = runner.runReplication(0, 0);
+
+        assertTrue(result.isSuccessful());
+        assertTrue(result.getNbRounds() < NB_ROUNDS);
+        assertEquals(result.getNbRounds(), result.getMetric("nbClocks"));
+    }
+
+    @Test
+    void run_sameSeed_sameReplicationSeeds() throws Exception {
+        StringWriter out1 = new StringWriter();
+        StringWriter out2 = new StringWriter();
+        new ExperimentRunner((replication, seed) -> createTopology(1)).setSeed(42).setNbReplications(1)
+                .setNbRounds(1).addResultWriter(new JSONLinesResultWriter(out1)).run();
+        new ExperimentRunner((replication, seed) -> createTopology(1)).setSeed(42).setNbReplications(1)
+                .setNbRounds(1).addResultWriter(new JSONLinesResultWriter(out2)).run();
+
+        assertEquals(out1.toString(), out2.toString());
+    }
+
+    @Test
+    void run_failingFactory_errorReported() throws Exception {
+        StringWriter out = new StringWriter();
+        int nbFailures = new ExperimentRunner((replication, seed) -> {
+            throw new IllegalArgumentException("bad, \"size\"");
+        }).setNbReplications(2).addResultWriter(new JSONLinesResultWriter(out)).run();
+
+        assertEquals(2, nbFailures);
+        assertTrue(out.toString().contains("\"error\":\"java.lang.IllegalArgumentException: bad, \\\"size\\\"\""));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.contrib.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkersTest {
+
+    @Test
+    void run_everyTaskRunOnce() throws InterruptedException {
+        AtomicIntegerArray runs = new AtomicIntegerArray(1000);
+        Workers.run(runs.length(), 4, () -> runs::incrementAndGet);
+
+        for (int i = 0; i < runs.length(); i++)
+            assertEquals(1, runs.get(i));
+    }
+
+    @Test
+    void run_failingTask_exceptionRethrown() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                Workers.run(100, 4, () -> task -> {
+                    if (task == 42)
+                        throw new IllegalArgumentException("task 42");
+                }));
+        assertEquals("task 42", e.getMessage());
+    }
+
+    @Test
+    void run_noWorker_throws() {
+        assertThrows(IllegalArgumentException.class, () -> Workers.run(10, 0, () -> task -> { }));
+    }
+
+    @Test
+    void rethrow_checkedException_wrapped() {
+        IOException cause = new IOException();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> {
+            throw Workers.rethrow(new ExecutionException(cause));
+        });
+        assertSame(cause, e.getCause());
+        assertThrows(AssertionError.class, () -> {
+            throw Workers.rethrow(new ExecutionException(new AssertionError()));
+        });
+    }
+}
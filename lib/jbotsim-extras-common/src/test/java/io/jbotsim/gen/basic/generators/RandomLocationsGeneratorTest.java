@@ -0,0 +1,79 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.basic.generators;
+
+import io.jbotsim.core.Point;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomLocationsGeneratorTest {
+
+    private static final long SEED = 1234;
+    private static final int NB_NODES = 5;
+
+    private static List<Point> getLocations(Topology tp, int from) {
+        List<Point> locations = new ArrayList<>();
+        for (int i = from; i < tp.getNodes().size(); i++)
+            locations.add(tp.getNodes().get(i).getLocation());
+        return locations;
+    }
+
+    @Test
+    void generate_twice_differentLocations() {
+        Topology tp = new Topology();
+        tp.setRandomSeed(SEED);
+        RandomLocationsGenerator generator = new RandomLocationsGenerator(NB_NODES);
+
+        generator.generate(tp);
+        generator.generate(tp);
+
+        assertNotEquals(getLocations(tp, 0).subList(0, NB_NODES), getLocations(tp, NB_NODES));
+    }
+
+    @Test
+    void generate_twoGenerators_differentLocations() {
+        Topology tp = new Topology();
+        tp.setRandomSeed(SEED);
+
+        new RandomLocationsGenerator(NB_NODES).generate(tp);
+        new RandomLocationsGenerator(NB_NODES).generate(tp);
+
+        assertNotEquals(getLocations(tp, 0).subList(0, NB_NODES), getLocations(tp, NB_NODES));
+    }
+
+    @Test
+    void generate_sameSeed_sameLocations() {
+        Topology tp1 = new Topology();
+        Topology tp2 = new Topology();
+        tp1.setRandomSeed(SEED);
+        tp2.setRandomSeed(SEED);
+
+        new RandomLocationsGenerator(NB_NODES).generate(tp1);
+        new RandomLocationsGenerator(NB_NODES).generate(tp2);
+
+        assertEquals(getLocations(tp1, 0), getLocations(tp2, 0));
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeMarkovianProcessTest {
+
+    private static final int NB_PAIRS = 5000;
+    private static final double BIRTH_RATE = 0.02;
+    private static final double DEATH_RATE = 0.1;
+
+    @Test
+    void step_ratesMatchEdgeMarkovianDynamics() {
+        EdgeMarkovianProcess process = new EdgeMarkovianProcess(NB_PAIRS, BIRTH_RATE, DEATH_RATE,
+                new SplittableRandom(42));
+        BitSet present = new BitSet();
+        process.initialize(pair -> present.set((int) pair));
+        double steadyProb = BIRTH_RATE / (BIRTH_RATE + DEATH_RATE);
+        assertEquals(steadyProb * NB_PAIRS, present.cardinality(), 0.1 * steadyProb * NB_PAIRS);
+
+        long absent = 0, born = 0, alive = 0, died = 0;
+        for (int step = 0; step < 500; step++) {
+            absent += NB_PAIRS - present.cardinality();
+            alive += present.cardinality();
+            BitSet before = (BitSet) present.clone();
+            long[] counts = new long[2];
+            process.step(pair -> {
+                assertTrue(before.get((int) pair));
+                present.clear((int) pair);
+                counts[0]++;
+            }, pair -> {
+                assertFalse(before.get((int) pair));
+                present.set((int) pair);
+                counts[1]++;
+            });
+            died += counts[0];
+            born += counts[1];
+            assertEquals(present.cardinality(), process.size());
+        }
+        assertEquals(BIRTH_RATE, (double) born / absent, 0.03 * BIRTH_RATE);
+        assertEquals(DEATH_RATE, (double) died / alive, 0.03 * DEATH_RATE);
+    }
+
+    @Test
+    void step_extremeRates() {
+        EdgeMarkovianProcess process = new EdgeMarkovianProcess(100, 1, 1, new SplittableRandom(1));
+        BitSet present = new BitSet();
+        process.initialize(pair -> present.set((int) pair));
+        BitSet before = (BitSet) present.clone();
+        process.step(pair -> present.clear((int) pair), pair -> present.set((int) pair));
+
+        // every present pair dies and every absent one is born
+        before.flip(0, 100);
+        assertEquals(before, present);
+
+        process = new EdgeMarkovianProcess(100, 0, 1, new SplittableRandom(1));
+        process.initialize(pair -> fail("no pair can be present"));
+        process.step(pair -> fail("no pair can die"), pair -> fail("no pair can be born"));
+        assertEquals(0, process.size());
+    }
+
+    @Test
+    void initialize_zeroRates_noPair() {
+        EdgeMarkovianProcess process = new EdgeMarkovianProcess(100, 0, 0, new SplittableRandom(1));
+        process.initialize(pair -> fail("no pair can be present"));
+        process.step(pair -> fail("no pair can die"), pair -> fail("no pair can be born"));
+        assertEquals(0, process.size());
+    }
+
+    @Test
+    void add_remove_manyPairs() {
+        EdgeMarkovianProcess process = new EdgeMarkovianProcess(1L << 40, 0, 1, new SplittableRandom(1));
+        for (long pair = 0; pair < 10_000; pair++)
+            process.add(pair * 7919);
+        for (long pair = 0; pair < 10_000; pair += 2)
+            process.remove(pair * 7919);
+
+        assertEquals(5000, process.size());
+        for (long pair = 0; pair < 10_000; pair++)
+            assertEquals(pair % 2 == 1, process.contains(pair * 7919));
+
+        // every remaining pair, and only them, dies
+        BitSet died = new BitSet();
+        process.step(pair -> {
+            assertEquals(1, pair / 7919 % 2);
+            died.set((int) (pair / 7919));
+        }, pair -> fail("no pair can be born"));
+        assertEquals(0, process.size());
+        assertEquals(5000, died.cardinality());
+    }
+
+    @Test
+    void emegTopology_updateLinks_keepsStationaryDensity() {
+        EMEGTopology tp = new EMEGTopology(BIRTH_RATE, DEATH_RATE);
+        for (int i = 0; i < 100; i++)
+            tp.addNode(new Node());
+        tp.initializeEdges();
+        for (int round = 0; round < 50; round++)
+            tp.updateLinks();
+
+        double expected = BIRTH_RATE / (BIRTH_RATE + DEATH_RATE) * 100 * 99 / 2;
+        assertEquals(expected, tp.getLinks().size(), 0.15 * expected);
+        for (Link l : tp.getLinks())
+            assertNotSame(l.source, l.destination);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TVGPlayerTest {
+
+    private static final int NB_NODES = 20;
+    private static final int HORIZON = 200;
+
+    // every link alternates between presence and absence intervals of random lengths, and is absent at the horizon
+    private static TVG createTVG(long seed) {
+        Random random = new Random(seed);
+        TVG tvg = new TVG();
+        tvg.buildCompleteGraph(NB_NODES);
+        for (TVLink l : tvg.getTVLinks()) {
+            int date = random.nextInt(10);
+            while (date < HORIZON - 1) {
+                l.addAppearanceDate(date);
+                date = Math.min(date + 1 + random.nextInt(20), HORIZON - 1);
+                l.addDisappearanceDate(date);
+                date += 1 + random.nextInt(20);
+            }
+        }
+        return tvg;
+    }
+
+    private static void assertLinksAt(TVG tvg, Topology tp, int date) {
+        Set<Link> expected = new HashSet<>();
+        for (TVLink l : tvg.getTVLinks())
+            if (l.isPresentAtTime(date))
+                expected.add(l);
+        assertEquals(expected, new HashSet<>(tp.getLinks()), "date " + date);
+    }
+
+    @Test
+    void play_linksPresentAtEachDate() {
+        TVG tvg = createTVG(1);
+        Topology tp = new Topology();
+        new TVGPlayer(tvg, tp).start();
+
+        for (int round = 0; round < HORIZON + 10; round++) {
+            tp.getClockManager().onClock();
+            assertLinksAt(tvg, tp, tp.getTime());
+        }
+    }
+
+    @Test
+    void play_withPeriod_wrapsAround() {
+        TVG tvg = createTVG(2);
+        Topology tp = new Topology();
+        new TVGPlayer(tvg, tp, HORIZON).start();
+
+        for (int round = 0; round < 3 * HORIZON; round++) {
+            tp.getClockManager().onClock();
+            assertLinksAt(tvg, tp, tp.getTime() % HORIZON);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import io.jbotsim.core.Node;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TVGTest {
+
+    private static TVLink createLink() {
+        TVLink l = new TVLink(new Node(), new Node());
+        l.addAppearanceDate(10);
+        l.addDisappearanceDate(20);
+        l.addAppearanceDate(5);
+        l.addDisappearanceDate(7);
+        l.addAppearanceDate(30);
+        l.addAppearanceDate(30);
+        return l;
+    }
+
+    @Test
+    void addDates_anyOrder_keptSortedWithoutDuplicates() {
+        TVLink l = createLink();
+
+        assertArrayEquals(new int[]{5, 10, 30}, l.getAppearanceDates());
+        assertArrayEquals(new int[]{7, 20}, l.getDisappearanceDates());
+        assertTrue(l.toString().endsWith(" : (5,7],(10,20],(30,-)"));
+    }
+
+    @Test
+    void isPresentAtTime_followsIntervals() {
+        TVLink l = createLink();
+
+        boolean[] expected = new boolean[40];
+        for (int t = 5; t < 7; t++)
+            expected[t] = true;
+        for (int t = 10; t < 20; t++)
+            expected[t] = true;
+        for (int t = 30; t < 40; t++)
+            expected[t] = true;
+        for (int t = 0; t < 40; t++)
+            assertEquals(expected[t], l.isPresentAtTime(t), "date " + t);
+        assertFalse(l.isPresentAtTime(-1));
+    }
+
+    @Test
+    void binary_roundTrip_identical() throws IOException {
+        TVG complete = new TVG();
+        complete.buildCompleteGraph(12);
+        TVG tvg = EMTVGBuilder.createGraph(complete.getNodes(), 0.1, 0.3, 100, new SplittableRandom(3));
+        tvg.getNodes().get(0).setProperty("id", "first");
+        tvg.getNodes().get(1).setLocation(12.5, -3);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        tvg.writeBinary(bytes);
+        TVG read = new TVG();
+        read.readBinary(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(tvg.toString(), read.toString());
+        assertEquals(tvg.nbDates(), read.nbDates());
+        List<Node> nodes = read.getNodes();
+        assertEquals(12, nodes.size());
+        assertEquals("first", nodes.get(0).getProperty("id"));
+        assertEquals(tvg.getNodes().get(1).getLocation(), nodes.get(1).getLocation());
+        List<TVLink> links = tvg.getTVLinks();
+        List<TVLink> readLinks = read.getTVLinks();
+        for (int i = 0; i < links.size(); i++) {
+            assertArrayEquals(links.get(i).getAppearanceDates(), readLinks.get(i).getAppearanceDates());
+            assertArrayEquals(links.get(i).getDisappearanceDates(), readLinks.get(i).getDisappearanceDates());
+        }
+    }
+
+    @Test
+    void readBinary_invalidData_throws() {
+        assertThrows(StreamCorruptedException.class,
+                () -> new TVG().readBinary(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+    }
+
+    @Test
+    void buildFromFile_readsNodesAndLinks() throws IOException {
+        File file = File.createTempFile("tvg", ".txt");
+        try {
+            Files.write(file.toPath(), ("vertices\n" +
+                    "a 10 20\n" +
+                    "b\n" +
+                    "c 30 40\n" +
+                    "\n" +
+                    "edges\n" +
+                    "a c 1-4 6-9\n" +
+                    "b-c 2-3\n").getBytes(StandardCharsets.UTF_8));
+            TVG tvg = new TVG();
+            tvg.buildFromFile(file.getPath());
+
+            assertEquals(3, tvg.getNodes().size());
+            assertEquals(2, tvg.getTVLinks().size());
+            assertEquals(6, tvg.nbDates());
+            Node a = tvg.getNodeById("a");
+            Node c = tvg.getNodeById("c");
+            assertEquals(10, a.getX(), 0);
+            TVLink ac = tvg.getTVLinks().get(0);
+            assertSame(a, ac.endpoint(0));
+            assertSame(c, ac.endpoint(1));
+            assertArrayEquals(new int[]{1, 6}, ac.getAppearanceDates());
+            assertArrayEquals(new int[]{4, 9}, ac.getDisappearanceDates());
+            assertSame(tvg.getNodeById("b"), tvg.getTVLinks().get(1).endpoint(0));
+        } finally {
+            file.delete();
+        }
+    }
+}
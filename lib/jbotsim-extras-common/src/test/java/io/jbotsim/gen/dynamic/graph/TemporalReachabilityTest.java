@@ -0,0 +1,176 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.graph;
+
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporalReachabilityTest {
+
+    private static final int UNREACHABLE = TemporalReachability.UNREACHABLE;
+
+    // a sparse graph whose links are present during short random intervals
+    private static TVG createTVG(int nbNodes, long seed) {
+        Random random = new Random(seed);
+        TVG tvg = new TVG();
+        tvg.buildCompleteGraph(nbNodes);
+        for (TVLink l : tvg.getTVLinks()) {
+            if (random.nextInt(4) != 0)
+                continue;
+            int date = random.nextInt(30);
+            while (date < 100) {
+                l.addAppearanceDate(date);
+                date += 1 + random.nextInt(3);
+                l.addDisappearanceDate(date);
+                date += 1 + random.nextInt(40);
+            }
+        }
+        return tvg;
+    }
+
+    // crosses every link at every date
+    private static int[] naiveArrivals(TVG tvg, Node source, int departure) {
+        List<Node> nodes = tvg.getNodes();
+        int[] arrivals = new int[nodes.size()];
+        Arrays.fill(arrivals, UNREACHABLE);
+        arrivals[nodes.indexOf(source)] = departure;
+        for (int date = departure; date < 200; date++) {
+            int[] next = arrivals.clone();
+            for (TVLink l : tvg.getTVLinks()) {
+                if (!l.isPresentAtTime(date))
+                    continue;
+                int u = nodes.indexOf(l.endpoint(0));
+                int v = nodes.indexOf(l.endpoint(1));
+                if (arrivals[u] <= date && next[v] == UNREACHABLE)
+                    next[v] = date + 1;
+                if (arrivals[v] <= date && next[u] == UNREACHABLE)
+                    next[u] = date + 1;
+            }
+            arrivals = next;
+        }
+        return arrivals;
+    }
+
+    @Test
+    void foremostArrivalDates_sameAsNaive() {
+        TVG tvg = createTVG(70, 1);
+        TemporalReachability reachability = new TemporalReachability(tvg);
+
+        for (int departure : new int[]{0, 17}) {
+            int[][] arrivals = reachability.foremostArrivalDates(departure);
+            List<Node> nodes = reachability.getNodes();
+            for (int s = 0; s < nodes.size(); s += 7)
+                assertArrayEquals(naiveArrivals(tvg, nodes.get(s), departure), arrivals[s]);
+        }
+    }
+
+    @Test
+    void foremostArrivalDates_workers_sameAsSequential() throws InterruptedException {
+        TemporalReachability reachability = new TemporalReachability(createTVG(150, 2));
+
+        int[][] sequential = reachability.foremostArrivalDates(5);
+        int[][] parallel = reachability.foremostArrivalDates(5, 3);
+
+        assertEquals(sequential.length, parallel.length);
+        for (int i = 0; i < sequential.length; i++)
+            assertArrayEquals(sequential[i], parallel[i]);
+    }
+
+    @Test
+    void foremostJourneys_crossPresentLinks() {
+        TVG tvg = createTVG(40, 3);
+        TemporalReachability reachability = new TemporalReachability(tvg);
+        Node source = tvg.getNodes().get(0);
+
+        ForemostJourneys journeys = reachability.foremostJourneys(source, 3);
+
+        assertArrayEquals(reachability.foremostArrivalDates(3)[0], arrivalsOf(journeys, tvg.getNodes()));
+        for (Node node : journeys.getReachableNodes()) {
+            List<Node> journey = journeys.getJourney(node);
+            assertSame(source, journey.get(0));
+            assertSame(node, journey.get(journey.size() - 1));
+            for (int i = 0; i + 1 < journey.size(); i++) {
+                int date = journeys.getArrivalDate(journey.get(i + 1)) - 1;
+                assertTrue(journeys.getArrivalDate(journey.get(i)) <= date);
+                assertTrue(linkBetween(tvg, journey.get(i), journey.get(i + 1)).isPresentAtTime(date));
+            }
+        }
+    }
+
+    @Test
+    void temporalDiameter_path() {
+        TVG tvg = new TVG();
+        tvg.buildCompleteGraph(3);
+        List<TVLink> links = tvg.getTVLinks();
+        // v0-v1 at date 2 only, v1-v2 from date 5
+        links.get(0).addAppearanceDate(2);
+        links.get(0).addDisappearanceDate(3);
+        links.get(2).addAppearanceDate(5);
+        TemporalReachability reachability = new TemporalReachability(tvg);
+
+        assertEquals(6, reachability.foremostJourneys(tvg.getNodes().get(0), 0).getArrivalDate(tvg.getNodes().get(2)));
+        assertFalse(reachability.isTemporallyConnected(0));
+        assertEquals(UNREACHABLE, reachability.getTemporalDiameter(3));
+
+        links.get(0).addAppearanceDate(10);
+        reachability = new TemporalReachability(tvg);
+        assertTrue(reachability.isTemporallyConnected(0));
+        assertEquals(11, reachability.getTemporalDiameter(0)); // v2 to v0: v1 at 6, v0 at 11
+    }
+
+    @Test
+    void tracker_duringReplay_sameAsOffline() {
+        TVG tvg = createTVG(40, 4);
+        TemporalReachability reachability = new TemporalReachability(tvg);
+        Node source = tvg.getNodes().get(1);
+        Topology tp = new Topology();
+        new TVGPlayer(tvg, tp).start();
+        ForemostJourneyTracker tracker = new ForemostJourneyTracker(reachability, tp, source, 0);
+        tracker.start();
+
+        for (int round = 0; round < 150; round++)
+            tp.getClockManager().onClock();
+
+        assertArrayEquals(arrivalsOf(reachability.foremostJourneys(source, 0), tvg.getNodes()),
+                arrivalsOf(tracker.getJourneys(), tvg.getNodes()));
+    }
+
+    private static int[] arrivalsOf(ForemostJourneys journeys, List<Node> nodes) {
+        int[] arrivals = new int[nodes.size()];
+        for (int i = 0; i < arrivals.length; i++)
+            arrivals[i] = journeys.getArrivalDate(nodes.get(i));
+        return arrivals;
+    }
+
+    private static TVLink linkBetween(TVG tvg, Node a, Node b) {
+        for (TVLink l : tvg.getTVLinks())
+            if (l.endpoints().contains(a) && l.endpoints().contains(b))
+                return l;
+        return fail("no link between " + a + " and " + b);
+    }
+}
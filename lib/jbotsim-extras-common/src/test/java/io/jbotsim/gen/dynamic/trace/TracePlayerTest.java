@@ -0,0 +1,83 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.gen.dynamic.trace;
+
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Point;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracePlayerTest {
+
+    // node 1 moves along the x axis, node 2 exists from time 5 to 9
+    private static TracePlayer createPlayer() throws Exception {
+        Topology tp = new Topology();
+        TracePlayer player = new TracePlayer(tp, (filename, p) -> {
+            p.addTraceEvent(TraceEvent.newAddNode(0, 1, 0, 0, Node.class.getName()));
+            for (int t = 1; t <= 20; t++)
+                p.addTraceEvent(TraceEvent.newMoveNode(t, 1, t, 0));
+            p.addTraceEvent(TraceEvent.newAddNode(5, 2, 50, 50, Node.class.getName()));
+            p.addTraceEvent(TraceEvent.newDeleteNode(10, 2));
+        });
+        player.loadAndStart("trace");
+        return player;
+    }
+
+    @Test
+    void seek_forwardAndBackward_stateRestored() throws Exception {
+        TracePlayer player = createPlayer();
+        Topology tp = player.getTopology();
+
+        player.seek(7);
+        assertEquals(7, tp.getTime());
+        assertEquals(2, tp.getNodes().size());
+        assertEquals(new Point(7, 0), tp.getNodes().get(0).getLocation());
+
+        player.seek(15);
+        assertEquals(1, tp.getNodes().size());
+        assertEquals(new Point(15, 0), tp.getNodes().get(0).getLocation());
+
+        player.seek(3);
+        assertEquals(1, tp.getNodes().size());
+        assertEquals(new Point(3, 0), tp.getNodes().get(0).getLocation());
+    }
+
+    @Test
+    void seek_thenPlay_continuesFromTime() throws Exception {
+        TracePlayer player = createPlayer();
+        Topology tp = player.getTopology();
+        boolean[] terminated = new boolean[1];
+        player.addListener(p -> terminated[0] = true);
+
+        player.seek(18);
+        Node moved = tp.getNodes().get(0);
+        tp.getClockManager().onClock();
+
+        assertEquals(19, tp.getTime());
+        assertSame(moved, tp.getNodes().get(0));
+        assertEquals(new Point(19, 0), moved.getLocation());
+        assertFalse(terminated[0]);
+        tp.getClockManager().onClock();
+        assertTrue(terminated[0]);
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Point;
+import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+import io.jbotsim.gen.dynamic.trace.TracePlayer;
+import io.jbotsim.gen.dynamic.trace.TraceRecorder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTraceTest {
+
+    private static final int NB_NODES = 50;
+    private static final int NB_ROUNDS = 200;
+
+    private static Topology createTopology() {
+        Topology tp = new Topology();
+        tp.setDimensions(1000, 800);
+        tp.setCommunicationRange(70);
+        for (int i = 0; i < NB_NODES; i++)
+            tp.addNode(i * 13.5, 10 + i);
+        return tp;
+    }
+
+    // moves every node once per round, with both integral and random-looking coordinates
+    private static void move(Topology tp) {
+        for (int round = 0; round < NB_ROUNDS; round++) {
+            for (Node n : tp.getNodes())
+                n.setLocation(n.getX() + (n.getID() % 2 == 0 ? 1 : 0.1 * Math.sin(round)), n.getY() + 1);
+            tp.getClockManager().onClock();
+        }
+    }
+
+    private static List<TraceEvent> read(byte[] data, boolean complete) throws IOException {
+        List<TraceEvent> events = new ArrayList<>();
+        assertEquals(complete, BinaryTraceReader.readEvents(new ByteArrayInputStream(data), null, events::add));
+        return events;
+    }
+
+    private static void assertSameEvent(TraceEvent expected, TraceEvent actual) {
+        assertEquals(expected.getKind(), actual.getKind());
+        assertEquals(expected.getTime(), actual.getTime());
+        assertEquals(expected.getNodeID(), actual.getNodeID());
+        assertEquals(expected.getX(), actual.getX(), 0);
+        assertEquals(expected.getY(), actual.getY(), 0);
+        assertEquals(expected.getNodeClass(), actual.getNodeClass());
+        assertEquals(expected.getDestinationID(), actual.getDestinationID());
+        assertEquals(expected.getSendTime(), actual.getSendTime());
+        assertEquals(expected.isDirected(), actual.isDirected());
+    }
+
+    private static List<TraceEvent> createEvents() {
+        List<TraceEvent> events = new ArrayList<>();
+        events.add(TraceEvent.newStartTopology(0));
+        events.add(TraceEvent.newAddNode(0, 3, 10.25, 20, Node.class.getName()));
+        events.add(TraceEvent.newAddNode(0, 7, -1, 1e10, "default"));
+        events.add(TraceEvent.newLinkAdded(0, 3, 7, false));
+        events.add(TraceEvent.newMessageSent(0, 3, -1));
+        events.add(TraceEvent.newMessageDelivered(1, 3, 7, 0));
+        events.add(TraceEvent.newLinkRemoved(1, 7, 3, true));
+        for (int t = 1; t < 20_000; t++)
+            events.add(TraceEvent.newMoveNode(t, t % 2 == 0 ? 3 : 7, t / 3.0, Math.PI * t));
+        events.add(TraceEvent.newSelectNode(20_000, 7));
+        events.add(TraceEvent.newDeleteNode(20_001, 3));
+        return events;
+    }
+
+    private static byte[] writeEvents(List<TraceEvent> events, int capacity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryTraceWriter writer = new BinaryTraceWriter(createTopology(), capacity, 10);
+        writer.open(bytes);
+        for (TraceEvent e : events)
+            writer.addTraceEvent(e);
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void writeThenRead_sameEvents() throws IOException {
+        List<TraceEvent> events = createEvents();
+
+        List<TraceEvent> read = read(writeEvents(events, BinaryTraceWriter.DEFAULT_CAPACITY), true);
+
+        assertEquals(events.size(), read.size());
+        for (int i = 0; i < events.size(); i++)
+            assertSameEvent(events.get(i), read.get(i));
+    }
+
+    @Test
+    void write_smallRingBuffer_noEventLost() throws IOException {
+        List<TraceEvent> events = createEvents();
+
+        List<TraceEvent> read = read(writeEvents(events, 4), true);
+
+        assertEquals(events.size(), read.size());
+        for (int i = 0; i < events.size(); i++)
+            assertSameEvent(events.get(i), read.get(i));
+    }
+
+    @Test
+    void read_truncatedTrace_completeFramesRead() throws IOException {
+        List<TraceEvent> events = createEvents();
+        byte[] data = writeEvents(events, BinaryTraceWriter.DEFAULT_CAPACITY);
+
+        List<TraceEvent> read = read(Arrays.copyOf(data, data.length / 2), false);
+
+        assertTrue(read.size() > 0);
+        assertTrue(read.size() < events.size());
+        for (int i = 0; i < read.size(); i++)
+            assertSameEvent(events.get(i), read.get(i));
+    }
+
+    @Test
+    void recordToFile_topologyRestored() throws IOException {
+        File file = Files.createTempFile("trace", ".jbtr").toFile();
+        try {
+            Topology tp = createTopology();
+            TraceRecorder recorder = new TraceRecorder(tp, new BinaryTraceWriter(tp));
+            recorder.start(file.getPath());
+            move(tp);
+            tp.removeNode(tp.getNodes().get(0));
+            recorder.stop();
+
+            Topology replay = new Topology();
+            List<TraceEvent> read = new ArrayList<>();
+            BinaryTraceReader.readEvents(Files.newInputStream(file.toPath()), replay, read::add);
+
+            assertEquals(1000, replay.getWidth());
+            assertEquals(800, replay.getHeight());
+            assertEquals(70, replay.getCommunicationRange(), 0);
+            assertEquals(NB_NODES + NB_NODES * NB_ROUNDS + 1, read.size());
+            for (int i = 0; i < NB_NODES; i++)
+                assertEquals(TraceEvent.EventKind.ADD_NODE, read.get(i).getKind());
+            TraceEvent last = read.get(read.size() - 1);
+            assertEquals(TraceEvent.EventKind.DEL_NODE, last.getKind());
+            assertEquals(tp.getTime(), last.getTime());
+            Node n = tp.getNodes().get(tp.getNodes().size() - 1);
+            TraceEvent lastMove = read.get(read.size() - 2);
+            assertEquals(n.getID(), lastMove.getNodeID());
+            assertEquals(n.getX(), lastMove.getX(), 0);
+            assertEquals(n.getY(), lastMove.getY(), 0);
+        } finally {
+            file.delete();
+        }
+    }
+
+    // records a trace in which a node is removed every 50 rounds, and returns the locations of the nodes at each time
+    private static Map<Integer, Map<Integer, Point>> recordTrace(File file, boolean close) throws IOException {
+        Map<Integer, Map<Integer, Point>> states = new HashMap<>();
+        Topology tp = createTopology();
+        BinaryTraceWriter writer = new BinaryTraceWriter(tp);
+        writer.setKeyframeInterval(20);
+        TraceRecorder recorder = new TraceRecorder(tp, writer);
+        recorder.start(file.getPath());
+        for (int round = 0; round < NB_ROUNDS; round++) {
+            for (Node n : tp.getNodes())
+                n.setLocation(n.getX() + 0.5, n.getY() + n.getID() % 3);
+            if (round % 50 == 49)
+                tp.removeNode(tp.getNodes().get(0));
+            Map<Integer, Point> state = new HashMap<>();
+            for (Node n : tp.getNodes())
+                state.put(n.getID(), n.getLocation());
+            states.put(tp.getTime(), state);
+            tp.getClockManager().onClock();
+        }
+        if (close)
+            recorder.stop();
+        else {
+            writer.flush();
+            Files.copy(file.toPath(), file.toPath().resolveSibling(file.getName() + ".copy"),
+                    StandardCopyOption.REPLACE_EXISTING);
+            recorder.stop();
+            Files.move(file.toPath().resolveSibling(file.getName() + ".copy"), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        return states;
+    }
+
+    private static void assertState(Map<Integer, Point> expected, TracePlayer player) {
+        Topology tp = player.getTopology();
+        assertEquals(expected.size(), tp.getNodes().size());
+        Set<Point> locations = new HashSet<>();
+        for (Node n : tp.getNodes())
+            locations.add(n.getLocation());
+        assertEquals(new HashSet<>(expected.values()), locations);
+    }
+
+    private static void checkSeek(boolean close) throws Exception {
+        File file = Files.createTempFile("trace", ".jbtr").toFile();
+        try {
+            Map<Integer, Map<Integer, Point>> states = recordTrace(file, close);
+            Topology replay = new Topology();
+            TracePlayer player = new TracePlayer(replay, new BinaryTraceReader(replay.getFileManager()));
+            player.loadAndStart(file.getPath());
+            for (int time : new int[] {150, 10, 0, 99, 100, 101, 37, 198}) {
+                player.seek(time);
+                assertEquals(time, replay.getTime());
+                assertState(states.get(time), player);
+            }
+            // plays forward from the last seek
+            player.seek(120);
+            for (int time = 121; time <= 130; time++) {
+                replay.getClockManager().onClock();
+                assertEquals(time, replay.getTime());
+                assertState(states.get(time), player);
+            }
+            player.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void seek_indexedTrace_stateRestored() throws Exception {
+        checkSeek(true);
+    }
+
+    @Test
+    void seek_traceWithoutIndex_stateRestored() throws Exception {
+        checkSeek(false);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Message;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.gen.dynamic.trace.TraceEvent;
+import io.jbotsim.gen.dynamic.trace.TraceRecorder;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTraceTest {
+
+    private static final int NB_ROUNDS = 100;
+
+    // sends a message to its right neighbor at every round, and to all its neighbors every 10 rounds
+    public static class SendingNode extends Node {
+        @Override
+        public void onClock() {
+            for (Node n : getNeighbors()) {
+                if (n.getID() == getID() + 1)
+                    send(n, new Message());
+            }
+            if (getTopology().getTime() % 10 == 0)
+                sendAll(new Message());
+        }
+    }
+
+    private static List<TraceEvent> createEvents() {
+        List<TraceEvent> events = new ArrayList<>();
+        events.add(TraceEvent.newStartTopology(0));
+        events.add(TraceEvent.newAddNode(0, 3, 10.25, 20, Node.class.getName()));
+        events.add(TraceEvent.newAddNode(0, 7, -1, 1e10, "default"));
+        events.add(TraceEvent.newLinkAdded(0, 3, 7, false));
+        for (int t = 1; t < 5_000; t++) {
+            events.add(TraceEvent.newMoveNode(t, t % 2 == 0 ? 3 : 7, t / 3.0, Math.PI * t));
+            events.add(TraceEvent.newMessageSent(t, 3, t % 3 == 0 ? -1 : 7));
+            events.add(TraceEvent.newMessageDelivered(t, 7, 3, t % 7 == 0 ? -1 : t - t % 5));
+        }
+        events.add(TraceEvent.newLinkRemoved(5_000, 7, 3, true));
+        events.add(TraceEvent.newSelectNode(5_000, 7));
+        events.add(TraceEvent.newDeleteNode(5_001, 3));
+        return events;
+    }
+
+    private static byte[] write(List<TraceEvent> events, int blockSize) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ColumnarTraceWriter writer = new ColumnarTraceWriter(new Topology(), blockSize);
+        writer.open(bytes);
+        for (TraceEvent e : events)
+            writer.addTraceEvent(e);
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    private static List<TraceEvent> read(byte[] data, boolean complete) throws IOException {
+        List<TraceEvent> events = new ArrayList<>();
+        assertEquals(complete, ColumnarTraceReader.readBlocks(new ByteArrayInputStream(data), null, block -> {
+            for (int i = 0; i < block.size(); i++)
+                events.add(block.toTraceEvent(i));
+        }));
+        return events;
+    }
+
+    private static void assertSameEvents(List<TraceEvent> expected, List<TraceEvent> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            TraceEvent e = expected.get(i);
+            TraceEvent a = actual.get(i);
+            assertEquals(e.getKind(), a.getKind());
+            assertEquals(e.getTime(), a.getTime());
+            assertEquals(e.getNodeID(), a.getNodeID());
+            assertEquals(e.getX(), a.getX(), 0);
+            assertEquals(e.getY(), a.getY(), 0);
+            assertEquals(e.getNodeClass(), a.getNodeClass());
+            assertEquals(e.getDestinationID(), a.getDestinationID());
+            assertEquals(e.getSendTime(), a.getSendTime());
+            assertEquals(e.isDirected(), a.isDirected());
+        }
+    }
+
+    @Test
+    void writeThenRead_sameEvents() throws IOException {
+        List<TraceEvent> events = createEvents();
+
+        assertSameEvents(events, read(write(events, 1000), true));
+        assertSameEvents(events, read(write(events, ColumnarTraceWriter.DEFAULT_BLOCK_SIZE), true));
+    }
+
+    @Test
+    void read_truncatedTrace_completeBlocksRead() throws IOException {
+        List<TraceEvent> events = createEvents();
+        byte[] data = write(events, 1000);
+
+        List<TraceEvent> read = read(Arrays.copyOf(data, data.length / 2), false);
+
+        assertTrue(read.size() >= 1000);
+        assertEquals(0, read.size() % 1000);
+        assertSameEvents(events.subList(0, read.size()), read);
+    }
+
+    @Test
+    void statistics_recordedMessages_aggregated() throws IOException {
+        Topology tp = new Topology();
+        tp.setDefaultNodeModel(SendingNode.class);
+        tp.setCommunicationRange(60);
+        for (int i = 0; i < 5; i++)
+            tp.addNode(50 + 50 * i, 100);
+        TraceRecorder recorder = new TraceRecorder(tp, new ColumnarTraceWriter(tp, 64));
+        recorder.setMessagesRecorded(true);
+        recorder.setLinksRecorded(true);
+        File file = File.createTempFile("trace", ".jbtc");
+        TraceStatistics statistics;
+        try {
+            recorder.start(file.getPath());
+            for (int i = 0; i < NB_ROUNDS; i++)
+                tp.getClockManager().onClock();
+            tp.removeNode(tp.getNodes().get(4));
+            recorder.stop();
+            statistics = new ColumnarTraceReader(tp.getFileManager()).readStatistics(file.getPath());
+        } finally {
+            assertTrue(file.delete());
+        }
+
+        // 4 unicasts per round plus 5 broadcasts every 10 rounds
+        long sent = 4 * NB_ROUNDS + 5 * NB_ROUNDS / 10;
+        assertEquals(sent, statistics.getNbMessagesSent());
+        assertEquals(4 + 5, statistics.getNbMessagesSent(0));
+        assertEquals(4, statistics.getNbMessagesSent(1));
+        // a broadcast is delivered to each of the 2 neighbors of the 3 inner nodes and to the neighbor of the 2 others
+        long delivered = 4 * NB_ROUNDS + 8 * NB_ROUNDS / 10;
+        assertTrue(statistics.getNbMessagesDelivered() >= delivered - 4 - 8);
+        assertTrue(statistics.getNbMessagesDelivered() <= delivered);
+        assertEquals(statistics.getNbMessagesDelivered(), statistics.getNbLatencies());
+        assertEquals(1, statistics.getMaxLatency());
+        assertEquals(1, statistics.getLatencyPercentile(0.5));
+        assertEquals(1.0, statistics.getMeanLatency(), 0);
+        assertEquals(4, statistics.getNbLinksAdded());
+        assertEquals(4, statistics.getNbLinksAdded(0));
+        assertEquals(1, statistics.getNbLinksRemoved());
+        assertEquals(8, statistics.getNbLoadedLinks());
+        int first = tp.getNodes().get(0).getID();
+        assertTrue(statistics.getLinkLoad(first, first + 1) >= NB_ROUNDS - 1);
+        assertEquals(NB_ROUNDS / 10, statistics.getLinkLoad(first + 1, first));
+        long[] total = new long[1];
+        statistics.forEachLinkLoad((sender, destination, load) -> total[0] += load);
+        assertEquals(statistics.getNbMessagesDelivered(), total[0]);
+    }
+}
@@ -20,6 +20,7 @@
  */
 package io.jbotsim.io.format;
 
+import io.jbotsim.io.GzipFileAsStream;
 import io.jbotsim.io.TopologySerializer;
 
 import java.util.ArrayList;
@@ -34,7 +35,8 @@ public class TopologySerializerFilenameMatcher {
     private List<SupportedSerializer> supportedSerializers = new ArrayList<>();
 
     /**
-     * Retrieves a {@link TopologySerializer} applicable for the provided filename.
+     * Retrieves a {@link TopologySerializer} applicable for the provided filename. The names of compressed files are
+     * also matched without their {@code .gz} extension (see {@link GzipFileAsStream}).
      *
      * @param filename a filename
      * @return a {@link TopologySerializer} applicable to the provided filename
@@ -45,6 +47,8 @@ public class TopologySerializerFilenameMatcher {
                 return fmt.topologySerializer;
             }
         }
+        if (GzipFileAsStream.isCompressed(filename))
+            return getTopologySerializerFor(GzipFileAsStream.getUncompressedName(filename));
         return null;
     }
 
@@ -0,0 +1,592 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.CheckpointCodec;
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Properties;
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.IOUtils;
+import io.jbotsim.io.TopologySerializer;
+import io.jbotsim.io.format.TopologySerializerFilenameMatcher;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+
+/**
+ * <p>This class implements a compact binary format, meant for very large topologies.</p>
+ *
+ * <p>The data is stored column-wise, in little-endian order: after a fixed-size header, the coordinates and ranges of
+ * the nodes are stored as arrays of doubles, and the wired links as arrays of pairs of node indexes. Files are mapped
+ * in memory at once with {@link FileChannel#map} when they are read through
+ * {@link #importFrom(Topology, ReadableByteChannel)}, which is what {@link io.jbotsim.io.FileManager#importTopology}
+ * does, so that loading mostly consists in bulk copies. The counts of the header are checked against the size of the
+ * input, when it is known, before anything is allocated.</p>
+ *
+ * <pre>
+ * header      magic "JBIN", version, flags, width, height, wireless, communication range, sensing range,
+ *             number of nodes, of undirected links, of directed links, size of the properties section
+ * nodes       ids (int[]), x, y, z, communication ranges, sensing ranges (double[])
+ * links       undirected links, then directed links (int[] of source/destination node indexes)
+ * properties  optional, see below
+ * </pre>
+ *
+ * <p>As with the other formats, the nodes are created with the default node model of the {@link Topology}. They keep
+ * their identifiers when they are imported into an empty {@link Topology}, and get new ones otherwise. The links are
+ * added with {@link Topology#addLinks}, which notifies the link listeners. If the serializer is created with a
+ * {@link CheckpointCodec}, the properties of the topology and of its nodes are also saved and restored, their values
+ * being encoded by the codec.</p>
+ *
+ * <p>The {@link String} methods use the Base64 encoding of the binary representation.</p>
+ */
+public class BinaryTopologySerializer implements TopologySerializer {
+    /**
+     * Supported filename extensions. Can be used to populate a
+     * {@link TopologySerializerFilenameMatcher}.
+     * @see TopologySerializerFilenameMatcher#addTopologySerializer(String[], TopologySerializer)
+     */
+    public static final String[] BINARY_FILENAME_EXTENSIONS = new String[] {
+        "jbin"
+    };
+
+    /**
+     * The version of the format written by this serializer.
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x4E49424A; // "JBIN", little-endian
+    private static final int FLAG_PROPERTIES = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int NO_OWNER = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // size of the sections read at once, a multiple of 8
+    private static final int MAX_SECTION_SIZE = 1 << 30;
+    // size of the regions mapped at once, a multiple of 8 able to hold any section
+    private static final int MAX_MAPPING_SIZE = Integer.MAX_VALUE & ~7;
+
+    private final CheckpointCodec codec;
+
+    /**
+     * Creates a serializer that ignores the properties.
+     */
+    public BinaryTopologySerializer() {
+        this(null);
+    }
+
+    /**
+     * Creates a serializer that saves and restores the properties of the topology and of its nodes.
+     *
+     * @param codec the {@link CheckpointCodec} used to encode the values of the properties, or {@code null} to ignore
+     *              them.
+     */
+    public BinaryTopologySerializer(CheckpointCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public String exportToString(Topology topology) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            exportTo(topology, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    @Override
+    public void importFromString(Topology topology, String data) {
+        try {
+            importFrom(topology, new BufferSectionReader(ByteBuffer.wrap(Base64.getMimeDecoder().decode(data))));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void exportTo(Topology topology, OutputStream outputStream) throws IOException {
+        exportTo(topology, Channels.newChannel(outputStream));
+        outputStream.flush();
+    }
+
+    @Override
+    public void importFrom(Topology topology, InputStream inputStream) throws IOException {
+        importFrom(topology, Channels.newChannel(inputStream));
+    }
+
+    @Override
+    public void exportTo(Topology topology, WritableByteChannel channel) throws IOException {
+        List<Node> nodes = topology.getNodes();
+        int nbNodes = nodes.size();
+        Map<Node, Integer> indexes = new IdentityHashMap<>(nbNodes);
+        int[] ids = new int[nbNodes];
+        double[][] columns = new double[5][nbNodes];
+        for (int i = 0; i < nbNodes; i++) {
+            Node n = nodes.get(i);
+            indexes.put(n, i);
+            ids[i] = n.getID();
+            columns[0][i] = n.getX();
+            columns[1][i] = n.getY();
+            columns[2][i] = n.getZ();
+            columns[3][i] = n.getCommunicationRange();
+            columns[4][i] = n.getSensingRange();
+        }
+
+        // wired arcs whose opposite arc is also wired are stored once, as undirected links
+        List<Link> arcs = topology.getLinks(Link.Orientation.DIRECTED);
+        IntColumn edges = new IntColumn();
+        IntColumn directedLinks = new IntColumn();
+        for (Link arc : arcs) {
+            if (arc.isWireless())
+                continue;
+            Node src = arc.endpoint(0);
+            Node dst = arc.endpoint(1);
+            Link opposite = dst.getOutLinkTo(src);
+            int srcIndex = indexes.get(src);
+            int dstIndex = indexes.get(dst);
+            if (opposite == null || opposite.isWireless())
+                directedLinks.add(srcIndex, dstIndex);
+            else if (srcIndex < dstIndex)
+                edges.add(srcIndex, dstIndex);
+        }
+
+        byte[] properties = codec == null ? new byte[0] : encodeProperties(topology, nodes);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(codec == null ? 0 : FLAG_PROPERTIES);
+        buffer.putInt(topology.getWidth());
+        buffer.putInt(topology.getHeight());
+        buffer.putInt(topology.getWirelessStatus() ? 1 : 0);
+        buffer.putDouble(topology.getCommunicationRange());
+        buffer.putDouble(topology.getSensingRange());
+        buffer.putInt(nbNodes);
+        buffer.putInt(edges.size);
+        buffer.putInt(directedLinks.size);
+        buffer.putInt(0); // reserved
+        buffer.putLong(properties.length);
+
+        putInts(channel, buffer, ids, nbNodes);
+        alignTo8(buffer);
+        for (double[] column : columns)
+            putDoubles(channel, buffer, column);
+        putInts(channel, buffer, edges.values, 2 * edges.size);
+        putInts(channel, buffer, directedLinks.values, 2 * directedLinks.size);
+        alignTo8(buffer);
+        for (int offset = 0; offset < properties.length; ) {
+            if (!buffer.hasRemaining())
+                drain(channel, buffer);
+            int length = Math.min(buffer.remaining(), properties.length - offset);
+            buffer.put(properties, offset, length);
+            offset += length;
+        }
+        alignTo8(buffer);
+        drain(channel, buffer);
+    }
+
+    @Override
+    public void importFrom(Topology topology, ReadableByteChannel channel) throws IOException {
+        SectionReader in = channel instanceof FileChannel ? new MappedSectionReader((FileChannel) channel) :
+                new ChannelSectionReader(channel);
+        try {
+            importFrom(topology, in);
+        } finally {
+            in.release();
+        }
+    }
+
+    private void importFrom(Topology topology, SectionReader in) throws IOException {
+        ByteBuffer header = in.next(HEADER_SIZE);
+        if (header.getInt() != MAGIC)
+            throw new StreamCorruptedException("not a JBotSim binary topology");
+        int version = header.getInt();
+        if (version != VERSION)
+            throw new StreamCorruptedException("unsupported version of the binary format: " + version);
+        int flags = header.getInt();
+        int width = header.getInt();
+        int height = header.getInt();
+        boolean wireless = header.getInt() != 0;
+        double communicationRange = header.getDouble();
+        double sensingRange = header.getDouble();
+        int nbNodes = header.getInt();
+        int nbEdges = header.getInt();
+        int nbDirectedLinks = header.getInt();
+        header.getInt(); // reserved
+        long propertiesSize = header.getLong();
+        if (nbNodes < 0 || nbEdges < 0 || nbEdges > Integer.MAX_VALUE / 2 || nbDirectedLinks < 0 ||
+                nbDirectedLinks > Integer.MAX_VALUE / 2 || propertiesSize < 0 || propertiesSize > Integer.MAX_VALUE)
+            throw new StreamCorruptedException("invalid header");
+        // nothing is allocated for counts which exceed the size of the input, when it is known
+        long size = (4L * nbNodes + 7) / 8 * 8 + 5L * Double.BYTES * nbNodes + 8L * nbEdges + 8L * nbDirectedLinks +
+                propertiesSize;
+        long remaining = in.remaining();
+        if (remaining >= 0 && size > remaining)
+            throw new StreamCorruptedException("truncated binary topology: " + size + " bytes expected after the " +
+                    "header, " + remaining + " found");
+
+        int[] ids = in.ints(nbNodes);
+        in.skipTo8();
+        double[] x = in.doubles(nbNodes);
+        double[] y = in.doubles(nbNodes);
+        double[] z = in.doubles(nbNodes);
+        double[] communicationRanges = in.doubles(nbNodes);
+        double[] sensingRanges = in.doubles(nbNodes);
+        int[] edges = in.ints(2 * nbEdges);
+        int[] directedLinks = in.ints(2 * nbDirectedLinks);
+        in.skipTo8();
+
+        topology.setDimensions(width, height);
+        topology.setCommunicationRange(communicationRange);
+        topology.setSensingRange(sensingRange);
+        if (wireless)
+            topology.enableWireless();
+        else
+            topology.disableWireless();
+
+        // the identifiers are restored unless they may clash with the ones of existing nodes
+        boolean restoreIds = topology.getNodes().isEmpty();
+        Node[] nodes = new Node[nbNodes];
+        for (int i = 0; i < nbNodes; i++) {
+            Node n = topology.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME);
+            if (restoreIds)
+                n.setID(ids[i]);
+            n.setLocation(x[i], y[i], z[i]);
+            n.setCommunicationRange(communicationRanges[i]);
+            n.setSensingRange(sensingRanges[i]);
+            nodes[i] = n;
+        }
+        topology.addNodes(Arrays.asList(nodes));
+        List<Link> links = new ArrayList<>(nbEdges + nbDirectedLinks);
+        addLinks(links, nodes, edges, Link.Orientation.UNDIRECTED);
+        addLinks(links, nodes, directedLinks, Link.Orientation.DIRECTED);
+        topology.addLinks(links);
+
+        if ((flags & FLAG_PROPERTIES) != 0 && codec != null) {
+            Map<Integer, Node> nodesById = new HashMap<>();
+            for (int i = 0; i < nbNodes; i++)
+                nodesById.put(ids[i], nodes[i]);
+            byte[] properties = in.bytes((int) propertiesSize);
+            decodeProperties(new DataInputStream(new ByteArrayInputStream(properties)), topology, nodes, nodesById);
+        }
+    }
+
+    private static void addLinks(List<Link> links, Node[] nodes, int[] pairs, Link.Orientation orientation)
+            throws IOException {
+        for (int i = 0; i < pairs.length; i += 2) {
+            int src = pairs[i];
+            int dst = pairs[i + 1];
+            if (src < 0 || src >= nodes.length || dst < 0 || dst >= nodes.length)
+                throw new StreamCorruptedException("invalid node index in link: " + src + ", " + dst);
+            links.add(new Link(nodes[src], nodes[dst], orientation, Link.Mode.WIRED));
+        }
+    }
+
+    private byte[] encodeProperties(Topology topology, List<Node> nodes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        int count = topology.getPropertyKeys().size();
+        for (Node n : nodes)
+            count += n.getPropertyKeys().size();
+        out.writeInt(count);
+        writeProperties(out, NO_OWNER, topology);
+        for (int i = 0; i < nodes.size(); i++)
+            writeProperties(out, i, nodes.get(i));
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeProperties(DataOutputStream out, int owner, Properties properties) throws IOException {
+        for (String key : properties.getPropertyKeys()) {
+            out.writeInt(owner);
+            out.writeUTF(key);
+            codec.writeValue(out, properties.getProperty(key));
+        }
+    }
+
+    private void decodeProperties(DataInput in, Topology topology, Node[] nodes, Map<Integer, Node> nodesById)
+            throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int owner = in.readInt();
+            String key = in.readUTF();
+            Object value = codec.readValue(in, nodesById);
+            if (owner == NO_OWNER)
+                topology.setProperty(key, value);
+            else if (owner >= 0 && owner < nodes.length)
+                nodes[owner].setProperty(key, value);
+            else
+                throw new StreamCorruptedException("invalid node index in properties: " + owner);
+        }
+    }
+
+    private static void putInts(WritableByteChannel channel, ByteBuffer buffer, int[] values, int length)
+            throws IOException {
+        for (int offset = 0; offset < length; ) {
+            if (buffer.remaining() < Integer.BYTES)
+                drain(channel, buffer);
+            int count = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+            buffer.asIntBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            offset += count;
+        }
+    }
+
+    private static void putDoubles(WritableByteChannel channel, ByteBuffer buffer, double[] values)
+            throws IOException {
+        for (int offset = 0; offset < values.length; ) {
+            if (buffer.remaining() < Double.BYTES)
+                drain(channel, buffer);
+            int count = Math.min(values.length - offset, buffer.remaining() / Double.BYTES);
+            buffer.asDoubleBuffer().put(values, offset, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            offset += count;
+        }
+    }
+
+    private static void alignTo8(ByteBuffer buffer) {
+        // the buffer is drained by multiples of 8 bytes, so that its position gives the alignment
+        while (buffer.position() % 8 != 0)
+            buffer.put((byte) 0);
+    }
+
+    private static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        int unaligned = buffer.limit() % 8;
+        buffer.limit(buffer.limit() - unaligned);
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.limit(buffer.limit() + unaligned);
+        buffer.compact();
+    }
+
+    /**
+     * A growable array of pairs of ints.
+     */
+    private static class IntColumn {
+        int[] values = new int[16];
+        int size = 0;
+
+        void add(int first, int second) {
+            if (2 * size + 2 > values.length)
+                values = Arrays.copyOf(values, 2 * values.length);
+            values[2 * size] = first;
+            values[2 * size + 1] = second;
+            size++;
+        }
+    }
+
+    /**
+     * Reads the consecutive sections of the file as {@link ByteBuffer}s.
+     */
+    private static abstract class SectionReader {
+        long position = 0;
+
+        /**
+         * @param size the size of the section, at most {@link #chunkSize()}.
+         * @return a little-endian {@link ByteBuffer} holding the next {@code size} bytes, valid until the next call.
+         */
+        abstract ByteBuffer next(int size) throws IOException;
+
+        /**
+         * @return the number of bytes left in the input, or -1 if it is unknown.
+         */
+        abstract long remaining() throws IOException;
+
+        /**
+         * @return the greatest size of the sections, a multiple of 8.
+         */
+        int chunkSize() {
+            return MAX_SECTION_SIZE;
+        }
+
+        /**
+         * Releases the resources held for the sections.
+         */
+        void release() {
+        }
+
+        void skipTo8() throws IOException {
+            if (position % 8 != 0)
+                next((int) (8 - position % 8));
+        }
+
+        // when the size of the input is unknown, the arrays grow with the data actually read
+        private int initialLength(int length, int elementSize) throws IOException {
+            return remaining() >= 0 ? length : Math.min(length, chunkSize() / elementSize);
+        }
+
+        private static int grownLength(int length, int currentLength, int neededLength) {
+            return (int) Math.min(length, Math.max(neededLength, 2L * currentLength));
+        }
+
+        int[] ints(int length) throws IOException {
+            int[] values = new int[initialLength(length, Integer.BYTES)];
+            for (int offset = 0; offset < length; ) {
+                int count = Math.min(length - offset, chunkSize() / Integer.BYTES);
+                if (offset + count > values.length)
+                    values = Arrays.copyOf(values, grownLength(length, values.length, offset + count));
+                next(count * Integer.BYTES).asIntBuffer().get(values, offset, count);
+                offset += count;
+            }
+            return values;
+        }
+
+        double[] doubles(int length) throws IOException {
+            double[] values = new double[initialLength(length, Double.BYTES)];
+            for (int offset = 0; offset < length; ) {
+                int count = Math.min(length - offset, chunkSize() / Double.BYTES);
+                if (offset + count > values.length)
+                    values = Arrays.copyOf(values, grownLength(length, values.length, offset + count));
+                next(count * Double.BYTES).asDoubleBuffer().get(values, offset, count);
+                offset += count;
+            }
+            return values;
+        }
+
+        byte[] bytes(int length) throws IOException {
+            byte[] values = new byte[initialLength(length, 1)];
+            for (int offset = 0; offset < length; ) {
+                int count = Math.min(length - offset, chunkSize());
+                if (offset + count > values.length)
+                    values = Arrays.copyOf(values, grownLength(length, values.length, offset + count));
+                next(count).get(values, offset, count);
+                offset += count;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Reads the sections as views of a single mapping of the file, or of a few ones for files larger than 2GB.
+     */
+    private static class MappedSectionReader extends SectionReader {
+        private final FileChannel channel;
+        private final long start;
+        private final long size;
+        private MappedByteBuffer mapping;
+        private long mappingStart;
+
+        MappedSectionReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.start = channel.position();
+            this.size = channel.size();
+        }
+
+        @Override
+        ByteBuffer next(int length) throws IOException {
+            long offset = start + position;
+            if (offset + length > size)
+                throw new EOFException("truncated binary topology");
+            if (mapping == null || offset + length > mappingStart + mapping.capacity()) {
+                release();
+                mappingStart = offset;
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAX_MAPPING_SIZE, size - offset));
+            }
+            ByteBuffer section = mapping.duplicate();
+            section.position((int) (offset - mappingStart));
+            section.limit(section.position() + length);
+            position += length;
+            channel.position(start + position);
+            return section.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        long remaining() {
+            return size - start - position;
+        }
+
+        @Override
+        void release() {
+            if (mapping != null) {
+                IOUtils.unmap(mapping);
+                mapping = null;
+            }
+        }
+    }
+
+    /**
+     * Reads the sections as views of a {@link ByteBuffer}.
+     */
+    private static class BufferSectionReader extends SectionReader {
+        private final ByteBuffer buffer;
+
+        BufferSectionReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        ByteBuffer next(int length) throws IOException {
+            if (length > buffer.remaining())
+                throw new EOFException("truncated binary topology");
+            ByteBuffer section = buffer.slice();
+            section.limit(length);
+            buffer.position(buffer.position() + length);
+            position += length;
+            return section.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        long remaining() {
+            return buffer.remaining();
+        }
+    }
+
+    /**
+     * Reads the sections from a channel of unknown size, by chunks of {@link #BUFFER_SIZE} bytes.
+     */
+    private static class ChannelSectionReader extends SectionReader {
+        private final ReadableByteChannel channel;
+
+        ChannelSectionReader(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        ByteBuffer next(int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining())
+                if (channel.read(buffer) < 0)
+                    throw new EOFException("truncated binary topology");
+            position += length;
+            buffer.flip();
+            return buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        long remaining() {
+            return -1;
+        }
+
+        @Override
+        int chunkSize() {
+            return BUFFER_SIZE;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dataset;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.TopologySerializer;
+import io.jbotsim.io.format.TopologySerializerFilenameMatcher;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>The {@link EdgeListTopologySerializer} (de)serializes a {@link Topology} as a list of edges, one per line, each
+ * given by the integer identifiers of its endpoints separated by blanks. This is the format of most real-world graph
+ * datasets (e.g. SNAP or KONECT). Lines starting with {@code #} or {@code %} are comments, and the values following
+ * the two identifiers (weights, timestamps...) are ignored.</p>
+ *
+ * <pre>
+ * # Nodes: 3 Edges: 2
+ * 0 1
+ * 1 2
+ * </pre>
+ *
+ * <p>The {@link Node}s are the ones appearing in the edges, with the same identifiers. Their locations can be given by
+ * a separate coordinates file (see {@link #importFrom(Topology, Reader, Reader)}), with one {@code id x y} line per
+ * {@link Node}. The imported {@link Link}s are wired, and the wireless links of the {@link Topology} are disabled.</p>
+ *
+ * <p>The input is read in a single pass, in linear time: the edges are kept as pairs of integers until all the
+ * {@link Node}s are known and added at once, then the {@link Link}s are added in batches (see
+ * {@link Topology#addLinks(java.util.Collection)}).</p>
+ */
+public class EdgeListTopologySerializer implements TopologySerializer {
+    /**
+     * Default file extensions for edge lists.
+     *
+     * @see TopologySerializerFilenameMatcher#addTopologySerializer(String[], TopologySerializer)
+     */
+    public static final String[] EDGELIST_FILENAME_EXTENSIONS = new String[]{"edges", "edgelist"};
+
+    private static final int LINK_BATCH_SIZE = 1 << 16;
+
+    private final boolean directed;
+
+    /**
+     * Creates a serializer for undirected edge lists.
+     */
+    public EdgeListTopologySerializer() {
+        this(false);
+    }
+
+    /**
+     * @param directed {@code true} if each line describes a directed link, from the first identifier to the second.
+     */
+    public EdgeListTopologySerializer(boolean directed) {
+        this.directed = directed;
+    }
+
+    /**
+     * @return {@code true} if the edges are read and written as directed links.
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    @Override
+    public void importFromString(Topology topology, String data) {
+        try {
+            importFrom(topology, new StringReader(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void importFrom(Topology topology, Reader reader) throws IOException {
+        importFrom(topology, reader, null);
+    }
+
+    /**
+     * Imports the {@link Node}s and {@link Link}s of an edge list, placing the {@link Node}s as specified by a
+     * coordinates file. The {@link Node}s which only appear in the coordinates file are isolated, and the ones which
+     * do not appear in it keep their default location. The {@link Reader}s are not closed.
+     *
+     * @param topology the {@link Topology} object which must be populated.
+     * @param edgeReader the {@link Reader} from which the edges are read.
+     * @param coordinatesReader the {@link Reader} from which the {@code id x y} lines are read, or {@code null}.
+     * @throws IOException in case of error while reading, or if the input is malformed.
+     */
+    public void importFrom(Topology topology, Reader edgeReader, Reader coordinatesReader) throws IOException {
+        topology.disableWireless();
+        IntNodeTable nodeTable = new IntNodeTable();
+        List<Node> newNodes = new ArrayList<>();
+        if (coordinatesReader != null)
+            readCoordinates(topology, new TokenScanner(coordinatesReader), nodeTable, newNodes);
+
+        int[] ends = new int[1024];
+        int nbEnds = 0;
+        TokenScanner in = new TokenScanner(edgeReader);
+        for (; in.hasNextLine(); in.nextLine()) {
+            if (isBlankOrComment(in))
+                continue;
+            if (nbEnds + 2 > ends.length)
+                ends = Arrays.copyOf(ends, 2 * ends.length);
+            for (int i = 0; i < 2; i++) {
+                int id = in.nextInt();
+                getOrCreateNode(topology, id, nodeTable, newNodes);
+                ends[nbEnds++] = id;
+            }
+        }
+        topology.addNodes(newNodes);
+
+        Link.Orientation orientation = directed ? Link.Orientation.DIRECTED : Link.Orientation.UNDIRECTED;
+        List<Link> links = new ArrayList<>(Math.min(nbEnds / 2, LINK_BATCH_SIZE));
+        for (int i = 0; i < nbEnds; i += 2) {
+            Node source = nodeTable.get(ends[i]);
+            Node destination = nodeTable.get(ends[i + 1]);
+            if (source == destination)
+                continue;
+            links.add(new Link(source, destination, orientation, Link.Mode.WIRED));
+            if (links.size() == LINK_BATCH_SIZE) {
+                topology.addLinks(links);
+                links.clear();
+            }
+        }
+        topology.addLinks(links);
+    }
+
+    private static boolean isBlankOrComment(TokenScanner in) throws IOException {
+        if (!in.hasNextToken())
+            return true;
+        int c = in.peek();
+        return c == '#' || c == '%';
+    }
+
+    private static void readCoordinates(Topology topology, TokenScanner in, IntNodeTable nodeTable,
+                                        List<Node> newNodes) throws IOException {
+        for (; in.hasNextLine(); in.nextLine()) {
+            if (isBlankOrComment(in))
+                continue;
+            Node node = getOrCreateNode(topology, in.nextInt(), nodeTable, newNodes);
+            double x = in.nextDouble();
+            double y = in.nextDouble();
+            double z = in.hasNextToken() ? in.nextDouble() : 0;
+            node.setLocation(x, y, z);
+        }
+    }
+
+    private static Node getOrCreateNode(Topology topology, int id, IntNodeTable nodeTable, List<Node> newNodes) {
+        Node node = nodeTable.get(id);
+        if (node == null) {
+            node = topology.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME);
+            node.setID(id);
+            nodeTable.put(id, node);
+            newNodes.add(node);
+        }
+        return node;
+    }
+
+    @Override
+    public String exportToString(Topology topology) {
+        StringWriter res = new StringWriter();
+        try {
+            exportTo(topology, res);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with a StringWriter
+        }
+        return res.toString();
+    }
+
+    /**
+     * Writes the links of the {@link Topology}, the directed ones if this serializer is directed, the undirected ones
+     * otherwise. The isolated {@link Node}s cannot be represented, and the loops are skipped as they would be ignored
+     * on import.
+     */
+    @Override
+    public void exportTo(Topology topology, Writer writer) throws IOException {
+        List<Link> links = new ArrayList<>();
+        for (Link l : topology.getLinks(directed ? Link.Orientation.DIRECTED : Link.Orientation.UNDIRECTED))
+            if (l.source != l.destination)
+                links.add(l);
+        writer.write("# Nodes: " + topology.getNodes().size() + " Edges: " + links.size() + "\n");
+        for (Link l : links) {
+            writer.write(Integer.toString(l.source.getID()));
+            writer.write(' ');
+            writer.write(Integer.toString(l.destination.getID()));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * Writes the coordinates file of the {@link Topology}, with one {@code id x y} line per {@link Node} (or
+     * {@code id x y z} when it has a non-zero altitude). The {@link Writer} is neither flushed nor closed.
+     *
+     * @param topology the {@link Topology} object which must be exported.
+     * @param writer the {@link Writer} in which the coordinates are written.
+     * @throws IOException in case of error while writing.
+     */
+    public void exportCoordinatesTo(Topology topology, Writer writer) throws IOException {
+        for (Node n : topology.getNodes()) {
+            writer.write(Integer.toString(n.getID()));
+            writer.write(' ');
+            writer.write(Double.toString(n.getX()));
+            writer.write(' ');
+            writer.write(Double.toString(n.getY()));
+            if (n.getZ() != 0) {
+                writer.write(' ');
+                writer.write(Double.toString(n.getZ()));
+            }
+            writer.write('\n');
+        }
+    }
+}
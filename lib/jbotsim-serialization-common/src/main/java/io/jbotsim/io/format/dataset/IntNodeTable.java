@@ -0,0 +1,95 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dataset;
+
+import io.jbotsim.core.Node;
+
+/**
+ * Associates {@link Node}s with integer identifiers, without boxing them: an open-addressing hash table stores the
+ * keys in an {@code int} array.
+ */
+class IntNodeTable {
+    private int[] keys;
+    private Node[] nodes;
+    private int size = 0;
+
+    IntNodeTable() {
+        keys = new int[16];
+        nodes = new Node[16];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key the identifier.
+     * @return the {@link Node} associated with the identifier, or {@code null}.
+     */
+    Node get(int key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; nodes[i] != null; i = (i + 1) & mask)
+            if (keys[i] == key)
+                return nodes[i];
+        return null;
+    }
+
+    /**
+     * Associates a {@link Node} with the identifier, replacing the former one if any.
+     *
+     * @param key the identifier.
+     * @param node the non-null {@link Node}.
+     */
+    void put(int key, Node node) {
+        if (2 * (size + 1) > keys.length)
+            grow();
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (nodes[i] != null && keys[i] != key)
+            i = (i + 1) & mask;
+        if (nodes[i] == null)
+            size++;
+        keys[i] = key;
+        nodes[i] = node;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        Node[] oldNodes = nodes;
+        keys = new int[2 * oldKeys.length];
+        nodes = new Node[2 * oldNodes.length];
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldNodes[j] == null)
+                continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (nodes[i] != null)
+                i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            nodes[i] = oldNodes[j];
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dataset;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.io.TopologySerializer;
+import io.jbotsim.io.format.TopologySerializerFilenameMatcher;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The {@link MetisTopologySerializer} (de)serializes an undirected {@link Topology} in the adjacency format of
+ * METIS (also used by the DIMACS challenges and KaHIP). The header line gives the numbers of vertices and edges, and
+ * possibly a format code and the number of vertex weights; then the i-th line lists the neighbors of the i-th vertex,
+ * numbered from 1. Lines starting with {@code %} are comments.</p>
+ *
+ * <pre>
+ * % a path of 3 vertices
+ * 3 2
+ * 2
+ * 1 3
+ * 2
+ * </pre>
+ *
+ * <p>The i-th vertex is imported as a {@link Node} with identifier i-1, and the vertex and edge weights are ignored.
+ * Missing trailing lines are read as vertices without neighbors. An edge listed by only one of its endpoints is
+ * imported all the same, and the loops are ignored. The imported {@link Link}s are wired, and the
+ * wireless links of the {@link Topology} are disabled.</p>
+ *
+ * <p>As the number of vertices is known from the header, the {@link Node}s are added at once, then the {@link Link}s
+ * are added in batches while the input is read (see {@link Topology#addLinks(java.util.Collection)}).</p>
+ */
+public class MetisTopologySerializer implements TopologySerializer {
+    /**
+     * Default file extensions for METIS graphs.
+     *
+     * @see TopologySerializerFilenameMatcher#addTopologySerializer(String[], TopologySerializer)
+     */
+    public static final String[] METIS_FILENAME_EXTENSIONS = new String[]{"metis", "graph"};
+
+    private static final int LINK_BATCH_SIZE = 1 << 16;
+
+    @Override
+    public void importFromString(Topology topology, String data) {
+        try {
+            importFrom(topology, new StringReader(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void importFrom(Topology topology, Reader reader) throws IOException {
+        topology.disableWireless();
+        TokenScanner in = new TokenScanner(reader);
+        skipComments(in);
+        if (!in.hasNextToken())
+            throw in.error("missing header");
+        int nbNodes = in.nextInt();
+        in.nextInt(); // number of edges
+        int format = in.hasNextToken() ? in.nextInt() : 0;
+        boolean hasVertexSizes = format / 100 % 10 == 1;
+        boolean hasVertexWeights = format / 10 % 10 == 1;
+        boolean hasEdgeWeights = format % 10 == 1;
+        int nbVertexWeights = in.hasNextToken() ? in.nextInt() : 1;
+        if (nbNodes < 0 || nbVertexWeights < 0)
+            throw in.error("malformed header");
+        in.nextLine();
+
+        List<Node> nodes = new ArrayList<>(nbNodes);
+        for (int i = 0; i < nbNodes; i++) {
+            Node node = topology.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME);
+            node.setID(i);
+            nodes.add(node);
+        }
+        topology.addNodes(nodes);
+
+        List<Link> links = new ArrayList<>();
+        for (int i = 0; i < nbNodes && skipComments(in); i++, in.nextLine()) {
+            if (hasVertexSizes)
+                in.skipToken();
+            if (hasVertexWeights)
+                for (int k = 0; k < nbVertexWeights; k++)
+                    in.skipToken();
+            while (in.hasNextToken()) {
+                int j = in.nextInt() - 1;
+                if (j < 0 || j >= nbNodes)
+                    throw in.error("unknown vertex " + (j + 1));
+                if (hasEdgeWeights)
+                    in.skipToken();
+                // each edge should be listed by both its endpoints, the second listing being ignored by addLinks
+                if (i == j)
+                    continue;
+                links.add(new Link(nodes.get(i), nodes.get(j), Link.Mode.WIRED));
+                if (links.size() == LINK_BATCH_SIZE) {
+                    topology.addLinks(links);
+                    links.clear();
+                }
+            }
+        }
+        topology.addLinks(links);
+    }
+
+    /**
+     * Skips the comment lines.
+     *
+     * @return {@code true} if a line remains to be read.
+     */
+    private static boolean skipComments(TokenScanner in) throws IOException {
+        while (in.peek() == '%')
+            in.nextLine();
+        return in.hasNextLine();
+    }
+
+    @Override
+    public String exportToString(Topology topology) {
+        StringWriter res = new StringWriter();
+        try {
+            exportTo(topology, res);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with a StringWriter
+        }
+        return res.toString();
+    }
+
+    /**
+     * Writes the undirected links of the {@link Topology}, the vertices being numbered in the order of
+     * {@link Topology#getNodes()}. The loops cannot be represented and are skipped.
+     */
+    @Override
+    public void exportTo(Topology topology, Writer writer) throws IOException {
+        List<Node> nodes = topology.getNodes();
+        Map<Node, Integer> indices = new IdentityHashMap<>();
+        for (Node n : nodes)
+            indices.put(n, indices.size());
+
+        // adjacency arrays, filled by counting the degrees first
+        List<Link> links = new ArrayList<>();
+        for (Link l : topology.getLinks(Link.Orientation.UNDIRECTED))
+            if (l.source != l.destination)
+                links.add(l);
+        int[] offsets = new int[nodes.size() + 1];
+        for (Link l : links) {
+            offsets[indices.get(l.source) + 1]++;
+            offsets[indices.get(l.destination) + 1]++;
+        }
+        for (int i = 0; i < nodes.size(); i++)
+            offsets[i + 1] += offsets[i];
+        int[] neighbors = new int[offsets[nodes.size()]];
+        int[] fill = new int[nodes.size()];
+        for (Link l : links) {
+            int i = indices.get(l.source);
+            int j = indices.get(l.destination);
+            neighbors[offsets[i] + fill[i]++] = j;
+            neighbors[offsets[j] + fill[j]++] = i;
+        }
+
+        writer.write(nodes.size() + " " + links.size() + "\n");
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+                if (k > offsets[i])
+                    writer.write(' ');
+                writer.write(Integer.toString(neighbors[k] + 1));
+            }
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dataset;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads whitespace-separated values, line by line, from a {@link Reader}. Integers are parsed directly from the
+ * buffered characters, so that reading large datasets does not create any object per value.
+ */
+class TokenScanner {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private int lineNumber = 1;
+
+    TokenScanner(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next character without consuming it.
+     *
+     * @return the next character, or -1 at the end of the input.
+     * @throws IOException in case of error while reading.
+     */
+    int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n;
+        do {
+            n = reader.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0)
+            return false;
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private static boolean isBlank(int c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static boolean isSeparator(int c) {
+        return c == -1 || c == '\n' || isBlank(c);
+    }
+
+    /**
+     * Indicates whether a line remains to be read, possibly empty.
+     *
+     * @return {@code true} if the end of the input is not reached.
+     * @throws IOException in case of error while reading.
+     */
+    boolean hasNextLine() throws IOException {
+        return peek() != -1;
+    }
+
+    /**
+     * Skips the blanks, then indicates whether a value remains on the current line.
+     *
+     * @return {@code true} if a value follows on the current line.
+     * @throws IOException in case of error while reading.
+     */
+    boolean hasNextToken() throws IOException {
+        int c;
+        while (isBlank(c = peek()))
+            position++;
+        return c != -1 && c != '\n';
+    }
+
+    /**
+     * Skips the rest of the current line, including its end-of-line character.
+     *
+     * @throws IOException in case of error while reading.
+     */
+    void nextLine() throws IOException {
+        int c;
+        while ((c = peek()) != -1) {
+            position++;
+            if (c == '\n') {
+                lineNumber++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads an integer value on the current line.
+     *
+     * @return the value.
+     * @throws IOException if the value is missing or malformed, or in case of error while reading.
+     */
+    int nextInt() throws IOException {
+        if (!hasNextToken())
+            throw error("missing value");
+        int c = peek();
+        boolean negative = c == '-';
+        if (c == '-' || c == '+')
+            position++;
+        long value = 0;
+        int nbDigits = 0;
+        while ((c = peek()) >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1)
+                throw error("integer out of range");
+            position++;
+            nbDigits++;
+        }
+        if (nbDigits == 0 || !isSeparator(c))
+            throw error("malformed integer");
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE)
+            throw error("integer out of range");
+        return (int) value;
+    }
+
+    /**
+     * Reads a floating-point value on the current line.
+     *
+     * @return the value.
+     * @throws IOException if the value is missing or malformed, or in case of error while reading.
+     */
+    double nextDouble() throws IOException {
+        if (!hasNextToken())
+            throw error("missing value");
+        StringBuilder token = new StringBuilder();
+        int c;
+        while (!isSeparator(c = peek())) {
+            token.append((char) c);
+            position++;
+        }
+        try {
+            return Double.parseDouble(token.toString());
+        } catch (NumberFormatException e) {
+            throw error("malformed number " + token);
+        }
+    }
+
+    /**
+     * Skips a value of any kind on the current line.
+     *
+     * @throws IOException if the value is missing, or in case of error while reading.
+     */
+    void skipToken() throws IOException {
+        if (!hasNextToken())
+            throw error("missing value");
+        while (!isSeparator(peek()))
+            position++;
+    }
+
+    /**
+     * Creates an exception locating the error in the input.
+     *
+     * @param message the description of the error.
+     * @return the exception to be thrown.
+     */
+    IOException error(String message) {
+        return new IOException("line " + lineNumber + ": " + message);
+    }
+}
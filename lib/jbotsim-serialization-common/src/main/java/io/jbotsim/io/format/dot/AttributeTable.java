@@ -23,16 +23,41 @@ package io.jbotsim.io.format.dot;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class stores attributes of DOT elements: graph, nodes and edges.
+ *
+ * Tables can share their content (see {@link #AttributeTable(AttributeTable)}),
+ * which is copied on the first modification only: all the edges of an edge
+ * statement share the attributes of the statement, and elements without
+ * attributes share an empty table.
  */
 class AttributeTable {
-    private HashMap<String, String> table;
+    private static final Map<String, String> EMPTY = Collections.emptyMap();
+
+    private Map<String, String> table;
+    private boolean shared;
 
     AttributeTable() {
-        table = new HashMap<>();
+        table = EMPTY;
+        shared = true;
+    }
+
+    /**
+     * Creates a table with the same attributes as {@code attributeTable},
+     * without copying them until one of the tables is modified.
+     *
+     * @param attributeTable the shared table, or {@code null} for an empty table.
+     */
+    AttributeTable(AttributeTable attributeTable) {
+        this();
+        if (attributeTable != null) {
+            table = attributeTable.table;
+            attributeTable.shared = true;
+        }
     }
 
     boolean hasAttributes() {
@@ -40,21 +65,33 @@ class AttributeTable {
     }
 
     String getAttribute(String attr) {
-        if (table.containsKey(attr))
-            return table.get(attr);
-        return null;
+        return table.get(attr);
     }
 
     void setAttribute(String attr, String value) {
+        ensureOwnTable();
         table.put(attr, value);
     }
 
     void putAll(AttributeTable attributeTable) {
-        if (attributeTable == null)
+        if (attributeTable == null || !attributeTable.hasAttributes())
             return;
+        if (!hasAttributes()) {
+            table = attributeTable.table;
+            shared = attributeTable.shared = true;
+            return;
+        }
+        ensureOwnTable();
         table.putAll(attributeTable.table);
     }
 
+    private void ensureOwnTable() {
+        if (shared) {
+            table = new HashMap<>(table);
+            shared = false;
+        }
+    }
+
     void prettyPrint(PrintWriter out) {
         out.print("[");
         boolean first = true;
@@ -32,7 +32,15 @@ class DotEdge extends AttributeTable {
     private DotNode dst;
 
     DotEdge(DotNode src, DotNode dst) {
-        super();
+        this(src, dst, null);
+    }
+
+    /**
+     * @param attributes the attributes of the edge, shared with the other
+     *                   edges of the same statement.
+     */
+    DotEdge(DotNode src, DotNode dst, AttributeTable attributes) {
+        super(attributes);
         assert src != null;
         this.src = src;
         assert dst != null;
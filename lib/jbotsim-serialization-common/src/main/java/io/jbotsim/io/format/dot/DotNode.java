@@ -51,4 +51,9 @@ class DotNode extends AttributeTable {
     public boolean equals(Object obj) {
         return (obj instanceof DotNode && id.equals(((DotNode)obj).id));
     }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
 }
@@ -26,7 +26,7 @@ import io.jbotsim.io.TopologySerializer;
 import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -72,34 +72,46 @@ public class DotTopologySerializer implements TopologySerializer {
 
     @Override
     public void importFromString(Topology topology, String data) {
-        topology.disableWireless();
         try {
-            InputStream is = new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
-            DotGraph dotGraph = new GraphParser().parseGraph(is);
-
-            makeTopologyFromGraph(dotGraph, topology);
-            if (reorganize) {
-                organize(topology, scale, margin);
-            } else {
-                int height = topology.getHeight();
-                for (Node node : topology.getNodes())
-                    node.setLocation(node.getX(), height - node.getY());
-            }
-        } catch (IOException | GraphParser.ParserException e) {
+            importFrom(topology, new StringReader(data));
+        } catch (IOException e) {
             System.err.println(e.getMessage());
         }
     }
 
+    @Override
+    public void importFrom(Topology topology, Reader reader) throws IOException {
+        topology.disableWireless();
+        DotGraph dotGraph;
+        try {
+            dotGraph = new GraphParser().parseGraph(reader);
+        } catch (GraphParser.ParserException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        makeTopologyFromGraph(dotGraph, topology);
+    }
+
     @Override
     public String exportToString(Topology topology) {
+        StringWriter str = new StringWriter();
+        try {
+            exportTo(topology, str);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with a StringWriter
+        }
+        return str.toString();
+    }
+
+    @Override
+    public void exportTo(Topology topology, Writer writer) throws IOException {
         boolean resume = false;
         if (topology.isRunning()) {
             topology.pause();
             resume = true;
         }
         String edgeOp;
-        StringWriter str = new StringWriter();
-        PrintWriter out = new PrintWriter(str);
+        PrintWriter out = new PrintWriter(writer);
         if (topology.isDirected()) {
             edgeOp = " -> ";
             out.print("digraph");
@@ -152,35 +164,54 @@ public class DotTopologySerializer implements TopologySerializer {
         out.flush();
         if (resume)
             topology.resume();
-        return str.getBuffer().toString();
+        if (out.checkError())
+            throw new IOException("unable to export the topology");
     }
 
     private void makeTopologyFromGraph(DotGraph graph, Topology tp) {
         HashMap<DotNode, Node> nodeTable = new HashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        // node classes are looked up once per class name; null for unknown classes
+        HashMap<String, Class<? extends Node>> nodeClasses = new HashMap<>();
         boolean enableWireless = false;
 
         for (DotNode dn : graph.getAllNodes()) {
-            Node node;
+            Node node = null;
             String className = dn.getAttribute(JBOTSIM_ATTR_NODE_CLASS);
-            if (className == null) {
-                node = tp.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME);
-            } else {
+            if (className != null) {
+                Class<? extends Node> nodeClass = nodeClasses.computeIfAbsent(className, this::findNodeClass);
                 try {
-                    Class<? extends Node> nodeClass = Class.forName(className).asSubclass(Node.class);
-                    node = nodeClass.newInstance();
+                    if (nodeClass != null)
+                        node = nodeClass.newInstance();
                 } catch (Exception e) {
-                    node = tp.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME);
+                    node = null;
                 }
             }
+            if (node == null)
+                node = tp.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME);
             extractAttributes(dn, node);
             try {
                 node.setID(Integer.parseInt(dn.getId()));
             } catch (NumberFormatException e) {
                 node.setLabel(dn.getId());
             }
-            tp.addNode(node);
             nodeTable.put(dn, node);
+            nodes.add(node);
+        }
+        // the nodes are placed before being added, since moving them afterwards updates the links each time
+        if (reorganize) {
+            if (!nodes.isEmpty())
+                placeNodes(tp, nodes, scale, margin);
+        } else {
+            int height = tp.getHeight();
+            for (Node node : nodes)
+                node.setLocation(node.getX(), height - node.getY());
         }
+        // wireless is still disabled: the nodes are added without computing any link
+        tp.addNodes(nodes);
+        // the ranges are scaled once the nodes are added, so that the ranges they set themselves are scaled too
+        if (reorganize && !nodes.isEmpty())
+            scaleRanges(tp, scale);
 
         for (DotEdge edge : graph.getAllEdges()) {
             String isWireless = edge.getAttribute(JBOTSIM_ATTR_IS_WIRELESS);
@@ -203,7 +234,7 @@ public class DotTopologySerializer implements TopologySerializer {
             }
 
             if (linkOrientation.equals(Link.Orientation.UNDIRECTED)) {
-                if (src.getNeighbors().contains(tgt))
+                if (src.getOutLinkTo(tgt) != null && tgt.getOutLinkTo(src) != null)
                     continue;
 
                 if (src.getID() > tgt.getID()) {
@@ -221,6 +252,14 @@ public class DotTopologySerializer implements TopologySerializer {
         tp.setWirelessStatus(enableWireless);
     }
 
+    private Class<? extends Node> findNodeClass(String className) {
+        try {
+            return Class.forName(className).asSubclass(Node.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     private void extractAttributes(DotNode mn, Node node) {
         String pos = mn.getAttribute("pos");
         if (pos != null) {
@@ -285,9 +324,13 @@ public class DotTopologySerializer implements TopologySerializer {
     public static void organize(Topology tp, double scale, int margin) {
         if (tp.getNodes().isEmpty())
             return;
+        placeNodes(tp, tp.getNodes(), scale, margin);
+        scaleRanges(tp, scale);
+    }
 
+    private static void placeNodes(Topology tp, List<Node> nodes, double scale, int margin) {
         // Applies Scale
-        for (Node node : tp.getNodes())
+        for (Node node : nodes)
             node.setLocation(node.getX() * scale, node.getY() * scale);
 
         // Adjust window size and centers the graph within
@@ -295,7 +338,7 @@ public class DotTopologySerializer implements TopologySerializer {
         double minY = Integer.MAX_VALUE;
         double maxX = 0;
         double maxY = 0;
-        for (Node node : tp.getNodes()) {
+        for (Node node : nodes) {
             int sz = node.getIconSize();
             if (node.getX() - sz < minX)
                 minX = node.getX() - sz;
@@ -311,13 +354,15 @@ public class DotTopologySerializer implements TopologySerializer {
         tp.setDimensions((int) width, (int) height);
         double xshift = margin - minX;
         double yshift = margin - minY;
-        for (Node node : tp.getNodes())
+        for (Node node : nodes)
             node.setLocation(node.getX() + xshift, node.getY() + yshift);
 
         // Flips Y-coordinate
-        for (Node node : tp.getNodes())
+        for (Node node : nodes)
             node.setLocation(node.getX(), height - node.getY());
+    }
 
+    private static void scaleRanges(Topology tp, double scale) {
         tp.setCommunicationRange(tp.getCommunicationRange() * scale);
         tp.setSensingRange(tp.getSensingRange() * scale);
     }
@@ -28,13 +28,20 @@ import org.antlr.v4.runtime.tree.TerminalNode;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
  * This class encapsulates ANTLR calls to produce a {@link DotGraph} object from parse DOT inputs.
  * a DOT input string.
  *
+ * - the input is read through unbuffered character and token streams, so
+ *   that it is never held in memory as a whole.
  * - the parsing process is based on a Visitor of the AST generated by ANTLR.
+ *   Each top-level statement is visited as soon as it has been parsed, then
+ *   its subtree is released: the AST of the whole input is never built.
  * - default error mechanism of ANTLR is disabled and replaced by th generation
  *   of an exception with the error message.
  */
@@ -54,8 +61,37 @@ class GraphParser {
      *                         format.
      */
     DotGraph parseGraph(InputStream input) throws IOException {
-        DotLexer lexer = new DotLexer(new ANTLRInputStream(input));
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        return parseGraph(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method parses the characters read from a {@link Reader}.
+     *
+     * @param input the reader
+     *
+     * @return the graph parsed from the given reader
+     *
+     * @throws IOException in case of error while reading
+     * @throws ParserException in case the input does not respected the DOT file
+     *                         format.
+     * @see #parseGraph(InputStream)
+     */
+    DotGraph parseGraph(Reader input) throws IOException {
+        try {
+            return parseGraph(new UnbufferedCharStream(input, CHAR_BUFFER_SIZE));
+        } catch (RuntimeException e) {
+            // unbuffered streams wrap reading errors
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+
+    private DotGraph parseGraph(CharStream input) {
+        DotLexer lexer = new DotLexer(input);
+        // the text of the tokens cannot be retrieved from an unbuffered stream afterwards
+        lexer.setTokenFactory(new CommonTokenFactory(true));
+        TokenStream tokens = new UnbufferedTokenStream<>(lexer);
         DotParser parser = new DotParser(tokens);
         // remove default listeners to prevent the output of error messages
         // on System.err.
@@ -63,14 +99,17 @@ class GraphParser {
         // add our own listener that raise ParserException on errors.
         parser.addErrorListener(new ErrorListener());
 
-        ParseTree tree = parser.graph();
+        StatementListener listener = new StatementListener();
+        parser.addParseListener(listener);
+        parser.graph();
 
-        assert (tree != null);
+        assert (listener.graph != null);
 
-        DotVisitor visitor = new DotVisitor();
-        return  visitor.cast_visit(tree);
+        return listener.graph;
     }
 
+    private static final int CHAR_BUFFER_SIZE = 8192;
+
     /**
      * Exception raised by {@link GraphParser#parseGraph} when the input stream does not
      * respected the DOT grammar.
@@ -81,8 +120,37 @@ class GraphParser {
         }
     }
 
+    /**
+     * Visits each top-level statement when the parser exits it, then removes
+     * it from the parse tree.
+     */
+    private static class StatementListener extends DotBaseListener {
+        private final DotVisitor visitor = new DotVisitor();
+        private DotGraph graph;
+
+        @Override
+        public void exitStmt(DotParser.StmtContext ctx) {
+            ParserRuleContext stmtList = ctx.getParent();
+            // statements of subgraphs are visited along with their subgraph
+            if (!(stmtList.getParent() instanceof DotParser.GraphContext))
+                return;
+            if (graph == null)
+                graph = visitor.startGraph((DotParser.GraphContext) stmtList.getParent());
+            visitor.visit(ctx);
+            stmtList.children.clear();
+        }
+
+        @Override
+        public void exitGraph(DotParser.GraphContext ctx) {
+            if (graph == null)
+                graph = visitor.startGraph(ctx);
+            visitor.endGraph();
+        }
+    }
+
     private static class DotVisitor extends DotBaseVisitor {
         private Stack<DotGraph> stack = new Stack<>();
+        private Map<String, DotNode> nodeIndex = new HashMap<>();
 
         DotGraph currentGraph() {
             return stack.peek();
@@ -99,8 +167,11 @@ class GraphParser {
             return (T) visit(tree);
         }
 
-        @Override
-        public Object visitGraph(DotParser.GraphContext ctx) {
+        /**
+         * Creates the top-level graph, once the header of the graph has been
+         * parsed.
+         */
+        DotGraph startGraph(DotParser.GraphContext ctx) {
             DotGraph dotGraph = new DotGraph();
 
             dotGraph.setId(cast_visit(ctx.id()));
@@ -108,10 +179,20 @@ class GraphParser {
             dotGraph.setStrict(ctx.STRICT() != null);
 
             stack.push(dotGraph);
-            visit(ctx.stmt_list());
-            assert (currentGraph() == dotGraph);
+            return dotGraph;
+        }
+
+        void endGraph() {
             stack.pop();
             assert (stack.isEmpty());
+        }
+
+        @Override
+        public Object visitGraph(DotParser.GraphContext ctx) {
+            DotGraph dotGraph = startGraph(ctx);
+            visit(ctx.stmt_list());
+            assert (currentGraph() == dotGraph);
+            endGraph();
 
             return dotGraph;
         }
@@ -157,8 +238,7 @@ class GraphParser {
 
                 for (DotNode src : srcSet) {
                     for (DotNode dst : dstSet) {
-                        DotEdge edge = new DotEdge(src, dst);
-                        edge.putAll(attributeTable);
+                        DotEdge edge = new DotEdge(src, dst, attributeTable);
                         edge.setDirected(isDirected);
                         graph.addEdge(edge);
                     }
@@ -176,17 +256,12 @@ class GraphParser {
 
         @Override
         public Object visitNode_set(DotParser.Node_setContext ctx) {
-            Set<DotNode> result = new HashSet<>();
-
             if (ctx.node_id() != null) {
                 DotNode node = cast_visit(ctx.node_id());
-                result.add(node);
-            } else {
-                DotGraph subgraph = cast_visit(ctx.subgraph());
-                Set<DotNode> nodes = subgraph.getAllNodes();
-                result.addAll(nodes);
+                return Collections.singleton(node);
             }
-            return result;
+            DotGraph subgraph = cast_visit(ctx.subgraph());
+            return subgraph.getAllNodes();
         }
 
         @Override
@@ -234,9 +309,10 @@ class GraphParser {
         @Override
         public Object visitNode_id(DotParser.Node_idContext ctx) {
             String id = cast_visit(ctx.id());
-            DotNode node = topGraph().getNode(id);
+            DotNode node = nodeIndex.get(id);
             if (node == null) {
                 node = new DotNode(id);
+                nodeIndex.put(id, node);
                 currentGraph().addNode(node);
             }
             return node;
@@ -18,21 +18,25 @@
  * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
  *
  */
-
 package io.jbotsim.io.format.graph6;
 
 import java.util.Arrays;
 
 /**
- * This class encodes a vector of bits packed by groups of 6 bits as used by
- * Graph6 file format. The size of the vector increases with respect to calls to
- * get/set methods, i.e. if the requested bit is beyond the current size of the
- * vector then this latter is adjusted.
+ * This class encodes a vector of bits, as used by Graph6 file format. Bits are
+ * packed in 64-bit words, the first bit of the vector being the most
+ * significant bit of the first word, so that groups of 6 bits (see
+ * {@link #getBytes()}) or of any size (see {@link #getBits(int, int)}) can be
+ * extracted with a couple of shifts. The size of the vector increases with
+ * respect to calls to get/set methods, i.e. if the requested bit is beyond the
+ * current size of the vector then this latter is adjusted.
  */
 class BitVector {
     public static final int NB_BITS_PER_BYTE = 6;
+    private static final int LOG_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << LOG_BITS_PER_WORD;
     private int nbBits;
-    private byte[] vec;
+    private long[] words;
 
     /**
      * Create a vector of size 0.
@@ -48,9 +52,7 @@ class BitVector {
      */
     public BitVector(int sizeInBits) {
         nbBits = sizeInBits;
-        int nbBytes = (nbBits + NB_BITS_PER_BYTE - 1) / NB_BITS_PER_BYTE;
-
-        vec = new byte[nbBytes];
+        words = new long[nbWords(sizeInBits)];
     }
 
     /**
@@ -63,8 +65,10 @@ class BitVector {
      * @param len   the number of bytes to copy
      */
     public BitVector(final byte[] bytes, int from, int len) {
-        nbBits = bytes.length * NB_BITS_PER_BYTE;
-        vec = Arrays.copyOfRange(bytes, from, from + len);
+        this(0);
+        words = new long[nbWords(len * NB_BITS_PER_BYTE)];
+        for (int i = from; i < from + len; i++)
+            append(bytes[i] & 0x3F, NB_BITS_PER_BYTE);
     }
 
     /**
@@ -84,12 +88,11 @@ class BitVector {
         if (i < 0)
             throw new IllegalArgumentException("i must be >= 0: " + i);
         if (i >= nbBits) {
-            nbBits = i;
+            nbBits = i + 1;
+            ensureCapacity(nbBits);
             return false;
         }
-        int index = i / NB_BITS_PER_BYTE;
-        int offset = NB_BITS_PER_BYTE - (i % NB_BITS_PER_BYTE) - 1;
-        return (vec[index] & (1 << offset)) != 0;
+        return (words[i >>> LOG_BITS_PER_WORD] & mask(i)) != 0;
     }
 
     /**
@@ -105,17 +108,96 @@ class BitVector {
     public void set(int i, boolean value) {
         if (i < 0)
             throw new IllegalArgumentException("i must be >= 0: " + i);
-        int index = i / NB_BITS_PER_BYTE;
         if (i >= nbBits) {
-            ensureSize(index + 1);
             nbBits = i + 1;
+            ensureCapacity(nbBits);
         }
-        int offset = NB_BITS_PER_BYTE - (i % NB_BITS_PER_BYTE) - 1;
         if (value)
-            vec[index] |= ((byte) (1 << offset));
+            words[i >>> LOG_BITS_PER_WORD] |= mask(i);
         else
-            vec[index] &= ((byte) (~(1 << offset)));
+            words[i >>> LOG_BITS_PER_WORD] &= ~mask(i);
+    }
+
+    /**
+     * Return the {@code count} bits starting at the {@code from}-th bit, the
+     * first of them being the most significant bit of the result. Bits beyond
+     * the size of the vector are read as 0.
+     *
+     * @param from  the index of the first bit
+     * @param count the number of bits, between 0 and 64
+     * @return the value of the bits
+     */
+    public long getBits(int from, int count) {
+        if (count == 0)
+            return 0;
+        int index = from >>> LOG_BITS_PER_WORD;
+        int offset = from & (BITS_PER_WORD - 1);
+        long bits = word(index) << offset;
+        if (offset + count > BITS_PER_WORD)
+            bits |= word(index + 1) >>> (BITS_PER_WORD - offset);
+        return bits >>> (BITS_PER_WORD - count);
+    }
+
+    /**
+     * Set the {@code count} bits starting at the {@code from}-th bit to the
+     * {@code count} least significant bits of {@code value}, the most
+     * significant of them first. The size of the vector is adjusted if needed.
+     *
+     * @param from  the index of the first bit
+     * @param count the number of bits, between 0 and 64
+     * @param value the value of the bits
+     */
+    public void setBits(int from, int count, long value) {
+        if (count == 0)
+            return;
+        if (from + count > nbBits) {
+            nbBits = from + count;
+            ensureCapacity(nbBits);
+        }
+        long valueMask = -1L << (BITS_PER_WORD - count);
+        value <<= BITS_PER_WORD - count;
+        int index = from >>> LOG_BITS_PER_WORD;
+        int offset = from & (BITS_PER_WORD - 1);
+        words[index] = (words[index] & ~(valueMask >>> offset)) | (value >>> offset);
+        if (offset + count > BITS_PER_WORD) {
+            int shift = BITS_PER_WORD - offset;
+            words[index + 1] = (words[index + 1] & ~(valueMask << shift)) | (value << shift);
+        }
+    }
 
+    /**
+     * Append the {@code count} least significant bits of {@code value} at the
+     * end of the vector, the most significant of them first.
+     *
+     * @param value the value of the bits
+     * @param count the number of bits, between 0 and 64
+     */
+    public void append(long value, int count) {
+        setBits(nbBits, count, value);
+    }
+
+    /**
+     * Return the index of the first bit set to {@code true} at or after the
+     * {@code from}-th bit. Whole words of 0 are skipped at once.
+     *
+     * @param from the index from which the vector is scanned
+     * @return the index of the next bit set, or -1 if there is none.
+     * @throws IllegalArgumentException if from < 0
+     */
+    public int nextSetBit(int from) {
+        if (from < 0)
+            throw new IllegalArgumentException("from must be >= 0: " + from);
+        if (from >= nbBits)
+            return -1;
+        int index = from >>> LOG_BITS_PER_WORD;
+        long word = words[index] & (-1L >>> from);
+        while (word == 0) {
+            if (++index >= words.length)
+                return -1;
+            word = words[index];
+        }
+        int i = (index << LOG_BITS_PER_WORD) + Long.numberOfLeadingZeros(word);
+        return i < nbBits ? i : -1;
     }
 
     /**
@@ -128,42 +210,56 @@ class BitVector {
     }
 
     /**
-     * Return a copy of bytes storing bits of this vector.
+     * Return the bits of this vector, by groups of NB_BITS_PER_BYTE bits stored
+     * in the least significant bits of each byte.
      *
      * @return the array of bytes containing bits.
      */
     public byte[] getBytes() {
-        return Arrays.copyOf(vec, vec.length);
+        byte[] bytes = new byte[(nbBits + NB_BITS_PER_BYTE - 1) / NB_BITS_PER_BYTE];
+        copyTo(bytes, 0);
+        return bytes;
     }
 
     /**
-     * Copy the content of the vector into {@code dst} starting at cell
-     * {@code dst[offset]}.
+     * Copy the content of the vector, as returned by {@link #getBytes()}, into
+     * {@code dst} starting at cell {@code dst[offset]}.
      *
      * @param dst    the destination buffer
      * @param offset the index of the cell from which the vector is copied
      */
     public void copyTo(byte[] dst, int offset) {
-        int minlen = dst.length - offset;
-        if (minlen >= vec.length)
-            minlen = vec.length;
-
-        if (minlen >= 0)
-            System.arraycopy(vec, 0, dst, offset, minlen);
+        int nbBytes = (nbBits + NB_BITS_PER_BYTE - 1) / NB_BITS_PER_BYTE;
+        int len = Math.min(nbBytes, dst.length - offset);
+        for (int i = 0; i < len; i++)
+            dst[offset + i] = (byte) getBits(i * NB_BITS_PER_BYTE, NB_BITS_PER_BYTE);
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (byte b : vec) {
+        for (byte b : getBytes()) {
             sb.append(Integer.toHexString(b));
         }
         return sb.toString();
     }
 
-    private void ensureSize(int size) {
-        if (size <= vec.length)
+    private static int nbWords(int nbBits) {
+        return (nbBits + BITS_PER_WORD - 1) >>> LOG_BITS_PER_WORD;
+    }
+
+    private static long mask(int i) {
+        return Long.MIN_VALUE >>> i;
+    }
+
+    private long word(int index) {
+        return index < words.length ? words[index] : 0;
+    }
+
+    private void ensureCapacity(int sizeInBits) {
+        int size = nbWords(sizeInBits);
+        if (size <= words.length)
             return;
-        vec = Arrays.copyOf(vec, size);
+        words = Arrays.copyOf(words, Math.max(size, 2 * words.length));
     }
 }
@@ -180,30 +180,15 @@ class Graph6BVHelper {
         int remain = bv.getNbBits() % BitVector.NB_BITS_PER_BYTE;
         if (remain == 0)
             return;
-        int padSize = BitVector.NB_BITS_PER_BYTE - remain;
-        for (int i = 0; i < padSize; i++) {
-            bv.set(bv.getNbBits(), false);
-        }
+        bv.append(0, BitVector.NB_BITS_PER_BYTE - remain);
     }
 
     private static void writeLong(BitVector bv, long value, int bitSize) {
-        int bi = 0;
-        for (int i = bitSize - 1; i >= 0; i--) {
-            boolean b = ((value & (1L << i)) != 0);
-            bv.set(bi++, b);
-        }
+        bv.setBits(0, bitSize, value);
     }
 
     private static long readLong(BitVector bv, int bitSize) {
-        long result = 0;
-        int bi = 0;
-        for (int i = bitSize - 1; i >= 0; i--) {
-            if (bv.get(bi++)) {
-                result |= (1L << i);
-            }
-        }
-
-        return result;
+        return bv.getBits(0, bitSize);
     }
     // endregion helper functions
 }
\ No newline at end of file
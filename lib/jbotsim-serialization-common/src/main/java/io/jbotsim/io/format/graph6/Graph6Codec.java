@@ -25,8 +25,15 @@ import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 
 /**
@@ -47,40 +54,101 @@ class Graph6Codec {
 
     // region API to package
     public static String encodeGraph(Topology tp, boolean withHeader) {
-        Node[] nodes = tp.getNodes().toArray(new Node[]{});
-        Arrays.sort(nodes, Comparator.comparingInt(Node::getID));
+        return encodeGraph(tp, withHeader, false);
+    }
+
+    /**
+     * Encode {@code tp} in Digraph6 format if it is directed, and in Sparse6
+     * or Graph6 format otherwise, depending on {@code sparse}.
+     */
+    public static String encodeGraph(Topology tp, boolean withHeader,
+                                     boolean sparse) {
+        Node[] nodes = sortedNodes(tp);
 
         if (tp.isDirected())
             return encodeDigraph6(tp, nodes, withHeader);
+        if (sparse)
+            return encodeSparse6(tp, nodes, withHeader);
         return encodeGraph6(tp, nodes, withHeader);
     }
 
+    /**
+     * Encode the edges that differ between {@code previous} and {@code tp} in
+     * incremental Sparse6 format. Both topologies must be undirected and have
+     * the same number of nodes; nodes are matched by rank of identifier.
+     */
+    public static String encodeIncrementalSparse6(Topology previous,
+                                                  Topology tp) {
+        if (previous.isDirected() || tp.isDirected())
+            throw new Graph6Exception("sparse6 format does not support " +
+                    "directed graphs.");
+        Node[] previousNodes = sortedNodes(previous);
+        Node[] nodes = sortedNodes(tp);
+        if (previousNodes.length != nodes.length)
+            throw new Graph6Exception("incremental sparse6 format requires " +
+                    "graphs with the same number of nodes.");
+
+        long[] toggled = symmetricDifference(
+                sortedEdges(previous, previousNodes), sortedEdges(tp, nodes));
+        BitVector bv = new BitVector();
+        writeSparse6Edges(bv, nodes.length, toggled);
+
+        return SPARSE6_INCREMENTAL_STARTER + new String(Graph6BVHelper.R(bv));
+    }
+
     /**
      * Parse the input string {@code data} and determines file format according
      * to its header of its first byte.
      */
     public static void decodeGraph(Topology tp, String data) {
-        String[] lines = data.split("\n");
-        if (lines.length == 0)
+        try {
+            decodeGraph(tp, new BufferedReader(new StringReader(data)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // cannot happen with a StringReader
+        }
+    }
+
+    /**
+     * Reads the first graph from {@code reader} and determines file format
+     * according to its header of its first byte. At most two lines are read.
+     */
+    public static void decodeGraph(Topology tp, BufferedReader reader) throws IOException {
+        String input = reader.readLine();
+        if (input == null)
             return;
-        if (lines.length > 1 && lines[1].length() > 0) {
+        String next = reader.readLine();
+        if (next != null && next.length() > 0) {
             System.err.println("warning: reading a file with several graphs; " +
                     "only the first one will be loaded.");
         }
-        String input = lines[0];
 
+        decodeLine(tp, input, false);
+    }
+
+    /**
+     * Decode a single graph (one line of a file, possibly starting with a
+     * header) in any of the supported formats. If {@code reuseNodes} is true,
+     * {@code tp} is assumed to only contain a previously decoded graph: its
+     * links are removed and its nodes are reused when the number of nodes
+     * matches, otherwise it is cleared. Incremental Sparse6 inputs are always
+     * applied to the current content of {@code tp}.
+     */
+    static void decodeLine(Topology tp, String input, boolean reuseNodes) {
         if (input.startsWith(DIGRAPH6_HEADER) || input.startsWith(DIGRAPH6_STARTER))
             decodeGraph(tp, DIGRAPH6_HEADER, DIGRAPH6_STARTER,
                     (nodes, edges) -> decodeDigraph6Edges(tp, nodes, edges),
-                    input);
+                    input, reuseNodes);
+        else if (input.startsWith(SPARSE6_INCREMENTAL_STARTER))
+            decodeIncrementalSparse6(tp, input);
         else if (input.startsWith(SPARSE6_HEADER) ||
-                input.startsWith(SPARSE6_INCREMENTAL_STARTER) ||
                 input.startsWith(SPARSE6_STARTER))
-            throw new Graph6Exception("sparse6 format is not yet supported.");
+            decodeGraph(tp, SPARSE6_HEADER, SPARSE6_STARTER,
+                    (nodes, edges) -> decodeSparse6Edges(tp, nodes, edges),
+                    input, reuseNodes);
         else {
             decodeGraph(tp, GRAPH6_HEADER, GRAPH6_STARTER,
                     (nodes, edges) -> decodeGraph6Edges(tp, nodes, edges),
-                    input);
+                    input, reuseNodes);
         }
     }
 
@@ -102,18 +170,71 @@ class Graph6Codec {
     // endregion API to package
 
     // region private helper function
+    private static Node[] sortedNodes(Topology tp) {
+        Node[] nodes = tp.getNodes().toArray(new Node[]{});
+        Arrays.sort(nodes, Comparator.comparingInt(Node::getID));
+        return nodes;
+    }
+
+    private static Map<Node, Integer> indexNodes(Node[] sortedNodes) {
+        Map<Node, Integer> indexes = new HashMap<>(2 * sortedNodes.length);
+        for (int i = 0; i < sortedNodes.length; i++)
+            indexes.put(sortedNodes[i], i);
+        return indexes;
+    }
+
+    /**
+     * Return the undirected links of {@code tp} as pairs (i,j) of node
+     * indexes, with i &lt; j, encoded as {@code ((long) j << 32) | i} and
+     * sorted, i.e. by greatest endpoint first.
+     */
+    private static long[] sortedEdges(Topology tp, Node[] sortedNodes) {
+        Map<Node, Integer> indexes = indexNodes(sortedNodes);
+        List<Link> links = tp.getLinks(Link.Orientation.UNDIRECTED);
+        long[] edges = new long[links.size()];
+        int nbEdges = 0;
+        for (Link l : links) {
+            int a = indexes.get(l.source);
+            int b = indexes.get(l.destination);
+            if (a != b)
+                edges[nbEdges++] = ((long) Math.max(a, b) << 32) | Math.min(a, b);
+        }
+        Arrays.sort(edges, 0, nbEdges);
+        int size = 0;
+        for (int k = 0; k < nbEdges; k++)
+            if (size == 0 || edges[size - 1] != edges[k])
+                edges[size++] = edges[k];
+        return Arrays.copyOf(edges, size);
+    }
+
+    private static long[] symmetricDifference(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j]))
+                result[size++] = a[i++];
+            else if (i == a.length || b[j] < a[i])
+                result[size++] = b[j++];
+            else {
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
     private static String encodeGraph6(Topology tp, Node[] sortedNodes,
                                        boolean withHeader) {
         int nbnodes = sortedNodes.length;
-        int nbbits = nbnodes * (nbnodes - 1) / 2;
-        BitVector bv = new BitVector(nbbits);
-        int bitindex = 0;
-        for (int j = 1; j < sortedNodes.length; j++) {
-            for (int i = 0; i < j; i++) {
-                if (tp.getLink(sortedNodes[i], sortedNodes[j]) != null)
-                    bv.set(bitindex, true);
-                bitindex++;
-            }
+        long nbbits = (long) nbnodes * (nbnodes - 1) / 2;
+        if (nbbits > Integer.MAX_VALUE)
+            throw new Graph6Exception("too many nodes for graph6 format; " +
+                    "use sparse6 format instead.");
+        BitVector bv = new BitVector((int) nbbits);
+        for (long edge : sortedEdges(tp, sortedNodes)) {
+            int j = (int) (edge >>> 32);
+            int i = (int) edge;
+            bv.set((int) ((long) j * (j - 1) / 2) + i, true);
         }
         assert (bv.getNbBits() == nbbits);
 
@@ -123,64 +244,168 @@ class Graph6Codec {
 
     private static void decodeGraph6Edges(Topology tp, Node[] nodes,
                                           BitVector edges) {
-        int missingBits = (nodes.length * (nodes.length - 1) / 2)
-                - edges.getNbBits();
+        long nbbits = (long) nodes.length * (nodes.length - 1) / 2;
+        long missingBits = nbbits - edges.getNbBits();
         if (missingBits > 0)
             throw new Graph6Exception("input bitvector misses " + missingBits +
                     "bits");
 
         tp.setOrientation(Link.Orientation.UNDIRECTED);
-        int bitindex = 0;
-        for (int j = 1; j < nodes.length; j++) {
-            for (int i = 0; i < j; i++) {
-                if (edges.get(bitindex))
-                    tp.addLink(new Link(nodes[i], nodes[j]),
-                            true);
-                bitindex++;
+        // bits of column j (links i-j, i < j) start at index base = j(j-1)/2
+        int j = 1;
+        long base = 0;
+        for (int bitindex = edges.nextSetBit(0);
+             bitindex >= 0 && bitindex < nbbits;
+             bitindex = edges.nextSetBit(bitindex + 1)) {
+            while (bitindex >= base + j) {
+                base += j;
+                j++;
             }
+            tp.addLink(new Link(nodes[(int) (bitindex - base)], nodes[j]),
+                    true);
         }
     }
 
     private static void decodeDigraph6Edges(Topology tp, Node[] nodes,
                                             BitVector edges) {
-        int missingBits = nodes.length * nodes.length - edges.getNbBits();
+        long nbbits = (long) nodes.length * nodes.length;
+        long missingBits = nbbits - edges.getNbBits();
         if (missingBits > 0)
             throw new Graph6Exception("input bitvector misses " + missingBits +
                     "bits");
 
         tp.setOrientation(Link.Orientation.DIRECTED);
-        int bitindex = 0;
-        for (Node src : nodes) {
-            for (Node tgt : nodes) {
-                if (edges.get(bitindex)) {
-                    Link l = new Link(src, tgt, Link.Orientation.DIRECTED);
-                    tp.addLink(l, true);
-                }
-                bitindex++;
-            }
+        for (int bitindex = edges.nextSetBit(0);
+             bitindex >= 0 && bitindex < nbbits;
+             bitindex = edges.nextSetBit(bitindex + 1)) {
+            Node src = nodes[bitindex / nodes.length];
+            Node tgt = nodes[bitindex % nodes.length];
+            tp.addLink(new Link(src, tgt, Link.Orientation.DIRECTED), true);
         }
-
     }
 
     private static String encodeDigraph6(Topology tp, Node[] sortedNodes,
                                          boolean withHeader) {
         int nbnodes = sortedNodes.length;
-        int nbbits = nbnodes * nbnodes;
-        BitVector bv = new BitVector(nbbits);
-        int bitindex = 0;
-        for (Node src : sortedNodes) {
-            for (Node tgt : sortedNodes) {
-                if (tp.getLink(src, tgt, Link.Orientation.DIRECTED) != null)
-                    bv.set(bitindex, true);
-                bitindex++;
-            }
-        }
+        long nbbits = (long) nbnodes * nbnodes;
+        if (nbbits > Integer.MAX_VALUE)
+            throw new Graph6Exception("too many nodes for digraph6 format.");
+        Map<Node, Integer> indexes = indexNodes(sortedNodes);
+        BitVector bv = new BitVector((int) nbbits);
+        for (Link l : tp.getLinks(Link.Orientation.DIRECTED))
+            bv.set(indexes.get(l.source) * nbnodes + indexes.get(l.destination),
+                    true);
         assert (bv.getNbBits() == nbbits);
 
         return graphToString(withHeader, DIGRAPH6_HEADER, DIGRAPH6_STARTER,
                 nbnodes, bv);
     }
 
+    private static String encodeSparse6(Topology tp, Node[] sortedNodes,
+                                        boolean withHeader) {
+        BitVector bv = new BitVector();
+        writeSparse6Edges(bv, sortedNodes.length,
+                sortedEdges(tp, sortedNodes));
+
+        return graphToString(withHeader, SPARSE6_HEADER, SPARSE6_STARTER,
+                sortedNodes.length, bv);
+    }
+
+    /**
+     * Number of bits used by Sparse6 format to encode a node index of a graph
+     * with {@code nbNodes} nodes, i.e. the number of bits of nbNodes-1.
+     */
+    private static int sparse6IndexSize(int nbNodes) {
+        return nbNodes <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(nbNodes - 1);
+    }
+
+    /**
+     * Append the (b,x) sequence encoding the sorted {@code edges} (see
+     * {@link #sortedEdges(Topology, Node[])}), then pad it as specified.
+     */
+    private static void writeSparse6Edges(BitVector bv, int nbNodes,
+                                          long[] edges) {
+        int k = sparse6IndexSize(nbNodes);
+        int v = 0;
+        for (long edge : edges) {
+            int j = (int) (edge >>> 32);
+            int i = (int) edge;
+            if (j == v) {
+                bv.append(0, 1);
+            } else {
+                bv.append(1, 1);
+                if (j > v + 1) {
+                    bv.append(j, k);
+                    bv.append(0, 1);
+                }
+                v = j;
+            }
+            bv.append(i, k);
+        }
+
+        int padSize = (BitVector.NB_BITS_PER_BYTE -
+                bv.getNbBits() % BitVector.NB_BITS_PER_BYTE) %
+                BitVector.NB_BITS_PER_BYTE;
+        if (padSize == 0)
+            return;
+        // padding with 1s would be read as a link to node n-1 in that case
+        if (nbNodes == (1 << k) && v == nbNodes - 2 && padSize >= k + 1) {
+            bv.append(0, 1);
+            padSize--;
+        }
+        bv.append((1L << padSize) - 1, padSize);
+    }
+
+    private static void decodeSparse6Edges(Topology tp, Node[] nodes,
+                                           BitVector edges) {
+        tp.setOrientation(Link.Orientation.UNDIRECTED);
+        readSparse6Edges(tp, nodes, edges, false);
+    }
+
+    private static void decodeIncrementalSparse6(Topology tp, String input) {
+        if (tp.isDirected())
+            throw new Graph6Exception("sparse6 format does not support " +
+                    "directed graphs.");
+        byte[] in = input.getBytes();
+        BitVector bv = Graph6BVHelper.readR(in,
+                SPARSE6_INCREMENTAL_STARTER.length());
+        readSparse6Edges(tp, sortedNodes(tp), bv, true);
+    }
+
+    /**
+     * Read the (b,x) sequence of a Sparse6 graph and add the links it
+     * describes to {@code tp}; if {@code toggle} is true, the links that
+     * already exist are removed instead. Loops and multiple links are
+     * ignored.
+     */
+    private static void readSparse6Edges(Topology tp, Node[] nodes,
+                                         BitVector edges, boolean toggle) {
+        int k = sparse6IndexSize(nodes.length);
+        int v = 0;
+        for (int bitindex = 0; bitindex + k < edges.getNbBits();
+             bitindex += k + 1) {
+            if (edges.get(bitindex))
+                v++;
+            if (v >= nodes.length)
+                break;
+            int x = (int) edges.getBits(bitindex + 1, k);
+            if (x > v) {
+                v = x;
+                if (v >= nodes.length)
+                    break;
+            } else if (x < v) {
+                Node src = nodes[x];
+                Node tgt = nodes[v];
+                boolean exists = src.getOutLinkTo(tgt) != null &&
+                        tgt.getOutLinkTo(src) != null;
+                if (!exists)
+                    tp.addLink(new Link(src, tgt), true);
+                else if (toggle)
+                    tp.removeLink(new Link(src, tgt));
+            }
+        }
+    }
+
     private static String graphToString(boolean withHeader, String header,
                                         String starter, long nbNodes,
                                         BitVector edges) {
@@ -196,7 +421,7 @@ class Graph6Codec {
 
     private static void decodeGraph(Topology tp, String header, String starter,
                                     BiConsumer<Node[], BitVector> edgeBuilder,
-                                    String input) {
+                                    String input, boolean reuseNodes) {
         int offset;
         if (input.startsWith(">>")) {
             if (!input.startsWith(header)) {
@@ -223,11 +448,20 @@ class Graph6Codec {
         byte[] in = input.getBytes();
         Graph6BVHelper.ReadLongResult res = Graph6BVHelper.readN(in, offset);
         BitVector bv = Graph6BVHelper.readR(in, offset + res.nbBytesRead);
-        Node[] nodes = new Node[(int) res.value];
-        for (int i = 0; i < nodes.length; i++) {
-            nodes[i] = new Node();
-            nodes[i].setID(i);
-            tp.addNode(nodes[i]);
+        Node[] nodes;
+        if (reuseNodes && tp.getNodes().size() == res.value) {
+            tp.clearLinks(Link.Orientation.DIRECTED);
+            nodes = sortedNodes(tp);
+        } else {
+            if (reuseNodes)
+                tp.clear();
+            nodes = new Node[(int) res.value];
+            for (int i = 0; i < nodes.length; i++) {
+                // only the Graph6Reader creates nodes of the default model, as it may be given any topology
+                nodes[i] = reuseNodes ? tp.newInstanceOfModel(Topology.DEFAULT_NODE_MODEL_NAME) : new Node();
+                nodes[i].setID(i);
+            }
+            tp.addNodes(Arrays.asList(nodes));
         }
         edgeBuilder.accept(nodes, bv);
     }
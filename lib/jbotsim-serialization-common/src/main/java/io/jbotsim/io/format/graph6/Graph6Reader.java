@@ -0,0 +1,285 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.graph6;
+
+import io.jbotsim.core.Topology;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * <p>This class reads a sequence of graphs in Graph6, Digraph6 or Sparse6
+ * format, one graph per line, as produced by nauty's {@code geng} or
+ * {@code directg}.</p>
+ *
+ * <p>Graphs are decoded one by one into the same {@link Topology}: its links
+ * are removed and its nodes are reused as long as the number of nodes does not
+ * change, so that no object is allocated per node for enumerations of graphs of
+ * a given size. The state of the reused nodes is not reset; use
+ * {@link Topology#restart()} if needed. Incremental Sparse6 lines (starting
+ * with ';') toggle the links of the previous graph.</p>
+ *
+ * <p>{@link #dispatch(int, ObjLongConsumer)} decodes and processes the graphs
+ * on several worker threads, each with its own {@link Topology}.</p>
+ *
+ * <pre>{@code
+ * try (Graph6Reader reader = new Graph6Reader(new FileReader("graphs.g6"))) {
+ *     for (Topology tp : reader)
+ *         process(tp);
+ * }
+ * }</pre>
+ */
+public class Graph6Reader implements Iterable<Topology>, Closeable {
+    private static final int BATCH_SIZE = 256;
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final BufferedReader reader;
+    private final Supplier<Topology> topologyFactory;
+    private long nbGraphsRead = 0;
+
+    /**
+     * Creates a reader that decodes graphs into {@link Topology}s without
+     * wireless links.
+     *
+     * @param reader the {@link Reader} from which the graphs are read
+     */
+    public Graph6Reader(Reader reader) {
+        this(reader, Graph6Reader::createTopology);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param reader          the {@link Reader} from which the graphs are read
+     * @param topologyFactory creates the {@link Topology}s used by
+     *                        {@link #iterator()} and by each worker of
+     *                        {@link #dispatch(int, ObjLongConsumer)}. It may
+     *                        be called concurrently.
+     */
+    public Graph6Reader(Reader reader, Supplier<Topology> topologyFactory) {
+        this.reader = reader instanceof BufferedReader ?
+                (BufferedReader) reader : new BufferedReader(reader);
+        this.topologyFactory = topologyFactory;
+    }
+
+    private static Topology createTopology() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        return tp;
+    }
+
+    /**
+     * @return the number of graphs read so far
+     */
+    public long getNbGraphsRead() {
+        return nbGraphsRead;
+    }
+
+    /**
+     * Decodes the next graph into {@code topology}, which must be empty or
+     * contain the previous graph decoded by this reader.
+     *
+     * @param topology the {@link Topology} to be populated
+     * @return {@code false} if there is no more graph to read
+     * @throws IOException in case of error while reading
+     * @throws Graph6Exception if the graph is malformed
+     */
+    public boolean readNext(Topology topology) throws IOException {
+        String line = nextLine();
+        if (line == null)
+            return false;
+        Graph6Codec.decodeLine(topology, line, true);
+        nbGraphsRead++;
+        return true;
+    }
+
+    /**
+     * Returns an {@link Iterator} over the remaining graphs. The same
+     * {@link Topology}, created by the factory of this reader, is returned by
+     * each call to {@link Iterator#next()}.
+     *
+     * @return an {@link Iterator} over the remaining graphs; reading errors
+     * are thrown as {@link UncheckedIOException}s.
+     */
+    @Override
+    public Iterator<Topology> iterator() {
+        Topology topology = topologyFactory.get();
+        return new Iterator<Topology>() {
+            private Boolean hasNext = null;
+
+            @Override
+            public boolean hasNext() {
+                if (hasNext == null) {
+                    try {
+                        hasNext = readNext(topology);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return hasNext;
+            }
+
+            @Override
+            public Topology next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                hasNext = null;
+                return topology;
+            }
+        };
+    }
+
+    /**
+     * <p>Reads the remaining graphs on the calling thread and processes them
+     * on {@code nbWorkers} threads. Each worker decodes the graphs it is given
+     * into its own {@link Topology}, created by the factory of this reader,
+     * then calls {@code action} with the {@link Topology} and the index of the
+     * graph in the input. Graphs are handed out by batches, in which each
+     * incremental Sparse6 line stays with the graph it refers to, so that the
+     * order in which the graphs are processed is not specified.</p>
+     *
+     * <p>The first exception thrown by a worker stops the reading and is
+     * rethrown.</p>
+     *
+     * @param nbWorkers the number of worker threads
+     * @param action    the processing of each graph; it must not keep a
+     *                  reference to the {@link Topology}, which is reused
+     * @throws IOException          in case of error while reading
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void dispatch(int nbWorkers, ObjLongConsumer<? super Topology> action)
+            throws IOException, InterruptedException {
+        if (nbWorkers < 1)
+            throw new IllegalArgumentException("nbWorkers must be >= 1: " + nbWorkers);
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(4 * nbWorkers);
+        ExecutorService executor = Executors.newFixedThreadPool(nbWorkers);
+        List<Future<?>> workers = new ArrayList<>();
+        try {
+            for (int i = 0; i < nbWorkers; i++)
+                workers.add(executor.submit(() -> {
+                    runWorker(queue, action);
+                    return null;
+                }));
+
+            Batch batch = new Batch(nbGraphsRead);
+            for (String line = nextLine(); line != null; line = nextLine()) {
+                boolean incremental = line.startsWith(";");
+                if (!incremental && batch.lines.size() >= BATCH_SIZE) {
+                    if (!offer(queue, batch, workers))
+                        break;
+                    batch = new Batch(nbGraphsRead);
+                }
+                if (incremental && batch.lines.isEmpty() && nbGraphsRead > 0)
+                    throw new Graph6Exception("incremental sparse6 graph " + nbGraphsRead +
+                            " cannot be separated from the previous graph.");
+                batch.lines.add(line);
+                nbGraphsRead++;
+            }
+            if (!batch.lines.isEmpty())
+                offer(queue, batch, workers);
+            for (int i = 0; i < nbWorkers; i++)
+                if (!offer(queue, Batch.END, workers))
+                    break;
+
+            // a stopped worker is the one which failed, the others may be waiting for batches
+            for (Future<?> worker : workers)
+                if (worker.isDone())
+                    worker.get();
+            for (Future<?> worker : workers)
+                worker.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runWorker(BlockingQueue<Batch> queue, ObjLongConsumer<? super Topology> action)
+            throws InterruptedException {
+        Topology topology = topologyFactory.get();
+        for (Batch batch = queue.take(); batch != Batch.END; batch = queue.take()) {
+            long index = batch.firstIndex;
+            for (String line : batch.lines) {
+                Graph6Codec.decodeLine(topology, line, true);
+                action.accept(topology, index++);
+            }
+        }
+    }
+
+    /**
+     * Waits until {@code batch} is queued, unless a worker has stopped.
+     *
+     * @return {@code false} if a worker has stopped.
+     */
+    private static boolean offer(BlockingQueue<Batch> queue, Batch batch, List<Future<?>> workers)
+            throws InterruptedException {
+        while (!queue.offer(batch, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+            for (Future<?> worker : workers)
+                if (worker.isDone())
+                    return false;
+        return true;
+    }
+
+    private String nextLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isEmpty());
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static final class Batch {
+        static final Batch END = new Batch(-1);
+
+        final long firstIndex;
+        final List<String> lines = new ArrayList<>(BATCH_SIZE);
+
+        Batch(long firstIndex) {
+            this.firstIndex = firstIndex;
+        }
+    }
+}
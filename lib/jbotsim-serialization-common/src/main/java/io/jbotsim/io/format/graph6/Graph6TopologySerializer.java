@@ -25,16 +25,29 @@ import io.jbotsim.core.Topology;
 import io.jbotsim.io.TopologySerializer;
 import io.jbotsim.io.format.TopologySerializerFilenameMatcher;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
 /**
  * This class implements support for Graph6 file format as described in
  * <a href="https://users.cecs.anu.edu.au/~bdm/data/formats.txt">https://users.cecs.anu.edu.au/~bdm/data/formats.txt</a>.
  * <p>
- * Only Graph6 and Digraph6 format are supported. Sparse6 format is not yet
- * implemented.
+ * Graph6, Digraph6 and Sparse6 formats are supported. Undirected topologies
+ * are exported in Graph6 format, or in Sparse6 format if
+ * {@link #setUseSparse6(boolean)} is enabled; Sparse6 is much more compact
+ * for sparse graphs since its size is linear in the number of links, while
+ * Graph6 is quadratic in the number of nodes. Directed topologies are always
+ * exported in Digraph6 format.
+ * <p>
+ * An incremental Sparse6 input (starting with ';') toggles the links of the
+ * imported topology; such inputs are produced by
+ * {@link #exportIncrementalToString(Topology, Topology)}.
  */
 public class Graph6TopologySerializer implements TopologySerializer {
     private static final boolean DEFAULT_GENERATE_HEADERS = true;
     private boolean generateHeaders = DEFAULT_GENERATE_HEADERS;
+    private boolean useSparse6;
 
     /**
      * Supported filename extensions. Can be used to populate a
@@ -46,15 +59,56 @@ public class Graph6TopologySerializer implements TopologySerializer {
     };
 
     /**
-     * Encode the graph of {@code topology} in Graph6 or Digraph6 file format
-     * according to {@link Topology#isDirected()}.
+     * Filename extensions of the Sparse6 format. Can be used to populate a
+     * {@link TopologySerializerFilenameMatcher} with a serializer created with
+     * {@link #Graph6TopologySerializer(boolean)}.
+     * @see TopologySerializerFilenameMatcher#addTopologySerializer(String[], TopologySerializer)
+     */
+    public static final String[] SPARSE6_FILENAME_EXTENSIONS = new String[] {
+        "s6"
+    };
+
+    /**
+     * Creates a serializer that exports undirected topologies in Graph6 format.
+     */
+    public Graph6TopologySerializer() {
+        this(false);
+    }
+
+    /**
+     * Creates a serializer.
+     *
+     * @param useSparse6 {@code true} to export undirected topologies in Sparse6
+     *                   rather than Graph6 format.
+     */
+    public Graph6TopologySerializer(boolean useSparse6) {
+        this.useSparse6 = useSparse6;
+    }
+
+    /**
+     * Encode the graph of {@code topology} in Graph6 (or Sparse6) or Digraph6
+     * file format according to {@link Topology#isDirected()}.
      *
      * @param topology The {@link Topology} object which must be exported
      * @return the Graph6 encoding of this topology
      */
     @Override
     public String exportToString(Topology topology) {
-        return Graph6Codec.encodeGraph(topology, generateHeaders);
+        return Graph6Codec.encodeGraph(topology, generateHeaders, useSparse6);
+    }
+
+    /**
+     * Encode, in incremental Sparse6 format, the links that have to be toggled
+     * in {@code previous} to obtain {@code topology}. Both topologies must be
+     * undirected and have the same number of nodes, which are matched by
+     * order of identifiers.
+     *
+     * @param previous The {@link Topology} the encoding is relative to
+     * @param topology The {@link Topology} object which must be exported
+     * @return the incremental Sparse6 encoding of this topology
+     */
+    public String exportIncrementalToString(Topology previous, Topology topology) {
+        return Graph6Codec.encodeIncrementalSparse6(previous, topology);
     }
 
     /**
@@ -69,6 +123,21 @@ public class Graph6TopologySerializer implements TopologySerializer {
         Graph6Codec.decodeGraph(topology, data);
     }
 
+    /**
+     * Populate {@code topology} with the first graph read from {@code reader};
+     * the remaining lines are not read.
+     *
+     * @param topology The {@link Topology} object which must be populated
+     * @param reader the {@link Reader} from which the graph is read
+     * @throws IOException in case of error while reading
+     */
+    @Override
+    public void importFrom(Topology topology, Reader reader) throws IOException {
+        BufferedReader bufferedReader = reader instanceof BufferedReader ?
+                (BufferedReader) reader : new BufferedReader(reader);
+        Graph6Codec.decodeGraph(topology, bufferedReader);
+    }
+
     /**
      * @return if this serializer produces Graph6 header in outputs
      */
@@ -84,4 +153,21 @@ public class Graph6TopologySerializer implements TopologySerializer {
     public void setGenerateHeaders(boolean generateHeaders) {
         this.generateHeaders = generateHeaders;
     }
+
+    /**
+     * @return if this serializer exports undirected topologies in Sparse6
+     * format
+     */
+    public boolean usesSparse6() {
+        return useSparse6;
+    }
+
+    /**
+     *
+     * @param useSparse6 is true if this serializer has to export undirected
+     *                   topologies in Sparse6 rather than Graph6 format.
+     */
+    public void setUseSparse6(boolean useSparse6) {
+        this.useSparse6 = useSparse6;
+    }
 }
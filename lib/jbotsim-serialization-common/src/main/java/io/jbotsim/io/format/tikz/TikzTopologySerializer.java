@@ -23,10 +23,16 @@ package io.jbotsim.io.format.tikz;
 import io.jbotsim.core.*;
 import io.jbotsim.io.TopologySerializer;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+
 /**
  *  <p>The {@link TikzTopologySerializer} exports a JBotSim {@link Topology} into TikZ format.</p>
  *
- *  <p>Note: {@link #importFromString(Topology, String)} is not supported.</p>
+ *  <p>Note: {@link #importFromString(Topology, String)} and {@link #importFrom(Topology, Reader)} are not
+ *  supported.</p>
  */
 public class TikzTopologySerializer implements TopologySerializer {
 
@@ -115,35 +121,52 @@ public class TikzTopologySerializer implements TopologySerializer {
         return;
     }
 
+    @Override
+    public void importFrom(Topology topology, Reader reader) {
+        return;
+    }
+
     @Override
     public String exportToString(Topology topology){
         return exportTopology(topology, scaleFactor);
     }
 
+    @Override
+    public void exportTo(Topology topology, Writer writer) throws IOException {
+        exportTopology(topology, scaleFactor, writer);
+    }
+
     protected String exportTopology(Topology topology, double scaleFactor){
+        StringWriter sw = new StringWriter();
+        try {
+            exportTopology(topology, scaleFactor, sw);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen with a StringWriter
+        }
+        return sw.toString();
+    }
 
-        StringBuilder sb = new StringBuilder();
+    protected void exportTopology(Topology topology, double scaleFactor, Writer out) throws IOException {
 
-        sb.append("\\begin{tikzpicture}[scale=1]" + eol);
+        out.write("\\begin{tikzpicture}[scale=1]" + eol);
 
-        exportSensingRanges(sb, topology, scaleFactor);
-        exportNodes(sb, topology, scaleFactor);
-        exportLinks(sb, topology);
+        exportSensingRanges(out, topology, scaleFactor);
+        exportNodes(out, topology, scaleFactor);
+        exportLinks(out, topology);
 
-        sb.append("\\end{tikzpicture}"+ eol);
-        return sb.toString();
+        out.write("\\end{tikzpicture}"+ eol);
     }
 
-    private void exportSensingRanges(StringBuilder sb, Topology tp, double scale) {
+    private void exportSensingRanges(Writer out, Topology tp, double scale) throws IOException {
         Integer sr = (int) tp.getSensingRange();
         if (sr == 0)
             return;
 
         double innerSep = sr / 5.0;
-        sb.append("  \\tikzstyle{every node}=[draw,circle,inner sep=" + innerSep + ", fill opacity=0.5,gray,fill=gray!40]" + eol);
+        out.write("  \\tikzstyle{every node}=[draw,circle,inner sep=" + innerSep + ", fill opacity=0.5,gray,fill=gray!40]" + eol);
 
         for (Node n : tp.getNodes())
-            sb.append(exportSensingRange(n, scale));
+            out.write(exportSensingRange(n, scale));
 
     }
 
@@ -151,12 +174,12 @@ public class TikzTopologySerializer implements TopologySerializer {
         return exportNode(n, scale);
     }
 
-    private void exportNodes(StringBuilder sb, Topology tp, double scale) {
+    private void exportNodes(Writer out, Topology tp, double scale) throws IOException {
         String header = "  \\tikzstyle{every node}=[draw,circle,fill=gray,inner sep=1.5]";
-        sb.append(header + eol);
+        out.write(header + eol);
 
         for (Node n : tp.getNodes())
-            sb.append(exportNode(n, scale));
+            out.write(exportNode(n, scale));
 
     }
 
@@ -174,12 +197,12 @@ public class TikzTopologySerializer implements TopologySerializer {
         return new Point(x, y);
     }
 
-    private void exportLinks(StringBuilder sb, Topology tp) {
+    private void exportLinks(Writer out, Topology tp) throws IOException {
         String header = "  \\tikzstyle{every path}=[];";
-        sb.append(header + eol);
+        out.write(header + eol);
 
         for (Link l : tp.getLinks())
-            sb.append(exportLink(l));
+            out.write(exportLink(l));
     }
 
     private String exportLink(Link l) {
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.xml;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link XMLStreamWriter} that indents elements by {@value #INDENT_AMOUNT} spaces and writes the attributes of each
+ * element in alphabetical order, as does the {@code Transformer} used by
+ * {@link XMLIO#write(java.io.Writer, org.w3c.dom.Document)}. Elements that contain text are not indented.
+ */
+class IndentingXMLStreamWriter implements XMLStreamWriter {
+    private static final int INDENT_AMOUNT = 2;
+
+    private final XMLStreamWriter out;
+    /**
+     * For each open element, whether it contains child elements (<code>true</code>) or text (<code>false</code>).
+     * Elements with no content yet are not in the deque: {@link #pendingStart} is set instead.
+     */
+    private final Deque<Boolean> hasChildElements = new ArrayDeque<>();
+    private boolean pendingStart = false;
+    private boolean startOfDocument = true;
+    /**
+     * The attributes of the last started element, written by {@link #flushAttributes()} once its start tag is
+     * complete.
+     */
+    private final Map<String, String> pendingAttributes = new TreeMap<>();
+
+    IndentingXMLStreamWriter(XMLStreamWriter out) {
+        this.out = out;
+    }
+
+    private void flushAttributes() throws XMLStreamException {
+        for (Map.Entry<String, String> attribute : pendingAttributes.entrySet())
+            out.writeAttribute(attribute.getKey(), attribute.getValue());
+        pendingAttributes.clear();
+    }
+
+    private void beforeElement() throws XMLStreamException {
+        flushAttributes();
+        if (pendingStart) {
+            hasChildElements.push(true);
+            pendingStart = false;
+        }
+        if (hasChildElements.isEmpty() || hasChildElements.peek())
+            indent(hasChildElements.size());
+    }
+
+    private void beforeText() throws XMLStreamException {
+        flushAttributes();
+        if (pendingStart) {
+            hasChildElements.push(false);
+            pendingStart = false;
+        } else if (!hasChildElements.isEmpty()) {
+            hasChildElements.pop();
+            hasChildElements.push(false);
+        }
+    }
+
+    private void indent(int depth) throws XMLStreamException {
+        if (startOfDocument) {
+            startOfDocument = false;
+            return;
+        }
+        StringBuilder sb = new StringBuilder(1 + depth * INDENT_AMOUNT).append('\n');
+        for (int i = 0; i < depth * INDENT_AMOUNT; i++)
+            sb.append(' ');
+        out.writeCharacters(sb.toString());
+    }
+
+    @Override
+    public void writeStartElement(String localName) throws XMLStreamException {
+        beforeElement();
+        out.writeStartElement(localName);
+        pendingStart = true;
+    }
+
+    @Override
+    public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+        beforeElement();
+        out.writeStartElement(namespaceURI, localName);
+        pendingStart = true;
+    }
+
+    @Override
+    public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        beforeElement();
+        out.writeStartElement(prefix, localName, namespaceURI);
+        pendingStart = true;
+    }
+
+    @Override
+    public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+        beforeElement();
+        out.writeEmptyElement(namespaceURI, localName);
+    }
+
+    @Override
+    public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+        beforeElement();
+        out.writeEmptyElement(prefix, localName, namespaceURI);
+    }
+
+    @Override
+    public void writeEmptyElement(String localName) throws XMLStreamException {
+        beforeElement();
+        out.writeEmptyElement(localName);
+    }
+
+    @Override
+    public void writeEndElement() throws XMLStreamException {
+        flushAttributes();
+        if (pendingStart)
+            pendingStart = false;
+        else if (hasChildElements.pop())
+            indent(hasChildElements.size());
+        out.writeEndElement();
+    }
+
+    @Override
+    public void writeEndDocument() throws XMLStreamException {
+        flushAttributes();
+        while (pendingStart || !hasChildElements.isEmpty())
+            writeEndElement();
+        out.writeCharacters("\n");
+        out.writeEndDocument();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        flushAttributes();
+        out.close();
+    }
+
+    @Override
+    public void flush() throws XMLStreamException {
+        flushAttributes();
+        out.flush();
+    }
+
+    @Override
+    public void writeAttribute(String localName, String value) throws XMLStreamException {
+        pendingAttributes.put(localName, value);
+    }
+
+    // attributes with a namespace are not used by JBotSim documents: they are written as they come, after the
+    // pending ones
+
+    @Override
+    public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+            throws XMLStreamException {
+        flushAttributes();
+        out.writeAttribute(prefix, namespaceURI, localName, value);
+    }
+
+    @Override
+    public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+        flushAttributes();
+        out.writeAttribute(namespaceURI, localName, value);
+    }
+
+    @Override
+    public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+        out.writeNamespace(prefix, namespaceURI);
+    }
+
+    @Override
+    public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+        out.writeDefaultNamespace(namespaceURI);
+    }
+
+    @Override
+    public void writeComment(String data) throws XMLStreamException {
+        beforeElement();
+        out.writeComment(data);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target) throws XMLStreamException {
+        beforeElement();
+        out.writeProcessingInstruction(target);
+    }
+
+    @Override
+    public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+        beforeElement();
+        out.writeProcessingInstruction(target, data);
+    }
+
+    @Override
+    public void writeCData(String data) throws XMLStreamException {
+        beforeText();
+        out.writeCData(data);
+    }
+
+    @Override
+    public void writeDTD(String dtd) throws XMLStreamException {
+        beforeElement();
+        out.writeDTD(dtd);
+    }
+
+    @Override
+    public void writeEntityRef(String name) throws XMLStreamException {
+        beforeText();
+        out.writeEntityRef(name);
+    }
+
+    @Override
+    public void writeStartDocument() throws XMLStreamException {
+        out.writeStartDocument();
+        startOfDocument = false;
+    }
+
+    @Override
+    public void writeStartDocument(String version) throws XMLStreamException {
+        out.writeStartDocument(version);
+        startOfDocument = false;
+    }
+
+    @Override
+    public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+        out.writeStartDocument(encoding, version);
+        startOfDocument = false;
+    }
+
+    @Override
+    public void writeCharacters(String text) throws XMLStreamException {
+        beforeText();
+        out.writeCharacters(text);
+    }
+
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        beforeText();
+        out.writeCharacters(text, start, len);
+    }
+
+    @Override
+    public String getPrefix(String uri) throws XMLStreamException {
+        return out.getPrefix(uri);
+    }
+
+    @Override
+    public void setPrefix(String prefix, String uri) throws XMLStreamException {
+        out.setPrefix(prefix, uri);
+    }
+
+    @Override
+    public void setDefaultNamespace(String uri) throws XMLStreamException {
+        out.setDefaultNamespace(uri);
+    }
+
+    @Override
+    public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+        out.setNamespaceContext(context);
+    }
+
+    @Override
+    public NamespaceContext getNamespaceContext() {
+        return out.getNamespaceContext();
+    }
+
+    @Override
+    public Object getProperty(String name) throws IllegalArgumentException {
+        return out.getProperty(name);
+    }
+}
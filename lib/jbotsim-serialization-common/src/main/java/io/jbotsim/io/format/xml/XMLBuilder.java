@@ -27,6 +27,7 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
+import java.io.Writer;
 
 /**
  * Base class for ones used to build JBotSim XML document.
@@ -87,6 +88,21 @@ public abstract class XMLBuilder {
         }
     }
 
+    /**
+     * Outputs the current XML document using the given {@link Writer}.
+     *
+     * @param out the {@link Writer} in which the document is written.
+     * @throws BuilderException raised either when an XML error occurs while the document is created or if an IO error
+     *         occurs.
+     */
+    public void write(Writer out) throws BuilderException {
+        try {
+            XMLIO.write(out, document);
+        } catch (XMLIO.XMLIOException e) {
+            throw new BuilderException(e);
+        }
+    }
+
     /**
      * Exception raised whenever an error occurs while a {@link Document} is built.
      */
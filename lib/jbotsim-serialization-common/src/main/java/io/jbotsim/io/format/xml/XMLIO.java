@@ -22,20 +22,32 @@ package io.jbotsim.io.format.xml;
 
 import io.jbotsim.io.FileAsStream;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.xml.sax.InputSource;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stax.StAXSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Helper class used for IO operations on JBotSim xml files. The read operations only ensure that the input files
  * follow XML syntax; the validation of the document must be realized elsewhere.
+ *
+ * <p>Documents can either be loaded entirely as DOM {@link Document}s, or be read and written as StAX streams, in which
+ * case the memory footprint does not depend on the size of the document.</p>
  */
 public class XMLIO {
     private static FileAsStream fileAsStream;
@@ -52,9 +64,10 @@ public class XMLIO {
      * @throws XMLIOException is thrown if an XML operation fails or if an IO exception occurs.
      */
     public void write(String filename, Document document) throws XMLIOException {
-        try {
-            OutputStream outputStream = fileAsStream.getOutputStreamForName(filename);
-            write(new OutputStreamWriter(outputStream), document);
+        // the stream is closed, so that compressed files are complete
+        try (Writer out = new OutputStreamWriter(fileAsStream.getOutputStreamForName(filename),
+                StandardCharsets.UTF_8)) {
+            write(out, document);
         } catch (FileNotFoundException e) {
             throw new XMLIOException(e);
         } catch (IOException e) {
@@ -177,6 +190,94 @@ public class XMLIO {
         }
     }
 
+    /**
+     * Creates a StAX reader on the given {@link Reader}.
+     *
+     * @param input the input {@link Reader}
+     * @return a {@link XMLStreamReader} positioned at the start of the document.
+     * @throws XMLIOException is thrown if the reader cannot be created.
+     */
+    public static XMLStreamReader createStreamReader(Reader input) throws XMLIOException {
+        try {
+            return XMLInputFactory.newInstance().createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new XMLIOException(e);
+        }
+    }
+
+    /**
+     * Creates a StAX reader on the given {@link InputStream}. The encoding is taken from the XML declaration.
+     *
+     * @param input the input stream
+     * @return a {@link XMLStreamReader} positioned at the start of the document.
+     * @throws XMLIOException is thrown if the reader cannot be created.
+     */
+    public static XMLStreamReader createStreamReader(InputStream input) throws XMLIOException {
+        try {
+            return XMLInputFactory.newInstance().createXMLStreamReader(input);
+        } catch (XMLStreamException e) {
+            throw new XMLIOException(e);
+        }
+    }
+
+    /**
+     * Creates a StAX writer on the given {@link Writer}. Elements are indented the same way as documents written by
+     * {@link #write(Writer, Document)}.
+     *
+     * @param out the output {@link Writer}
+     * @return a {@link XMLStreamWriter} on {@code out}.
+     * @throws XMLIOException is thrown if the writer cannot be created.
+     */
+    public static XMLStreamWriter createStreamWriter(Writer out) throws XMLIOException {
+        try {
+            return new IndentingXMLStreamWriter(XMLOutputFactory.newInstance().createXMLStreamWriter(out));
+        } catch (XMLStreamException e) {
+            throw new XMLIOException(e);
+        }
+    }
+
+    /**
+     * Reads the element on which the given reader is positioned, and all its subtree, as a DOM {@link Element}. The
+     * reader is left on the end tag of the element.
+     *
+     * @param reader the reader, positioned on a start element.
+     * @return the element read, as the root of a new {@link Document}.
+     * @throws XMLIOException is thrown if an XML operation fails.
+     */
+    public static Element readElement(XMLStreamReader reader) throws XMLIOException {
+        try {
+            DOMResult result = new DOMResult();
+            TransformerFactory.newInstance().newTransformer().transform(new StAXSource(reader), result);
+            return ((Document) result.getNode()).getDocumentElement();
+        } catch (Exception e) {
+            throw new XMLIOException(e);
+        }
+    }
+
+    /**
+     * Creates a StAX reader that replays the given DOM {@link Element} and its subtree.
+     *
+     * @param element the element to be streamed.
+     * @return a {@link XMLStreamReader} positioned on the start tag of {@code element}.
+     * @throws XMLIOException is thrown if an XML operation fails.
+     */
+    public static XMLStreamReader streamElement(Element element) throws XMLIOException {
+        try {
+            // the JDK StAX implementation does not accept DOM sources: serialize the subtree first
+            StringWriter sw = new StringWriter();
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+            transformer.transform(new DOMSource(element), new StreamResult(sw));
+            XMLStreamReader reader = createStreamReader(new StringReader(sw.toString()));
+            reader.nextTag();
+            return reader;
+        } catch (XMLIOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new XMLIOException(e);
+        }
+    }
+
     /**
      * Exception raised when an IO exception occurs or if the underlying XML reader yields an error.
      */
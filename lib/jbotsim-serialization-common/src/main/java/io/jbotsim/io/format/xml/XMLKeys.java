@@ -23,11 +23,18 @@ package io.jbotsim.io.format.xml;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import java.util.NoSuchElementException;
 
 /**
  * This enumeration lists all names of elements and attributes used in JBotSim XML documents. By convention we suffixed
  * attributes with <code>_ATTR</code>. The class also offers some helper methods used by parsers and builders.
+ *
+ * <p>Most helpers exist in two flavors: one for DOM {@link Element}s and one for StAX streams. The
+ * {@link XMLStreamReader} variants read the attributes of the current {@code START_ELEMENT} event; the
+ * {@link XMLStreamWriter} variants write elements and attributes at the current position of the stream.</p>
  */
 public enum XMLKeys {
     JBOTSIM("jbotsim"),
@@ -333,4 +340,183 @@ public enum XMLKeys {
             throw new NoSuchElementException(key);
         return translate.apply(el.getAttribute(key));
     }
+
+    /**
+     * Checks if the reader is positioned on a start element labelled by this enum.
+     *
+     * @param r the {@link XMLStreamReader}.
+     * @return <code>true</code> if the current event of <code>r</code> is an element named by this enum.
+     */
+    public boolean labelsElement(XMLStreamReader r) {
+        return r.isStartElement() && key.equals(r.getLocalName());
+    }
+
+    /**
+     * Checks if this enum is an attribute of the current element of the reader <code>r</code>.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @return <code>true</code> if the current element has an attribute labelled with this enum.
+     */
+    public boolean isAttributeOf(XMLStreamReader r) {
+        return r.getAttributeValue(null, key) != null;
+    }
+
+    /**
+     * Returns the value of the attribute labelled by this enum for the current element of the reader.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @return the value of the attribute, or an empty {@link String} if it does not exist (as
+     *         {@link Element#getAttribute} does).
+     */
+    public String getValueFor(XMLStreamReader r) {
+        String value = r.getAttributeValue(null, key);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Streaming counterpart of {@link #getValueFor(Element, String)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @param default_value the default value returned if the attribute is not present
+     * @return the value of this attribute.
+     */
+    public String getValueFor(XMLStreamReader r, String default_value) {
+        String value = r.getAttributeValue(null, key);
+        return value == null ? default_value : value;
+    }
+
+    /**
+     * Streaming counterpart of {@link #getValueFor(Element, Integer)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @param default_value the default value of the attribute if not present
+     * @return the value of this attribute.
+     */
+    public Integer getValueFor(XMLStreamReader r, Integer default_value) {
+        return getValueFor(r, IntegerFromString, default_value);
+    }
+
+    /**
+     * Streaming counterpart of {@link #getIntegerValueFor(Element)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @return the value of this attribute if present
+     * @throws NoSuchElementException if this attribute does not exists for the current element.
+     */
+    public Integer getIntegerValueFor(XMLStreamReader r) throws NoSuchElementException {
+        return getValueFor(r, IntegerFromString);
+    }
+
+    /**
+     * Streaming counterpart of {@link #getValueFor(Element, Double)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @param default_value the value returned if this attribute is not present.
+     * @return the value of this attribute if present or {@code default_value} if not.
+     */
+    public Double getValueFor(XMLStreamReader r, Double default_value) {
+        return getValueFor(r, DoubleFromString, default_value);
+    }
+
+    /**
+     * Streaming counterpart of {@link #getDoubleValueFor(Element)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @return the value of this attribute if present
+     * @throws NoSuchElementException if this attribute does not exists for the current element.
+     */
+    public Double getDoubleValueFor(XMLStreamReader r) throws NoSuchElementException {
+        return getValueFor(r, DoubleFromString);
+    }
+
+    /**
+     * Streaming counterpart of {@link #getValueFor(Element, Boolean)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @param default_value the value returned if this attribute is not present.
+     * @return the value of this attribute if present or {@code default_value} if not.
+     */
+    public Boolean getValueFor(XMLStreamReader r, Boolean default_value) {
+        return getValueFor(r, BooleanFromString, default_value);
+    }
+
+    /**
+     * Streaming counterpart of {@link #getValueFor(Element, Function, Object)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @param translate a {@link Function} used to translate the {@link String} value of the attribute into {@code R}
+     *                  type.
+     * @param default_value the value returned if this attribute is not present.
+     * @param <R> the class used to store the value of this attribute.
+     * @return the value of this attribute converted using {@code translate}.
+     */
+    public <R> R getValueFor(XMLStreamReader r, Function<String, R> translate, R default_value) {
+        String value = r.getAttributeValue(null, key);
+        return value == null ? default_value : translate.apply(value);
+    }
+
+    /**
+     * Streaming counterpart of {@link #getValueFor(Element, Function)}.
+     *
+     * @param r the {@link XMLStreamReader} positioned on a start element.
+     * @param translate a {@link Function} used to translate the {@link String} value of the attribute into {@code R}
+     *                  type.
+     * @param <R> the class used to store the value of this attribute.
+     * @return the value of this attribute converted using {@code translate}.
+     * @throws NoSuchElementException if this attribute does not exists for the current element.
+     */
+    public <R> R getValueFor(XMLStreamReader r, Function<String, R> translate) throws NoSuchElementException {
+        String value = r.getAttributeValue(null, key);
+        if (value == null)
+            throw new NoSuchElementException(key);
+        return translate.apply(value);
+    }
+
+    /**
+     * Writes the start tag of an element labelled with this enum.
+     *
+     * @param w the {@link XMLStreamWriter}.
+     * @throws XMLStreamException if the underlying writer fails.
+     */
+    public void writeStartElement(XMLStreamWriter w) throws XMLStreamException {
+        w.writeStartElement(key);
+    }
+
+    /**
+     * Writes an element labelled with this enum that has no children. Its attributes may be written right after.
+     *
+     * @param w the {@link XMLStreamWriter}.
+     * @throws XMLStreamException if the underlying writer fails.
+     */
+    public void writeEmptyElement(XMLStreamWriter w) throws XMLStreamException {
+        w.writeEmptyElement(key);
+    }
+
+    /**
+     * Streaming counterpart of {@link #setAttribute(Element, Object)}: writes an attribute labelled by this enum for
+     * the element that has just been started.
+     *
+     * @param w the {@link XMLStreamWriter}.
+     * @param value of the attribute
+     * @param <T> the type of the value assigned to the attribute
+     * @throws XMLStreamException if the underlying writer fails.
+     */
+    public <T> void writeAttribute(XMLStreamWriter w, T value) throws XMLStreamException {
+        w.writeAttribute(key, String.valueOf(value));
+    }
+
+    /**
+     * Streaming counterpart of {@link #setNotDefaultAttribute(Element, Object, Object)}.
+     *
+     * @param w the {@link XMLStreamWriter}.
+     * @param value of the attribute
+     * @param default_value the default value against which <code>value</code> is checked for equality.
+     * @param <T> the type of the value assigned to the attribute
+     * @throws XMLStreamException if the underlying writer fails.
+     */
+    public <T> void writeNotDefaultAttribute(XMLStreamWriter w, T value, T default_value) throws XMLStreamException {
+        if (value != default_value && !value.equals(default_value)) {
+            writeAttribute(w, value);
+        }
+    }
 }
@@ -25,14 +25,24 @@ import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
 
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Base class for manipulation of XML documents that store JBotSim objects.
@@ -41,12 +51,22 @@ import java.io.InputStream;
  * methods. It parses the root node of the document to determine the version of the XSD schema used to format the
  * document; then it delegates the interpretation of XML element to subclasses.</p>
  *
+ * <p>Documents read from a stream, a {@link Reader} or a {@link String} are not loaded in memory: they are read with
+ * StAX and, if required, validated while they are read. Subclasses interpret them by overriding
+ * {@link #parseRootElement(XMLStreamReader)}; otherwise the root element is loaded as a DOM tree and passed to
+ * {@link #parseRootElement(Element)}.</p>
+ *
  * @see #parseRootElement
  */
 public abstract class XMLParser {
     private static final String XSD_RESOURCE_PREFIX = "jbotsim-";
     private static final String XSD_RESOURCE_SUFFIX = ".xsd";
 
+    /**
+     * The compiled XSD schemas, indexed by version. {@link Schema} objects are immutable and thread-safe.
+     */
+    private static final Map<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
     /**
      * The version read from the XML document. This member variable is used to interpret the XML document according
      * to a given version of the XSD schema.
@@ -76,7 +96,21 @@ public abstract class XMLParser {
      */
     public void parse(InputStream input) throws ParserException {
         try {
-            parse(XMLIO.read(input));
+            parse(XMLIO.createStreamReader(input));
+        } catch (XMLIO.XMLIOException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    /**
+     * Load and parses the document from the given {@link Reader reader}.
+     *
+     * @param input the {@link Reader} from which the document is read.
+     * @throws ParserException raised if an IO error occurs or if the XML document is malformed.
+     */
+    public void parse(Reader input) throws ParserException {
+        try {
+            parse(XMLIO.createStreamReader(input));
         } catch (XMLIO.XMLIOException e) {
             throw new ParserException(e);
         }
@@ -89,10 +123,49 @@ public abstract class XMLParser {
      * @throws ParserException raised if an IO error occurs or if the XML document is malformed.
      */
     public void parseFromString(String input) throws ParserException {
+        parse(new StringReader(input));
+    }
+
+    /**
+     * Interprets a JBotSim XML document read from a StAX stream.
+     *
+     * <p>This method does the same checks as {@link #parse(Document)}, but the validation wrt the JBotSim schema is
+     * done while the elements are read and interpreted, so that the document never has to be entirely loaded. The
+     * first child of the {@code jbotsim} element is passed to {@link #parseRootElement(XMLStreamReader)}. If the
+     * interpretation fails, the rest of the document is still validated, and a validation error is reported
+     * preferably.</p>
+     *
+     * <p>The reader is closed once the document has been read, but not its underlying input.</p>
+     *
+     * @param reader the {@link XMLStreamReader} positioned at the start of the document.
+     * @throws ParserException raised if an IO error occurs or if the XML document is malformed.
+     */
+    public void parse(XMLStreamReader reader) throws ParserException {
         try {
-            parse(XMLIO.readFromString(input));
-        } catch (XMLIO.XMLIOException e) {
-            throw new ParserException(e);
+            if (nextTag(reader) != XMLStreamConstants.START_ELEMENT || !XMLKeys.JBOTSIM.labelsElement(reader)) {
+                throw new ParserException("invalid node '" + (reader.hasName() ? reader.getLocalName() : "") +
+                        "' where '" + XMLKeys.JBOTSIM + "' was expected");
+            }
+            version = XMLKeys.VERSION_ATTR.getValueFor(reader, XMLBuilder.DEFAULT_VERSION);
+            if (validateDocument)
+                reader = new ValidatingStreamReader(reader, getSchemaForVersion(version).newValidatorHandler());
+
+            if (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+                try {
+                    parseRootElement(reader);
+                } catch (ParserException | RuntimeException e) {
+                    // as when the document is validated before being interpreted, schema errors come first
+                    if (validateDocument)
+                        skipDocument(reader);
+                    throw e;
+                }
+            }
+            skipDocument(reader);
+            reader.close();
+        } catch (ValidationException e) {
+            throw validationError(e.getCause());
+        } catch (XMLStreamException e) {
+            throw new ParserException(new XMLIO.XMLIOException(e));
         }
     }
 
@@ -118,28 +191,12 @@ public abstract class XMLParser {
                     XMLKeys.JBOTSIM + "' was expected");
         }
 
+        version = XMLKeys.VERSION_ATTR.getValueFor(rootNode, XMLBuilder.DEFAULT_VERSION);
         if (validateDocument) {
-            String version = XMLKeys.VERSION_ATTR.getValueFor(rootNode, XMLBuilder.DEFAULT_VERSION);
             try {
-                Schema schema = loadSchemaForVersion(version);
-                schema.newValidator().validate(new DOMSource(rootNode));
-            } catch (SAXParseException e) {
-                String msg;
-                if (e.getPublicId() == null) {
-                    msg = "XSD validation error: ";
-                } else {
-                    msg = e.getPublicId() + ":";
-                    if (e.getLineNumber() >= 1) {
-                        msg += e.getLineNumber() + ":";
-                        if (e.getColumnNumber() >= 1) {
-                            msg += e.getColumnNumber() + ":";
-                        }
-                    }
-                    msg += "error: ";
-                }
-                throw new ParserException(msg + e.getMessage());
+                getSchemaForVersion(version).newValidator().validate(new DOMSource(rootNode));
             } catch (SAXException e) {
-                throw new ParserException("unable to validate XML topology:" + e.getMessage());
+                throw validationError(e);
             } catch (IOException e) {
                 throw new ParserException("some IO exception occurs while trying to validate XML topology:" +
                         e.getMessage());
@@ -166,6 +223,51 @@ public abstract class XMLParser {
     public abstract void parseRootElement (Element element) throws ParserException;
 
 
+    /**
+     * Interprets the root element of a document read as a stream.
+     *
+     * <p>The reader is positioned on the start tag of the element; on return, it must be positioned on the matching end
+     * tag. The default implementation loads the element as a DOM tree and passes it to
+     * {@link #parseRootElement(Element)}; subclasses override this method to interpret large documents without
+     * loading them.</p>
+     *
+     * @param reader the reader positioned on the start tag of the element to be interpreted.
+     * @throws ParserException raised if the XML document is malformed.
+     * @throws XMLStreamException raised if an error occurs while the document is read.
+     */
+    protected void parseRootElement(XMLStreamReader reader) throws ParserException, XMLStreamException {
+        Element element;
+        try {
+            element = XMLIO.readElement(reader);
+        } catch (XMLIO.XMLIOException e) {
+            // report read and validation errors as if the element had been read by the caller
+            for (Throwable t = e.getCause(); t != null; t = t.getCause())
+                if (t instanceof XMLStreamException)
+                    throw (XMLStreamException) t;
+            throw new ParserException(e);
+        }
+        parseRootElement(element);
+    }
+
+    /**
+     * Returns the XSD schema that corresponds to the {@code version} of the document. Schemas are loaded and compiled
+     * once, then shared by all parsers.
+     *
+     * @param version the version of the document.
+     * @return the {@link Schema} that must be fulfilled by the document.
+     * @throws ParserException raised if an IO error occurs or if the XML document is malformed.
+     */
+    private static Schema getSchemaForVersion(String version) throws ParserException {
+        Schema schema = SCHEMAS.get(version);
+        if (schema == null) {
+            schema = loadSchemaForVersion(version);
+            Schema previous = SCHEMAS.putIfAbsent(version, schema);
+            if (previous != null)
+                schema = previous;
+        }
+        return schema;
+    }
+
     /**
      * Loads the XSD schema that corresponds to the {@code version} of the document.
      *
@@ -173,11 +275,11 @@ public abstract class XMLParser {
      * @return the {@link Schema} that must be fulfilled by the document.
      * @throws ParserException raised if an IO error occurs or if the XML document is malformed.
      */
-    private Schema loadSchemaForVersion(String version) throws ParserException {
+    private static Schema loadSchemaForVersion(String version) throws ParserException {
         SchemaFactory sF = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
         String xsdpath = XSD_RESOURCE_PREFIX + version + XSD_RESOURCE_SUFFIX;
         try {
-            InputStream is = getClass().getResourceAsStream(xsdpath);
+            InputStream is = XMLParser.class.getResourceAsStream(xsdpath);
             return sF.newSchema(new StreamSource(is));
         } catch (SAXException e) {
             String msg;
@@ -193,6 +295,27 @@ public abstract class XMLParser {
         }
     }
 
+    private static ParserException validationError(SAXException e) {
+        if (!(e instanceof SAXParseException))
+            return new ParserException("unable to validate XML topology:" + e.getMessage());
+
+        SAXParseException pe = (SAXParseException) e;
+        String msg;
+        if (pe.getPublicId() == null) {
+            msg = "XSD validation error: ";
+        } else {
+            msg = pe.getPublicId() + ":";
+            if (pe.getLineNumber() >= 1) {
+                msg += pe.getLineNumber() + ":";
+                if (pe.getColumnNumber() >= 1) {
+                    msg += pe.getColumnNumber() + ":";
+                }
+            }
+            msg += "error: ";
+        }
+        return new ParserException(msg + e.getMessage());
+    }
+
     /**
      * A visitor class that may raise a {@link ParserException}.
      * @see #mapElementChildrenOf(Node, ElementVisitor)
@@ -215,6 +338,190 @@ public abstract class XMLParser {
         }
     }
 
+    /**
+     * A visitor class for streamed elements, that may raise a {@link ParserException}.
+     * @see #mapElementChildrenOf(XMLStreamReader, StreamElementVisitor)
+     */
+    protected interface StreamElementVisitor {
+        void accept(XMLStreamReader reader) throws ParserException, XMLStreamException;
+    }
+
+    /**
+     * Applies a visitor function to all children elements of the element on which the reader is positioned.
+     *
+     * <p>The visitor is called with the reader positioned on the start tag of each child. It may either leave the
+     * reader there, in which case the child is skipped, or consume the child up to its end tag. On return, the reader
+     * is positioned on the end tag of the parent element.</p>
+     *
+     * @param reader the reader, positioned on the start tag of the parent element.
+     * @param v the visitor function.
+     * @throws ParserException raised if the XML document is malformed.
+     * @throws XMLStreamException raised if an error occurs while the document is read.
+     */
+    protected static void mapElementChildrenOf(XMLStreamReader reader, StreamElementVisitor v)
+            throws ParserException, XMLStreamException {
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            v.accept(reader);
+            if (reader.isStartElement())
+                skipElement(reader);
+        }
+    }
+
+    /**
+     * Moves the reader from the start tag of an element to its matching end tag.
+     *
+     * @param reader the reader, positioned on a start tag.
+     * @throws XMLStreamException raised if an error occurs while the document is read.
+     */
+    protected static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT)
+                depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT)
+                depth--;
+        }
+    }
+
+    private static void skipDocument(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext())
+            reader.next();
+    }
+
+    /**
+     * Moves the reader to the next start or end tag. Unlike {@link XMLStreamReader#nextTag()}, text is ignored, as it
+     * is by {@link #mapElementChildrenOf(Node, ElementVisitor)}.
+     */
+    private static int nextTag(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT)
+                return event;
+        }
+        return XMLStreamConstants.END_DOCUMENT;
+    }
+
+    /**
+     * Thrown by the {@link ValidatingStreamReader} when the document does not fulfill the schema.
+     */
+    private static class ValidationException extends XMLStreamException {
+        private static final long serialVersionUID = 146515377917561263L;
+
+        private final SAXException cause;
+
+        ValidationException(SAXException cause) {
+            super(cause.getMessage(), cause);
+            this.cause = cause;
+        }
+
+        @Override
+        public SAXException getCause() {
+            return cause;
+        }
+    }
+
+    /**
+     * {@link XMLStreamReader} that feeds a {@link ValidatorHandler} with the events read by the client code. Errors
+     * are thrown as {@link ValidationException}s by the method that reaches the invalid event.
+     */
+    private static class ValidatingStreamReader extends StreamReaderDelegate {
+        private final ValidatorHandler validator;
+
+        /**
+         * @param reader the validated reader, positioned on the start tag of the root element.
+         * @param validator the {@link ValidatorHandler} of the schema.
+         */
+        ValidatingStreamReader(XMLStreamReader reader, ValidatorHandler validator) throws XMLStreamException {
+            super(reader);
+            this.validator = validator;
+            try {
+                validator.startDocument();
+                startElement();
+            } catch (SAXException e) {
+                throw new ValidationException(e);
+            }
+        }
+
+        @Override
+        public int next() throws XMLStreamException {
+            int event = super.next();
+            try {
+                switch (event) {
+                    case START_ELEMENT:
+                        startElement();
+                        break;
+                    case END_ELEMENT:
+                        validator.endElement(getNamespace(), getLocalName(), getQName());
+                        for (int i = 0; i < getNamespaceCount(); i++)
+                            validator.endPrefixMapping(nonNull(getNamespacePrefix(i)));
+                        break;
+                    case CHARACTERS:
+                    case CDATA:
+                    case SPACE:
+                        validator.characters(getTextCharacters(), getTextStart(), getTextLength());
+                        break;
+                    case END_DOCUMENT:
+                        validator.endDocument();
+                        break;
+                }
+            } catch (SAXException e) {
+                throw new ValidationException(e);
+            }
+            return event;
+        }
+
+        @Override
+        public int nextTag() throws XMLStreamException {
+            int event = next();
+            while (event == CHARACTERS && isWhiteSpace() || event == SPACE || event == COMMENT ||
+                    event == PROCESSING_INSTRUCTION)
+                event = next();
+            if (event != START_ELEMENT && event != END_ELEMENT)
+                throw new XMLStreamException("expected start or end tag", getLocation());
+            return event;
+        }
+
+        @Override
+        public String getElementText() throws XMLStreamException {
+            StringBuilder text = new StringBuilder();
+            for (int event = next(); event != END_ELEMENT; event = next()) {
+                if (event == CHARACTERS || event == CDATA || event == SPACE || event == ENTITY_REFERENCE)
+                    text.append(getText());
+                else if (event == START_ELEMENT)
+                    throw new XMLStreamException("element text expected", getLocation());
+            }
+            return text.toString();
+        }
+
+        private void startElement() throws SAXException {
+            for (int i = 0; i < getNamespaceCount(); i++)
+                validator.startPrefixMapping(nonNull(getNamespacePrefix(i)), nonNull(getNamespaceURI(i)));
+            AttributesImpl attributes = new AttributesImpl();
+            for (int i = 0; i < getAttributeCount(); i++) {
+                String prefix = nonNull(getAttributePrefix(i));
+                String localName = getAttributeLocalName(i);
+                attributes.addAttribute(nonNull(getAttributeNamespace(i)), localName,
+                        prefix.isEmpty() ? localName : prefix + ":" + localName, getAttributeType(i),
+                        getAttributeValue(i));
+            }
+            validator.startElement(getNamespace(), getLocalName(), getQName(), attributes);
+        }
+
+        private String getNamespace() {
+            return nonNull(getNamespaceURI());
+        }
+
+        private String getQName() {
+            String prefix = nonNull(getPrefix());
+            return prefix.isEmpty() ? getLocalName() : prefix + ":" + getLocalName();
+        }
+
+        private static String nonNull(String s) {
+            return s == null ? "" : s;
+        }
+    }
+
     /**
      * Exception raised whenever an error occurs while interpreting the XML document.
      */
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.xml;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/**
+ * Base class for ones used to write JBotSim XML documents as streams.
+ *
+ * <p>Unlike the {@link XMLBuilder}, no {@link org.w3c.dom.Document document} is built: elements are written one by one
+ * using a {@link XMLStreamWriter}, so that the memory used does not depend on the size of the document. The documents
+ * follow the same {@code jbotsim-}{@link XMLBuilder#DEFAULT_VERSION}{@code .xsd} schema and can be read by the
+ * {@link XMLParser}s.</p>
+ *
+ * <p>The root element labelled {@code "jbotsim"} is written by this class; its content is written by subclasses in
+ * {@link #writeRootElement(XMLStreamWriter)}.</p>
+ */
+public abstract class XMLStreamBuilder {
+    private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    /**
+     * Writes the element stored under the {@code jbotsim} root element of the document.
+     *
+     * @param out the {@link XMLStreamWriter} positioned inside the {@code jbotsim} element.
+     * @throws XMLStreamException raised if an error occurs while the element is written.
+     */
+    protected abstract void writeRootElement(XMLStreamWriter out) throws XMLStreamException;
+
+    /**
+     * Outputs the XML document using the given {@link Writer}. The {@link Writer} is flushed but not closed.
+     *
+     * @param out the {@link Writer} in which the document is written.
+     * @throws XMLBuilder.BuilderException raised either when an XML error occurs while the document is written or if
+     *         an IO error occurs.
+     */
+    public void write(Writer out) throws XMLBuilder.BuilderException {
+        try {
+            // XMLStreamWriter cannot declare the document standalone, as does the Transformer used by the XMLBuilder
+            out.write(XML_DECLARATION);
+            XMLStreamWriter writer = XMLIO.createStreamWriter(out);
+            XMLKeys.JBOTSIM.writeStartElement(writer);
+            XMLKeys.VERSION_ATTR.writeAttribute(writer, XMLBuilder.DEFAULT_VERSION);
+            writeRootElement(writer);
+            writer.writeEndDocument();
+            writer.close();
+            out.flush();
+        } catch (XMLIO.XMLIOException | XMLStreamException | IOException e) {
+            throw new XMLBuilder.BuilderException(e);
+        }
+    }
+
+    /**
+     * Outputs the XML document into a {@link String}.
+     *
+     * @return the document as a {@link String}.
+     * @throws XMLBuilder.BuilderException raised when an XML error occurs while the document is written.
+     */
+    public String writeToString() throws XMLBuilder.BuilderException {
+        StringWriter sw = new StringWriter();
+        write(sw);
+        return sw.toString();
+    }
+}
@@ -142,7 +142,7 @@ public class XMLTopologyBuilder extends XMLBuilder {
             XMLKeys.CLASS_ATTR.setNotDefaultAttribute(ne, n.getClass().getName(), "default");
     }
 
-    private static String colorToXml(Color color) {
+    static String colorToXml(Color color) {
         if (color == null)
             return "None";
         else
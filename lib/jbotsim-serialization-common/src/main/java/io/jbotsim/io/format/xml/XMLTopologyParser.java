@@ -23,7 +23,11 @@ package io.jbotsim.io.format.xml;
 import io.jbotsim.core.*;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static io.jbotsim.core.Link.Mode.WIRED;
@@ -38,6 +42,9 @@ import static io.jbotsim.core.Link.Orientation.UNDIRECTED;
  *
  * The class does not create an new topology but populates an existing one passed to the constructor. The client code
  * is in charge of clearing the given topology.
+ *
+ * Documents are interpreted while they are streamed (see {@link #parseTopologyElement(XMLStreamReader, Topology)}), and
+ * nodes are added to the topology by batches, so that large topologies can be loaded in linear time and memory.
  */
 public class XMLTopologyParser extends XMLParser {
     private final Topology tp;
@@ -58,6 +65,11 @@ public class XMLTopologyParser extends XMLParser {
         parseTopologyElement(element, tp);
     }
 
+    @Override
+    protected void parseRootElement(XMLStreamReader reader) throws ParserException, XMLStreamException {
+        parseTopologyElement(reader, tp);
+    }
+
     /**
      * Interprets the root element of a topology and fulfilled the one passed as argument.
      *
@@ -68,6 +80,28 @@ public class XMLTopologyParser extends XMLParser {
     public static void parseTopologyElement(Element topo, Topology tp) throws ParserException {
         if (!XMLKeys.TOPOLOGY.equals(topo.getNodeName()))
             throw new ParserException("invalid node '" + topo.getNodeName() + "' where '" + XMLKeys.TOPOLOGY + "' was expected");
+        try {
+            XMLStreamReader reader = XMLIO.streamElement(topo);
+            parseTopologyElement(reader, tp);
+            reader.close();
+        } catch (XMLIO.XMLIOException | XMLStreamException e) {
+            throw new ParserException(e);
+        }
+    }
+
+    /**
+     * Interprets the root element of a topology read from a stream and fulfilled the one passed as argument.
+     *
+     * @param topo the {@link XMLStreamReader reader} positioned on the start tag of the root element that describes
+     *             the topology. On return, it is positioned on the matching end tag.
+     * @param tp the {@link Topology topology} that is populated with XML data.
+     * @throws ParserException is raised if the given XML document is malformed.
+     * @throws XMLStreamException is raised if an error occurs while the document is read.
+     */
+    public static void parseTopologyElement(XMLStreamReader topo, Topology tp)
+            throws ParserException, XMLStreamException {
+        if (!XMLKeys.TOPOLOGY.labelsElement(topo))
+            throw new ParserException("invalid node '" + topo.getLocalName() + "' where '" + XMLKeys.TOPOLOGY + "' was expected");
 
         if (XMLKeys.WIRELESS_ENABLED_ATTR.isAttributeOf(topo)) {
             if (XMLKeys.WIRELESS_ENABLED_ATTR.getValueFor(topo, XMLKeys.BooleanFromString)) {
@@ -97,11 +131,11 @@ public class XMLTopologyParser extends XMLParser {
         });
     }
 
-    private static void parseClass(Element C, Topology tp) throws ParserException {
+    private static void parseClass(XMLStreamReader C, Topology tp) throws ParserException {
         String ID = XMLKeys.IDENTIFIER_ATTR.getValueFor(C, "default");
         String className = XMLKeys.CLASS_ATTR.getValueFor(C, (String) null);
         if (className == null) // this case should be handled by XSD validator
-            throw new ParserException("missing 'class' attribute in element:" + C.getNodeName());
+            throw new ParserException("missing 'class' attribute in element:" + C.getLocalName());
 
         try {
             Class<?> c = Class.forName(className);
@@ -125,7 +159,7 @@ public class XMLTopologyParser extends XMLParser {
                     tp.setNodeModel(ID, cls);
             } else {
                 // this case should be handled by XSD validator
-                throw new ParserException("unknown model class: " + C.getNodeName());
+                throw new ParserException("unknown model class: " + C.getLocalName());
             }
         } catch (ParserException e) {
             throw e;
@@ -134,18 +168,32 @@ public class XMLTopologyParser extends XMLParser {
         }
     }
 
-    private static void parseGraphElement(Element ge, Topology tp) throws ParserException {
+    private static void parseGraphElement(XMLStreamReader ge, Topology tp) throws ParserException, XMLStreamException {
         HashMap<String, Node> nodeids = new HashMap<>();
+        // the identifiers are restored unless they may clash with the ones of existing nodes
+        boolean restoreIds = tp.getNodes().isEmpty();
+        // consecutive nodes are added together, so that wireless links are computed once
+        List<Node> newNodes = new ArrayList<>();
         mapElementChildrenOf(ge, e -> {
             if (XMLKeys.NODE.labelsElement(e))
-                parseNode(e, tp, nodeids);
-            else if (XMLKeys.LINK.labelsElement(e))
+                newNodes.add(parseNode(e, tp, nodeids, restoreIds));
+            else if (XMLKeys.LINK.labelsElement(e)) {
+                addNodes(tp, newNodes);
                 parseLink(e, tp, nodeids);
-            else throw new EnumConstantNotPresentException(XMLKeys.class, e.getTagName());
+            }
+            else throw new EnumConstantNotPresentException(XMLKeys.class, e.getLocalName());
         });
+        addNodes(tp, newNodes);
     }
 
-    private static Color parseColor(Element e, Color default_color) {
+    private static void addNodes(Topology tp, List<Node> newNodes) {
+        if (!newNodes.isEmpty()) {
+            tp.addNodes(newNodes);
+            newNodes.clear();
+        }
+    }
+
+    private static Color parseColor(XMLStreamReader e, Color default_color) {
         Color result = default_color;
         String color = XMLKeys.COLOR_ATTR.getValueFor(e, (String) null);
         if (color != null && !color.equals("None")) {
@@ -174,7 +222,8 @@ public class XMLTopologyParser extends XMLParser {
         }
     }
 
-    private static void parseNode(Element ne, Topology tp, Map<String, Node> nodeids) throws ParserException {
+    private static Node parseNode(XMLStreamReader ne, Topology tp, Map<String, Node> nodeids, boolean restoreId)
+            throws ParserException {
         Node n;
 
         try {
@@ -197,6 +246,8 @@ public class XMLTopologyParser extends XMLParser {
         if (nodeids.containsKey(id))
             throw new ParserException("node identifier is already used: " + id);
         nodeids.put(id, n);
+        if (restoreId)
+            restoreID(n, id);
 
         n.setColor(parseColor(ne, Node.DEFAULT_COLOR));
         if (XMLKeys.ICON_ATTR.isAttributeOf(ne)) {
@@ -216,10 +267,20 @@ public class XMLTopologyParser extends XMLParser {
         double z = XMLKeys.LOCATION_Z_ATTR.getValueFor(ne, 0.0);
         n.setLocation(x, y, z);
 
-        tp.addNode(n);
+        return n;
+    }
+
+    // identifiers which are not numbers, as found in hand-written documents, are replaced with new ones
+    private static void restoreID(Node n, String id) {
+        try {
+            int ID = Integer.parseInt(id);
+            if (ID >= 0)
+                n.setID(ID);
+        } catch (NumberFormatException ignored) {
+        }
     }
 
-    private static void parseLink(Element e, Topology tp, Map<String, Node> nodeids) throws ParserException {
+    private static void parseLink(XMLStreamReader e, Topology tp, Map<String, Node> nodeids) throws ParserException {
         Link.Orientation orientation = XMLKeys.DIRECTED_ATTR.getValueFor(e, false) ? DIRECTED : UNDIRECTED;
 
         Node src = nodeids.get(XMLKeys.SOURCE_ATTR.getValueFor(e));
@@ -232,7 +293,7 @@ public class XMLTopologyParser extends XMLParser {
 
         l.setWidth(XMLKeys.WIDTH_ATTR.getValueFor(e, Link.DEFAULT_WIDTH));
         l.setColor(parseColor(e, Link.DEFAULT_COLOR));
-        tp.addLink(l, true);
+        tp.addLink(l);
     }
 
 }
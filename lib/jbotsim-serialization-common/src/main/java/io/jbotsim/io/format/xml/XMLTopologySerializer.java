@@ -23,6 +23,10 @@ package io.jbotsim.io.format.xml;
 import io.jbotsim.core.Topology;
 import io.jbotsim.io.TopologySerializer;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
 public class XMLTopologySerializer implements TopologySerializer {
     private boolean validateDocument;
 
@@ -35,8 +39,7 @@ public class XMLTopologySerializer implements TopologySerializer {
         String result;
 
         try {
-            XMLTopologyBuilder builder = new XMLTopologyBuilder(topology);
-            result = builder.writeToString();
+            result = new XMLTopologyStreamBuilder(topology).writeToString();
         } catch (XMLBuilder.BuilderException e) {
             result = null;
             e.printStackTrace();
@@ -54,4 +57,22 @@ public class XMLTopologySerializer implements TopologySerializer {
             e.printStackTrace();
         }
     }
+
+    @Override
+    public void exportTo(Topology topology, Writer writer) throws IOException {
+        try {
+            new XMLTopologyStreamBuilder(topology).write(writer);
+        } catch (XMLBuilder.BuilderException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void importFrom(Topology topology, Reader reader) throws IOException {
+        try {
+            new XMLTopologyParser(topology, validateDocument).parse(reader);
+        } catch (XMLParser.ParserException e) {
+            throw new IOException(e);
+        }
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.xml;
+
+import io.jbotsim.core.*;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import static io.jbotsim.io.format.xml.XMLTopologyBuilder.colorToXml;
+
+/**
+ * <p>Streaming counterpart of the {@link XMLTopologyBuilder}: the {@link Topology} is written element by element,
+ * without building a {@link org.w3c.dom.Document document} first.</p>
+ *
+ * <p>The class method {@link #writeTopologyElement} can be invoked to write the element that stores an entire
+ * {@link Topology}.</p>
+ */
+public class XMLTopologyStreamBuilder extends XMLStreamBuilder {
+    private final Topology tp;
+
+    /**
+     * @param tp the {@link Topology} written by this builder.
+     */
+    public XMLTopologyStreamBuilder(Topology tp) {
+        this.tp = tp;
+    }
+
+    @Override
+    protected void writeRootElement(XMLStreamWriter out) throws XMLStreamException {
+        writeTopologyElement(out, tp);
+    }
+
+    /**
+     * Writes the element (and subtrees) that stores the given {@link Topology} {@code tp}. The content is the same as
+     * the one of the element built by {@link XMLTopologyBuilder#buildTopologyElement}.
+     *
+     * @param out the {@link XMLStreamWriter} in which the element is written.
+     * @param tp the {@link Topology topology} to be translated in XML.
+     * @throws XMLStreamException raised if an error occurs while the element is written.
+     */
+    public static void writeTopologyElement(XMLStreamWriter out, Topology tp) throws XMLStreamException {
+        XMLKeys.TOPOLOGY.writeStartElement(out);
+
+        XMLKeys.WIRELESS_ENABLED_ATTR.writeAttribute(out, tp.getWirelessStatus());
+        XMLKeys.TIME_UNIT_ATTR.writeAttribute(out, tp.getTimeUnit());
+
+        XMLKeys.WIDTH_ATTR.writeNotDefaultAttribute(out, tp.getWidth(),
+                Topology.DEFAULT_WIDTH);
+        XMLKeys.HEIGHT_ATTR.writeNotDefaultAttribute(out, tp.getHeight(),
+                Topology.DEFAULT_HEIGHT);
+        XMLKeys.SENSING_RANGE_ATTR.writeNotDefaultAttribute(out, tp.getSensingRange(),
+                Topology.DEFAULT_SENSING_RANGE);
+        XMLKeys.COMMUNICATION_RANGE_ATTR.writeNotDefaultAttribute(out, tp.getCommunicationRange(),
+                Topology.DEFAULT_COMMUNICATION_RANGE);
+
+        writeClasses(out, tp);
+        writeGraph(out, tp);
+
+        out.writeEndElement();
+    }
+
+    private static void writeModel(XMLStreamWriter out, XMLKeys key, String id, Class<?> c) throws XMLStreamException {
+        if (c != null) {
+            key.writeEmptyElement(out);
+            XMLKeys.IDENTIFIER_ATTR.writeAttribute(out, id);
+            XMLKeys.CLASS_ATTR.writeAttribute(out, c.getName());
+        }
+    }
+
+    private static void writeClasses(XMLStreamWriter out, Topology tp) throws XMLStreamException {
+        XMLKeys.CLASSES.writeStartElement(out);
+        for (String mname : tp.getModelsNames())
+            writeModel(out, XMLKeys.NODECLASS, mname, tp.getNodeModel(mname));
+        writeModel(out, XMLKeys.MESSAGE_ENGINE, "default", tp.getMessageEngine().getClass());
+        writeModel(out, XMLKeys.LINK_RESOLVER, "default", tp.getLinkResolver().getClass());
+        writeModel(out, XMLKeys.SCHEDULER, "default", tp.getScheduler().getClass());
+        writeModel(out, XMLKeys.CLOCKCLASS, "default", tp.getClockModel());
+        out.writeEndElement();
+    }
+
+    private static void writeGraph(XMLStreamWriter out, Topology tp) throws XMLStreamException {
+        XMLKeys.GRAPH.writeStartElement(out);
+        for (Node n : tp.getNodes())
+            writeNode(out, tp, n);
+        for (Link l : tp.getLinks(Link.Orientation.DIRECTED))
+            if (! l.isWireless())
+                writeLink(out, l);
+        out.writeEndElement();
+    }
+
+    private static void writeNode(XMLStreamWriter out, Topology tp, Node n) throws XMLStreamException {
+        XMLKeys.NODE.writeEmptyElement(out);
+
+        XMLKeys.IDENTIFIER_ATTR.writeAttribute(out, n.getID());
+        XMLKeys.COLOR_ATTR.writeNotDefaultAttribute(out, colorToXml(n.getColor()), colorToXml(Node.DEFAULT_COLOR));
+        if (n.getIcon() != null)
+            XMLKeys.ICON_ATTR.writeAttribute(out, n.getIcon());
+        XMLKeys.SIZE_ATTR.writeNotDefaultAttribute(out, n.getIconSize(), Node.DEFAULT_ICON_SIZE);
+        XMLKeys.COMMUNICATION_RANGE_ATTR.writeNotDefaultAttribute(out, n.getCommunicationRange(),
+                tp.getCommunicationRange());
+        XMLKeys.SENSING_RANGE_ATTR.writeNotDefaultAttribute(out, n.getSensingRange(),
+                tp.getSensingRange());
+        XMLKeys.DIRECTION_ATTR.writeNotDefaultAttribute(out, n.getDirection(), Node.DEFAULT_DIRECTION);
+        XMLKeys.LOCATION_X_ATTR.writeAttribute(out, n.getX());
+        XMLKeys.LOCATION_Y_ATTR.writeAttribute(out, n.getY());
+        XMLKeys.LOCATION_Z_ATTR.writeNotDefaultAttribute(out, n.getZ(), 0.0);
+        if (! n.getClass().equals (tp.getDefaultNodeModel()))
+            XMLKeys.CLASS_ATTR.writeNotDefaultAttribute(out, n.getClass().getName(), "default");
+    }
+
+    private static void writeLink(XMLStreamWriter out, Link l) throws XMLStreamException {
+        XMLKeys.LINK.writeEmptyElement(out);
+        XMLKeys.DIRECTED_ATTR.writeAttribute(out, l.isDirected());
+        XMLKeys.SOURCE_ATTR.writeAttribute(out, l.endpoint(0).getID());
+        XMLKeys.DESTINATION_ATTR.writeAttribute(out, l.endpoint(1).getID());
+        XMLKeys.WIDTH_ATTR.writeNotDefaultAttribute(out, l.getWidth(), Link.DEFAULT_WIDTH);
+        XMLKeys.COLOR_ATTR.writeNotDefaultAttribute(out, colorToXml(l.getColor()), colorToXml(Link.DEFAULT_COLOR));
+    }
+}
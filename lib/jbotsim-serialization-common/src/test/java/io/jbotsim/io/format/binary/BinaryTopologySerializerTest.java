@@ -0,0 +1,212 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.binary;
+
+import io.jbotsim.core.Color;
+import io.jbotsim.core.DefaultCheckpointCodec;
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import io.jbotsim.core.event.ConnectivityListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTopologySerializerTest {
+
+    private Topology tp;
+
+    @BeforeEach
+    void setUp() {
+        tp = new Topology(800, 500);
+        tp.setCommunicationRange(120);
+        tp.setSensingRange(30);
+        tp.disableWireless();
+        tp.addNode(10, 20);
+        tp.addNode(100.5, 200.25);
+        tp.addNode(300, 400);
+        Node n0 = tp.getNodes().get(0);
+        Node n1 = tp.getNodes().get(1);
+        Node n2 = tp.getNodes().get(2);
+        n1.setLocation(100.5, 200.25, 7);
+        n2.setCommunicationRange(60);
+        tp.addLink(new Link(n0, n1, Link.Mode.WIRED));
+        tp.addLink(new Link(n1, n2, Link.Orientation.DIRECTED, Link.Mode.WIRED));
+    }
+
+    private static void assertSameTopology(Topology expected, Topology actual) {
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getWirelessStatus(), actual.getWirelessStatus());
+        assertEquals(expected.getCommunicationRange(), actual.getCommunicationRange(), 0);
+        assertEquals(expected.getSensingRange(), actual.getSensingRange(), 0);
+        assertEquals(expected.getNodes().size(), actual.getNodes().size());
+        for (int i = 0; i < expected.getNodes().size(); i++) {
+            Node n = expected.getNodes().get(i);
+            Node r = actual.getNodes().get(i);
+            assertEquals(n.getLocation(), r.getLocation());
+            assertEquals(n.getCommunicationRange(), r.getCommunicationRange(), 0);
+            assertEquals(n.getSensingRange(), r.getSensingRange(), 0);
+        }
+        assertEquals(expected.getLinks().size(), actual.getLinks().size());
+        assertEquals(expected.getLinks(Link.Orientation.DIRECTED).size(),
+                actual.getLinks(Link.Orientation.DIRECTED).size());
+    }
+
+    @Test
+    void string_roundTrip_identical() {
+        BinaryTopologySerializer serializer = new BinaryTopologySerializer();
+        Topology imported = new Topology();
+        serializer.importFromString(imported, serializer.exportToString(tp));
+
+        assertSameTopology(tp, imported);
+        Node r1 = imported.getNodes().get(1);
+        Node r2 = imported.getNodes().get(2);
+        assertNotNull(imported.getLink(r1, r2, Link.Orientation.DIRECTED));
+        assertNull(imported.getLink(r2, r1, Link.Orientation.DIRECTED));
+    }
+
+    @Test
+    void importFrom_emptyTopology_idsRestoredAndLinksNotified() {
+        tp.removeNode(tp.getNodes().get(0));
+        tp.addLink(new Link(tp.getNodes().get(0), tp.getNodes().get(1), Link.Mode.WIRED));
+        BinaryTopologySerializer serializer = new BinaryTopologySerializer();
+        Topology imported = new Topology();
+        List<Link> addedLinks = new ArrayList<>();
+        imported.addConnectivityListener(new ConnectivityListener() {
+            @Override
+            public void onLinkAdded(Link l) {
+                addedLinks.add(l);
+            }
+
+            @Override
+            public void onLinkRemoved(Link l) {
+            }
+        });
+
+        serializer.importFromString(imported, serializer.exportToString(tp));
+
+        assertEquals(1, imported.getNodes().get(0).getID());
+        assertEquals(2, imported.getNodes().get(1).getID());
+        assertEquals(imported.getLinks(), addedLinks);
+        imported.addNode(10, 10);
+        assertEquals(3, imported.getNodes().get(2).getID());
+
+        Topology nonEmpty = new Topology();
+        nonEmpty.addNode(10, 10);
+        serializer.importFromString(nonEmpty, serializer.exportToString(tp));
+        assertEquals(Arrays.asList(0, 1, 2), Arrays.asList(nonEmpty.getNodes().get(0).getID(),
+                nonEmpty.getNodes().get(1).getID(), nonEmpty.getNodes().get(2).getID()));
+    }
+
+    @Test
+    void file_roundTrip_identical() throws IOException {
+        File file = File.createTempFile("topology", ".jbin");
+        file.deleteOnExit();
+        BinaryTopologySerializer serializer = new BinaryTopologySerializer();
+        tp.getFileManager().exportTopology(file.getPath(), tp, serializer);
+
+        Topology imported = new Topology();
+        imported.getFileManager().importTopology(file.getPath(), imported, serializer);
+
+        assertSameTopology(tp, imported);
+    }
+
+    @Test
+    void properties_withCodec_restored() throws IOException {
+        Node n0 = tp.getNodes().get(0);
+        Node n2 = tp.getNodes().get(2);
+        tp.setProperty("name", "test");
+        n0.setProperty("color", Color.red);
+        n2.setProperty("parent", n0);
+        BinaryTopologySerializer serializer = new BinaryTopologySerializer(new DefaultCheckpointCodec());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.exportTo(tp, bytes);
+
+        Topology imported = new Topology();
+        serializer.importFrom(imported, new ByteArrayInputStream(bytes.toByteArray()));
+
+        Node r0 = imported.getNodes().get(0);
+        Node r2 = imported.getNodes().get(2);
+        assertEquals("test", imported.getProperty("name"));
+        assertEquals(Color.red, r0.getProperty("color"));
+        assertSame(r0, r2.getProperty("parent"));
+
+        Topology withoutProperties = new Topology();
+        new BinaryTopologySerializer().importFrom(withoutProperties, new ByteArrayInputStream(bytes.toByteArray()));
+        assertSameTopology(tp, withoutProperties);
+        assertNull(withoutProperties.getProperty("name"));
+    }
+
+    @Test
+    void importFrom_invalidData_throws() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new BinaryTopologySerializer().exportTo(tp, bytes);
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 8);
+
+        assertThrows(StreamCorruptedException.class, () -> new BinaryTopologySerializer().importFrom(new Topology(),
+                new ByteArrayInputStream(new byte[64])));
+        assertThrows(EOFException.class, () -> new BinaryTopologySerializer().importFrom(new Topology(),
+                new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    void importFrom_corruptedHeader_rejectedBeforeAllocation() throws IOException {
+        BinaryTopologySerializer serializer = new BinaryTopologySerializer();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.exportTo(tp, bytes);
+        File file = File.createTempFile("topology", ".jbin");
+        try {
+            // the header is: magic, version, flags, ..., number of nodes (offset 40), of undirected links (44)
+            for (int[] field : new int[][]{{4, 0}, {4, -1}, {44, Integer.MAX_VALUE}, {44, 1 << 28}, {40, 1 << 28}}) {
+                ByteBuffer corrupted = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+                corrupted.putInt(field[0], field[1]);
+                Files.write(file.toPath(), corrupted.array());
+
+                try (FileChannel channel = FileChannel.open(file.toPath())) {
+                    assertThrows(StreamCorruptedException.class, () -> serializer.importFrom(new Topology(), channel));
+                }
+                UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> serializer.importFromString(
+                        new Topology(), Base64.getEncoder().encodeToString(corrupted.array())));
+                assertTrue(e.getCause() instanceof StreamCorruptedException);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dataset;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Point;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeListTopologySerializerTest {
+
+    private static Topology importEdges(EdgeListTopologySerializer serializer, String data) {
+        Topology tp = new Topology();
+        serializer.importFromString(tp, data);
+        return tp;
+    }
+
+    private static boolean areLinked(Topology tp, int id1, int id2, Link.Orientation orientation) {
+        return tp.getLink(tp.findNodeById(id1), tp.findNodeById(id2), orientation) != null;
+    }
+
+    @Test
+    void import_undirected_duplicatesAndSelfLoopsIgnored() {
+        String data = "# Nodes: 4 Edges: 5\n" +
+                "% other comment style\n" +
+                "0\t1\n" +
+                "1 0\n" +
+                "\n" +
+                "1   2 0.5 1200\n" +
+                "2 2\n" +
+                "3 1";
+
+        Topology tp = importEdges(new EdgeListTopologySerializer(), data);
+
+        assertEquals(4, tp.getNodes().size());
+        assertEquals(3, tp.getLinks().size());
+        assertEquals(6, tp.getLinks(Link.Orientation.DIRECTED).size());
+        assertTrue(areLinked(tp, 0, 1, Link.Orientation.UNDIRECTED));
+        assertTrue(areLinked(tp, 1, 2, Link.Orientation.UNDIRECTED));
+        assertTrue(areLinked(tp, 1, 3, Link.Orientation.UNDIRECTED));
+        assertFalse(tp.getWirelessStatus());
+        for (Link l : tp.getLinks())
+            assertFalse(l.isWireless());
+    }
+
+    @Test
+    void import_directed_arcsKept() {
+        Topology tp = importEdges(new EdgeListTopologySerializer(true), "0 1\n1 0\n1 2\n1 2\n");
+
+        assertEquals(3, tp.getLinks(Link.Orientation.DIRECTED).size());
+        assertEquals(1, tp.getLinks().size());
+        assertTrue(areLinked(tp, 1, 2, Link.Orientation.DIRECTED));
+        assertFalse(areLinked(tp, 2, 1, Link.Orientation.DIRECTED));
+    }
+
+    @Test
+    void import_largeSparseIdentifiers_kept() {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 10_000; i++)
+            data.append(i * 100_003).append(' ').append((i + 1) * 100_003).append('\n');
+
+        Topology tp = importEdges(new EdgeListTopologySerializer(), data.toString());
+
+        assertEquals(10_001, tp.getNodes().size());
+        assertEquals(10_000, tp.getLinks().size());
+        assertTrue(areLinked(tp, 9_999 * 100_003, 10_000 * 100_003, Link.Orientation.UNDIRECTED));
+    }
+
+    @Test
+    void import_withCoordinates_nodesPlaced() throws IOException {
+        Topology tp = new Topology();
+        String coordinates = "# id x y\n0 10.5 20\n1 30 40 5\n7 100 200\n";
+
+        new EdgeListTopologySerializer().importFrom(tp, new StringReader("0 1\n1 2\n"),
+                new StringReader(coordinates));
+
+        assertEquals(4, tp.getNodes().size());
+        assertEquals(new Point(10.5, 20), tp.findNodeById(0).getLocation());
+        assertEquals(new Point(30, 40, 5), tp.findNodeById(1).getLocation());
+        assertEquals(new Point(100, 200), tp.findNodeById(7).getLocation());
+        assertTrue(tp.findNodeById(7).getNeighbors().isEmpty());
+        assertEquals(2, tp.getLinks().size());
+    }
+
+    @Test
+    void exportThenImport_sameGraph() throws IOException {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        for (int i = 0; i < 5; i++)
+            tp.addNode(10 * i, 20 * i);
+        for (int i = 0; i < 4; i++)
+            tp.addLink(new Link(tp.getNodes().get(i), tp.getNodes().get(i + 1), Link.Mode.WIRED));
+        EdgeListTopologySerializer serializer = new EdgeListTopologySerializer();
+        StringWriter coordinates = new StringWriter();
+        serializer.exportCoordinatesTo(tp, coordinates);
+
+        Topology imported = new Topology();
+        serializer.importFrom(imported, new StringReader(serializer.exportToString(tp)),
+                new StringReader(coordinates.toString()));
+
+        assertEquals(tp.getNodes().size(), imported.getNodes().size());
+        assertEquals(tp.getLinks().size(), imported.getLinks().size());
+        for (Node n : tp.getNodes())
+            assertEquals(n.getLocation(), imported.findNodeById(n.getID()).getLocation());
+        for (Link l : tp.getLinks())
+            assertTrue(areLinked(imported, l.source.getID(), l.destination.getID(), Link.Orientation.UNDIRECTED));
+    }
+
+    @Test
+    void export_directedTopology_edgesWrittenOnce() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        tp.setOrientation(Link.Orientation.DIRECTED);
+        for (int i = 0; i < 3; i++)
+            tp.addNode(10 * i, 10);
+        List<Node> nodes = tp.getNodes();
+        tp.addLink(new Link(nodes.get(0), nodes.get(1), Link.Mode.WIRED));
+        tp.addLink(new Link(nodes.get(1), nodes.get(2), Link.Orientation.DIRECTED, Link.Mode.WIRED));
+        tp.addLink(new Link(nodes.get(2), nodes.get(2), Link.Mode.WIRED));
+
+        assertEquals("# Nodes: 3 Edges: 1\n0 1\n", new EdgeListTopologySerializer().exportToString(tp));
+        assertEquals("# Nodes: 3 Edges: 3\n0 1\n1 0\n1 2\n",
+                new EdgeListTopologySerializer(true).exportToString(tp));
+    }
+
+    @Test
+    void import_malformedLine_throwsWithLineNumber() {
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> importEdges(new EdgeListTopologySerializer(), "0 1\n1 x2\n"));
+        assertTrue(e.getCause().getMessage().startsWith("line 2:"));
+
+        assertThrows(UncheckedIOException.class, () -> importEdges(new EdgeListTopologySerializer(), "0\n"));
+        assertThrows(UncheckedIOException.class,
+                () -> importEdges(new EdgeListTopologySerializer(), "0 99999999999\n"));
+    }
+}
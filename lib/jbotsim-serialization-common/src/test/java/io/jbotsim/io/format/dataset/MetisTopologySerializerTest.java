@@ -0,0 +1,132 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dataset;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetisTopologySerializerTest {
+
+    private static Topology importGraph(String data) {
+        Topology tp = new Topology();
+        new MetisTopologySerializer().importFromString(tp, data);
+        return tp;
+    }
+
+    private static boolean areLinked(Topology tp, int id1, int id2) {
+        return tp.getLink(tp.findNodeById(id1), tp.findNodeById(id2)) != null;
+    }
+
+    @Test
+    void import_withCommentsAndIsolatedVertex() {
+        String data = "% a path and an isolated vertex\n" +
+                "4 2\n" +
+                "2\n" +
+                "% comments may appear anywhere\n" +
+                "1 3\n" +
+                "2\n" +
+                "\n";
+
+        Topology tp = importGraph(data);
+
+        assertEquals(4, tp.getNodes().size());
+        assertEquals(2, tp.getLinks().size());
+        assertTrue(areLinked(tp, 0, 1));
+        assertTrue(areLinked(tp, 1, 2));
+        assertTrue(tp.findNodeById(3).getNeighbors().isEmpty());
+        assertFalse(tp.getWirelessStatus());
+    }
+
+    @Test
+    void import_weights_ignored() {
+        // vertex sizes, 2 vertex weights per vertex and edge weights
+        String data = "3 3 111 2\n" +
+                "1 5 6 2 10 3 20\n" +
+                "1 7 8 1 10 3 30\n" +
+                "1 9 9 1 20 2 30\n";
+
+        Topology tp = importGraph(data);
+
+        assertEquals(3, tp.getNodes().size());
+        assertEquals(3, tp.getLinks().size());
+        assertTrue(areLinked(tp, 0, 2));
+    }
+
+    @Test
+    void exportThenImport_sameGraph() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        for (int i = 0; i < 6; i++)
+            tp.addNode(10 * i, 10);
+        for (int i = 0; i < 6; i++)
+            tp.addLink(new Link(tp.getNodes().get(i), tp.getNodes().get((i + 1) % 6), Link.Mode.WIRED));
+        tp.addLink(new Link(tp.getNodes().get(0), tp.getNodes().get(3), Link.Mode.WIRED));
+        MetisTopologySerializer serializer = new MetisTopologySerializer();
+
+        String data = serializer.exportToString(tp);
+        Topology imported = importGraph(data);
+
+        assertTrue(data.startsWith("6 7\n2 6 4\n"));
+        assertEquals(6, imported.getNodes().size());
+        assertEquals(7, imported.getLinks().size());
+        for (Link l : tp.getLinks())
+            assertTrue(areLinked(imported, l.source.getID(), l.destination.getID()));
+    }
+
+    @Test
+    void import_edgeListedByOneEndpoint_kept() {
+        // the edge 1-3 is only listed by vertex 3, and vertex 2 has a loop
+        Topology tp = importGraph("3 2\n2\n1 2\n1\n");
+
+        assertEquals(2, tp.getLinks().size());
+        assertTrue(areLinked(tp, 0, 1));
+        assertTrue(areLinked(tp, 0, 2));
+    }
+
+    @Test
+    void export_directedLinksAndLoop_edgesCountedOnce() {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        tp.setOrientation(Link.Orientation.DIRECTED);
+        for (int i = 0; i < 3; i++)
+            tp.addNode(10 * i, 10);
+        List<Node> nodes = tp.getNodes();
+        tp.addLink(new Link(nodes.get(0), nodes.get(1), Link.Mode.WIRED));
+        tp.addLink(new Link(nodes.get(1), nodes.get(2), Link.Orientation.DIRECTED, Link.Mode.WIRED));
+        tp.addLink(new Link(nodes.get(2), nodes.get(2), Link.Mode.WIRED));
+
+        assertEquals("3 1\n2\n1\n\n", new MetisTopologySerializer().exportToString(tp));
+    }
+
+    @Test
+    void import_unknownVertex_throws() {
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> importGraph("2 1\n3\n1\n"));
+        assertTrue(e.getCause().getMessage().startsWith("line 2:"));
+        assertThrows(UncheckedIOException.class, () -> importGraph("% only a comment\n"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeTableTest {
+
+    private static AttributeTable createTable(String attr, String value) {
+        AttributeTable table = new AttributeTable();
+        table.setAttribute(attr, value);
+        return table;
+    }
+
+    @Test
+    void sharedTable_modifiedCopy_originalUnchanged() {
+        AttributeTable original = createTable("color", "red");
+        AttributeTable copy = new AttributeTable(original);
+
+        copy.setAttribute("color", "blue");
+        copy.setAttribute("width", "2");
+
+        assertEquals("red", original.getAttribute("color"));
+        assertNull(original.getAttribute("width"));
+        assertEquals("blue", copy.getAttribute("color"));
+    }
+
+    @Test
+    void sharedTable_modifiedOriginal_copyUnchanged() {
+        AttributeTable original = createTable("color", "red");
+        AttributeTable copy = new AttributeTable(original);
+
+        original.setAttribute("color", "blue");
+
+        assertEquals("red", copy.getAttribute("color"));
+    }
+
+    @Test
+    void putAll_intoEmptyTable_sourceStillIndependent() {
+        AttributeTable source = createTable("color", "red");
+        AttributeTable table = new AttributeTable();
+
+        table.putAll(source);
+        table.setAttribute("width", "2");
+        source.setAttribute("color", "blue");
+
+        assertEquals("red", table.getAttribute("color"));
+        assertNull(source.getAttribute("width"));
+    }
+
+    @Test
+    void putAll_intoNonEmptyTable_merges() {
+        AttributeTable table = createTable("color", "red");
+
+        table.putAll(createTable("width", "2"));
+        table.putAll(null);
+
+        assertEquals("red", table.getAttribute("color"));
+        assertEquals("2", table.getAttribute("width"));
+    }
+
+    @Test
+    void newTable_isEmpty() {
+        AttributeTable table = new AttributeTable(null);
+
+        assertFalse(table.hasAttributes());
+        assertNull(table.getAttribute("color"));
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.dot;
+
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DotOrganizeTest {
+
+    public static class LongRangeNode extends Node {
+        public LongRangeNode() {
+            setCommunicationRange(500);
+        }
+    }
+
+    @Test
+    public void importWithScale_nodeRangesScaled() {
+        String data = "graph {\n" +
+                "  0 [pos=\"10,10\"];\n" +
+                "  1 [pos=\"40,10\", jbotsimNodeClass=\"" + LongRangeNode.class.getName() + "\"];\n" +
+                "}\n";
+        Topology tp = new Topology();
+        double range = tp.getCommunicationRange();
+
+        new DotTopologySerializer(2, 10).importFromString(tp, data);
+
+        assertEquals(2, tp.getNodes().size());
+        assertEquals(2 * range, tp.getCommunicationRange(), 0);
+        for (Node node : tp.getNodes())
+            assertEquals(2 * range, node.getCommunicationRange(), 0);
+        assertEquals(60, tp.getNodes().get(1).getX() - tp.getNodes().get(0).getX(), 0);
+    }
+}
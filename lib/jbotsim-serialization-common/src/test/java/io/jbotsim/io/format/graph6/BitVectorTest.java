@@ -60,6 +60,34 @@ class BitVectorTest {
         assertEquals(bv, vec);
     }
 
+    @ParameterizedTest(name = "bv size = {0}, seed = {1}")
+    @MethodSource("SIZE_AND_SEED_PARAMETERS")
+    void randomGetSetBits(int bvSize, int seed) {
+        Random rnd = new Random(seed);
+        BitVector bv = new BitVector();
+        boolean[] vec = new boolean[bvSize + 64];
+
+        for (int i = 0; i < bvSize; i++) {
+            int from = rnd.nextInt(bvSize);
+            int count = rnd.nextInt(65);
+            long value = rnd.nextLong();
+            for (int b = 0; b < count; b++)
+                vec[from + b] = (value & (1L << (count - 1 - b))) != 0;
+            bv.setBits(from, count, value);
+            long mask = count == 64 ? -1L : (1L << count) - 1;
+            Assertions.assertEquals(value & mask, bv.getBits(from, count));
+        }
+        assertEquals(bv, vec);
+        int next = -1;
+        for (int i = 0; i < vec.length; i++) {
+            if (vec[i]) {
+                Assertions.assertEquals(i, bv.nextSetBit(next + 1));
+                next = i;
+            }
+        }
+        Assertions.assertEquals(-1, bv.nextSetBit(next + 1));
+    }
+
     private void assertEquals(BitVector bv, boolean[] vec) {
         for (int i = 0; i < vec.length; i++) {
             Assertions.assertEquals(vec[i], bv.get(i));
@@ -27,10 +27,12 @@ import static io.jbotsim.core.Link.Orientation;
 
 import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -87,6 +89,74 @@ class Graph6CodecTest {
                                   Orientation orientation) {
         checkGraphByEdges(SIMPLE_GRAPHS[graph_index], withHeader, orientation);
     }
+
+    private static Stream<Arguments> SPARSE6_GRAPHS_PARAMETERS() {
+        return rangeStream(0, SIMPLE_GRAPHS.length - 1)
+                .flatMap(i -> Stream.of(Arguments.of(i, true), Arguments.of(i, false)));
+    }
+
+    @ParameterizedTest(name = "graph {0}, header = {1}")
+    @MethodSource("SPARSE6_GRAPHS_PARAMETERS")
+    void encodeDecodeSparse6SimpleGraphs(int graph_index, boolean withHeader) {
+        checkSparse6GraphByEdges(SIMPLE_GRAPHS[graph_index], withHeader);
+    }
+
+    @ParameterizedTest(name = "line with {0} nodes")
+    @MethodSource("ENUMERATE_NB_NODES")
+    void encodeDecodeSparse6LineGraph(int nbNodes, boolean withHeader,
+                                      Orientation orientation) {
+        if (nbNodes < 2 || orientation == Orientation.DIRECTED)
+            return;
+        checkSparse6GraphByEdges(buildLineGraph(nbNodes), withHeader);
+    }
+
+    /**
+     * Graphs with 4, 8 or 16 nodes in which node n-2 has a link but node
+     * n-1 has none, which requires a specific padding: {nbNodes, i, n-2}.
+     */
+    private static final int[][] SPARSE6_PADDING_GRAPHS = new int[][]{
+            {4, 0, 2}, {8, 1, 6}, {16, 0, 14}
+    };
+
+    private static Stream<Arguments> SPARSE6_PADDING_PARAMETERS() {
+        return Arrays.stream(SPARSE6_PADDING_GRAPHS).map(g -> Arguments.of(g[0], g[1], g[2]));
+    }
+
+    @ParameterizedTest(name = "{0} nodes, link {1}-{2}")
+    @MethodSource("SPARSE6_PADDING_PARAMETERS")
+    void encodeDecodeSparse6Padding(int nbNodes, int src, int tgt) {
+        Topology tp = buildTopologyWithoutEdges(nbNodes, Orientation.UNDIRECTED);
+        tp.addLink(new Link(tp.findNodeById(src), tp.findNodeById(tgt)), true);
+        encodeDecodeSparse6(tp, false);
+    }
+
+    @Test
+    void decodeSparse6ReferenceExample() {
+        // example of the reference document: 7 nodes, links 0-1, 0-2, 1-2, 5-6
+        Topology tp = new Topology();
+        tp.disableWireless();
+        Graph6Codec.decodeGraph(tp, ":Fa@x^");
+
+        assertEquals(7, tp.getNodes().size());
+        assertEquals(4, tp.getLinks().size());
+        assertNotNull(tp.getLink(tp.findNodeById(5), tp.findNodeById(6)));
+        assertEquals(":Fa@x^", Graph6Codec.encodeGraph(tp, false, true));
+    }
+
+    @Test
+    void incrementalSparse6TogglesLinks() {
+        Topology previous = buildTopologyFromEdges(SIMPLE_GRAPHS[2], Orientation.UNDIRECTED);
+        Topology next = buildTopologyFromEdges(new int[][]{{0, 2}, {1, 4}, {3, 4}, {0, 3}},
+                Orientation.UNDIRECTED);
+        String increment = Graph6Codec.encodeIncrementalSparse6(previous, next);
+        assertTrue(increment.startsWith(";"));
+
+        Topology tp = new Topology();
+        tp.disableWireless();
+        Graph6Codec.decodeGraph(tp, Graph6Codec.encodeGraph(previous, false, true));
+        Graph6Codec.decodeGraph(tp, increment);
+        assertRoughlyEquals(next, tp);
+    }
     // endregion
 
     // region helper functions
@@ -153,6 +223,27 @@ class Graph6CodecTest {
         return tp_enc;
     }
 
+    /**
+     * Same as {@link #encodeDecode(Topology, boolean)} with Sparse6 format.
+     */
+    private Topology encodeDecodeSparse6(Topology tp_orig, boolean withHeader) {
+        String s6str = Graph6Codec.encodeGraph(tp_orig, withHeader, true);
+        assertEquals(withHeader, Graph6Codec.startsWithHeader(s6str));
+
+        Topology tp_enc = new Topology();
+        tp_enc.disableWireless();
+        Graph6Codec.decodeGraph(tp_enc, s6str);
+        assertRoughlyEquals(tp_orig, tp_enc);
+        assertEquals(s6str, Graph6Codec.encodeGraph(tp_enc, withHeader, true));
+
+        return tp_enc;
+    }
+
+    private void checkSparse6GraphByEdges(int[][] edges, boolean withHeader) {
+        Topology tp = buildTopologyFromEdges(edges, Orientation.UNDIRECTED);
+        encodeDecodeSparse6(tp, withHeader);
+    }
+
     /**
      * Check if the given topologies are more or less "equals".
      *
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2008 - 2020, Arnaud Casteigts and the JBotSim contributors <contact@jbotsim.io>
+ *
+ *
+ * This file is part of JBotSim.
+ *
+ * JBotSim is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JBotSim is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JBotSim.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ */
+package io.jbotsim.io.format.graph6;
+
+import io.jbotsim.core.Link;
+import io.jbotsim.core.Node;
+import io.jbotsim.core.Topology;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Graph6ReaderTest {
+    // graphs with 4 nodes and up to 3 links
+    private static final String[] GRAPHS = {
+            "C?", "C@", "CB", "CF", "CJ", "C`", "Cb", "Cf",
+    };
+
+    private static String input(int nbRepetitions) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < nbRepetitions; i++)
+            for (String graph : GRAPHS)
+                sb.append(graph).append('\n');
+        return sb.toString();
+    }
+
+    private static int nbLinks(String graph) {
+        Topology tp = new Topology();
+        tp.disableWireless();
+        Graph6Codec.decodeGraph(tp, graph);
+        return tp.getLinks().size();
+    }
+
+    @Test
+    void iterator_readsAllGraphs_reusingNodes() throws IOException {
+        try (Graph6Reader reader = new Graph6Reader(new StringReader(input(2) + ":Fa@x^\n"))) {
+            List<Node> firstNodes = null;
+            int i = 0;
+            for (Topology tp : reader) {
+                if (i < 2 * GRAPHS.length) {
+                    assertEquals(4, tp.getNodes().size());
+                    assertEquals(nbLinks(GRAPHS[i % GRAPHS.length]), tp.getLinks().size());
+                    if (firstNodes == null)
+                        firstNodes = tp.getNodes();
+                    assertEquals(firstNodes, tp.getNodes());
+                } else {
+                    assertEquals(7, tp.getNodes().size());
+                    assertEquals(4, tp.getLinks().size());
+                }
+                i++;
+            }
+            assertEquals(2 * GRAPHS.length + 1, i);
+            assertEquals(i, reader.getNbGraphsRead());
+        }
+    }
+
+    @Test
+    void readNext_incrementalSparse6_togglesPreviousGraph() throws IOException {
+        Topology previous = new Topology();
+        previous.disableWireless();
+        Graph6Codec.decodeGraph(previous, ":Fa@x^");
+        Topology next = new Topology();
+        next.disableWireless();
+        Graph6Codec.decodeGraph(next, ":Fa@x^");
+        next.removeLink(new Link(next.findNodeById(5), next.findNodeById(6)));
+        next.addLink(new Link(next.findNodeById(3), next.findNodeById(4)), true);
+        String increment = Graph6Codec.encodeIncrementalSparse6(previous, next);
+
+        Graph6Reader reader = new Graph6Reader(new StringReader(":Fa@x^\n" + increment + "\n"));
+        Topology tp = new Topology();
+        tp.disableWireless();
+        assertTrue(reader.readNext(tp));
+        assertTrue(reader.readNext(tp));
+        Graph6CodecTest.assertRoughlyEquals(next, tp);
+        assertFalse(reader.readNext(tp));
+    }
+
+    @Test
+    void dispatch_processesEachGraphOnce() throws IOException, InterruptedException {
+        int nbRepetitions = 1000;
+        AtomicLongArray nbLinksByGraph = new AtomicLongArray(nbRepetitions * GRAPHS.length);
+        Graph6Reader reader = new Graph6Reader(new StringReader(input(nbRepetitions)));
+
+        reader.dispatch(4, (tp, index) -> nbLinksByGraph.addAndGet((int) index, 1 + tp.getLinks().size()));
+
+        for (int i = 0; i < nbLinksByGraph.length(); i++)
+            assertEquals(1 + nbLinks(GRAPHS[i % GRAPHS.length]), nbLinksByGraph.get(i));
+    }
+
+    @Test
+    void dispatch_failingWorker_rethrows() {
+        Graph6Reader reader = new Graph6Reader(new StringReader(input(1000)));
+
+        assertThrows(IllegalStateException.class, () -> reader.dispatch(3, (tp, index) -> {
+            if (index == 500)
+                throw new IllegalStateException();
+        }));
+        assertThrows(Graph6Exception.class, () -> new Graph6Reader(new StringReader("C?\n>>wrong<<C?\n"))
+                .dispatch(2, (tp, index) -> { }));
+    }
+}
@@ -31,6 +31,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
@@ -92,6 +94,21 @@ class Graph6TopologySerializerTest {
 
         assertEquals(g6str_no_h, Graph6Codec.removeHeader(g6str_h));
     }
+
+    @ParameterizedTest
+    @MethodSource("ENCODED_GRAPHS_PARAMETERS")
+    void checkStreamedDecodeEncodeGraphs(String inputGraph) throws IOException {
+        Graph6TopologySerializer ts = new Graph6TopologySerializer();
+        Topology tp = new Topology();
+        tp.disableWireless();
+        ts.importFrom(tp, new StringReader(inputGraph + "\n"));
+
+        ts.setGenerateHeaders(Graph6Codec.startsWithHeader(inputGraph));
+        StringWriter out = new StringWriter();
+        ts.exportTo(tp, out);
+
+        assertEquals(inputGraph, out.toString());
+    }
     // endregion test functions
 
     // region helper functions
@@ -24,6 +24,7 @@ import io.jbotsim.core.Color;
 import io.jbotsim.core.Link;
 import io.jbotsim.core.Node;
 import io.jbotsim.core.Topology;
+import io.jbotsim.core.event.ConnectivityListener;
 import io.jbotsim.gen.basic.TopologyGenerators;
 import org.junit.Before;
 import org.junit.Test;
@@ -71,6 +72,56 @@ public class BuilderParserTest {
         assertEquals(t1, t2);
     }
 
+    @Test
+    public void streamBuilderParserTest() throws XMLTopologyParser.ParserException, XMLTopologyBuilder.BuilderException {
+        Topology T1 = maker.make();
+        String t1 = new XMLTopologyBuilder(T1).writeToString();
+
+        Topology T2 = new Topology();
+        XMLTopologyParser tpp = new XMLTopologyParser(T2, true);
+        tpp.parseFromString(new XMLTopologyStreamBuilder(T1).writeToString());
+
+        String t2 = new XMLTopologyBuilder(T2).writeToString();
+
+        assertEquals(t1, t2);
+    }
+
+    @Test
+    public void parserRestoresIdsAndNotifiesLinks()
+            throws XMLTopologyParser.ParserException, XMLTopologyBuilder.BuilderException {
+        Topology T1 = maker.make();
+        T1.removeNode(T1.getNodes().get(0));
+
+        Topology T2 = new Topology();
+        int[] nbAddedLinks = {0};
+        T2.addConnectivityListener(new ConnectivityListener() {
+            @Override
+            public void onLinkAdded(Link l) {
+                nbAddedLinks[0]++;
+            }
+
+            @Override
+            public void onLinkRemoved(Link l) {
+                nbAddedLinks[0]--;
+            }
+        });
+        new XMLTopologyParser(T2, true).parseFromString(new XMLTopologyStreamBuilder(T1).writeToString());
+
+        assertEquals(T1.getNodes().size(), T2.getNodes().size());
+        for (int i = 0; i < T1.getNodes().size(); i++)
+            assertEquals(T1.getNodes().get(i).getID(), T2.getNodes().get(i).getID());
+        assertEquals(T2.getLinks().size(), nbAddedLinks[0]);
+        T2.addNode(-1, -1);
+        assertEquals(T2.getNodes().size(), T2.getNodes().stream().mapToInt(Node::getID).distinct().count());
+    }
+
+    @Test
+    public void streamBuilderTest() throws XMLTopologyParser.ParserException, XMLTopologyBuilder.BuilderException {
+        Topology T1 = maker.make();
+
+        assertEquals(new XMLTopologyBuilder(T1).writeToString(), new XMLTopologyStreamBuilder(T1).writeToString());
+    }
+
     @Parameters(name="{index}: {0}")
     public static Collection<TopologyMaker> makers() {
         return Arrays.asList(
@@ -63,6 +63,15 @@ public class XMLParserTest {
         assertEquals(T.getLinks().size(), 1);
     }
 
+    @Test
+    public void twonodesFromDocument() throws XMLParser.ParserException, XMLIO.XMLIOException {
+        Topology T = new Topology();
+        InputStream is = XMLParserTest.class.getResourceAsStream(TEST_RC_ROOT + "twonodes.xml");
+        new XMLTopologyParser(T, true).parse(XMLIO.read(is));
+        assertEquals(T.getNodes().size(), 2);
+        assertEquals(T.getLinks().size(), 1);
+    }
+
     @Test
     public void noDefaultConstructorTest() {
         try {
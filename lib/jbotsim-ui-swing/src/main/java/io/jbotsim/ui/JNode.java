@@ -153,7 +153,9 @@ public class JNode extends JButton implements MouseListener, MouseMotionListener
         if (tp.hasProperty("refreshMode"))
             tp.setRefreshMode((Topology.RefreshMode) tp.getProperty("refreshMode"));
         if (destination != null) {
-            tp.addLink(new Link(node, destination, tp.getOrientation()));
+            // destination is shared by all JNodes: ignore it if it belongs to another topology
+            if (destination.getTopology() == tp)
+                tp.addLink(new Link(node, destination, tp.getOrientation()));
             destination = null;
         } else {
             if (e.getButton() == MouseEvent.BUTTON3)
@@ -26,6 +26,9 @@ import io.jbotsim.core.event.CommandListener;
 import io.jbotsim.core.event.PropertyListener;
 import io.jbotsim.io.TopologySerializer;
 import io.jbotsim.io.format.TopologySerializerFilenameMatcher;
+import io.jbotsim.io.format.binary.BinaryTopologySerializer;
+import io.jbotsim.io.format.dataset.EdgeListTopologySerializer;
+import io.jbotsim.io.format.dataset.MetisTopologySerializer;
 import io.jbotsim.io.format.dot.DotTopologySerializer;
 import io.jbotsim.io.format.graph6.Graph6TopologySerializer;
 import io.jbotsim.io.format.plain.PlainTopologySerializer;
@@ -36,6 +39,7 @@ import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import java.awt.*;
+import java.io.IOException;
 
 /**
  * <p>The {@link JViewer} includes a central {@link JTopology} which will draw the attached
@@ -230,8 +234,11 @@ public class JViewer implements CommandListener, ChangeListener, PropertyListene
         if (filename == null) return;
 
         TopologySerializer serializer = getTopologySerializerForFilename(filename, jtp.topo);
-        String exportedTopology = serializer.exportToString(jtp.topo);
-        jtp.topo.getFileManager().write(filename, exportedTopology);
+        try {
+            jtp.topo.getFileManager().exportTopology(filename, jtp.topo, serializer);
+        } catch (IOException e) {
+            showIOError(e);
+        }
     }
 
     private void executeLoadTopology() {
@@ -253,11 +260,18 @@ public class JViewer implements CommandListener, ChangeListener, PropertyListene
         }
 
         TopologySerializer serializer = getTopologySerializerForFilename(filename, jtp.topo);
-        String fileContent = jtp.topo.getFileManager().read(filename);
-        serializer.importFromString(jtp.topo, fileContent);
+        try {
+            jtp.topo.getFileManager().importTopology(filename, jtp.topo, serializer);
+        } catch (IOException e) {
+            showIOError(e);
+        }
         setSize(jtp.topo.getWidth(), jtp.topo.getHeight());
     }
 
+    private void showIOError(IOException e) {
+        JOptionPane.showMessageDialog(jtp.getParent(), e.getMessage(), "I/O error", JOptionPane.ERROR_MESSAGE);
+    }
+
     /**
      * Manages user interactions in order to retrieve a filename.
      *
@@ -303,6 +317,14 @@ public class JViewer implements CommandListener, ChangeListener, PropertyListene
         addTopologySerializer(".*\\.plain", new PlainTopologySerializer());
         topologySerializerFilenameMatcher.addTopologySerializer(Graph6TopologySerializer.GRAPH6_FILENAME_EXTENSIONS,
                 new Graph6TopologySerializer());
+        topologySerializerFilenameMatcher.addTopologySerializer(Graph6TopologySerializer.SPARSE6_FILENAME_EXTENSIONS,
+                new Graph6TopologySerializer(true));
+        topologySerializerFilenameMatcher.addTopologySerializer(BinaryTopologySerializer.BINARY_FILENAME_EXTENSIONS,
+                new BinaryTopologySerializer());
+        topologySerializerFilenameMatcher.addTopologySerializer(EdgeListTopologySerializer.EDGELIST_FILENAME_EXTENSIONS,
+                new EdgeListTopologySerializer());
+        topologySerializerFilenameMatcher.addTopologySerializer(MetisTopologySerializer.METIS_FILENAME_EXTENSIONS,
+                new MetisTopologySerializer());
     }
 
     /**